@@ -96,16 +96,15 @@ public class CssBatchReader {
       // Read the WF Disc waveform.
       int[] intWaveform = this.waveformReader.readWaveform(wdr, this.wfdiscFile);
 
-      // Convert from int array to double array.
-      double[] dblWaveform = Arrays.stream(intWaveform).mapToDouble(x -> x).toArray();
-
+      // Keep the int counts; the Waveform converts them to doubles when they are read.
       SortedSet<Waveform> wfs = new TreeSet<>();
-      wfs.add(Waveform.create(
+      wfs.add(Waveform.createFromCounts(
           wdr.getTime(),
           wdr.getEndtime(),
           wdr.getSamprate(),
           (long) wdr.getNsamp(),
-          dblWaveform));
+          intWaveform,
+          1.0));
 
       // Add the channel segment.
       String site = wdr.getSta(), chan = wdr.getChan();
@@ -0,0 +1,122 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+/**
+ * In-place iterative radix-2 complex FFT of a fixed power of two size.  The twiddle factors and
+ * bit reversal permutation are computed once when the Fft is created so the same Fft can transform
+ * many blocks.  An Fft is immutable and may be shared between threads.
+ */
+class Fft {
+
+  private final int size;
+
+  // cos and sin of -2*pi*k/size for k in [0, size/2)
+  private final double[] cos;
+  private final double[] sin;
+
+  // bitReversed[i] is i with its log2(size) bits reversed
+  private final int[] bitReversed;
+
+  private Fft(int size) {
+    this.size = size;
+
+    this.cos = new double[size / 2];
+    this.sin = new double[size / 2];
+    for (int k = 0; k < size / 2; ++k) {
+      final double angle = -2.0 * Math.PI * k / size;
+      this.cos[k] = Math.cos(angle);
+      this.sin[k] = Math.sin(angle);
+    }
+
+    final int bits = Integer.numberOfTrailingZeros(size);
+    this.bitReversed = new int[size];
+    for (int i = 0; i < size; ++i) {
+      this.bitReversed[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (Integer.SIZE - bits);
+    }
+  }
+
+  /**
+   * Obtains an {@link Fft} transforming arrays of the provided size
+   *
+   * @param size transform size, a positive power of two
+   * @return Fft, not null
+   * @throws IllegalArgumentException if size is not a positive power of two
+   */
+  static Fft create(int size) {
+    if (size < 1 || Integer.bitCount(size) != 1) {
+      throw new IllegalArgumentException("FFT size must be a positive power of two");
+    }
+
+    return new Fft(size);
+  }
+
+  /**
+   * Obtains the number of points in this transform
+   *
+   * @return transform size
+   */
+  int getSize() {
+    return size;
+  }
+
+  /**
+   * Replaces (re, im) with its discrete Fourier transform
+   *
+   * @param re real parts, length equal to {@link Fft#getSize()}, not null
+   * @param im imaginary parts, length equal to {@link Fft#getSize()}, not null
+   */
+  void forward(double[] re, double[] im) {
+    transform(re, im, 1.0);
+  }
+
+  /**
+   * Replaces (re, im) with its unscaled inverse discrete Fourier transform.  The result is
+   * {@link Fft#getSize()} times the inverse transform.
+   *
+   * @param re real parts, length equal to {@link Fft#getSize()}, not null
+   * @param im imaginary parts, length equal to {@link Fft#getSize()}, not null
+   */
+  void inverseUnscaled(double[] re, double[] im) {
+    transform(re, im, -1.0);
+  }
+
+  /**
+   * Iterative decimation in time FFT.  direction is 1.0 for the forward transform and -1.0 for the
+   * inverse transform (the sign of the twiddle factor's imaginary part).
+   */
+  private void transform(double[] re, double[] im, double direction) {
+    for (int i = 0; i < size; ++i) {
+      final int j = bitReversed[i];
+      if (j > i) {
+        final double tr = re[i];
+        re[i] = re[j];
+        re[j] = tr;
+
+        final double ti = im[i];
+        im[i] = im[j];
+        im[j] = ti;
+      }
+    }
+
+    for (int half = 1; half < size; half *= 2) {
+      final int twiddleStride = size / (2 * half);
+
+      for (int start = 0; start < size; start += 2 * half) {
+        for (int k = 0; k < half; ++k) {
+          final double wr = cos[k * twiddleStride];
+          final double wi = direction * sin[k * twiddleStride];
+
+          final int even = start + k;
+          final int odd = even + half;
+
+          final double tr = wr * re[odd] - wi * im[odd];
+          final double ti = wr * im[odd] + wi * re[odd];
+
+          re[odd] = re[even] - tr;
+          im[odd] = im[even] - ti;
+          re[even] = re[even] + tr;
+          im[even] = im[even] + ti;
+        }
+      }
+    }
+  }
+}
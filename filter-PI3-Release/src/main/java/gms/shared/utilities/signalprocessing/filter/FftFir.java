@@ -0,0 +1,192 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+import java.util.Objects;
+
+/**
+ * Implements FIR filtering using overlap-save FFT convolution.  Produces the same output as
+ * {@link Fir#filter(double[], double[])} to within floating point rounding, but costs
+ * O(log(N)) operations per output sample rather than O(N) for an N coefficient filter.
+ *
+ * The transformed bCoefficients are computed once when the FftFir is created so a single FftFir
+ * should be reused for every input filtered with the same bCoefficients.  An FftFir is immutable
+ * and may be shared between threads.
+ */
+public class FftFir {
+
+  /**
+   * Filters with fewer coefficients than this are always faster to apply with {@link Fir}
+   */
+  static final int MIN_FFT_COEFFICIENTS = 48;
+
+  /**
+   * Approximate cost of one FFT stage per point, including the spectrum multiply and block copies,
+   * relative to one direct form multiply and add.  Used to decide whether FFT convolution is faster
+   * than direct convolution.  Measured with FirBenchmarkTests.
+   */
+  private static final double FFT_COST_FACTOR = 4.0;
+
+  /**
+   * Largest FFT size considered when choosing the block size
+   */
+  private static final int MAX_FFT_SIZE = 1 << 16;
+
+  private final int numCoefficients;
+  private final Fft fft;
+
+  // Number of new output samples computed from each FFT block
+  private final int blockLength;
+
+  // Transformed bCoefficients scaled by 1/fftSize to normalize the inverse transform
+  private final double[] spectrumRe;
+  private final double[] spectrumIm;
+
+  private FftFir(int numCoefficients, Fft fft, double[] spectrumRe, double[] spectrumIm) {
+    this.numCoefficients = numCoefficients;
+    this.fft = fft;
+    this.blockLength = fft.getSize() - numCoefficients + 1;
+    this.spectrumRe = spectrumRe;
+    this.spectrumIm = spectrumIm;
+  }
+
+  /**
+   * Obtains an {@link FftFir} applying the FIR filter defined by the bCoefficients.  The FFT size
+   * minimizes the per sample cost of filtering long inputs.
+   *
+   * @param bCoefficients bCoefficients, not null
+   * @return FftFir, not null
+   * @throws NullPointerException if bCoefficients is null
+   * @throws IllegalArgumentException if bCoefficients is empty
+   */
+  public static FftFir create(double[] bCoefficients) {
+    Objects.requireNonNull(bCoefficients, "FFT FIR filtering requires non-null bCoefficients");
+
+    if (bCoefficients.length == 0) {
+      throw new IllegalArgumentException("FFT FIR filtering requires non-empty bCoefficients");
+    }
+
+    final Fft fft = Fft.create(fftSize(bCoefficients.length));
+    final int size = fft.getSize();
+
+    final double[] spectrumRe = new double[size];
+    final double[] spectrumIm = new double[size];
+    for (int i = 0; i < bCoefficients.length; ++i) {
+      spectrumRe[i] = bCoefficients[i] / size;
+    }
+    fft.forward(spectrumRe, spectrumIm);
+
+    return new FftFir(bCoefficients.length, fft, spectrumRe, spectrumIm);
+  }
+
+  /**
+   * Determines whether filtering an input with inputLength samples is expected to be faster with
+   * this FftFir than with {@link Fir#filter(double[], double[])}
+   *
+   * @param inputLength number of input samples
+   * @return true if FFT convolution is expected to be faster, false otherwise
+   */
+  public boolean isFasterThanDirect(int inputLength) {
+    if (numCoefficients < MIN_FFT_COEFFICIENTS) {
+      return false;
+    }
+
+    // Two blocks are processed per forward and inverse transform pair
+    final int size = fft.getSize();
+    final long numTransforms = (inputLength + 2L * blockLength - 1) / (2L * blockLength);
+    final double fftCost = FFT_COST_FACTOR * numTransforms * 2.0 * size
+        * Integer.numberOfTrailingZeros(size);
+    final double directCost = (double) inputLength * numCoefficients;
+
+    return fftCost < directCost;
+  }
+
+  /**
+   * Applies the FIR filter to the input:
+   * output[n] = sum{k=0 to N-1}[bCoefficients(k) * input(n-k)]
+   * where N = length(bCoefficients) and input(n) = 0 for n < 0
+   *
+   * @param input input, not null
+   * @return output, not null
+   * @throws NullPointerException if input is null
+   */
+  public double[] filter(double[] input) {
+    Objects.requireNonNull(input, "FFT FIR filtering requires non-null input signal");
+
+    final int size = fft.getSize();
+    final int history = numCoefficients - 1;
+
+    final double[] output = new double[input.length];
+    final double[] re = new double[size];
+    final double[] im = new double[size];
+
+    // Overlap-save: each block holds the history samples preceding its first output sample
+    // followed by blockLength new samples.  The first history outputs of the block's circular
+    // convolution wrap around and are discarded.  The bCoefficients are real, so two real
+    // blocks are transformed at once as the real and imaginary parts of one complex block.
+    for (int start = 0; start < input.length; start += 2 * blockLength) {
+      final int second = start + blockLength;
+
+      fillBlock(input, start - history, re);
+      fillBlock(input, second - history, im);
+
+      fft.forward(re, im);
+      for (int k = 0; k < size; ++k) {
+        final double r = re[k] * spectrumRe[k] - im[k] * spectrumIm[k];
+        final double i = re[k] * spectrumIm[k] + im[k] * spectrumRe[k];
+        re[k] = r;
+        im[k] = i;
+      }
+      fft.inverseUnscaled(re, im);
+
+      copyValid(re, output, start);
+      copyValid(im, output, second);
+    }
+
+    return output;
+  }
+
+  /**
+   * Fills the block with input samples beginning at offset, using zero for samples before the
+   * start or after the end of the input
+   */
+  private static void fillBlock(double[] input, int offset, double[] block) {
+    for (int i = 0; i < block.length; ++i) {
+      final int n = offset + i;
+      block[i] = (n >= 0 && n < input.length) ? input[n] : 0.0;
+    }
+  }
+
+  /**
+   * Copies the non-aliased samples from the block's circular convolution into the output
+   * beginning at outputStart
+   */
+  private void copyValid(double[] block, double[] output, int outputStart) {
+    final int count = Math.min(blockLength, output.length - outputStart);
+    if (count > 0) {
+      System.arraycopy(block, numCoefficients - 1, output, outputStart, count);
+    }
+  }
+
+  /**
+   * Obtains the power of two FFT size minimizing the cost per output sample of overlap-save
+   * filtering with numCoefficients coefficients
+   */
+  private static int fftSize(int numCoefficients) {
+    int size = Integer.highestOneBit(Math.max(1, 2 * numCoefficients - 1));
+    if (size < 2 * numCoefficients - 1) {
+      size = size * 2;
+    }
+
+    int bestSize = size;
+    double bestCost = Double.MAX_VALUE;
+    for (; size <= Math.max(MAX_FFT_SIZE, bestSize); size *= 2) {
+      final double cost = (double) size * Integer.numberOfTrailingZeros(size)
+          / (size - numCoefficients + 1);
+      if (cost < bestCost) {
+        bestCost = cost;
+        bestSize = size;
+      }
+    }
+
+    return bestSize;
+  }
+}
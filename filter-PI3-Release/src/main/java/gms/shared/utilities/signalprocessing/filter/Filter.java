@@ -1,28 +1,55 @@
 package gms.shared.utilities.signalprocessing.filter;
 
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterCausality;
 import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterDefinition;
 import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterType;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
-import java.util.Collection;
-import java.util.List;
+import java.util.Collections;
 import java.util.Objects;
-import java.util.function.Function;
 
 /**
  * Utility operations to filter {@link Waveform}s
  */
 public class Filter {
 
+  /**
+   * Maximum number of FilterDefinitions with a cached {@link FftFir}
+   */
+  static final int FFT_FIR_CACHE_CAPACITY = 64;
+
+  /**
+   * {@link FftFir}s for recently applied FIR {@link FilterDefinition}s, so the transformed
+   * bCoefficients are only computed once while a FilterDefinition is in use
+   */
+  private static final LruCache<FilterDefinition, FftFir> fftFirs =
+      LruCache.create(FFT_FIR_CACHE_CAPACITY);
+
+  /**
+   * Maximum number of FilterDefinitions with cached {@link SecondOrderSections}
+   */
+  static final int IIR_SECTIONS_CACHE_CAPACITY = 64;
+
+  /**
+   * {@link SecondOrderSections} for recently applied IIR {@link FilterDefinition}s, so each
+   * FilterDefinition's transfer function is only factored once while it is in use
+   */
+  private static final LruCache<FilterDefinition, SecondOrderSections> iirSections =
+      LruCache.create(IIR_SECTIONS_CACHE_CAPACITY);
+
   /**
    * Filters a {@link Waveform} using a {@link FilterDefinition}.  Only applies the filter if the
    * {@link Waveform#getSampleRate()} is in the inclusive range of {@link
    * FilterDefinition#getSampleRate()} +/- {@link FilterDefinition#getSampleRateTolerance()}
    *
+   * IIR filters with {@link FilterDefinition#isZeroPhase()} are applied forward and backward in
+   * time, which requires a {@link FilterCausality#NON_CAUSAL} FilterDefinition.
+   *
    * @param waveform Waveform to filter, not null
    * @param filterDefinition FilterDefinition to apply, not null
    * @return filtered Waveform, not null
    * @throws NullPointerException if waveform or filterDefinition are null
-   * @throws IllegalArgumentException if filterDefinition is not an FIR filter
+   * @throws IllegalArgumentException if filterDefinition is a zero phase IIR filter with {@link
+   * FilterCausality#CAUSAL} causality
    * @throws IllegalArgumentException if waveform sampleRate is not within tolerance of the filter's
    * sampleRate
    */
@@ -31,25 +58,178 @@ public class Filter {
     Objects.requireNonNull(waveform, "Filter requires non-null waveform");
     Objects.requireNonNull(filterDefinition, "Filter requires non-null filterDefinition");
 
-    // Determine filter type - currently only support FIR
-    final Collection<FilterType> firFilters = List.of(FilterType.FIR_HAMMING);
-    if (!firFilters.contains(filterDefinition.getFilterType())) {
-      throw new IllegalArgumentException("Only FIR filtering implemented");
-    }
+    assertFilterable(filterDefinition);
 
     // Verify filter sample rate matches waveform sample rate
     assertSampleRateWithinTolerance(waveform, filterDefinition);
 
-    // Create a new waveform with the same metadata but different samples than the input waveform
-    final Function<double[], Waveform> createWaveform = s -> Waveform
-        .create(waveform.getStartTime(), waveform.getEndTime(), waveform.getSampleRate(),
-            waveform.getSampleCount(), s);
+    // A FilterBank reads the samples in blocks with Waveform.copyValues when the filter allows
+    return FilterBank.create(Collections.singletonList(filterDefinition)).filter(waveform)
+        .get(filterDefinition);
+  }
+
+  /**
+   * Filters a {@link Waveform} using a {@link FilterDefinition} while changing its sample rate by
+   * the rational factor upFactor / downFactor.  The filter is applied at the upsampled rate
+   * ({@link Waveform#getSampleRate()} * upFactor), which must be within tolerance of the
+   * FilterDefinition's sample rate, and should remove frequencies above the Nyquist frequency of
+   * the output sample rate.  When upFactor is greater than 1 the filter needs a pass band gain of
+   * upFactor to preserve the input amplitude.
+   *
+   * FIR filters use a {@link PolyphaseResampler} so only the retained outputs are computed.  IIR
+   * filters compute every output at the upsampled rate and keep every downFactor-th output.  With
+   * both factors equal to 1 the samples match {@link Filter#filter(Waveform, FilterDefinition)}.
+   *
+   * The resampled Waveform starts at the input Waveform's start time.
+   *
+   * @param waveform Waveform to filter, not null
+   * @param filterDefinition FilterDefinition to apply, not null
+   * @param upFactor interpolation factor, must be > 0
+   * @param downFactor decimation factor, must be > 0
+   * @return filtered Waveform with sample rate {@link Waveform#getSampleRate()} * upFactor /
+   * downFactor, not null
+   * @throws NullPointerException if waveform or filterDefinition are null
+   * @throws IllegalArgumentException if upFactor or downFactor are not positive; if
+   * filterDefinition is a zero phase IIR filter with {@link FilterCausality#CAUSAL} causality; if
+   * the upsampled rate is not within tolerance of the filter's sampleRate
+   */
+  public static Waveform resample(Waveform waveform, FilterDefinition filterDefinition,
+      int upFactor, int downFactor) {
+
+    Objects.requireNonNull(waveform, "Filter requires non-null waveform");
+    Objects.requireNonNull(filterDefinition, "Filter requires non-null filterDefinition");
+
+    if (upFactor <= 0 || downFactor <= 0) {
+      throw new IllegalArgumentException(
+          "Filter resampling requires positive upFactor and downFactor");
+    }
+
+    assertFilterable(filterDefinition);
+    assertSampleRateWithinTolerance(waveform.getSampleRate() * upFactor, filterDefinition);
+
+    final double[] output;
+    if (FilterType.FIR_HAMMING == filterDefinition.getFilterType()) {
+      output = PolyphaseResampler.create(filterDefinition.getBCoefficients(), upFactor, downFactor)
+          .resample(waveform.getValues());
+    } else {
+      final double[] filtered = iir(upsample(waveform.getValues(), upFactor), filterDefinition);
+      output = new double[(filtered.length + downFactor - 1) / downFactor];
+      for (int m = 0; m < output.length; ++m) {
+        output[m] = filtered[m * downFactor];
+      }
+    }
+
+    return Waveform.withInferredEndTime(waveform.getStartTime(),
+        waveform.getSampleRate() * upFactor / downFactor, output.length, output);
+  }
+
+  /**
+   * Inserts upFactor - 1 zeros after every input sample
+   *
+   * @param input input samples, not null
+   * @param upFactor interpolation factor, must be > 0
+   * @return upsampled samples, not null
+   */
+  private static double[] upsample(double[] input, int upFactor) {
+    if (upFactor == 1) {
+      return input;
+    }
+
+    final double[] upsampled = new double[Math.multiplyExact(input.length, upFactor)];
+    for (int i = 0; i < input.length; ++i) {
+      upsampled[i * upFactor] = input[i];
+    }
+    return upsampled;
+  }
+
+  /**
+   * Verifies the {@link FilterDefinition} can be applied by {@link Filter#filter(Waveform,
+   * FilterDefinition)}
+   *
+   * @param filterDefinition FilterDefinition, not null
+   * @throws IllegalArgumentException if filterDefinition is not an FIR or IIR filter, or is a zero
+   * phase IIR filter with {@link FilterCausality#CAUSAL} causality
+   */
+  static void assertFilterable(FilterDefinition filterDefinition) {
+    if (FilterType.IIR_BUTTERWORTH == filterDefinition.getFilterType()) {
+      if (filterDefinition.isZeroPhase()
+          && FilterCausality.CAUSAL == filterDefinition.getFilterCausality()) {
+        throw new IllegalArgumentException(
+            "Zero phase IIR filtering requires a non-causal FilterDefinition");
+      }
+    } else if (FilterType.FIR_HAMMING != filterDefinition.getFilterType()) {
+      throw new IllegalArgumentException(
+          "Filtering not implemented for " + filterDefinition.getFilterType());
+    }
+  }
+
+  /**
+   * Applies the FIR {@link FilterDefinition} to the input using whichever of direct form or FFT
+   * convolution is expected to be faster for the input length and number of bCoefficients
+   *
+   * @param input input samples, not null
+   * @param filterDefinition FIR FilterDefinition, not null
+   * @return filtered samples, not null
+   */
+  static double[] fir(double[] input, FilterDefinition filterDefinition) {
+    if (filterDefinition.getBCoefficients().length >= FftFir.MIN_FFT_COEFFICIENTS) {
+      final FftFir fftFir = fftFir(filterDefinition);
+      if (fftFir.isFasterThanDirect(input.length)) {
+        return fftFir.filter(input);
+      }
+    }
 
-    // Apply an FIR filter to the input waveform
-    final Function<Waveform, double[]> fir = w -> Fir
-        .filter(w.getValues(), filterDefinition.getBCoefficients());
+    return Fir.filter(input, filterDefinition.getBCoefficients());
+  }
 
-    return createWaveform.apply(fir.apply(waveform));
+  /**
+   * Determines whether {@link Filter#fir(double[], FilterDefinition)} applies the FIR {@link
+   * FilterDefinition} to an input with inputLength samples using FFT convolution.  Creates the
+   * FilterDefinition's cached {@link FftFir} when FFT convolution is used.
+   *
+   * @param filterDefinition FIR FilterDefinition, not null
+   * @param inputLength number of input samples
+   * @return true if FFT convolution is used, false if direct form convolution is used
+   */
+  static boolean usesFftConvolution(FilterDefinition filterDefinition, int inputLength) {
+    return filterDefinition.getBCoefficients().length >= FftFir.MIN_FFT_COEFFICIENTS
+        && fftFir(filterDefinition).isFasterThanDirect(inputLength);
+  }
+
+  /**
+   * Obtains the cached {@link FftFir} for the FIR {@link FilterDefinition}
+   *
+   * @param filterDefinition FIR FilterDefinition, not null
+   * @return FftFir, not null
+   */
+  private static FftFir fftFir(FilterDefinition filterDefinition) {
+    return fftFirs.computeIfAbsent(filterDefinition, f -> FftFir.create(f.getBCoefficients()));
+  }
+
+  /**
+   * Applies the IIR {@link FilterDefinition} to the input as a cascade of second order sections.
+   * Zero phase FilterDefinitions are applied forward and backward in time.
+   *
+   * @param input input samples, not null
+   * @param filterDefinition IIR FilterDefinition, not null
+   * @return filtered samples, not null
+   */
+  static double[] iir(double[] input, FilterDefinition filterDefinition) {
+    final SecondOrderSections sections = secondOrderSections(filterDefinition);
+
+    return filterDefinition.isZeroPhase() ? sections.filterZeroPhase(input)
+        : sections.filter(input);
+  }
+
+  /**
+   * Obtains the cached {@link SecondOrderSections} for the IIR {@link FilterDefinition}
+   *
+   * @param filterDefinition IIR FilterDefinition, not null
+   * @return SecondOrderSections, not null
+   */
+  static SecondOrderSections secondOrderSections(FilterDefinition filterDefinition) {
+    return iirSections.computeIfAbsent(filterDefinition,
+        f -> SecondOrderSections.fromTransferFunction(f.getACoefficients(), f.getBCoefficients()));
   }
 
   /**
@@ -61,14 +241,45 @@ public class Filter {
    * @throws IllegalArgumentException if waveform sampleRate is not within tolerance of the filter's
    * sampleRate
    */
-  private static void assertSampleRateWithinTolerance(Waveform waveform, FilterDefinition filter) {
-    final double minSampleRate = filter.getSampleRate() - filter.getSampleRateTolerance();
-    final double maxSampleRate = filter.getSampleRate() + filter.getSampleRateTolerance();
+  static void assertSampleRateWithinTolerance(Waveform waveform, FilterDefinition filter) {
+    assertSampleRateWithinTolerance(waveform.getSampleRate(), filter);
+  }
 
-    if (waveform.getSampleRate() < minSampleRate || waveform.getSampleRate() > maxSampleRate) {
+  /**
+   * Determines if the sampleRate is in the inclusive range of {@link
+   * FilterDefinition#getSampleRate()} +/- {@link FilterDefinition#getSampleRateTolerance()}
+   *
+   * @param sampleRate sample rate the filter is applied at
+   * @param filter {@link FilterDefinition}, not null
+   * @throws IllegalArgumentException if sampleRate is not within tolerance of the filter's
+   * sampleRate
+   */
+  private static void assertSampleRateWithinTolerance(double sampleRate,
+      FilterDefinition filter) {
+    if (!isSampleRateWithinTolerance(sampleRate, filter)) {
       throw new IllegalArgumentException(
-          "Filter requires input waveform with sampleRate in [" + minSampleRate + ", "
-              + maxSampleRate + "]");
+          "Filter requires input waveform with sampleRate in ["
+              + (filter.getSampleRate() - filter.getSampleRateTolerance()) + ", "
+              + (filter.getSampleRate() + filter.getSampleRateTolerance()) + "]");
     }
   }
+
+  /**
+   * Determines if the {@link Waveform#getSampleRate()} is in the inclusive range of {@link
+   * FilterDefinition#getSampleRate()} +/- {@link FilterDefinition#getSampleRateTolerance()}
+   *
+   * @param waveform {@link Waveform}, not null
+   * @param filter {@link FilterDefinition}, not null
+   * @return true if the waveform sampleRate is within tolerance of the filter's sampleRate
+   */
+  static boolean isSampleRateWithinTolerance(Waveform waveform, FilterDefinition filter) {
+    return isSampleRateWithinTolerance(waveform.getSampleRate(), filter);
+  }
+
+  private static boolean isSampleRateWithinTolerance(double sampleRate, FilterDefinition filter) {
+    final double minSampleRate = filter.getSampleRate() - filter.getSampleRateTolerance();
+    final double maxSampleRate = filter.getSampleRate() + filter.getSampleRateTolerance();
+
+    return sampleRate >= minSampleRate && sampleRate <= maxSampleRate;
+  }
 }
@@ -0,0 +1,192 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterDefinition;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterType;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Applies several {@link FilterDefinition}s to a {@link Waveform} in one pass.  The Waveform's
+ * samples are read once and traversed in blocks short enough to remain in cache while every
+ * direct form FIR and causal IIR FilterDefinition is applied to the block.  FIR filters using FFT
+ * convolution and zero phase IIR filters already process the input in large blocks or need the
+ * whole input, so they are applied to the whole Waveform.
+ *
+ * When only direct form FIR and causal IIR FilterDefinitions apply, the samples are copied from
+ * the Waveform a block at a time with {@link Waveform#copyValues(int, double[], int, int)} rather
+ * than obtained with {@link Waveform#getValues()}, so a Waveform stored as counts or outside of
+ * the Java heap is never copied into a whole array of input samples.
+ *
+ * Each filtered Waveform is identical to the Waveform produced by {@link Filter#filter(Waveform,
+ * FilterDefinition)} for the same FilterDefinition.
+ */
+public class FilterBank {
+
+  /**
+   * Number of samples filtered by every FilterDefinition before moving on to the next block.  Each
+   * block of input and output samples occupies 32 KB.
+   */
+  static final int BLOCK_LENGTH = 2048;
+
+  private final List<FilterDefinition> filterDefinitions;
+
+  private FilterBank(List<FilterDefinition> filterDefinitions) {
+    this.filterDefinitions = filterDefinitions;
+  }
+
+  /**
+   * Obtains a {@link FilterBank} applying each of the distinct {@link FilterDefinition}s
+   *
+   * @param filterDefinitions FilterDefinitions to apply, not null
+   * @return FilterBank, not null
+   * @throws NullPointerException if filterDefinitions is null or contains a null FilterDefinition
+   * @throws IllegalArgumentException if any FilterDefinition is not an FIR or IIR filter, or is a
+   * zero phase IIR filter with causal causality
+   */
+  public static FilterBank create(Collection<FilterDefinition> filterDefinitions) {
+    Objects.requireNonNull(filterDefinitions, "FilterBank requires non-null filterDefinitions");
+
+    for (FilterDefinition filterDefinition : filterDefinitions) {
+      Objects.requireNonNull(filterDefinition, "FilterBank requires non-null filterDefinitions");
+      Filter.assertFilterable(filterDefinition);
+    }
+
+    return new FilterBank(new ArrayList<>(new LinkedHashSet<>(filterDefinitions)));
+  }
+
+  /**
+   * Obtains the distinct {@link FilterDefinition}s applied by this {@link FilterBank}
+   *
+   * @return FilterDefinitions, not null
+   */
+  public List<FilterDefinition> getFilterDefinitions() {
+    return Collections.unmodifiableList(filterDefinitions);
+  }
+
+  /**
+   * Filters the {@link Waveform} with each {@link FilterDefinition} having a sample rate
+   * tolerance that includes the Waveform's sample rate (see {@link Filter#filter(Waveform,
+   * FilterDefinition)}).  FilterDefinitions not applicable to the Waveform's sample rate are
+   * omitted from the result.
+   *
+   * @param waveform Waveform to filter, not null
+   * @return map from FilterDefinition to filtered Waveform, in the order the FilterDefinitions
+   * were provided, not null
+   * @throws NullPointerException if waveform is null
+   */
+  public Map<FilterDefinition, Waveform> filter(Waveform waveform) {
+    Objects.requireNonNull(waveform, "FilterBank requires non-null waveform");
+
+    final int length = waveform.getValuesLength();
+
+    final List<FilterDefinition> applicable = new ArrayList<>();
+    boolean needsWholeInput = false;
+    int history = 0;
+    for (FilterDefinition filterDefinition : filterDefinitions) {
+      if (!Filter.isSampleRateWithinTolerance(waveform, filterDefinition)) {
+        continue;
+      }
+
+      applicable.add(filterDefinition);
+      if (FilterType.FIR_HAMMING == filterDefinition.getFilterType()) {
+        needsWholeInput |= Filter.usesFftConvolution(filterDefinition, length);
+        history = Math.max(history, filterDefinition.getBCoefficients().length - 1);
+      } else {
+        needsWholeInput |= filterDefinition.isZeroPhase();
+      }
+    }
+
+    final double[] input = needsWholeInput ? waveform.getValues() : null;
+
+    final Map<FilterDefinition, double[]> outputs = new LinkedHashMap<>();
+    final List<BlockFilter> blockFilters = new ArrayList<>();
+    for (FilterDefinition filterDefinition : applicable) {
+      if (FilterType.FIR_HAMMING == filterDefinition.getFilterType()) {
+        if (needsWholeInput && Filter.usesFftConvolution(filterDefinition, length)) {
+          outputs.put(filterDefinition, Filter.fir(input, filterDefinition));
+        } else {
+          final double[] output = new double[length];
+          outputs.put(filterDefinition, output);
+          blockFilters.add(firBlockFilter(filterDefinition.getBCoefficients(), output));
+        }
+      } else if (filterDefinition.isZeroPhase()) {
+        outputs.put(filterDefinition, Filter.iir(input, filterDefinition));
+      } else {
+        final double[] output = new double[length];
+        outputs.put(filterDefinition, output);
+        blockFilters.add(iirBlockFilter(Filter.secondOrderSections(filterDefinition), output));
+      }
+    }
+
+    if (needsWholeInput) {
+      for (int from = 0; from < length; from += BLOCK_LENGTH) {
+        final int to = Math.min(length, from + BLOCK_LENGTH);
+        for (BlockFilter blockFilter : blockFilters) {
+          blockFilter.filter(input, from, to, from);
+        }
+      }
+    } else if (!blockFilters.isEmpty()) {
+      // block[0, history) holds the history samples preceding the block, which are zero before the
+      // start of the Waveform, and the block's samples follow them
+      final double[] block = new double[history + BLOCK_LENGTH];
+      for (int from = 0; from < length; from += BLOCK_LENGTH) {
+        final int count = Math.min(length - from, BLOCK_LENGTH);
+        if (from > 0) {
+          System.arraycopy(block, BLOCK_LENGTH, block, 0, history);
+        }
+        waveform.copyValues(from, block, history, count);
+
+        for (BlockFilter blockFilter : blockFilters) {
+          blockFilter.filter(block, history, history + count, from);
+        }
+      }
+    }
+
+    final Map<FilterDefinition, Waveform> filtered = new LinkedHashMap<>();
+    outputs.forEach((filterDefinition, output) -> filtered.put(filterDefinition, Waveform
+        .create(waveform.getStartTime(), waveform.getEndTime(), waveform.getSampleRate(),
+            waveform.getSampleCount(), output)));
+
+    return filtered;
+  }
+
+  /**
+   * Obtains a {@link BlockFilter} computing direct form FIR outputs into the output array
+   */
+  private static BlockFilter firBlockFilter(double[] bCoefficients, double[] output) {
+    return (input, from, to, outputFrom) -> Fir
+        .filter(input, bCoefficients, output, outputFrom, from, to);
+  }
+
+  /**
+   * Obtains a {@link BlockFilter} computing IIR outputs into the output array.  The filter state
+   * is carried from each block to the next.
+   */
+  private static BlockFilter iirBlockFilter(SecondOrderSections sections, double[] output) {
+    final double[] state = sections.initialState();
+    return (input, from, to, outputFrom) -> {
+      final int outputTo = outputFrom + to - from;
+      System.arraycopy(input, from, output, outputFrom, to - from);
+      sections.filterInPlace(output, outputFrom, outputTo, state);
+    };
+  }
+
+  /**
+   * Computes one FilterDefinition's outputs for a block of input samples, input[from] through
+   * input[to - 1], into the outputs beginning at outputFrom.  Blocks are processed consecutively
+   * from the start of the input and each block is preceded in input by at least the previous
+   * bCoefficients.length - 1 samples.
+   */
+  @FunctionalInterface
+  private interface BlockFilter {
+
+    void filter(double[] input, int from, int to, int outputFrom);
+  }
+}
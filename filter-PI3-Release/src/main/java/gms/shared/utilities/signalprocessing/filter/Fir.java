@@ -30,49 +30,94 @@ public class Fir {
       throw new IllegalArgumentException("FIR filtering requires non-empty bCoefficients");
     }
 
-    // Delay contains the relevant input samples in reverse order, i.e.
-    // delay[0] = x[n-0], delay[1] = x[n-1], ..., delay[N-1] = x[n - (N-1)]
+    // Delay contains the relevant input samples in reverse order starting at position p, i.e.
+    // delay[p+0] = x[n-0], delay[p+1] = x[n-1], ..., delay[p+N-1] = x[n - (N-1)]
     // Therefore, the convolution becomes a pairwise multiply and add operation, i.e.
     // output[n] = sum{k=0 to N-1}[bCoefficients(k) * input(n-k)]
-    //           = sum{k=0 to N-1}[bCoefficients(k) * delay(k)]
-    double[] delay = new double[bCoefficients.length];
+    //           = sum{k=0 to N-1}[bCoefficients(k) * delay(p+k)]
+    //
+    // Rather than shifting the delay line for each input sample, p moves one element to the left
+    // (wrapping around from 0 to N-1) and the new sample is written at both delay[p] and
+    // delay[p+N].  The doubled delay line always contains the N most recent samples contiguously
+    // from delay[p] so the inner loop has no wrap-around and sums terms in the same order as the
+    // definition above.
+    final int length = bCoefficients.length;
+    double[] delay = new double[2 * length];
     Arrays.fill(delay, 0.0);
 
     double[] output = new double[input.length];
+    int p = 0;
     for (int n = 0; n < input.length; ++n) {
-      shiftRight(delay);
-      delay[0] = input[n];
-      output[n] = pairwiseMultiplyAndSum(bCoefficients, delay);
+      p = (p == 0) ? length - 1 : p - 1;
+      delay[p] = input[n];
+      delay[p + length] = input[n];
+      output[n] = pairwiseMultiplyAndSum(bCoefficients, delay, p);
     }
 
     return output;
   }
 
   /**
-   * Assuming a and b are of equal length and non-null, compute the sum of the pairwise
-   * multiplication of each element from a and b, i.e.
-   *  sum{n=0, N-1}[a(n) * b(n)]  where N = length of a and b
+   * Computes output[from] through output[to - 1] of the FIR filter defined by the bCoefficients
+   * directly from the input:
+   * output[n] = sum{k=0 to N-1}[bCoefficients(k) * input(n-k)]
+   * where N = length(bCoefficients) and input(n) = 0 for n < 0.  Terms are summed in the same order
+   * as {@link Fir#filter(double[], double[])} so the outputs are identical.  No state is carried
+   * between calls since every input sample is available, which lets the output be computed in
+   * blocks of any length.
+   *
+   * @param input input, not null
+   * @param bCoefficients non-empty bCoefficients, not null
+   * @param output array receiving the outputs, at least input.length long, not null
+   * @param from index of the first output to compute
+   * @param to index after the last output to compute
+   */
+  static void filter(double[] input, double[] bCoefficients, double[] output, int from, int to) {
+    filter(input, bCoefficients, output, from, from, to);
+  }
+
+  /**
+   * Computes the outputs for input[from] through input[to - 1] as in {@link Fir#filter(double[],
+   * double[], double[], int, int)} but writes them to output[outputFrom] onward, so the input may
+   * be a block of a longer signal preceded by its bCoefficients.length - 1 previous samples.
+   *
+   * @param input input, not null
+   * @param bCoefficients non-empty bCoefficients, not null
+   * @param output array receiving the outputs, not null
+   * @param outputFrom index in output of the output for input[from]
+   * @param from index of the first output to compute
+   * @param to index after the last output to compute
+   */
+  static void filter(double[] input, double[] bCoefficients, double[] output, int outputFrom,
+      int from, int to) {
+
+    for (int n = from; n < to; ++n) {
+      final int terms = Math.min(bCoefficients.length, n + 1);
+
+      double sum = 0.0;
+      for (int k = 0; k < terms; ++k) {
+        sum += bCoefficients[k] * input[n - k];
+      }
+      output[outputFrom + n - from] = sum;
+    }
+  }
+
+  /**
+   * Assuming a is non-null and b contains at least a.length elements starting at bOffset, compute
+   * the sum of the pairwise multiplication of each element from a and the corresponding element
+   * from b, i.e.
+   *  sum{n=0, N-1}[a(n) * b(bOffset + n)]  where N = length of a
    *  @param a double array, not null
    *  @param b double array, not null
+   *  @param bOffset index of the element of b multiplied with a[0]
    *  @return double containing the sum of pairwise multiplying a and b
    */
-  private static double pairwiseMultiplyAndSum(double[] a, double[] b) {
+  private static double pairwiseMultiplyAndSum(double[] a, double[] b, int bOffset) {
     double sum = 0.0;
     for (int k = 0; k < a.length; ++k) {
-      sum += a[k] * b[k];
+      sum += a[k] * b[bOffset + k];
     }
 
     return sum;
   }
-
-  /**
-   * Assuming a is not null, shift all of the elements of a to the right by one element.  Does not
-   * change a[0]
-   * @param a array to shift, not null
-   */
-  private static void shiftRight(double[] a) {
-    for (int i = a.length - 1; i > 0; i--) {
-      a[i] = a[i - 1];
-    }
-  }
 }
@@ -0,0 +1,53 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+import java.util.Objects;
+
+/**
+ * Implements IIR filtering.  Filters are evaluated as a cascade of second order sections.
+ */
+public class Iir {
+
+  /**
+   * Applies the IIR filter defined by the aCoefficients and bCoefficients to the input:
+   * sum{k=0 to N-1}[aCoefficients(k) * output(n-k)] = sum{k=0 to M-1}[bCoefficients(k) * input(n-k)]
+   * where N = length(aCoefficients) and M = length(bCoefficients)
+   *
+   * The output begins from a zero filter state.
+   *
+   * @param input input, not null
+   * @param aCoefficients aCoefficients (feedback coefficients), not null
+   * @param bCoefficients bCoefficients (feedforward coefficients), not null
+   * @return output, not null
+   * @throws NullPointerException if input, aCoefficients, or bCoefficients are null
+   * @throws IllegalArgumentException if bCoefficients is empty or if aCoefficients is empty or
+   * begins with 0.0
+   */
+  public static double[] filter(double[] input, double[] aCoefficients, double[] bCoefficients) {
+    Objects.requireNonNull(input, "IIR filtering requires non-null input signal");
+
+    return SecondOrderSections.fromTransferFunction(aCoefficients, bCoefficients).filter(input);
+  }
+
+  /**
+   * Applies the IIR filter defined by the aCoefficients and bCoefficients to the input forward and
+   * then backward in time.  The output has no phase distortion and the squared magnitude response
+   * of the filter.  This is a non-causal operation since each output sample depends on later input
+   * samples.
+   *
+   * @param input input, not null
+   * @param aCoefficients aCoefficients (feedback coefficients), not null
+   * @param bCoefficients bCoefficients (feedforward coefficients), not null
+   * @return output, not null
+   * @throws NullPointerException if input, aCoefficients, or bCoefficients are null
+   * @throws IllegalArgumentException if bCoefficients is empty or if aCoefficients is empty or
+   * begins with 0.0
+   */
+  public static double[] filterZeroPhase(double[] input, double[] aCoefficients,
+      double[] bCoefficients) {
+
+    Objects.requireNonNull(input, "IIR filtering requires non-null input signal");
+
+    return SecondOrderSections.fromTransferFunction(aCoefficients, bCoefficients)
+        .filterZeroPhase(input);
+  }
+}
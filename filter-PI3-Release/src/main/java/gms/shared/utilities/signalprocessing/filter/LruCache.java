@@ -0,0 +1,88 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Thread safe cache holding at most capacity values.  When a new value would exceed the capacity
+ * the least recently used value is evicted.  Used to hold filters prepared from {@link
+ * gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterDefinition}s
+ * without retaining every FilterDefinition ever applied.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+class LruCache<K, V> {
+
+  private final Map<K, V> values;
+
+  private LruCache(int capacity) {
+    // Access ordered LinkedHashMap iterates from the least to the most recently used entry
+    this.values = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  /**
+   * Obtains a new empty {@link LruCache} holding at most capacity values
+   *
+   * @param capacity maximum number of values, > 0
+   * @param <K> key type
+   * @param <V> value type
+   * @return LruCache, not null
+   * @throws IllegalArgumentException if capacity is not positive
+   */
+  static <K, V> LruCache<K, V> create(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("LruCache requires a positive capacity");
+    }
+
+    return new LruCache<>(capacity);
+  }
+
+  /**
+   * Obtains the value for the key, using create to compute and cache it if the key is not cached.
+   * The value is computed outside of the cache's lock, so concurrent callers may compute the same
+   * value but all receive the value that was cached first.
+   *
+   * @param key key, not null
+   * @param create computes the value for a key, not null
+   * @return cached value, not null
+   * @throws NullPointerException if key or create are null
+   */
+  V computeIfAbsent(K key, Function<K, V> create) {
+    Objects.requireNonNull(key, "LruCache requires a non-null key");
+    Objects.requireNonNull(create, "LruCache requires a non-null create function");
+
+    synchronized (values) {
+      final V cached = values.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
+    final V created = Objects.requireNonNull(create.apply(key),
+        "LruCache create function cannot return null");
+
+    synchronized (values) {
+      final V cached = values.putIfAbsent(key, created);
+      return cached != null ? cached : created;
+    }
+  }
+
+  /**
+   * Obtains the number of cached values
+   *
+   * @return number of cached values, in [0, capacity]
+   */
+  int size() {
+    synchronized (values) {
+      return values.size();
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+import java.util.Arrays;
+
+/**
+ * Finds the complex roots of polynomials with real coefficients using the Aberth-Ehrlich
+ * simultaneous iteration.  Roots are returned as parallel arrays of real and imaginary parts.
+ */
+class PolynomialRoots {
+
+  private static final int MAX_ITERATIONS = 500;
+
+  private static final double CONVERGENCE_TOLERANCE = 1.0e-15;
+
+  private final double[] re;
+  private final double[] im;
+
+  private PolynomialRoots(double[] re, double[] im) {
+    this.re = re;
+    this.im = im;
+  }
+
+  /**
+   * Obtains the roots of the polynomial c[0] + c[1]*x + c[2]*x^2 + ... + c[n]*x^n
+   *
+   * @param c polynomial coefficients in ascending powers with c[n] != 0, not null
+   * @return PolynomialRoots containing n roots, not null
+   * @throws IllegalArgumentException if the highest power coefficient is zero
+   */
+  static PolynomialRoots of(double[] c) {
+    final int n = c.length - 1;
+    if (n < 0 || c[n] == 0.0) {
+      throw new IllegalArgumentException("Polynomial root finding requires a non-zero leading "
+          + "coefficient");
+    }
+
+    final double[] re = new double[n];
+    final double[] im = new double[n];
+    if (n == 0) {
+      return new PolynomialRoots(re, im);
+    }
+
+    // Initial guesses spread around a circle bounding the roots (Cauchy bound), offset from the
+    // real axis so conjugate roots can separate
+    double bound = 0.0;
+    for (int k = 0; k < n; ++k) {
+      bound = Math.max(bound, Math.abs(c[k] / c[n]));
+    }
+    final double radius = Math.min(1.0 + bound, 1.0e6);
+    for (int k = 0; k < n; ++k) {
+      final double angle = 2.0 * Math.PI * k / n + 0.4;
+      re[k] = radius * Math.cos(angle);
+      im[k] = radius * Math.sin(angle);
+    }
+
+    for (int iteration = 0; iteration < MAX_ITERATIONS; ++iteration) {
+      double maxCorrection = 0.0;
+
+      for (int k = 0; k < n; ++k) {
+        // Newton correction p(x)/p'(x) via Horner's method
+        double pr = c[n];
+        double pi = 0.0;
+        double dr = 0.0;
+        double di = 0.0;
+        for (int j = n - 1; j >= 0; --j) {
+          final double ndr = dr * re[k] - di * im[k] + pr;
+          final double ndi = dr * im[k] + di * re[k] + pi;
+          dr = ndr;
+          di = ndi;
+
+          final double npr = pr * re[k] - pi * im[k] + c[j];
+          final double npi = pr * im[k] + pi * re[k];
+          pr = npr;
+          pi = npi;
+        }
+
+        if (pr == 0.0 && pi == 0.0) {
+          continue;
+        }
+
+        // ratio = p / p'
+        final double dMag = dr * dr + di * di;
+        final double ratioRe = (pr * dr + pi * di) / dMag;
+        final double ratioIm = (pi * dr - pr * di) / dMag;
+
+        // sum = sum{j != k}[1 / (x_k - x_j)]
+        double sumRe = 0.0;
+        double sumIm = 0.0;
+        for (int j = 0; j < n; ++j) {
+          if (j != k) {
+            final double diffRe = re[k] - re[j];
+            final double diffIm = im[k] - im[j];
+            final double diffMag = diffRe * diffRe + diffIm * diffIm;
+            sumRe += diffRe / diffMag;
+            sumIm -= diffIm / diffMag;
+          }
+        }
+
+        // correction = ratio / (1 - ratio * sum)
+        final double denRe = 1.0 - (ratioRe * sumRe - ratioIm * sumIm);
+        final double denIm = -(ratioRe * sumIm + ratioIm * sumRe);
+        final double denMag = denRe * denRe + denIm * denIm;
+        final double corrRe = (ratioRe * denRe + ratioIm * denIm) / denMag;
+        final double corrIm = (ratioIm * denRe - ratioRe * denIm) / denMag;
+
+        re[k] -= corrRe;
+        im[k] -= corrIm;
+
+        final double scale = Math.max(1.0, Math.hypot(re[k], im[k]));
+        maxCorrection = Math.max(maxCorrection, Math.hypot(corrRe, corrIm) / scale);
+      }
+
+      if (maxCorrection < CONVERGENCE_TOLERANCE) {
+        break;
+      }
+    }
+
+    return new PolynomialRoots(re, im);
+  }
+
+  /**
+   * Obtains the number of roots
+   *
+   * @return number of roots
+   */
+  int size() {
+    return re.length;
+  }
+
+  /**
+   * Obtains the real parts of the roots
+   *
+   * @return real parts, not null
+   */
+  double[] getRe() {
+    return Arrays.copyOf(re, re.length);
+  }
+
+  /**
+   * Obtains the imaginary parts of the roots
+   *
+   * @return imaginary parts, not null
+   */
+  double[] getIm() {
+    return Arrays.copyOf(im, im.length);
+  }
+}
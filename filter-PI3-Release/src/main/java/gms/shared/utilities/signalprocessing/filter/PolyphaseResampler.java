@@ -0,0 +1,147 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+import java.util.Objects;
+
+/**
+ * Changes the sample rate of an input by the rational factor upFactor / downFactor using an FIR
+ * filter.  Conceptually the input is upsampled by inserting upFactor - 1 zeros after every sample,
+ * filtered by the FIR filter at the upsampled rate, and then downsampled by keeping every
+ * downFactor-th output.
+ *
+ * The bCoefficients are split into upFactor polyphase components so only the retained outputs are
+ * computed and the inserted zeros are never multiplied.  Each retained output costs about
+ * bCoefficients.length / upFactor multiply and adds, so decimating by M costs 1 / M of filtering
+ * every input sample.
+ *
+ * With an upFactor of 1 each output equals the corresponding output of {@link
+ * Fir#filter(double[], double[])}, i.e. output[m] = firOutput[m * downFactor].  When upFactor is
+ * greater than 1 the bCoefficients are applied at the upsampled rate and need a pass band gain of
+ * upFactor to preserve the input amplitude.
+ */
+public class PolyphaseResampler {
+
+  private final int upFactor;
+  private final int downFactor;
+
+  // phases[p][j] = bCoefficients[p + j * upFactor]
+  private final double[][] phases;
+
+  private PolyphaseResampler(int upFactor, int downFactor, double[][] phases) {
+    this.upFactor = upFactor;
+    this.downFactor = downFactor;
+    this.phases = phases;
+  }
+
+  /**
+   * Obtains a {@link PolyphaseResampler} changing the sample rate by upFactor / downFactor.  The
+   * factors are reduced by their greatest common divisor.
+   *
+   * @param bCoefficients FIR filter coefficients at the upsampled rate, not null
+   * @param upFactor interpolation factor, must be > 0
+   * @param downFactor decimation factor, must be > 0
+   * @return PolyphaseResampler, not null
+   * @throws NullPointerException if bCoefficients is null
+   * @throws IllegalArgumentException if bCoefficients is empty; if upFactor or downFactor are not
+   * positive
+   */
+  public static PolyphaseResampler create(double[] bCoefficients, int upFactor, int downFactor) {
+    Objects.requireNonNull(bCoefficients,
+        "PolyphaseResampler requires non-null bCoefficients");
+
+    if (bCoefficients.length == 0) {
+      throw new IllegalArgumentException("FIR filtering requires non-empty bCoefficients");
+    }
+
+    if (upFactor <= 0 || downFactor <= 0) {
+      throw new IllegalArgumentException(
+          "PolyphaseResampler requires positive upFactor and downFactor");
+    }
+
+    final int divisor = greatestCommonDivisor(upFactor, downFactor);
+    final int up = upFactor / divisor;
+    final int down = downFactor / divisor;
+
+    final double[][] phases = new double[up][];
+    for (int p = 0; p < up; ++p) {
+      final double[] phase = new double[(bCoefficients.length - p + up - 1) / up];
+      for (int j = 0; j < phase.length; ++j) {
+        phase[j] = bCoefficients[p + j * up];
+      }
+      phases[p] = phase;
+    }
+
+    return new PolyphaseResampler(up, down, phases);
+  }
+
+  /**
+   * Obtains the interpolation factor after reducing the factors by their greatest common divisor
+   *
+   * @return interpolation factor
+   */
+  public int getUpFactor() {
+    return upFactor;
+  }
+
+  /**
+   * Obtains the decimation factor after reducing the factors by their greatest common divisor
+   *
+   * @return decimation factor
+   */
+  public int getDownFactor() {
+    return downFactor;
+  }
+
+  /**
+   * Obtains the number of outputs produced from inputLength input samples: the number of multiples
+   * of downFactor less than inputLength * upFactor
+   *
+   * @param inputLength number of input samples, must be >= 0
+   * @return number of output samples
+   * @throws ArithmeticException if the output length does not fit in an int
+   */
+  public int outputLength(int inputLength) {
+    final long upsampledLength = (long) inputLength * upFactor;
+    return Math.toIntExact((upsampledLength + downFactor - 1) / downFactor);
+  }
+
+  /**
+   * Resamples the input.  Input samples preceding the start of the input are zero.  Output sample
+   * m occurs at the time of upsampled sample m * downFactor, so the first output occurs at the time
+   * of the first input.
+   *
+   * @param input input samples, not null
+   * @return resampled output with {@link PolyphaseResampler#outputLength(int)} samples, not null
+   * @throws NullPointerException if input is null
+   */
+  public double[] resample(double[] input) {
+    Objects.requireNonNull(input, "PolyphaseResampler requires non-null input");
+
+    final double[] output = new double[outputLength(input.length)];
+    for (int m = 0; m < output.length; ++m) {
+      // Upsampled index n = m * downFactor is input sample n / upFactor when n is a multiple of
+      // upFactor.  Only bCoefficients[p + j * upFactor] meet non-zero upsampled inputs, and those
+      // inputs are input[i - j].  Terms are summed in increasing coefficient order, as in Fir.
+      final long n = (long) m * downFactor;
+      final double[] phase = phases[(int) (n % upFactor)];
+      final int i = (int) (n / upFactor);
+      final int terms = Math.min(phase.length, i + 1);
+
+      double sum = 0.0;
+      for (int j = 0; j < terms; ++j) {
+        sum += phase[j] * input[i - j];
+      }
+      output[m] = sum;
+    }
+
+    return output;
+  }
+
+  private static int greatestCommonDivisor(int a, int b) {
+    while (b != 0) {
+      final int remainder = a % b;
+      a = b;
+      b = remainder;
+    }
+    return a;
+  }
+}
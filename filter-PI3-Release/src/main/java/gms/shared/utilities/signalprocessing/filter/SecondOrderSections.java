@@ -0,0 +1,518 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An IIR filter factored into a cascade of second order sections (biquads).  Each section
+ * implements
+ *
+ * H_s(z) = (b0 + b1*z^-1 + b2*z^-2) / (1 + a1*z^-1 + a2*z^-2)
+ *
+ * and is evaluated in transposed direct form II.  Evaluating a high order filter as a cascade of
+ * biquads is far less sensitive to coefficient rounding than evaluating its transfer function
+ * polynomials directly.  A SecondOrderSections is immutable and may be shared between threads.
+ */
+class SecondOrderSections {
+
+  // Coefficients of section s are at index s of each array
+  private final double[] b0;
+  private final double[] b1;
+  private final double[] b2;
+  private final double[] a1;
+  private final double[] a2;
+
+  private SecondOrderSections(List<double[]> sections) {
+    final int numSections = sections.size();
+    this.b0 = new double[numSections];
+    this.b1 = new double[numSections];
+    this.b2 = new double[numSections];
+    this.a1 = new double[numSections];
+    this.a2 = new double[numSections];
+
+    for (int s = 0; s < numSections; ++s) {
+      final double[] section = sections.get(s);
+      this.b0[s] = section[0];
+      this.b1[s] = section[1];
+      this.b2[s] = section[2];
+      this.a1[s] = section[3];
+      this.a2[s] = section[4];
+    }
+  }
+
+  /**
+   * Obtains the {@link SecondOrderSections} for the IIR filter with transfer function
+   *
+   * H(z) = (b[0] + b[1]*z^-1 + ... + b[M]*z^-M) / (a[0] + a[1]*z^-1 + ... + a[N]*z^-N)
+   *
+   * The numerator and denominator are factored into first and second order polynomials with real
+   * coefficients.  Each pole pair is grouped with its nearest zero pair and sections are ordered
+   * so the poles nearest the unit circle are applied last.
+   *
+   * @param aCoefficients feedback coefficients, not null, aCoefficients[0] != 0
+   * @param bCoefficients feedforward coefficients, not null and not empty
+   * @return SecondOrderSections, not null
+   * @throws NullPointerException if aCoefficients or bCoefficients are null
+   * @throws IllegalArgumentException if bCoefficients is empty, aCoefficients is empty, or
+   * aCoefficients[0] is zero
+   */
+  static SecondOrderSections fromTransferFunction(double[] aCoefficients,
+      double[] bCoefficients) {
+
+    Objects.requireNonNull(aCoefficients, "IIR filtering requires non-null aCoefficients");
+    Objects.requireNonNull(bCoefficients, "IIR filtering requires non-null bCoefficients");
+
+    if (bCoefficients.length == 0) {
+      throw new IllegalArgumentException("IIR filtering requires non-empty bCoefficients");
+    }
+
+    if (aCoefficients.length == 0 || aCoefficients[0] == 0.0) {
+      throw new IllegalArgumentException("IIR filtering requires a non-zero aCoefficients[0]");
+    }
+
+    // Both polynomials are factored as polynomials in w = z^-1 with coefficients in ascending
+    // powers of w.  Normalizing by a[0] makes every denominator root non-zero.
+    final double[] b = trimHighestPowerZeros(scale(bCoefficients, 1.0 / aCoefficients[0]));
+    final double[] a = trimHighestPowerZeros(scale(aCoefficients, 1.0 / aCoefficients[0]));
+
+    final List<double[]> sections = new ArrayList<>();
+    if (b.length == 1 && b[0] == 0.0) {
+      sections.add(new double[]{0.0, 0.0, 0.0, 0.0, 0.0});
+      return new SecondOrderSections(sections);
+    }
+
+    final List<Factor> zeros = factorNumerator(b);
+    final List<Factor> poles = factor(a);
+
+    // A(w) = a[N] * prod{p}[p(w)]; normalize each pole factor so its constant term is 1
+    double gain = b[b.length - 1] / a[a.length - 1];
+    for (Factor p : poles) {
+      gain /= p.c[0];
+      p.c = scale(p.c, 1.0 / p.c[0]);
+    }
+
+    // Pair the poles nearest the unit circle with their nearest zeros first
+    poles.sort(Comparator.comparingDouble(Factor::distanceToUnitCircle));
+    final List<double[]> paired = new ArrayList<>();
+    for (Factor p : poles) {
+      Factor nearest = null;
+      for (Factor z : zeros) {
+        if (nearest == null || z.distanceTo(p) < nearest.distanceTo(p)) {
+          nearest = z;
+        }
+      }
+
+      final double[] num = nearest == null ? new double[]{1.0, 0.0, 0.0} : nearest.c;
+      zeros.remove(nearest);
+      paired.add(0, new double[]{num[0], num[1], num[2], p.c[1], p.c[2]});
+    }
+
+    // Remaining zeros become sections without poles and are applied first
+    for (Factor z : zeros) {
+      sections.add(new double[]{z.c[0], z.c[1], z.c[2], 0.0, 0.0});
+    }
+    sections.addAll(paired);
+
+    if (sections.isEmpty()) {
+      sections.add(new double[]{1.0, 0.0, 0.0, 0.0, 0.0});
+    }
+
+    final double[] first = sections.get(0);
+    first[0] *= gain;
+    first[1] *= gain;
+    first[2] *= gain;
+
+    return new SecondOrderSections(sections);
+  }
+
+  /**
+   * Obtains the number of second order sections
+   *
+   * @return number of sections, > 0
+   */
+  int getNumSections() {
+    return b0.length;
+  }
+
+  /**
+   * Creates the zeroed filter state used by {@link SecondOrderSections#filterInPlace(double[],
+   * double[])}
+   *
+   * @return filter state, not null
+   */
+  double[] initialState() {
+    return new double[2 * getNumSections()];
+  }
+
+  /**
+   * Applies the filter to the input starting from a zero state
+   *
+   * @param input input samples, not null
+   * @return filtered samples, not null
+   */
+  double[] filter(double[] input) {
+    final double[] output = input.clone();
+    filterInPlace(output, initialState());
+    return output;
+  }
+
+  /**
+   * Applies the filter to the data in place, beginning from and updating the provided state.
+   * Filtering consecutive blocks with the same state produces the same output as filtering the
+   * concatenated blocks.
+   *
+   * @param data samples to filter, replaced by the filtered samples, not null
+   * @param state filter state created by {@link SecondOrderSections#initialState()}, not null
+   */
+  void filterInPlace(double[] data, double[] state) {
+    filterInPlace(data, 0, data.length, state);
+  }
+
+  /**
+   * Applies the filter in place to data[from] through data[to - 1], beginning from and updating
+   * the provided state.  Each section is applied to the whole range before the next section, so
+   * ranges short enough to stay in cache are read from memory once.
+   *
+   * @param data samples to filter, the range is replaced by the filtered samples, not null
+   * @param from index of the first sample to filter
+   * @param to index after the last sample to filter
+   * @param state filter state created by {@link SecondOrderSections#initialState()}, not null
+   */
+  void filterInPlace(double[] data, int from, int to, double[] state) {
+    for (int s = 0; s < b0.length; ++s) {
+      final double sb0 = b0[s];
+      final double sb1 = b1[s];
+      final double sb2 = b2[s];
+      final double sa1 = a1[s];
+      final double sa2 = a2[s];
+
+      double z1 = state[2 * s];
+      double z2 = state[2 * s + 1];
+      for (int n = from; n < to; ++n) {
+        final double x = data[n];
+        final double y = sb0 * x + z1;
+        z1 = sb1 * x - sa1 * y + z2;
+        z2 = sb2 * x - sa2 * y;
+        data[n] = y;
+      }
+
+      state[2 * s] = z1;
+      state[2 * s + 1] = z2;
+    }
+  }
+
+  /**
+   * Applies the filter forward and then backward in time, producing an output with zero phase
+   * distortion and the squared magnitude response of this filter.  The input is extended at each
+   * end by an odd reflection and each pass starts from the steady state for the first sample it
+   * processes, which minimizes the start up transients at the ends of the output.
+   *
+   * @param input input samples, not null
+   * @return filtered samples, not null
+   */
+  double[] filterZeroPhase(double[] input) {
+    if (input.length == 0) {
+      return new double[0];
+    }
+
+    final int padLength = Math.min(3 * (2 * getNumSections() + 1), input.length - 1);
+    final int extendedLength = input.length + 2 * padLength;
+
+    final double[] extended = new double[extendedLength];
+    for (int i = 0; i < padLength; ++i) {
+      extended[i] = 2.0 * input[0] - input[padLength - i];
+      extended[extendedLength - 1 - i] = 2.0 * input[input.length - 1]
+          - input[input.length - 1 - padLength + i];
+    }
+    System.arraycopy(input, 0, extended, padLength, input.length);
+
+    final double[] stepState = stepResponseState();
+
+    filterInPlace(extended, scale(stepState, extended[0]));
+    reverse(extended);
+    filterInPlace(extended, scale(stepState, extended[0]));
+    reverse(extended);
+
+    final double[] output = new double[input.length];
+    System.arraycopy(extended, padLength, output, 0, input.length);
+    return output;
+  }
+
+  /**
+   * Obtains the filter state after an infinitely long unit step input, i.e. the state at which a
+   * constant input produces a constant output
+   *
+   * @return filter state, not null
+   */
+  private double[] stepResponseState() {
+    final double[] state = initialState();
+
+    // Level of the constant input to the current section
+    double level = 1.0;
+    for (int s = 0; s < b0.length; ++s) {
+      final double denominator = 1.0 + a1[s] + a2[s];
+      if (Math.abs(denominator) < Double.MIN_NORMAL) {
+        break;
+      }
+
+      final double dcGain = (b0[s] + b1[s] + b2[s]) / denominator;
+      final double out = dcGain * level;
+      state[2 * s + 1] = b2[s] * level - a2[s] * out;
+      state[2 * s] = b1[s] * level - a1[s] * out + state[2 * s + 1];
+      level = out;
+    }
+
+    return state;
+  }
+
+  /**
+   * Factors the numerator polynomial b[0] + b[1]*w + ... + b[M]*w^M into monic linear and
+   * quadratic polynomials with real coefficients.  Butterworth numerators only have zeros at
+   * w = 1 and w = -1, or for band stop filters a conjugate pair on the unit circle, each repeated
+   * up to the filter order.  Simultaneous root finding resolves a k-fold root only to about
+   * (machine precision)^(1/k), so these repeated zeros are removed exactly by polynomial division
+   * before finding any remaining roots.
+   *
+   * @param b polynomial coefficients in ascending powers, b[M] != 0
+   * @return factors, not null
+   */
+  private static List<Factor> factorNumerator(double[] b) {
+    double[] c = b;
+
+    int numPlusOne = 0;
+    while (c.length > 1 && isRoot(c, 1.0)) {
+      c = divideByLinear(c, 1.0);
+      numPlusOne++;
+    }
+
+    int numMinusOne = 0;
+    while (c.length > 1 && isRoot(c, -1.0)) {
+      c = divideByLinear(c, -1.0);
+      numMinusOne++;
+    }
+
+    final List<Factor> factors = new ArrayList<>();
+    for (; numPlusOne >= 2; numPlusOne -= 2) {
+      factors.add(new Factor(new double[]{1.0, -2.0, 1.0}, 1.0, 0.0));
+    }
+    for (; numMinusOne >= 2; numMinusOne -= 2) {
+      factors.add(new Factor(new double[]{1.0, 2.0, 1.0}, -1.0, 0.0));
+    }
+    if (numPlusOne == 1 && numMinusOne == 1) {
+      factors.add(new Factor(new double[]{-1.0, 0.0, 1.0}, 0.0, 0.0));
+    } else if (numPlusOne == 1) {
+      factors.add(new Factor(new double[]{-1.0, 1.0, 0.0}, 1.0, 0.0));
+    } else if (numMinusOne == 1) {
+      factors.add(new Factor(new double[]{1.0, 1.0, 0.0}, -1.0, 0.0));
+    }
+
+    final double[] repeated = repeatedUnitCircleQuadratic(c);
+    if (repeated != null) {
+      final double rootRe = -repeated[1] / 2.0;
+      final double rootIm = Math.sqrt(Math.max(0.0, 1.0 - rootRe * rootRe));
+      for (int i = 0; i < (c.length - 1) / 2; ++i) {
+        factors.add(new Factor(repeated.clone(), rootRe, rootIm));
+      }
+    } else {
+      factors.addAll(factor(c));
+    }
+
+    return factors;
+  }
+
+  /**
+   * Factors the real polynomial c[0] + c[1]*w + ... + c[n]*w^n into monic linear and quadratic
+   * polynomials with real coefficients.  Complex roots are combined with their conjugates and the
+   * remaining real roots are combined in pairs of nearest value.
+   *
+   * @param c polynomial coefficients in ascending powers, c[n] != 0
+   * @return factors, not null
+   */
+  private static List<Factor> factor(double[] c) {
+    final PolynomialRoots roots = PolynomialRoots.of(c);
+    final double[] re = roots.getRe();
+    final double[] im = roots.getIm();
+
+    // Sort root indices by decreasing imaginary part so the i-th root from the top is the
+    // conjugate of the i-th root from the bottom
+    final Integer[] order = new Integer[roots.size()];
+    for (int i = 0; i < order.length; ++i) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (i, j) -> Double.compare(im[j], im[i]));
+
+    final List<Factor> factors = new ArrayList<>();
+    int top = 0;
+    int bottom = order.length - 1;
+    while (top < bottom && isComplex(re[order[top]], im[order[top]])
+        && isComplex(re[order[bottom]], im[order[bottom]])) {
+
+      // Average the pair so the factor (w - r)(w - conj(r)) = |r|^2 - 2*Re(r)*w + w^2 is real
+      final double rootRe = (re[order[top]] + re[order[bottom]]) / 2.0;
+      final double rootIm = (im[order[top]] - im[order[bottom]]) / 2.0;
+      factors.add(new Factor(new double[]{rootRe * rootRe + rootIm * rootIm, -2.0 * rootRe, 1.0},
+          rootRe, rootIm));
+
+      top++;
+      bottom--;
+    }
+
+    final List<Double> realRoots = new ArrayList<>();
+    for (int i = top; i <= bottom; ++i) {
+      realRoots.add(re[order[i]]);
+    }
+
+    realRoots.sort(Double::compare);
+    for (int i = 0; i + 1 < realRoots.size(); i += 2) {
+      final double r1 = realRoots.get(i);
+      final double r2 = realRoots.get(i + 1);
+      factors.add(new Factor(new double[]{r1 * r2, -(r1 + r2), 1.0}, (r1 + r2) / 2.0, 0.0));
+    }
+
+    if (realRoots.size() % 2 == 1) {
+      final double r = realRoots.get(realRoots.size() - 1);
+      factors.add(new Factor(new double[]{-r, 1.0, 0.0}, r, 0.0));
+    }
+
+    return factors;
+  }
+
+  private static boolean isComplex(double re, double im) {
+    return Math.abs(im) > 1.0e-7 * Math.max(1.0, Math.hypot(re, im));
+  }
+
+  /**
+   * Determines whether r is a root of the polynomial c[0] + c[1]*w + ... + c[n]*w^n to within
+   * rounding error
+   */
+  private static boolean isRoot(double[] c, double r) {
+    double value = 0.0;
+    double magnitude = 0.0;
+    double power = 1.0;
+    for (double coefficient : c) {
+      value += coefficient * power;
+      magnitude += Math.abs(coefficient * power);
+      power *= r;
+    }
+
+    return Math.abs(value) <= 1.0e-9 * magnitude;
+  }
+
+  /**
+   * Divides the polynomial c[0] + c[1]*w + ... + c[n]*w^n by (w - r), discarding the remainder
+   */
+  private static double[] divideByLinear(double[] c, double r) {
+    final int n = c.length - 1;
+    final double[] quotient = new double[n];
+
+    double carry = c[n];
+    for (int i = n - 1; i >= 0; --i) {
+      quotient[i] = carry;
+      carry = c[i] + carry * r;
+    }
+
+    return quotient;
+  }
+
+  /**
+   * Determines whether the polynomial c[0] + c[1]*w + ... + c[2m]*w^(2m) with m >= 2 equals
+   * c[2m] * (1 + q*w + w^2)^m for some real q with |q| < 2, i.e. a conjugate pair of roots on the
+   * unit circle repeated m times.
+   *
+   * @return the quadratic coefficients {1, q, 1} or null if c does not have this form
+   */
+  private static double[] repeatedUnitCircleQuadratic(double[] c) {
+    final int degree = c.length - 1;
+    if (degree < 4 || degree % 2 != 0) {
+      return null;
+    }
+
+    // The w^1 coefficient of (1 + q*w + w^2)^m is m*q
+    final int m = degree / 2;
+    final double lead = c[degree];
+    final double q = c[1] / (m * lead);
+    if (Math.abs(q) >= 2.0) {
+      return null;
+    }
+
+    final double[] quadratic = new double[]{1.0, q, 1.0};
+    double[] power = new double[]{lead};
+    for (int i = 0; i < m; ++i) {
+      power = multiply(power, quadratic);
+    }
+
+    double magnitude = 0.0;
+    double difference = 0.0;
+    for (int i = 0; i <= degree; ++i) {
+      magnitude += Math.abs(c[i]);
+      difference += Math.abs(c[i] - power[i]);
+    }
+
+    return difference <= 1.0e-9 * magnitude ? quadratic : null;
+  }
+
+  private static double[] multiply(double[] x, double[] y) {
+    final double[] product = new double[x.length + y.length - 1];
+    for (int i = 0; i < x.length; ++i) {
+      for (int j = 0; j < y.length; ++j) {
+        product[i + j] += x[i] * y[j];
+      }
+    }
+    return product;
+  }
+
+  private static double[] trimHighestPowerZeros(double[] c) {
+    int length = c.length;
+    while (length > 1 && c[length - 1] == 0.0) {
+      length--;
+    }
+
+    final double[] trimmed = new double[length];
+    System.arraycopy(c, 0, trimmed, 0, length);
+    return trimmed;
+  }
+
+  private static double[] scale(double[] c, double factor) {
+    final double[] scaled = new double[c.length];
+    for (int i = 0; i < c.length; ++i) {
+      scaled[i] = c[i] * factor;
+    }
+    return scaled;
+  }
+
+  private static void reverse(double[] data) {
+    for (int i = 0, j = data.length - 1; i < j; ++i, --j) {
+      final double temp = data[i];
+      data[i] = data[j];
+      data[j] = temp;
+    }
+  }
+
+  /**
+   * A linear or quadratic factor c[0] + c[1]*w + c[2]*w^2 along with a representative root used to
+   * pair poles with zeros
+   */
+  private static class Factor {
+
+    private double[] c;
+    private final double rootRe;
+    private final double rootIm;
+
+    private Factor(double[] c, double rootRe, double rootIm) {
+      this.c = c;
+      this.rootRe = rootRe;
+      this.rootIm = rootIm;
+    }
+
+    private double distanceTo(Factor other) {
+      return Math.hypot(rootRe - other.rootRe, rootIm - other.rootIm);
+    }
+
+    private double distanceToUnitCircle() {
+      return Math.abs(1.0 - Math.hypot(rootRe, rootIm));
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterDefinition;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterType;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Applies a causal {@link FilterDefinition} to consecutive blocks of a continuous input.  The
+ * filter state (the FIR input history or the IIR second order section state) is carried from one
+ * block to the next, so filtering consecutive blocks produces the same output as filtering the
+ * concatenated blocks with {@link Filter#filter} (to within floating point rounding for FIR
+ * filters long enough to use FFT convolution).
+ *
+ * Zero phase filters depend on later input samples and cannot be applied to a stream.
+ *
+ * A StreamingFilter is not thread safe.
+ */
+public class StreamingFilter {
+
+  private final FilterDefinition filterDefinition;
+
+  // FIR state: the most recent bCoefficients.length - 1 input samples, oldest first.  Samples
+  // preceding the start of the input are zero.
+  private final double[] firHistory;
+
+  // IIR state: the second order sections and their state
+  private final SecondOrderSections sections;
+  private final double[] iirState;
+
+  private StreamingFilter(FilterDefinition filterDefinition, double[] firHistory,
+      SecondOrderSections sections, double[] iirState) {
+    this.filterDefinition = filterDefinition;
+    this.firHistory = firHistory;
+    this.sections = sections;
+    this.iirState = iirState;
+  }
+
+  /**
+   * Obtains a new {@link StreamingFilter} applying the {@link FilterDefinition} from a zero
+   * filter state
+   *
+   * @param filterDefinition FilterDefinition to apply, not null
+   * @return StreamingFilter, not null
+   * @throws NullPointerException if filterDefinition is null
+   * @throws IllegalArgumentException if filterDefinition is zero phase or is not an FIR or IIR
+   * filter
+   */
+  public static StreamingFilter create(FilterDefinition filterDefinition) {
+    Objects.requireNonNull(filterDefinition,
+        "StreamingFilter requires non-null filterDefinition");
+
+    if (filterDefinition.isZeroPhase()) {
+      throw new IllegalArgumentException("StreamingFilter cannot apply a zero phase filter");
+    }
+
+    if (FilterType.FIR_HAMMING == filterDefinition.getFilterType()) {
+      final double[] bCoefficients = filterDefinition.getBCoefficients();
+      if (bCoefficients.length == 0) {
+        throw new IllegalArgumentException("FIR filtering requires non-empty bCoefficients");
+      }
+
+      return new StreamingFilter(filterDefinition, new double[bCoefficients.length - 1], null,
+          null);
+    } else if (FilterType.IIR_BUTTERWORTH == filterDefinition.getFilterType()) {
+      final SecondOrderSections sections = Filter.secondOrderSections(filterDefinition);
+
+      return new StreamingFilter(filterDefinition, null, sections, sections.initialState());
+    }
+
+    throw new IllegalArgumentException(
+        "Filtering not implemented for " + filterDefinition.getFilterType());
+  }
+
+  /**
+   * Obtains the {@link FilterDefinition} applied by this {@link StreamingFilter}
+   *
+   * @return FilterDefinition, not null
+   */
+  public FilterDefinition getFilterDefinition() {
+    return filterDefinition;
+  }
+
+  /**
+   * Filters the next {@link Waveform}, continuing from the filter state left by the previous block.
+   * Only applies the filter if the {@link Waveform#getSampleRate()} is in the inclusive range of
+   * {@link FilterDefinition#getSampleRate()} +/- {@link FilterDefinition#getSampleRateTolerance()}
+   *
+   * @param waveform Waveform immediately following the previously filtered samples, not null
+   * @return filtered Waveform, not null
+   * @throws NullPointerException if waveform is null
+   * @throws IllegalArgumentException if waveform sampleRate is not within tolerance of the filter's
+   * sampleRate
+   */
+  public Waveform filter(Waveform waveform) {
+    Objects.requireNonNull(waveform, "StreamingFilter requires non-null waveform");
+
+    Filter.assertSampleRateWithinTolerance(waveform, filterDefinition);
+
+    // Copy the samples straight into the filter's working buffer rather than through
+    // Waveform.getValues(), which copies direct and counts backed waveforms into a new array
+    final int length = (int) waveform.getSampleCount();
+    final double[] output;
+    if (sections != null) {
+      output = new double[length];
+      waveform.copyValues(0, output, 0, length);
+      sections.filterInPlace(output, iirState);
+    } else {
+      final double[] extended = new double[firHistory.length + length];
+      waveform.copyValues(0, extended, firHistory.length, length);
+      output = fir(extended);
+    }
+
+    return Waveform.create(waveform.getStartTime(), waveform.getEndTime(),
+        waveform.getSampleRate(), waveform.getSampleCount(), output);
+  }
+
+  /**
+   * Filters the next block of input samples, continuing from the filter state left by the
+   * previous block
+   *
+   * @param input input samples immediately following the previously filtered samples, not null
+   * @return filtered samples, not null
+   * @throws NullPointerException if input is null
+   */
+  public double[] filter(double[] input) {
+    Objects.requireNonNull(input, "StreamingFilter requires non-null input signal");
+
+    if (sections != null) {
+      final double[] output = input.clone();
+      sections.filterInPlace(output, iirState);
+      return output;
+    }
+
+    final double[] extended = new double[firHistory.length + input.length];
+    System.arraycopy(input, 0, extended, firHistory.length, input.length);
+    return fir(extended);
+  }
+
+  /**
+   * Returns this {@link StreamingFilter} to a zero filter state.  The next block is filtered as
+   * if it were the start of the input.
+   */
+  public void reset() {
+    if (sections != null) {
+      Arrays.fill(iirState, 0.0);
+    } else {
+      Arrays.fill(firHistory, 0.0);
+    }
+  }
+
+  /**
+   * Filters the input preceded by the FIR input history, then updates the history with the final
+   * input samples
+   *
+   * @param extended input samples following firHistory.length leading samples which are
+   * overwritten with the FIR input history, not null
+   * @return filtered samples for the input following the history, not null
+   */
+  private double[] fir(double[] extended) {
+    final int history = firHistory.length;
+    final int length = extended.length - history;
+    System.arraycopy(firHistory, 0, extended, 0, history);
+
+    // Outputs for the history samples were computed with the previous block.  Long blocks are
+    // cheaper to filter with FFT convolution even though it recomputes the history outputs;
+    // otherwise the direct form computes only the outputs for the new input samples.
+    final double[] output;
+    if (Filter.usesFftConvolution(filterDefinition, length)) {
+      output = Arrays.copyOfRange(Filter.fir(extended, filterDefinition), history,
+          extended.length);
+    } else {
+      output = new double[length];
+      Fir.filter(extended, filterDefinition.getBCoefficients(), output, 0, history,
+          extended.length);
+    }
+
+    System.arraycopy(extended, length, firHistory, 0, history);
+
+    return output;
+  }
+}
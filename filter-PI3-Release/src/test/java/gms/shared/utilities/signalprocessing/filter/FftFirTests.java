@@ -0,0 +1,92 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class FftFirTests {
+
+  @Rule
+  public final ExpectedException exception = ExpectedException.none();
+
+  /**
+   * Assert filtering an impulse returns the coefficients in their original order
+   */
+  @Test
+  public void testFilterImpulse() throws Exception {
+    final double[] bCoefficients = new double[]{1.0, 2.0, 3.0, 4.0, 5.0};
+    final double[] impulse = new double[]{1.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0};
+
+    assertArrayEquals(new double[]{1.0, 2.0, 3.0, 4.0, 5.0, 0.0, 0.0},
+        FftFir.create(bCoefficients).filter(impulse), 1e-12);
+  }
+
+  /**
+   * Assert FFT convolution matches direct form convolution for a range of filter and input
+   * lengths, including inputs shorter than the filter and inputs ending mid-block
+   */
+  @Test
+  public void testFilterMatchesDirectForm() throws Exception {
+    final Random random = new Random(11);
+    for (int taps : new int[]{1, 2, 48, 201, 1000}) {
+      final double[] bCoefficients = random.doubles(taps, -1.0, 1.0).toArray();
+      final FftFir fftFir = FftFir.create(bCoefficients);
+
+      for (int numSamples : new int[]{1, taps / 2 + 1, 2 * taps + 3, 10007}) {
+        final double[] input = random.doubles(numSamples, -100.0, 100.0).toArray();
+        final double[] expected = Fir.filter(input, bCoefficients);
+        final double[] actual = fftFir.filter(input);
+
+        final double scale = Arrays.stream(expected).map(Math::abs).max().orElse(1.0);
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; ++i) {
+          assertEquals(expected[i], actual[i], 1e-12 * scale);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testFilterEmptyInput() throws Exception {
+    final double[] empty = new double[0];
+    assertTrue(Arrays.equals(empty, FftFir.create(new double[]{1.0, 2.0}).filter(empty)));
+  }
+
+  @Test
+  public void testIsFasterThanDirect() throws Exception {
+    final double[] shortFilter = new double[FftFir.MIN_FFT_COEFFICIENTS - 1];
+    assertFalse(FftFir.create(shortFilter).isFasterThanDirect(1000000));
+
+    final FftFir longFilter = FftFir.create(new double[512]);
+    assertTrue(longFilter.isFasterThanDirect(1000000));
+    assertFalse(longFilter.isFasterThanDirect(1));
+  }
+
+  @Test
+  public void testCreateEmptyCoefficientsExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("FFT FIR filtering requires non-empty bCoefficients");
+    FftFir.create(new double[]{});
+  }
+
+  @Test
+  public void testCreateNullCoefficientsExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("FFT FIR filtering requires non-null bCoefficients");
+    FftFir.create(null);
+  }
+
+  @Test
+  public void testFilterNullInputExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("FFT FIR filtering requires non-null input signal");
+    FftFir.create(new double[]{1.0, 2.0}).filter(null);
+  }
+}
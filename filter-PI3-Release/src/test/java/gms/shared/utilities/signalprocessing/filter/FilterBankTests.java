@@ -0,0 +1,177 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterCausality;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterDefinition;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterPassBandType;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterSource;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterType;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class FilterBankTests {
+
+  @Rule
+  public final ExpectedException exception = ExpectedException.none();
+
+  private final FilterDefinition firFilterDefinition = FilterDefinition
+      .createFir("libTest", "libTestDesc", FilterType.FIR_HAMMING, FilterPassBandType.BAND_PASS,
+          1.0, 3.0, 4, FilterSource.USER, FilterCausality.CAUSAL, false, 20.0, 1.0,
+          new double[]{5.5, 4.4, 3.3, 2.2, 1.1, -6.6}, 3.0);
+
+  private final FilterDefinition longFirFilterDefinition = FilterDefinition
+      .createFir("libTest", "libTestDesc", FilterType.FIR_HAMMING, FilterPassBandType.BAND_PASS,
+          1.0, 3.0, 300, FilterSource.USER, FilterCausality.CAUSAL, false, 20.0, 1.0,
+          new Random(47).doubles(301, -1.0, 1.0).toArray(), 3.0);
+
+  /**
+   * 2nd order Butterworth low pass filter with a cutoff at 0.2 times the Nyquist frequency
+   */
+  private final FilterDefinition iirFilterDefinition = iirFilterDefinition(false);
+
+  private final FilterDefinition zeroPhaseIirFilterDefinition = iirFilterDefinition(true);
+
+  /**
+   * Only accepts sample rates in [38.0, 42.0]
+   */
+  private final FilterDefinition otherSampleRateFilterDefinition = FilterDefinition
+      .createFir("libTest", "libTestDesc", FilterType.FIR_HAMMING, FilterPassBandType.BAND_PASS,
+          1.0, 3.0, 2, FilterSource.USER, FilterCausality.CAUSAL, false, 40.0, 2.0,
+          new double[]{0.5, 0.5}, 1.0);
+
+  @Test
+  public void testFilterMatchesFilter() throws Exception {
+    final List<FilterDefinition> filterDefinitions = List
+        .of(firFilterDefinition, longFirFilterDefinition, iirFilterDefinition,
+            zeroPhaseIirFilterDefinition);
+    final FilterBank filterBank = FilterBank.create(filterDefinitions);
+
+    // Lengths shorter than a block, between blocks, and long enough to use FFT convolution
+    for (int length : new int[]{0, 1, 100, FilterBank.BLOCK_LENGTH,
+        3 * FilterBank.BLOCK_LENGTH + 17, 40000}) {
+
+      final Waveform waveform = waveform(20.0, length);
+      final Map<FilterDefinition, Waveform> filtered = filterBank.filter(waveform);
+
+      assertEquals(filterDefinitions, new ArrayList<>(filtered.keySet()));
+      for (FilterDefinition filterDefinition : filterDefinitions) {
+        final Waveform actual = filtered.get(filterDefinition);
+
+        assertEquals(waveform.getStartTime(), actual.getStartTime());
+        assertEquals(waveform.getEndTime(), actual.getEndTime());
+        assertEquals(waveform.getSampleRate(), actual.getSampleRate(), Double.MIN_NORMAL);
+        assertEquals(waveform.getSampleCount(), actual.getSampleCount());
+        assertArrayEquals(filterSamples(waveform.getValues(), filterDefinition),
+            actual.getValues(), 0.0);
+      }
+    }
+  }
+
+  /**
+   * Assert direct form FIR and causal IIR filters read a Waveform stored as counts in blocks and
+   * produce the same samples as filtering the whole array of data points
+   */
+  @Test
+  public void testFilterCountsInBlocksMatchesFilter() throws Exception {
+    // Fewer bCoefficients than FFT convolution requires, so every length uses the block path
+    final FilterDefinition directFirFilterDefinition = FilterDefinition
+        .createFir("libTest", "libTestDesc", FilterType.FIR_HAMMING, FilterPassBandType.BAND_PASS,
+            1.0, 3.0, FftFir.MIN_FFT_COEFFICIENTS - 2, FilterSource.USER, FilterCausality.CAUSAL,
+            false, 20.0, 1.0,
+            new Random(53).doubles(FftFir.MIN_FFT_COEFFICIENTS - 1, -1.0, 1.0).toArray(), 3.0);
+
+    for (FilterDefinition filterDefinition : List
+        .of(firFilterDefinition, iirFilterDefinition, directFirFilterDefinition)) {
+
+      for (int length : new int[]{1, FilterBank.BLOCK_LENGTH, 3 * FilterBank.BLOCK_LENGTH + 17}) {
+        final int[] counts = new Random(length).ints(length, -1000, 1000).toArray();
+        final Waveform waveform = Waveform.createFromCounts(Instant.EPOCH,
+            Instant.EPOCH.plusMillis(50L * (length - 1)), 20.0, length, counts, 0.25);
+
+        assertArrayEquals(filterSamples(waveform.getValues(), filterDefinition),
+            Filter.filter(waveform, filterDefinition).getValues(), 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void testFilterOmitsDefinitionsForOtherSampleRates() throws Exception {
+    final FilterBank filterBank = FilterBank
+        .create(List.of(otherSampleRateFilterDefinition, firFilterDefinition));
+
+    final Map<FilterDefinition, Waveform> filtered = filterBank.filter(waveform(20.0, 500));
+    assertEquals(List.of(firFilterDefinition), new ArrayList<>(filtered.keySet()));
+
+    final Map<FilterDefinition, Waveform> filtered40 = filterBank.filter(waveform(40.0, 500));
+    assertEquals(List.of(otherSampleRateFilterDefinition), new ArrayList<>(filtered40.keySet()));
+  }
+
+  @Test
+  public void testCreateRemovesDuplicateDefinitions() throws Exception {
+    final FilterBank filterBank = FilterBank
+        .create(List.of(iirFilterDefinition, firFilterDefinition, iirFilterDefinition));
+
+    assertEquals(List.of(iirFilterDefinition, firFilterDefinition),
+        filterBank.getFilterDefinitions());
+    assertTrue(FilterBank.create(List.of()).filter(waveform(20.0, 10)).isEmpty());
+  }
+
+  @Test
+  public void testCreateZeroPhaseCausalIirExpectIllegalArgumentException() throws Exception {
+    final FilterDefinition zeroPhaseCausalDefinition = FilterDefinition
+        .from("libTest", "libTestDesc", FilterType.IIR_BUTTERWORTH, FilterPassBandType.LOW_PASS,
+            0.0, 2.0, 2, FilterSource.USER, FilterCausality.CAUSAL, true, 20.0, 1.0,
+            iirFilterDefinition.getACoefficients(), iirFilterDefinition.getBCoefficients(), 0.0);
+
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("Zero phase IIR filtering requires a non-causal FilterDefinition");
+    FilterBank.create(List.of(firFilterDefinition, zeroPhaseCausalDefinition));
+  }
+
+  @Test
+  public void testCreateNullFilterDefinitionsExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    FilterBank.create(null);
+  }
+
+  @Test
+  public void testCreateNullFilterDefinitionExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    FilterBank.create(Arrays.asList(firFilterDefinition, null));
+  }
+
+  @Test
+  public void testFilterNullWaveformExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    FilterBank.create(List.of(firFilterDefinition)).filter(null);
+  }
+
+  private static FilterDefinition iirFilterDefinition(boolean zeroPhase) {
+    return FilterDefinition
+        .from("libTest", "libTestDesc", FilterType.IIR_BUTTERWORTH, FilterPassBandType.LOW_PASS,
+            0.0, 2.0, 2, FilterSource.USER, FilterCausality.NON_CAUSAL, zeroPhase, 20.0, 1.0,
+            new double[]{1.0, -1.1429805025399009, 0.41280159809618855},
+            new double[]{0.06745527388907191, 0.13491054777814382, 0.06745527388907191}, 0.0);
+  }
+
+  private static double[] filterSamples(double[] samples, FilterDefinition filterDefinition) {
+    return FilterType.FIR_HAMMING == filterDefinition.getFilterType()
+        ? Filter.fir(samples, filterDefinition) : Filter.iir(samples, filterDefinition);
+  }
+
+  private static Waveform waveform(double sampleRate, int length) {
+    final double[] samples = new Random(length).doubles(length, -100.0, 100.0).toArray();
+    return Waveform.withInferredEndTime(Instant.EPOCH, sampleRate, length, samples);
+  }
+}
@@ -1,5 +1,6 @@
 package gms.shared.utilities.signalprocessing.filter;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -12,6 +13,7 @@ import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commo
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.Random;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -56,6 +58,31 @@ public class FilterTests {
     assertTrue(Arrays.equals(forwardCoeffs, outputWaveform.getValues()));
   }
 
+  /**
+   * Assert filters long enough to use FFT convolution match direct form filtering
+   */
+  @Test
+  public void testFilterLongFirMatchesDirectForm() throws Exception {
+    final Random random = new Random(13);
+    final double[] longCoeffs = random.doubles(301, -1.0, 1.0).toArray();
+    final FilterDefinition longFilterDefinition = FilterDefinition
+        .createFir("libTest", "libTestDesc", FilterType.FIR_HAMMING, FilterPassBandType.BAND_PASS,
+            1.0, 3.0, 300, FilterSource.USER, FilterCausality.CAUSAL, false, 20.0, 1.0,
+            longCoeffs, 3.0);
+
+    final double[] samples = random.doubles(20000, -1000.0, 1000.0).toArray();
+    final Waveform inputWaveform = Waveform
+        .withInferredEndTime(Instant.EPOCH, 20.0, samples.length, samples);
+
+    final double[] expected = Fir.filter(samples, longCoeffs);
+    final double[] actual = Filter.filter(inputWaveform, longFilterDefinition).getValues();
+
+    assertEquals(expected.length, actual.length);
+    for (int i = 0; i < expected.length; ++i) {
+      assertEquals(expected[i], actual[i], 1e-9);
+    }
+  }
+
   @Test
   public void testSampleRateAboveToleranceExpectIllegalArgumentException() throws Exception {
     final double sampleRate =
@@ -87,10 +114,117 @@ public class FilterTests {
   }
 
   @Test
-  public void testFilterIirExpectIllegalArgumentException() throws Exception {
+  public void testFilterIir() throws Exception {
+    final double[] samples = new Random(23).doubles(100, -1.0, 1.0).toArray();
+    final Waveform inputWaveform = Waveform
+        .withInferredEndTime(Instant.EPOCH, 20.0, samples.length, samples);
+
+    final Waveform outputWaveform = Filter.filter(inputWaveform, iirFilterDefinition);
+    assertEquals(inputWaveform.getStartTime(), outputWaveform.getStartTime());
+    assertEquals(inputWaveform.getEndTime(), outputWaveform.getEndTime());
+    assertEquals(inputWaveform.getSampleCount(), outputWaveform.getSampleCount());
+    assertArrayEquals(Iir.filter(samples, new double[]{1.0, 3.0}, forwardCoeffs),
+        outputWaveform.getValues(), 0.0);
+  }
+
+  @Test
+  public void testFilterZeroPhaseIir() throws Exception {
+    final FilterDefinition zeroPhaseDefinition = FilterDefinition
+        .from("libTest", "libTestDesc", FilterType.IIR_BUTTERWORTH, FilterPassBandType.LOW_PASS,
+            0.0, 2.0, 2, FilterSource.USER, FilterCausality.NON_CAUSAL, true, 20.0, 1.0,
+            new double[]{1.0, -1.1429805025399009, 0.41280159809618855},
+            new double[]{0.06745527388907191, 0.13491054777814382, 0.06745527388907191}, 0.0);
+
+    final double[] samples = new Random(29).doubles(100, -1.0, 1.0).toArray();
+    final Waveform inputWaveform = Waveform
+        .withInferredEndTime(Instant.EPOCH, 20.0, samples.length, samples);
+
+    assertArrayEquals(Iir.filterZeroPhase(samples, zeroPhaseDefinition.getACoefficients(),
+        zeroPhaseDefinition.getBCoefficients()),
+        Filter.filter(inputWaveform, zeroPhaseDefinition).getValues(), 0.0);
+  }
+
+  @Test
+  public void testFilterZeroPhaseCausalIirExpectIllegalArgumentException() throws Exception {
+    final FilterDefinition zeroPhaseCausalDefinition = FilterDefinition
+        .from("libTest", "libTestDesc", FilterType.IIR_BUTTERWORTH, FilterPassBandType.BAND_PASS,
+            1.0, 3.0, 4, FilterSource.USER, FilterCausality.CAUSAL, true, 20.0, 1.0,
+            new double[]{1.0, 3.0}, forwardCoeffs, 3.0);
+
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("Zero phase IIR filtering requires a non-causal FilterDefinition");
+    Filter.filter(dummyWaveform, zeroPhaseCausalDefinition);
+  }
+
+  @Test
+  public void testResampleDecimateFir() throws Exception {
+    final double[] samples = new Random(31).doubles(103, -1.0, 1.0).toArray();
+    final Waveform inputWaveform = Waveform
+        .withInferredEndTime(Instant.EPOCH, 20.0, samples.length, samples);
+
+    final Waveform outputWaveform = Filter.resample(inputWaveform, firFilterDefinition, 1, 4);
+
+    final double[] filtered = Fir.filter(samples, forwardCoeffs);
+    final double[] expected = new double[26];
+    for (int m = 0; m < expected.length; ++m) {
+      expected[m] = filtered[4 * m];
+    }
+
+    assertEquals(inputWaveform.getStartTime(), outputWaveform.getStartTime());
+    assertEquals(Instant.EPOCH.plusSeconds(5), outputWaveform.getEndTime());
+    assertEquals(5.0, outputWaveform.getSampleRate(), Double.MIN_NORMAL);
+    assertEquals(expected.length, outputWaveform.getSampleCount());
+    assertArrayEquals(expected, outputWaveform.getValues(), 0.0);
+  }
+
+  @Test
+  public void testResampleIir() throws Exception {
+    final double[] samples = new Random(37).doubles(100, -1.0, 1.0).toArray();
+    final Waveform inputWaveform = Waveform
+        .withInferredEndTime(Instant.EPOCH, 10.0, samples.length, samples);
+
+    final Waveform outputWaveform = Filter.resample(inputWaveform, iirFilterDefinition, 2, 3);
+
+    final double[] upsampled = new double[2 * samples.length];
+    for (int i = 0; i < samples.length; ++i) {
+      upsampled[2 * i] = samples[i];
+    }
+    final double[] filtered = Iir.filter(upsampled, new double[]{1.0, 3.0}, forwardCoeffs);
+    final double[] expected = new double[67];
+    for (int m = 0; m < expected.length; ++m) {
+      expected[m] = filtered[3 * m];
+    }
+
+    assertEquals(inputWaveform.getStartTime(), outputWaveform.getStartTime());
+    assertEquals(20.0 / 3, outputWaveform.getSampleRate(), Double.MIN_NORMAL);
+    assertArrayEquals(expected, outputWaveform.getValues(), 0.0);
+  }
+
+  @Test
+  public void testResampleMatchesFilter() throws Exception {
+    final double[] samples = new Random(41).doubles(50, -1.0, 1.0).toArray();
+    final Waveform inputWaveform = Waveform
+        .withInferredEndTime(Instant.EPOCH, 20.0, samples.length, samples);
+
+    assertArrayEquals(Filter.filter(inputWaveform, firFilterDefinition).getValues(),
+        Filter.resample(inputWaveform, firFilterDefinition, 1, 1).getValues(), 0.0);
+    assertArrayEquals(Filter.filter(inputWaveform, iirFilterDefinition).getValues(),
+        Filter.resample(inputWaveform, iirFilterDefinition, 1, 1).getValues(), 0.0);
+  }
+
+  @Test
+  public void testResampleUpsampledRateAboveToleranceExpectIllegalArgumentException()
+      throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("Filter requires input waveform with sampleRate in [19.0, 21.0]");
+    Filter.resample(dummyWaveform, firFilterDefinition, 2, 1);
+  }
+
+  @Test
+  public void testResampleZeroDownFactorExpectIllegalArgumentException() throws Exception {
     exception.expect(IllegalArgumentException.class);
-    exception.expectMessage("Only FIR filtering implemented");
-    Filter.filter(dummyWaveform, iirFilterDefinition);
+    exception.expectMessage("Filter resampling requires positive upFactor and downFactor");
+    Filter.resample(dummyWaveform, firFilterDefinition, 1, 0);
   }
 
   @Test
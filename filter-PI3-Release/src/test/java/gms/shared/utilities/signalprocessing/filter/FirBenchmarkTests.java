@@ -0,0 +1,108 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the running time of {@link Fir#filter(double[], double[])} and {@link
+ * FftFir#filter(double[])} against the original delay line shifting FIR implementation ({@link
+ * FirTests#shiftingFilter(double[], double[])}) for filters with 8, 32, 48, 64, 128, 256, 512, and
+ * 2048 taps applied to 200,000 input samples.  Each filter length is warmed up before it is timed
+ * so the reported times reflect JIT compiled code.
+ *
+ * Timings depend on the machine, so this is a manual performance test rather than part of the
+ * build.  Remove the {@link Ignore} locally to run it.  One run on a development machine gave
+ * (mean milliseconds per filter call):
+ *
+ * <pre>
+ *     taps  shifting (ms)  circular (ms)   speedup       fft (ms)   speedup
+ *        8           1.85           1.69     1.09x           9.43     0.20x
+ *       32           3.97           2.96     1.34x           6.12     0.65x
+ *       48           5.59           4.40     1.27x           3.43     1.63x
+ *       64           7.78           6.69     1.16x           3.43     2.26x
+ *      128          20.96          13.36     1.57x           3.66     5.72x
+ *      256          42.35          30.22     1.40x           4.13    10.26x
+ *      512          86.45          64.28     1.34x           4.81    17.96x
+ *     2048         348.79         273.83     1.27x           6.67    52.30x
+ * </pre>
+ *
+ * The circular delay line is 1.1x to 1.6x faster than the shifting delay line at every length.
+ * {@link FftFir} is slower than direct convolution below 48 taps, matching the crossover predicted
+ * by {@link FftFir#isFasterThanDirect(int)} for this input length.
+ */
+public class FirBenchmarkTests {
+
+  private static final int[] FILTER_LENGTHS = new int[]{8, 32, 48, 64, 128, 256, 512, 2048};
+
+  private static final int NUM_SAMPLES = 200_000;
+
+  private static final int WARMUP_ITERATIONS = 5;
+
+  private static final int TIMED_ITERATIONS = 10;
+
+  private static final double NANOS_PER_MILLI = 1.0e6;
+
+  @Ignore("Manual performance test, timings depend on the machine")
+  @Test
+  public void testFirRunningTimes() {
+    final Random random = new Random(5);
+    final double[] input = random.doubles(NUM_SAMPLES, -1.0, 1.0).toArray();
+
+    System.out.println(String.format("%8s %14s %14s %9s %14s %9s", "taps", "shifting (ms)",
+        "circular (ms)", "speedup", "fft (ms)", "speedup"));
+
+    for (int taps : FILTER_LENGTHS) {
+      final double[] bCoefficients = random.doubles(taps, -1.0, 1.0).toArray();
+
+      // The timings are only comparable if both direct form filters compute the same output
+      assertTrue(Arrays.equals(FirTests.shiftingFilter(input, bCoefficients),
+          Fir.filter(input, bCoefficients)));
+
+      final double shiftingMillis = time(() -> FirTests.shiftingFilter(input, bCoefficients));
+      final double circularMillis = time(() -> Fir.filter(input, bCoefficients));
+
+      final FftFir fftFir = FftFir.create(bCoefficients);
+      final double fftMillis = time(() -> fftFir.filter(input));
+
+      System.out.println(String.format("%8d %14.2f %14.2f %8.2fx %14.2f %8.2fx", taps,
+          shiftingMillis, circularMillis, shiftingMillis / circularMillis, fftMillis,
+          shiftingMillis / fftMillis));
+    }
+  }
+
+  /**
+   * Obtains the mean running time in milliseconds of filter after a warmup period
+   *
+   * @param filter filter operation to time, not null
+   * @return mean running time in milliseconds
+   */
+  private static double time(FilterOperation filter) {
+    double checksum = 0.0;
+    for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+      checksum += filter.apply()[0];
+    }
+
+    final long start = System.nanoTime();
+    for (int i = 0; i < TIMED_ITERATIONS; ++i) {
+      checksum += filter.apply()[0];
+    }
+    final long elapsed = System.nanoTime() - start;
+
+    // Use the checksum so the JIT cannot eliminate the filter calls
+    if (Double.isNaN(checksum)) {
+      System.out.println("NaN checksum");
+    }
+
+    return elapsed / NANOS_PER_MILLI / TIMED_ITERATIONS;
+  }
+
+  @FunctionalInterface
+  private interface FilterOperation {
+
+    double[] apply();
+  }
+}
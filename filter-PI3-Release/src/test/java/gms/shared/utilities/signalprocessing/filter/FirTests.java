@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
+import java.util.Random;
 import java.util.function.DoublePredicate;
 import java.util.stream.IntStream;
 import org.junit.Rule;
@@ -79,6 +80,24 @@ public class FirTests {
         .allMatch(withinRange));
   }
 
+  /**
+   * Assert the circular delay line produces exactly the same output as shifting the delay line,
+   * including inputs shorter than the filter
+   */
+  @Test
+  public void testFilterMatchesShiftingDelayLine() throws Exception {
+    final Random random = new Random(7);
+    for (int taps : new int[]{1, 2, 7, 64, 201}) {
+      final double[] bCoefficients = random.doubles(taps, -1.0, 1.0).toArray();
+
+      for (int numSamples : new int[]{1, taps / 2 + 1, 1000}) {
+        final double[] input = random.doubles(numSamples, -100.0, 100.0).toArray();
+        assertTrue(Arrays.equals(shiftingFilter(input, bCoefficients),
+            Fir.filter(input, bCoefficients)));
+      }
+    }
+  }
+
   @Test
   public void testFilterEmptyInputs() throws Exception {
     double[] bCoefficients = new double[]{1.23, 9.87, 2.34, 8.76, 3.45, 7.65, 4.56, 6.54};
@@ -106,4 +125,32 @@ public class FirTests {
     exception.expectMessage("FIR filtering requires non-null bCoefficients");
     Fir.filter(new double[]{1.0, 2.0}, null);
   }
+
+  /**
+   * Reference FIR implementation which shifts the entire delay line for each input sample.  This
+   * was the original {@link Fir#filter(double[], double[])} implementation.
+   *
+   * @param input input, not null
+   * @param bCoefficients bCoefficients, not null and not empty
+   * @return output, not null
+   */
+  static double[] shiftingFilter(double[] input, double[] bCoefficients) {
+    double[] delay = new double[bCoefficients.length];
+
+    double[] output = new double[input.length];
+    for (int n = 0; n < input.length; ++n) {
+      for (int i = delay.length - 1; i > 0; i--) {
+        delay[i] = delay[i - 1];
+      }
+      delay[0] = input[n];
+
+      double sum = 0.0;
+      for (int k = 0; k < bCoefficients.length; ++k) {
+        sum += bCoefficients[k] * delay[k];
+      }
+      output[n] = sum;
+    }
+
+    return output;
+  }
 }
@@ -0,0 +1,238 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class IirTests {
+
+  @Rule
+  public final ExpectedException exception = ExpectedException.none();
+
+  /**
+   * 4th order Butterworth band pass filter from 1.0 Hz to 3.0 Hz at 20 samples per second
+   */
+  private static final double[] bandPassB = new double[]{0.004824343357716232, 0.0,
+      -0.019297373430864927, 0.0, 0.02894606014629739, 0.0, -0.019297373430864927, 0.0,
+      0.004824343357716232};
+
+  private static final double[] bandPassA = new double[]{1.0, -5.418231388368233,
+      13.52935869832969, -20.319265119781694, 20.07119886116117, -13.34437166183811,
+      5.8321067702203635, -1.534730046657901, 0.18737949236818482};
+
+  /**
+   * 2nd order Butterworth low pass filter with a cutoff at 0.2 times the Nyquist frequency
+   */
+  private static final double[] lowPassB = new double[]{0.06745527388907191,
+      0.13491054777814382, 0.06745527388907191};
+
+  private static final double[] lowPassA = new double[]{1.0, -1.1429805025399009,
+      0.41280159809618855};
+
+  /**
+   * 3rd order Butterworth band stop filter from 2.0 Hz to 4.0 Hz at 20 samples per second
+   */
+  private static final double[] bandStopB = new double[]{0.5276243825019433, -1.9565388100762577,
+      4.001288117376635, -4.9095193870069895, 4.001288117376636, -1.9565388100762577,
+      0.5276243825019433};
+
+  private static final double[] bandStopA = new double[]{1.0, -2.941867669925039,
+      4.7023172884643305, -4.634109656210411, 3.077447793658279, -1.246619681024053,
+      0.2780599176345464};
+
+  /**
+   * Assert filtering an impulse with a single pole filter produces a decaying exponential
+   */
+  @Test
+  public void testFilterImpulse() throws Exception {
+    final double[] impulse = new double[]{1.0, 0.0, 0.0, 0.0, 0.0};
+
+    assertArrayEquals(new double[]{2.0, 1.0, 0.5, 0.25, 0.125},
+        Iir.filter(impulse, new double[]{1.0, -0.5}, new double[]{2.0}), 1e-15);
+  }
+
+  /**
+   * Assert cascaded second order sections match direct evaluation of the difference equation
+   */
+  @Test
+  public void testFilterMatchesDifferenceEquation() throws Exception {
+    final Random random = new Random(17);
+    final double[] input = random.doubles(5000, -100.0, 100.0).toArray();
+
+    assertMatchesDifferenceEquation(input, bandPassA, bandPassB);
+    assertMatchesDifferenceEquation(input, lowPassA, lowPassB);
+    assertMatchesDifferenceEquation(input, bandStopA, bandStopB);
+    assertMatchesDifferenceEquation(input, new double[]{2.0, -1.0}, new double[]{1.0, 2.0, 3.0});
+    assertMatchesDifferenceEquation(input, new double[]{1.0, 0.3, 0.02, 0.0},
+        new double[]{0.5, -0.25});
+  }
+
+  /**
+   * Assert the band stop filter removes a sinusoid at its center frequency and passes a sinusoid
+   * far outside its stop band
+   */
+  @Test
+  public void testFilterBandStop() throws Exception {
+    final double center = Math.sqrt(2.0 * 4.0) / 20.0;
+    final double[] stopped = new double[2000];
+    final double[] passed = new double[2000];
+    for (int i = 0; i < stopped.length; ++i) {
+      stopped[i] = Math.sin(2.0 * Math.PI * center * i);
+      passed[i] = Math.sin(2.0 * Math.PI * 0.01 * i);
+    }
+
+    final double[] stoppedOutput = Iir.filter(stopped, bandStopA, bandStopB);
+    final double[] passedOutput = Iir.filter(passed, bandStopA, bandStopB);
+    for (int i = 1000; i < stopped.length; ++i) {
+      assertEquals(0.0, stoppedOutput[i], 1e-3);
+    }
+    assertEquals(1.0, Arrays.stream(passedOutput, 1000, 2000).max().getAsDouble(), 1e-3);
+  }
+
+  /**
+   * Assert filtering consecutive blocks while carrying the filter state produces the same output
+   * as filtering all of the samples at once
+   */
+  @Test
+  public void testFilterBlocksWithState() throws Exception {
+    final Random random = new Random(19);
+    final double[] input = random.doubles(1000, -1.0, 1.0).toArray();
+
+    final SecondOrderSections sections = SecondOrderSections
+        .fromTransferFunction(bandPassA, bandPassB);
+    final double[] expected = sections.filter(input);
+
+    final double[] state = sections.initialState();
+    final double[] actual = new double[input.length];
+    for (int start = 0; start < input.length; start += 77) {
+      final double[] block = Arrays.copyOfRange(input, start, Math.min(input.length, start + 77));
+      sections.filterInPlace(block, state);
+      System.arraycopy(block, 0, actual, start, block.length);
+    }
+
+    assertArrayEquals(expected, actual, 0.0);
+  }
+
+  /**
+   * Assert zero phase filtering a constant input produces the constant scaled by the squared DC
+   * gain without start up transients
+   */
+  @Test
+  public void testFilterZeroPhaseConstant() throws Exception {
+    final double[] constant = new double[200];
+    Arrays.fill(constant, 3.0);
+
+    final double[] lowPassOutput = Iir.filterZeroPhase(constant, lowPassA, lowPassB);
+    final double[] bandPassOutput = Iir.filterZeroPhase(constant, bandPassA, bandPassB);
+    for (int i = 0; i < constant.length; ++i) {
+      assertEquals(3.0, lowPassOutput[i], 1e-9);
+      assertEquals(0.0, bandPassOutput[i], 1e-9);
+    }
+  }
+
+  /**
+   * Assert zero phase filtering does not shift a symmetric pulse
+   */
+  @Test
+  public void testFilterZeroPhaseDoesNotShiftPulse() throws Exception {
+    final double[] pulse = new double[401];
+    for (int i = 0; i < pulse.length; ++i) {
+      pulse[i] = Math.exp(-Math.pow((i - 200) / 10.0, 2));
+    }
+
+    final double[] output = Iir.filterZeroPhase(pulse, lowPassA, lowPassB);
+
+    int peak = 0;
+    for (int i = 1; i < output.length; ++i) {
+      peak = output[i] > output[peak] ? i : peak;
+    }
+    assertEquals(200, peak);
+
+    for (int i = 1; i < 150; ++i) {
+      assertEquals(output[200 - i], output[200 + i], 1e-6);
+    }
+  }
+
+  @Test
+  public void testFilterZeroPhaseShortInputs() throws Exception {
+    assertEquals(0, Iir.filterZeroPhase(new double[0], lowPassA, lowPassB).length);
+    assertEquals(1, Iir.filterZeroPhase(new double[]{1.0}, lowPassA, lowPassB).length);
+    assertTrue(Arrays.stream(Iir.filterZeroPhase(new double[]{1.0, -2.0, 3.0}, bandPassA,
+        bandPassB)).allMatch(Double::isFinite));
+  }
+
+  @Test
+  public void testFilterEmptyInput() throws Exception {
+    assertEquals(0, Iir.filter(new double[0], lowPassA, lowPassB).length);
+  }
+
+  @Test
+  public void testFilterZeroACoefficientExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("IIR filtering requires a non-zero aCoefficients[0]");
+    Iir.filter(new double[]{1.0}, new double[]{0.0, 1.0}, new double[]{1.0});
+  }
+
+  @Test
+  public void testFilterEmptyBCoefficientsExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("IIR filtering requires non-empty bCoefficients");
+    Iir.filter(new double[]{1.0}, new double[]{1.0}, new double[]{});
+  }
+
+  @Test
+  public void testFilterNullInputExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("IIR filtering requires non-null input signal");
+    Iir.filter(null, lowPassA, lowPassB);
+  }
+
+  @Test
+  public void testFilterNullACoefficientsExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("IIR filtering requires non-null aCoefficients");
+    Iir.filter(new double[]{1.0}, null, lowPassB);
+  }
+
+  @Test
+  public void testFilterNullBCoefficientsExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("IIR filtering requires non-null bCoefficients");
+    Iir.filter(new double[]{1.0}, lowPassA, null);
+  }
+
+  private static void assertMatchesDifferenceEquation(double[] input, double[] a, double[] b) {
+    final double[] expected = differenceEquation(input, a, b);
+    final double[] actual = Iir.filter(input, a, b);
+
+    final double scale = Arrays.stream(expected).map(Math::abs).max().orElse(1.0);
+    assertEquals(expected.length, actual.length);
+    for (int i = 0; i < expected.length; ++i) {
+      assertEquals(expected[i], actual[i], 1e-10 * scale);
+    }
+  }
+
+  /**
+   * Reference implementation evaluating the IIR difference equation directly
+   */
+  private static double[] differenceEquation(double[] input, double[] a, double[] b) {
+    final double[] output = new double[input.length];
+    for (int n = 0; n < input.length; ++n) {
+      double sum = 0.0;
+      for (int k = 0; k < b.length && k <= n; ++k) {
+        sum += b[k] * input[n - k];
+      }
+      for (int k = 1; k < a.length && k <= n; ++k) {
+        sum -= a[k] * output[n - k];
+      }
+      output[n] = sum / a[0];
+    }
+    return output;
+  }
+}
@@ -0,0 +1,60 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class LruCacheTests {
+
+  @Rule
+  public final ExpectedException exception = ExpectedException.none();
+
+  @Test
+  public void testComputeIfAbsentCachesValue() {
+    final LruCache<String, Object> cache = LruCache.create(2);
+    final AtomicInteger creates = new AtomicInteger();
+
+    final Object first = cache.computeIfAbsent("a", k -> creates.incrementAndGet());
+    assertSame(first, cache.computeIfAbsent("a", k -> creates.incrementAndGet()));
+    assertEquals(1, creates.get());
+  }
+
+  /**
+   * Assert the cache never exceeds its capacity and evicts the least recently used value
+   */
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    final LruCache<String, String> cache = LruCache.create(2);
+    cache.computeIfAbsent("a", k -> k);
+    cache.computeIfAbsent("b", k -> k);
+
+    // "a" becomes the most recently used so adding "c" evicts "b"
+    cache.computeIfAbsent("a", k -> k);
+    cache.computeIfAbsent("c", k -> k);
+    assertEquals(2, cache.size());
+
+    final AtomicInteger creates = new AtomicInteger();
+    cache.computeIfAbsent("a", k -> k + creates.incrementAndGet());
+    assertEquals(0, creates.get());
+    assertEquals("b1", cache.computeIfAbsent("b", k -> k + creates.incrementAndGet()));
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testCreateNonPositiveCapacityExpectIllegalArgumentException() {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("LruCache requires a positive capacity");
+    LruCache.create(0);
+  }
+
+  @Test
+  public void testComputeIfAbsentNullKeyExpectNullPointerException() {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("LruCache requires a non-null key");
+    LruCache.<String, String>create(1).computeIfAbsent(null, k -> k);
+  }
+}
@@ -0,0 +1,110 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class PolyphaseResamplerTests {
+
+  @Rule
+  public final ExpectedException exception = ExpectedException.none();
+
+  private final double[] bCoefficients = new Random(3).doubles(31, -1.0, 1.0).toArray();
+
+  private final double[] input = new Random(5).doubles(1000, -100.0, 100.0).toArray();
+
+  /**
+   * Assert decimating returns every downFactor-th output of direct form FIR filtering
+   */
+  @Test
+  public void testDecimateMatchesFirOutputs() throws Exception {
+    final double[] filtered = Fir.filter(input, bCoefficients);
+
+    for (int downFactor : new int[]{1, 2, 5, 7}) {
+      final double[] expected = new double[(filtered.length + downFactor - 1) / downFactor];
+      for (int m = 0; m < expected.length; ++m) {
+        expected[m] = filtered[m * downFactor];
+      }
+
+      assertArrayEquals(expected,
+          PolyphaseResampler.create(bCoefficients, 1, downFactor).resample(input), 0.0);
+    }
+  }
+
+  /**
+   * Assert resampling matches upsampling with zeros, FIR filtering, and then decimating
+   */
+  @Test
+  public void testResampleMatchesUpsampleFilterDecimate() throws Exception {
+    for (int[] factors : new int[][]{{2, 3}, {3, 2}, {5, 1}, {40, 3}}) {
+      final int upFactor = factors[0];
+      final int downFactor = factors[1];
+
+      final double[] upsampled = new double[input.length * upFactor];
+      for (int i = 0; i < input.length; ++i) {
+        upsampled[i * upFactor] = input[i];
+      }
+      final double[] filtered = Fir.filter(upsampled, bCoefficients);
+
+      final double[] expected = new double[(filtered.length + downFactor - 1) / downFactor];
+      for (int m = 0; m < expected.length; ++m) {
+        expected[m] = filtered[m * downFactor];
+      }
+
+      final PolyphaseResampler resampler = PolyphaseResampler
+          .create(bCoefficients, upFactor, downFactor);
+      assertEquals(expected.length, resampler.outputLength(input.length));
+      assertArrayEquals(expected, resampler.resample(input), 1e-12);
+    }
+  }
+
+  @Test
+  public void testCreateReducesFactors() throws Exception {
+    final PolyphaseResampler resampler = PolyphaseResampler.create(bCoefficients, 4, 6);
+
+    assertEquals(2, resampler.getUpFactor());
+    assertEquals(3, resampler.getDownFactor());
+    assertEquals(0, resampler.outputLength(0));
+    assertEquals(1, resampler.outputLength(1));
+    assertEquals(7, resampler.outputLength(10));
+  }
+
+  @Test
+  public void testCreateNullBCoefficientsExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("PolyphaseResampler requires non-null bCoefficients");
+    PolyphaseResampler.create(null, 1, 2);
+  }
+
+  @Test
+  public void testCreateEmptyBCoefficientsExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("FIR filtering requires non-empty bCoefficients");
+    PolyphaseResampler.create(new double[]{}, 1, 2);
+  }
+
+  @Test
+  public void testCreateZeroDownFactorExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("PolyphaseResampler requires positive upFactor and downFactor");
+    PolyphaseResampler.create(bCoefficients, 1, 0);
+  }
+
+  @Test
+  public void testCreateNegativeUpFactorExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("PolyphaseResampler requires positive upFactor and downFactor");
+    PolyphaseResampler.create(bCoefficients, -1, 2);
+  }
+
+  @Test
+  public void testResampleNullInputExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("PolyphaseResampler requires non-null input");
+    PolyphaseResampler.create(bCoefficients, 1, 2).resample(null);
+  }
+}
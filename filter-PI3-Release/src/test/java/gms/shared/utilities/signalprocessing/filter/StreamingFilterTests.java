@@ -0,0 +1,166 @@
+package gms.shared.utilities.signalprocessing.filter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterCausality;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterDefinition;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterPassBandType;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterSource;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterType;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class StreamingFilterTests {
+
+  @Rule
+  public final ExpectedException exception = ExpectedException.none();
+
+  private final double[] forwardCoeffs = new double[]{5.5, 4.4, 3.3, 2.2, 1.1, -6.6};
+
+  private final FilterDefinition firFilterDefinition = FilterDefinition
+      .createFir("libTest", "libTestDesc", FilterType.FIR_HAMMING, FilterPassBandType.BAND_PASS,
+          1.0, 3.0, 4, FilterSource.USER, FilterCausality.CAUSAL, false, 20.0, 1.0,
+          forwardCoeffs, 3.0);
+
+  /**
+   * 2nd order Butterworth low pass filter with a cutoff at 0.2 times the Nyquist frequency
+   */
+  private final FilterDefinition iirFilterDefinition = FilterDefinition
+      .from("libTest", "libTestDesc", FilterType.IIR_BUTTERWORTH, FilterPassBandType.LOW_PASS,
+          0.0, 2.0, 2, FilterSource.USER, FilterCausality.CAUSAL, false, 20.0, 1.0,
+          new double[]{1.0, -1.1429805025399009, 0.41280159809618855},
+          new double[]{0.06745527388907191, 0.13491054777814382, 0.06745527388907191}, 0.0);
+
+  private final double[] input = new Random(23).doubles(2000, -100.0, 100.0).toArray();
+
+  /**
+   * Block lengths shorter than, equal to, and longer than the FIR history
+   */
+  private final int[] blockLengths = new int[]{1, 3, 5, 6, 250, 1, 735, 999};
+
+  @Test
+  public void testFirBlocksMatchFilter() throws Exception {
+    assertBlocksMatch(StreamingFilter.create(firFilterDefinition),
+        Fir.filter(input, forwardCoeffs), 0.0);
+  }
+
+  @Test
+  public void testLongFirBlocksMatchFilter() throws Exception {
+    final double[] longCoeffs = new Random(29).doubles(301, -1.0, 1.0).toArray();
+    final FilterDefinition longFilterDefinition = FilterDefinition
+        .createFir("libTest", "libTestDesc", FilterType.FIR_HAMMING, FilterPassBandType.BAND_PASS,
+            1.0, 3.0, 300, FilterSource.USER, FilterCausality.CAUSAL, false, 20.0, 1.0,
+            longCoeffs, 3.0);
+
+    assertBlocksMatch(StreamingFilter.create(longFilterDefinition),
+        Fir.filter(input, longCoeffs), 1e-9);
+  }
+
+  @Test
+  public void testIirBlocksMatchFilter() throws Exception {
+    assertBlocksMatch(StreamingFilter.create(iirFilterDefinition),
+        Iir.filter(input, iirFilterDefinition.getACoefficients(),
+            iirFilterDefinition.getBCoefficients()), 0.0);
+  }
+
+  @Test
+  public void testResetRestartsFromZeroState() throws Exception {
+    final StreamingFilter firFilter = StreamingFilter.create(firFilterDefinition);
+    final StreamingFilter iirFilter = StreamingFilter.create(iirFilterDefinition);
+    firFilter.filter(input);
+    iirFilter.filter(input);
+
+    firFilter.reset();
+    iirFilter.reset();
+
+    assertArrayEquals(Fir.filter(input, forwardCoeffs), firFilter.filter(input), 0.0);
+    assertArrayEquals(Iir.filter(input, iirFilterDefinition.getACoefficients(),
+        iirFilterDefinition.getBCoefficients()), iirFilter.filter(input), 0.0);
+  }
+
+  @Test
+  public void testFilterEmptyInput() throws Exception {
+    assertEquals(0, StreamingFilter.create(firFilterDefinition).filter(new double[0]).length);
+    assertEquals(0, StreamingFilter.create(iirFilterDefinition).filter(new double[0]).length);
+  }
+
+  @Test
+  public void testCreateZeroPhaseExpectIllegalArgumentException() throws Exception {
+    final FilterDefinition zeroPhaseDefinition = FilterDefinition
+        .from("libTest", "libTestDesc", FilterType.IIR_BUTTERWORTH, FilterPassBandType.LOW_PASS,
+            0.0, 2.0, 2, FilterSource.USER, FilterCausality.NON_CAUSAL, true, 20.0, 1.0,
+            iirFilterDefinition.getACoefficients(), iirFilterDefinition.getBCoefficients(), 0.0);
+
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("StreamingFilter cannot apply a zero phase filter");
+    StreamingFilter.create(zeroPhaseDefinition);
+  }
+
+  @Test
+  public void testCreateNullFilterDefinitionExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    StreamingFilter.create(null);
+  }
+
+  @Test
+  public void testFilterNullInputExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    StreamingFilter.create(firFilterDefinition).filter((double[]) null);
+  }
+
+  @Test
+  public void testFilterNullWaveformExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    StreamingFilter.create(firFilterDefinition).filter((Waveform) null);
+  }
+
+  @Test
+  public void testFilterWaveformContinuesBlocks() throws Exception {
+    final StreamingFilter streamingFilter = StreamingFilter.create(iirFilterDefinition);
+    streamingFilter.filter(Arrays.copyOfRange(input, 0, 1000));
+
+    final Waveform waveform = Waveform
+        .withInferredEndTime(Instant.EPOCH, 20.0, 1000, Arrays.copyOfRange(input, 1000, 2000));
+    final Waveform output = streamingFilter.filter(waveform);
+
+    assertEquals(waveform.getStartTime(), output.getStartTime());
+    assertEquals(waveform.getEndTime(), output.getEndTime());
+    assertEquals(waveform.getSampleCount(), output.getSampleCount());
+    assertArrayEquals(Arrays.copyOfRange(Iir.filter(input, iirFilterDefinition.getACoefficients(),
+        iirFilterDefinition.getBCoefficients()), 1000, 2000), output.getValues(), 0.0);
+  }
+
+  @Test
+  public void testFilterWaveformSampleRateOutsideToleranceExpectIllegalArgumentException()
+      throws Exception {
+    final Waveform waveform = Waveform.withInferredEndTime(Instant.EPOCH, 22.0, 10, new double[10]);
+
+    exception.expect(IllegalArgumentException.class);
+    StreamingFilter.create(firFilterDefinition).filter(waveform);
+  }
+
+  /**
+   * Filters the input in consecutive blocks and asserts the concatenated outputs match the
+   * expected output
+   */
+  private void assertBlocksMatch(StreamingFilter streamingFilter, double[] expected,
+      double tolerance) {
+
+    final double[] actual = new double[input.length];
+    int start = 0;
+    for (int i = 0; start < input.length; ++i) {
+      final int end = Math.min(input.length, start + blockLengths[i % blockLengths.length]);
+      final double[] block = streamingFilter.filter(Arrays.copyOfRange(input, start, end));
+      System.arraycopy(block, 0, actual, start, block.length);
+      start = end;
+    }
+
+    assertArrayEquals(expected, actual, tolerance);
+  }
+}
@@ -8,6 +8,8 @@ import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commo
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,10 +28,11 @@ public class LinearWaveformFilterComponent implements FilterPlugin {
 
   private static final PluginVersion pluginVersion = PluginVersion.from(1, 0, 0);
 
-  private final LinearWaveformFilterPlugin plugin;
+  // Replaced by initialize() while filter calls may be running on other threads
+  private volatile LinearWaveformFilterPlugin plugin;
 
   public LinearWaveformFilterComponent() {
-    //TODO: Move plugin creation into initialize() and delete constructor if configuration ever required.
+    // Filters without changing the sample rate until initialize() provides a configuration
     plugin = new LinearWaveformFilterPlugin();
   }
 
@@ -54,12 +57,25 @@ public class LinearWaveformFilterComponent implements FilterPlugin {
   }
 
   /**
-   * Unimplemented - no configuration necessary
-   * @param pluginConfiguration
+   * Initialize using the provided {@link PluginConfiguration}.  Recreates the wrapped {@link
+   * LinearWaveformFilterPlugin} with the {@link LinearWaveformFilterPluginConfiguration}, which
+   * optionally changes the sample rate of the filtered waveforms.
+   *
+   * @param pluginConfiguration generic PluginConfiguration, not null
+   * @throws NullPointerException if pluginConfiguration is null
+   * @throws IllegalArgumentException if pluginConfiguration has an invalid sample rate change
    */
   @Override
   public void initialize(PluginConfiguration pluginConfiguration) {
-    logger.info("Unimplemented - no configuration necessary at this time.");
+    Objects.requireNonNull(pluginConfiguration,
+        "LinearWaveformFilterComponent cannot be initialized with null PluginConfiguration");
+
+    final LinearWaveformFilterPluginConfiguration configuration =
+        LinearWaveformFilterPluginConfiguration.from(pluginConfiguration);
+    logger.info("Initializing with upsampleFactor {} and downsampleFactor {}",
+        configuration.getUpsampleFactor(), configuration.getDownsampleFactor());
+
+    plugin = LinearWaveformFilterPlugin.create(configuration);
   }
 
   /**
@@ -81,4 +97,53 @@ public class LinearWaveformFilterComponent implements FilterPlugin {
 
     return plugin.filter(channelSegment, filterDefinition);
   }
-}
\ No newline at end of file
+
+  /**
+   * Uses the wrapped {@link LinearWaveformFilterPlugin} to generate a sequence of filtered waveforms
+   * continuing the filter session for the channelSegment's processing channel and the filter
+   * definition.  See {@link LinearWaveformFilterPlugin#filterStreaming(ChannelSegment,
+   * FilterDefinition)}.  When the plugin is initialized to change the sample rate each
+   * channelSegment is filtered independently, since streaming filtering cannot resample.
+   *
+   * @param channelSegment {@link ChannelSegment} containing waveforms to filter, not null
+   * @param filterDefinition {@link FilterDefinition}, containing filter parameters, not null
+   * @return New filtered waveforms
+   * @throws NullPointerException if channelSegment or filterDefinition is null
+   */
+  @Override
+  public Collection<Waveform> filterStreaming(ChannelSegment channelSegment,
+      FilterDefinition filterDefinition) {
+
+    Objects.requireNonNull(channelSegment,
+        "LinearWaveformFilterPlugin cannot filter with null channelSegment");
+    Objects.requireNonNull(filterDefinition,
+        "LinearWaveformFilterPlugin cannot filter with null filterDefinition");
+
+    // Read once so initialize() cannot swap the plugin between the check and the call
+    final LinearWaveformFilterPlugin current = plugin;
+    return current.isResampling()
+        ? current.filter(channelSegment, filterDefinition)
+        : current.filterStreaming(channelSegment, filterDefinition);
+  }
+
+  /**
+   * Uses the wrapped {@link LinearWaveformFilterPlugin} to generate a sequence of filtered waveforms
+   * for each filter definition in a single pass over the channelSegment's waveforms
+   *
+   * @param channelSegment {@link ChannelSegment} containing waveforms to filter, not null
+   * @param filterDefinitions {@link FilterDefinition}s, containing filter parameters, not null
+   * @return map from each distinct FilterDefinition to its new filtered waveforms
+   * @throws NullPointerException if channelSegment or filterDefinitions is null
+   */
+  @Override
+  public Map<FilterDefinition, Collection<Waveform>> filterBank(ChannelSegment channelSegment,
+      List<FilterDefinition> filterDefinitions) {
+
+    Objects.requireNonNull(channelSegment,
+        "LinearWaveformFilterPlugin cannot filter with null channelSegment");
+    Objects.requireNonNull(filterDefinitions,
+        "LinearWaveformFilterPlugin cannot filter with null filterDefinitions");
+
+    return plugin.filterBank(channelSegment, filterDefinitions);
+  }
+}
@@ -4,9 +4,19 @@ import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commo
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
 import gms.shared.utilities.signalprocessing.filter.Filter;
+import gms.shared.utilities.signalprocessing.filter.FilterBank;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,9 +28,97 @@ public class LinearWaveformFilterPlugin {
   private static final Logger logger = LoggerFactory
       .getLogger(LinearWaveformFilterPlugin.class);
 
+  /**
+   * Waveforms with sample rates differing by at most this amount are merged
+   */
+  static final double MERGE_SAMPLE_RATE_TOLERANCE = 1.0e-7;
+
+  /**
+   * Waveforms separated by more than this many samples (and less than 1.5 samples) are merged
+   */
+  static final double MERGE_MINIMUM_GAP_SAMPLE_COUNT = 0.5;
+
+  /**
+   * Streaming sessions which have not filtered a {@link ChannelSegment} for longer than this are
+   * discarded, so processing channels and filter definitions which stop arriving do not retain
+   * their sessions forever
+   */
+  static final Duration SESSION_IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+  /**
+   * Filter sessions for each processing channel and {@link FilterDefinition} filtered with {@link
+   * LinearWaveformFilterPlugin#filterStreaming(ChannelSegment, FilterDefinition)}
+   */
+  private final ConcurrentMap<SessionKey, TimedSession> sessions = new ConcurrentHashMap<>();
+
+  private final LinearWaveformFilterPluginConfiguration configuration;
+
+  private final Clock clock;
+
+  /**
+   * Creates a {@link LinearWaveformFilterPlugin} which filters without changing the sample rate
+   */
+  public LinearWaveformFilterPlugin() {
+    this(LinearWaveformFilterPluginConfiguration.defaults(), Clock.systemUTC());
+  }
+
+  private LinearWaveformFilterPlugin(LinearWaveformFilterPluginConfiguration configuration,
+      Clock clock) {
+
+    this.configuration = configuration;
+    this.clock = clock;
+  }
+
+  /**
+   * Obtains a {@link LinearWaveformFilterPlugin} using the {@link
+   * LinearWaveformFilterPluginConfiguration}
+   *
+   * @param configuration LinearWaveformFilterPluginConfiguration, not null
+   * @return LinearWaveformFilterPlugin, not null
+   * @throws NullPointerException if configuration is null
+   */
+  public static LinearWaveformFilterPlugin create(
+      LinearWaveformFilterPluginConfiguration configuration) {
+
+    return create(configuration, Clock.systemUTC());
+  }
+
+  /**
+   * Obtains a {@link LinearWaveformFilterPlugin} using the {@link
+   * LinearWaveformFilterPluginConfiguration} which measures streaming session idle time with the
+   * provided {@link Clock}
+   *
+   * @param configuration LinearWaveformFilterPluginConfiguration, not null
+   * @param clock Clock used to expire idle streaming sessions, not null
+   * @return LinearWaveformFilterPlugin, not null
+   * @throws NullPointerException if configuration or clock are null
+   */
+  static LinearWaveformFilterPlugin create(LinearWaveformFilterPluginConfiguration configuration,
+      Clock clock) {
+
+    Objects.requireNonNull(configuration,
+        "LinearWaveformFilterPlugin requires non-null configuration");
+    Objects.requireNonNull(clock, "LinearWaveformFilterPlugin requires non-null clock");
+
+    return new LinearWaveformFilterPlugin(configuration, clock);
+  }
+
+  /**
+   * Determines whether this plugin changes the sample rate of the filtered waveforms, in which case
+   * {@link LinearWaveformFilterPlugin#filterStreaming(ChannelSegment, FilterDefinition)} is not
+   * available
+   *
+   * @return true if the {@link LinearWaveformFilterPluginConfiguration} resamples
+   */
+  boolean isResampling() {
+    return configuration.isResampling();
+  }
+
   /**
    * Uses the wrapped {@link LinearWaveformFilterPlugin} to generate a sequence of filtered
-   * waveforms
+   * waveforms.  When the {@link LinearWaveformFilterPluginConfiguration} changes the sample rate
+   * the waveforms are filtered with {@link Filter#resample(Waveform, FilterDefinition, int, int)},
+   * so the FilterDefinition's sample rate is the upsampled rate.
    *
    * @param channelSegment {@link ChannelSegment} containing waveforms to filter, not null
    * @param filterDefinition {@link FilterDefinition}, containing filter parameters, not null
@@ -36,10 +134,15 @@ public class LinearWaveformFilterPlugin {
         "LinearWaveformFilterPlugin cannot filter with null filterDefinition");
 
     ArrayList<Waveform> filteredWaveforms = new ArrayList<Waveform>();
-    for (Waveform waveform : channelSegment.mergeWaveforms(1.0e-7, 0.5).getWaveforms()) {
+    for (Waveform waveform : channelSegment
+        .mergeWaveforms(MERGE_SAMPLE_RATE_TOLERANCE, MERGE_MINIMUM_GAP_SAMPLE_COUNT)
+        .getWaveforms()) {
       // If one waveform errors out, then it will be skipped and keep processing
       try {
-        filteredWaveforms.add(Filter.filter(waveform, filterDefinition));
+        filteredWaveforms.add(configuration.isResampling()
+            ? Filter.resample(waveform, filterDefinition, configuration.getUpsampleFactor(),
+            configuration.getDownsampleFactor())
+            : Filter.filter(waveform, filterDefinition));
       } catch (Exception e) {
         logger.error("Filtering failed with error: " + e.getMessage());
         logger.warn("Skipping waveform {" + waveform + "} and continuing to next waveform");
@@ -48,4 +151,210 @@ public class LinearWaveformFilterPlugin {
 
     return filteredWaveforms;
   }
+
+  /**
+   * Uses a {@link FilterBank} to generate a sequence of filtered waveforms for each of the {@link
+   * FilterDefinition}s.  The ChannelSegment's waveforms are merged once and each merged waveform is
+   * filtered by every FilterDefinition in one pass.  The filtered waveforms for each
+   * FilterDefinition match those returned by {@link LinearWaveformFilterPlugin#filter(ChannelSegment,
+   * FilterDefinition)}.  When the {@link LinearWaveformFilterPluginConfiguration} changes the
+   * sample rate each FilterDefinition is applied separately.
+   *
+   * @param channelSegment {@link ChannelSegment} containing waveforms to filter, not null
+   * @param filterDefinitions {@link FilterDefinition}s, containing filter parameters, not null
+   * @return map from each distinct FilterDefinition to its new filtered waveforms, not null
+   * @throws NullPointerException if channelSegment, filterDefinitions, or any of the
+   * filterDefinitions are null
+   */
+  public Map<FilterDefinition, Collection<Waveform>> filterBank(ChannelSegment channelSegment,
+      List<FilterDefinition> filterDefinitions) {
+
+    Objects.requireNonNull(channelSegment,
+        "LinearWaveformFilterPlugin cannot filter with null channelSegment");
+    Objects.requireNonNull(filterDefinitions,
+        "LinearWaveformFilterPlugin cannot filter with null filterDefinitions");
+
+    // The FilterBank does not resample, so resampled outputs are computed per FilterDefinition
+    if (configuration.isResampling()) {
+      return filterSeparately(channelSegment, filterDefinitions);
+    }
+
+    final FilterBank filterBank;
+    try {
+      filterBank = FilterBank.create(filterDefinitions);
+    } catch (IllegalArgumentException e) {
+      // Filter each definition separately so a definition which cannot be applied only affects
+      // its own output
+      logger.warn("Filter bank creation failed with error: " + e.getMessage());
+      return filterSeparately(channelSegment, filterDefinitions);
+    }
+
+    final Map<FilterDefinition, Collection<Waveform>> filtered = new LinkedHashMap<>();
+    filterBank.getFilterDefinitions().forEach(fd -> filtered.put(fd, new ArrayList<>()));
+
+    for (Waveform waveform : channelSegment
+        .mergeWaveforms(MERGE_SAMPLE_RATE_TOLERANCE, MERGE_MINIMUM_GAP_SAMPLE_COUNT)
+        .getWaveforms()) {
+
+      // If one waveform errors out, then it will be skipped and keep processing
+      try {
+        final Map<FilterDefinition, Waveform> filteredWaveforms = filterBank.filter(waveform);
+
+        filtered.forEach((fd, waveforms) -> {
+          final Waveform filteredWaveform = filteredWaveforms.get(fd);
+          if (filteredWaveform != null) {
+            waveforms.add(filteredWaveform);
+          } else {
+            logger.error("Filtering failed with error: " + fd.getName()
+                + " cannot filter a waveform with sampleRate " + waveform.getSampleRate());
+            logger.warn("Skipping waveform {" + waveform + "} and continuing to next waveform");
+          }
+        });
+      } catch (Exception e) {
+        logger.error("Filtering failed with error: " + e.getMessage());
+        logger.warn("Skipping waveform {" + waveform + "} and continuing to next waveform");
+      }
+    }
+
+    return filtered;
+  }
+
+  private Map<FilterDefinition, Collection<Waveform>> filterSeparately(
+      ChannelSegment channelSegment, List<FilterDefinition> filterDefinitions) {
+
+    final Map<FilterDefinition, Collection<Waveform>> filtered = new LinkedHashMap<>();
+    filterDefinitions.forEach(fd -> filtered.computeIfAbsent(fd, f -> filter(channelSegment, f)));
+    return filtered;
+  }
+
+  /**
+   * Filters the waveforms in the {@link ChannelSegment} using the {@link
+   * LinearWaveformFilterSession} for the ChannelSegment's processing channel and the {@link
+   * FilterDefinition}.  The session retains the FIR or IIR filter state from the previous call, so
+   * the ChannelSegment only needs to contain the newly arrived data and the filtered waveforms have
+   * no start up transient where they continue previously filtered data.  A new session is started
+   * for the first call on a processing channel and FilterDefinition.  Sessions restart on data gaps
+   * and sample rate changes.  Sessions unused for {@link
+   * LinearWaveformFilterPlugin#SESSION_IDLE_TIMEOUT} are discarded.  Streaming filtering cannot
+   * change the sample rate, so it is rejected when the {@link
+   * LinearWaveformFilterPluginConfiguration} resamples.
+   *
+   * @param channelSegment {@link ChannelSegment} containing waveforms to filter, not null
+   * @param filterDefinition causal {@link FilterDefinition}, containing filter parameters, not null
+   * @return New filtered waveforms
+   * @throws NullPointerException if channelSegment or filterDefinition is null
+   * @throws IllegalArgumentException if filterDefinition is zero phase or its filter type is not
+   * implemented
+   * @throws IllegalStateException if the LinearWaveformFilterPluginConfiguration has an
+   * upsampleFactor or downsampleFactor other than 1
+   */
+  public Collection<Waveform> filterStreaming(ChannelSegment channelSegment,
+      FilterDefinition filterDefinition) {
+
+    Objects.requireNonNull(channelSegment,
+        "LinearWaveformFilterPlugin cannot filter with null channelSegment");
+    Objects.requireNonNull(filterDefinition,
+        "LinearWaveformFilterPlugin cannot filter with null filterDefinition");
+
+    if (configuration.isResampling()) {
+      throw new IllegalStateException(
+          "LinearWaveformFilterPlugin cannot stream filter with upsampleFactor "
+              + configuration.getUpsampleFactor() + " and downsampleFactor "
+              + configuration.getDownsampleFactor());
+    }
+
+    final Instant now = clock.instant();
+    evictIdleSessions(now);
+
+    final TimedSession timedSession = sessions.computeIfAbsent(
+        new SessionKey(channelSegment.getProcessingChannelId(), filterDefinition),
+        key -> new TimedSession(LinearWaveformFilterSession.create(filterDefinition), now));
+    timedSession.lastUsed = now;
+
+    return timedSession.session.filter(channelSegment);
+  }
+
+  /**
+   * Discards the sessions last used more than {@link
+   * LinearWaveformFilterPlugin#SESSION_IDLE_TIMEOUT} before now.  A session evicted while another
+   * thread is using it finishes that call; the next call for its processing channel and {@link
+   * FilterDefinition} starts a new session.
+   *
+   * @param now current time
+   */
+  private void evictIdleSessions(Instant now) {
+    final Instant idleBefore = now.minus(SESSION_IDLE_TIMEOUT);
+    sessions.values().removeIf(s -> s.lastUsed.isBefore(idleBefore));
+  }
+
+  /**
+   * Obtains the number of streaming sessions currently retained
+   *
+   * @return number of sessions, >= 0
+   */
+  int getSessionCount() {
+    return sessions.size();
+  }
+
+  /**
+   * Discards the {@link LinearWaveformFilterSession}s for the processing channel.  The next call
+   * to {@link LinearWaveformFilterPlugin#filterStreaming(ChannelSegment, FilterDefinition)} on that
+   * processing channel starts new sessions.
+   *
+   * @param processingChannelId processing channel identity, not null
+   * @throws NullPointerException if processingChannelId is null
+   */
+  public void endSession(UUID processingChannelId) {
+    Objects.requireNonNull(processingChannelId,
+        "LinearWaveformFilterPlugin cannot end a session for a null processingChannelId");
+
+    sessions.keySet().removeIf(key -> key.processingChannelId.equals(processingChannelId));
+  }
+
+  /**
+   * Identifies the streaming session for a processing channel and {@link FilterDefinition}
+   */
+  private static class SessionKey {
+
+    private final UUID processingChannelId;
+    private final FilterDefinition filterDefinition;
+
+    private SessionKey(UUID processingChannelId, FilterDefinition filterDefinition) {
+      this.processingChannelId = processingChannelId;
+      this.filterDefinition = filterDefinition;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+
+      SessionKey that = (SessionKey) o;
+      return processingChannelId.equals(that.processingChannelId)
+          && filterDefinition.equals(that.filterDefinition);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * processingChannelId.hashCode() + filterDefinition.hashCode();
+    }
+  }
+
+  /**
+   * A {@link LinearWaveformFilterSession} and the last time it filtered a {@link ChannelSegment}
+   */
+  private static class TimedSession {
+
+    private final LinearWaveformFilterSession session;
+    private volatile Instant lastUsed;
+
+    private TimedSession(LinearWaveformFilterSession session, Instant lastUsed) {
+      this.session = session;
+      this.lastUsed = lastUsed;
+    }
+  }
 }
@@ -0,0 +1,95 @@
+package gms.core.signalenhancement.waveformfiltering;
+
+import gms.core.signalenhancement.waveformfiltering.plugin.PluginConfiguration;
+import java.util.Objects;
+
+/**
+ * Configuration for the {@link LinearWaveformFilterPlugin}
+ *
+ * Configuration is the optional rational sample rate change (upsampleFactor / downsampleFactor)
+ * applied while filtering.  Both factors default to 1, which filters without changing the sample
+ * rate.
+ */
+public class LinearWaveformFilterPluginConfiguration {
+
+  private static final String UPSAMPLE_FACTOR_KEY = "upsampleFactor";
+  private static final String DOWNSAMPLE_FACTOR_KEY = "downsampleFactor";
+
+  private final int upsampleFactor;
+  private final int downsampleFactor;
+
+  private LinearWaveformFilterPluginConfiguration(int upsampleFactor, int downsampleFactor) {
+    this.upsampleFactor = upsampleFactor;
+    this.downsampleFactor = downsampleFactor;
+  }
+
+  /**
+   * Obtains a {@link LinearWaveformFilterPluginConfiguration} which filters without changing the
+   * sample rate
+   *
+   * @return LinearWaveformFilterPluginConfiguration, not null
+   */
+  public static LinearWaveformFilterPluginConfiguration defaults() {
+    return new LinearWaveformFilterPluginConfiguration(1, 1);
+  }
+
+  /**
+   * Obtain a specific {@link LinearWaveformFilterPluginConfiguration} from a generic {@link
+   * PluginConfiguration}
+   *
+   * The PluginConfiguration may have positive integer values for keys {@link
+   * LinearWaveformFilterPluginConfiguration#UPSAMPLE_FACTOR_KEY} and {@link
+   * LinearWaveformFilterPluginConfiguration#DOWNSAMPLE_FACTOR_KEY}.  Missing factors are 1.
+   *
+   * @param pluginConfig PluginConfiguration, not null
+   * @return LinearWaveformFilterPluginConfiguration, not null
+   * @throws NullPointerException if pluginConfig is null
+   * @throws IllegalArgumentException if a factor is not an integer or is not positive
+   */
+  public static LinearWaveformFilterPluginConfiguration from(PluginConfiguration pluginConfig) {
+    Objects.requireNonNull(pluginConfig,
+        "LinearWaveformFilterPluginConfiguration.from requires non-null PluginConfiguration");
+
+    return new LinearWaveformFilterPluginConfiguration(
+        getFactor(pluginConfig, UPSAMPLE_FACTOR_KEY),
+        getFactor(pluginConfig, DOWNSAMPLE_FACTOR_KEY));
+  }
+
+  private static int getFactor(PluginConfiguration pluginConfig, String key) {
+    if (!pluginConfig.getParameter(key).isPresent()) {
+      return 1;
+    }
+
+    int factor;
+    try {
+      factor = (int) pluginConfig.getParameter(key).get();
+    } catch (ClassCastException e) {
+      throw new IllegalArgumentException(
+          "LinearWaveformFilterPluginConfiguration.from requires integer " + key, e);
+    }
+
+    if (factor <= 0) {
+      throw new IllegalArgumentException(
+          "LinearWaveformFilterPluginConfiguration.from requires positive " + key);
+    }
+
+    return factor;
+  }
+
+  public int getUpsampleFactor() {
+    return upsampleFactor;
+  }
+
+  public int getDownsampleFactor() {
+    return downsampleFactor;
+  }
+
+  /**
+   * Determines whether filtering changes the sample rate
+   *
+   * @return true if the upsampleFactor or downsampleFactor is not 1
+   */
+  public boolean isResampling() {
+    return upsampleFactor != 1 || downsampleFactor != 1;
+  }
+}
@@ -0,0 +1,116 @@
+package gms.core.signalenhancement.waveformfiltering;
+
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterDefinition;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
+import gms.shared.utilities.signalprocessing.filter.StreamingFilter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Filter state for a single processing channel and {@link FilterDefinition}.  Wraps a {@link
+ * StreamingFilter} which carries the FIR or IIR filter state from one {@link Waveform} to the
+ * next, so contiguous waveforms are filtered without a start up transient at each waveform
+ * boundary.  A session only continues when a Waveform begins one sample after the last sample the
+ * session filtered and has a sample rate within the merge tolerance of the session's sample rate.
+ * Otherwise the session restarts from a zero filter state.
+ */
+public class LinearWaveformFilterSession {
+
+  private static final Logger logger = LoggerFactory.getLogger(LinearWaveformFilterSession.class);
+
+  private final StreamingFilter streamingFilter;
+
+  // Session state.  lastSampleTime is null until the first Waveform is filtered.
+  private double sampleRate;
+  private Instant lastSampleTime;
+
+  private LinearWaveformFilterSession(StreamingFilter streamingFilter) {
+    this.streamingFilter = streamingFilter;
+  }
+
+  /**
+   * Obtains a new {@link LinearWaveformFilterSession} for the {@link FilterDefinition} which has
+   * not filtered any data
+   *
+   * @param filterDefinition causal {@link FilterDefinition} applied by the session, not null
+   * @return LinearWaveformFilterSession, not null
+   * @throws NullPointerException if filterDefinition is null
+   * @throws IllegalArgumentException if filterDefinition is zero phase or its filter type is not
+   * implemented
+   */
+  public static LinearWaveformFilterSession create(FilterDefinition filterDefinition) {
+    return new LinearWaveformFilterSession(StreamingFilter.create(filterDefinition));
+  }
+
+  /**
+   * Filters the {@link Waveform}s in the {@link ChannelSegment}.  Each Waveform either continues
+   * this session or restarts it.
+   *
+   * @param channelSegment {@link ChannelSegment} containing waveforms to filter, not null
+   * @return New filtered waveforms, not null
+   * @throws NullPointerException if channelSegment is null
+   */
+  public synchronized Collection<Waveform> filter(ChannelSegment channelSegment) {
+    Objects.requireNonNull(channelSegment,
+        "LinearWaveformFilterSession cannot filter with null channelSegment");
+
+    final Collection<Waveform> filteredWaveforms = new ArrayList<>();
+    for (Waveform waveform : channelSegment
+        .mergeWaveforms(LinearWaveformFilterPlugin.MERGE_SAMPLE_RATE_TOLERANCE,
+            LinearWaveformFilterPlugin.MERGE_MINIMUM_GAP_SAMPLE_COUNT).getWaveforms()) {
+
+      if (!isContinuation(waveform)) {
+        restart(waveform);
+      }
+
+      // If one waveform errors out, then it will be skipped and keep processing.  The session
+      // restarts at the next waveform since the skipped samples leave a gap.
+      try {
+        filteredWaveforms.add(streamingFilter.filter(waveform));
+        lastSampleTime = waveform.getEndTime();
+      } catch (Exception e) {
+        logger.error("Filtering failed with error: " + e.getMessage());
+        logger.warn("Skipping waveform {" + waveform + "} and continuing to next waveform");
+      }
+    }
+
+    return filteredWaveforms;
+  }
+
+  /**
+   * Determines whether the {@link Waveform} continues the data filtered by this session
+   *
+   * @param wf next {@link Waveform}, not null
+   * @return true if the waveform continues this session, false otherwise
+   */
+  private boolean isContinuation(Waveform wf) {
+    if (lastSampleTime == null) {
+      return false;
+    }
+
+    // Same criteria used by ChannelSegment.mergeWaveforms before filtering
+    return ChannelSegment.isMergeable(sampleRate, lastSampleTime, wf.getSampleRate(),
+        wf.getStartTime(), LinearWaveformFilterPlugin.MERGE_SAMPLE_RATE_TOLERANCE,
+        LinearWaveformFilterPlugin.MERGE_MINIMUM_GAP_SAMPLE_COUNT);
+  }
+
+  /**
+   * Restarts this session from a zero filter state beginning with the {@link Waveform}
+   *
+   * @param wf first {@link Waveform} in the restarted session, not null
+   */
+  private void restart(Waveform wf) {
+    if (lastSampleTime != null) {
+      logger.info("Restarting filter session at {} after previous sample at {}",
+          wf.getStartTime(), lastSampleTime);
+      streamingFilter.reset();
+    }
+
+    this.sampleRate = wf.getSampleRate();
+  }
+}
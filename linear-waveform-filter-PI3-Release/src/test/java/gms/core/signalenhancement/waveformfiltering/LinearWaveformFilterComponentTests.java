@@ -3,6 +3,10 @@ package gms.core.signalenhancement.waveformfiltering;
 import static org.junit.Assert.assertEquals;
 
 import gms.core.signalenhancement.waveformfiltering.objects.PluginVersion;
+import gms.core.signalenhancement.waveformfiltering.plugin.PluginConfiguration;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
+import java.util.List;
+import java.util.Map;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -26,6 +30,22 @@ public class LinearWaveformFilterComponentTests {
         new LinearWaveformFilterComponent().getVersion());
   }
 
+  @Test
+  public void testInitializeConfiguresResampling() throws Exception {
+    component.initialize(PluginConfiguration.from(Map.of("downsampleFactor", 2)));
+
+    final Waveform outputWaveform = component
+        .filter(FilterTestData.CHANNEL_SEGMENT, FilterTestData.FIR_FILTER_DEF).iterator().next();
+    assertEquals(10.0, outputWaveform.getSampleRate(), Double.MIN_NORMAL);
+    assertEquals(3, outputWaveform.getValuesLength());
+  }
+
+  @Test
+  public void testInitializeNullPluginConfigurationExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    component.initialize(null);
+  }
+
   @Test
   public void testGenerateNullChannelSegmentExpectNullPointerException() throws Exception {
     exception.expect(NullPointerException.class);
@@ -38,4 +58,40 @@ public class LinearWaveformFilterComponentTests {
     component.filter(FilterTestData.CHANNEL_SEGMENT, null);
   }
 
+  @Test
+  public void testFilterStreamingWhenResamplingFiltersIndependently() throws Exception {
+    component.initialize(PluginConfiguration.from(Map.of("downsampleFactor", 2)));
+
+    final Waveform outputWaveform = component
+        .filterStreaming(FilterTestData.CHANNEL_SEGMENT, FilterTestData.FIR_FILTER_DEF).iterator()
+        .next();
+    assertEquals(10.0, outputWaveform.getSampleRate(), Double.MIN_NORMAL);
+    assertEquals(3, outputWaveform.getValuesLength());
+  }
+
+  @Test
+  public void testFilterStreamingNullChannelSegmentExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    component.filterStreaming(null, FilterTestData.FIR_FILTER_DEF);
+  }
+
+  @Test
+  public void testFilterStreamingNullFilterDefinitionExpectNullPointerException()
+      throws Exception {
+    exception.expect(NullPointerException.class);
+    component.filterStreaming(FilterTestData.CHANNEL_SEGMENT, null);
+  }
+
+  @Test
+  public void testFilterBankNullChannelSegmentExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    component.filterBank(null, List.of(FilterTestData.FIR_FILTER_DEF));
+  }
+
+  @Test
+  public void testFilterBankNullFilterDefinitionsExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    component.filterBank(FilterTestData.CHANNEL_SEGMENT, null);
+  }
+
 }
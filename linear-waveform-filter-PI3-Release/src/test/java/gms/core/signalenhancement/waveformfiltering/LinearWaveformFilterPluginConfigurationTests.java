@@ -0,0 +1,65 @@
+package gms.core.signalenhancement.waveformfiltering;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import gms.core.signalenhancement.waveformfiltering.plugin.PluginConfiguration;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class LinearWaveformFilterPluginConfigurationTests {
+
+  @Rule
+  public final ExpectedException exception = ExpectedException.none();
+
+  @Test
+  public void testFrom() throws Exception {
+    final LinearWaveformFilterPluginConfiguration configuration =
+        LinearWaveformFilterPluginConfiguration.from(
+            PluginConfiguration.from(Map.of("upsampleFactor", 2, "downsampleFactor", 5)));
+
+    assertEquals(2, configuration.getUpsampleFactor());
+    assertEquals(5, configuration.getDownsampleFactor());
+    assertTrue(configuration.isResampling());
+  }
+
+  @Test
+  public void testFromMissingFactorsDefaultToOne() throws Exception {
+    final LinearWaveformFilterPluginConfiguration configuration =
+        LinearWaveformFilterPluginConfiguration.from(PluginConfiguration.from(Map.of()));
+
+    assertEquals(1, configuration.getUpsampleFactor());
+    assertEquals(1, configuration.getDownsampleFactor());
+    assertFalse(configuration.isResampling());
+    assertFalse(LinearWaveformFilterPluginConfiguration.defaults().isResampling());
+  }
+
+  @Test
+  public void testFromNullPluginConfigurationExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage(
+        "LinearWaveformFilterPluginConfiguration.from requires non-null PluginConfiguration");
+    LinearWaveformFilterPluginConfiguration.from(null);
+  }
+
+  @Test
+  public void testFromNonIntegerFactorExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage(
+        "LinearWaveformFilterPluginConfiguration.from requires integer downsampleFactor");
+    LinearWaveformFilterPluginConfiguration
+        .from(PluginConfiguration.from(Map.of("downsampleFactor", 2.5)));
+  }
+
+  @Test
+  public void testFromNonPositiveFactorExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage(
+        "LinearWaveformFilterPluginConfiguration.from requires positive upsampleFactor");
+    LinearWaveformFilterPluginConfiguration
+        .from(PluginConfiguration.from(Map.of("upsampleFactor", 0)));
+  }
+}
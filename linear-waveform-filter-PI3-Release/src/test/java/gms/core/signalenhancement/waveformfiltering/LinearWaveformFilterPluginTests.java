@@ -1,12 +1,33 @@
 package gms.core.signalenhancement.waveformfiltering;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import gms.core.signalenhancement.waveformfiltering.plugin.PluginConfiguration;
+import gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.CreationInfo;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterCausality;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterDefinition;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterPassBandType;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterSource;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterType;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment.ChannelSegmentType;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
+import gms.shared.utilities.signalprocessing.filter.Fir;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.UUID;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -77,4 +98,254 @@ public class LinearWaveformFilterPluginTests {
 
     assertTrue(Arrays.equals(expectedOutput, outputWaveform.getValues()));
   }
+
+  @Test
+  public void testFilterBankMatchesFilter() throws Exception {
+    final FilterDefinition iirFilterDefinition = FilterDefinition
+        .from("libTest", "libTestDesc", FilterType.IIR_BUTTERWORTH, FilterPassBandType.LOW_PASS,
+            0.0, 2.0, 2, FilterSource.USER, FilterCausality.CAUSAL, false, 20.0, 1.0,
+            new double[]{1.0, -1.1429805025399009, 0.41280159809618855},
+            new double[]{0.06745527388907191, 0.13491054777814382, 0.06745527388907191}, 0.0);
+    final FilterDefinition otherSampleRateFilterDefinition = FilterDefinition
+        .createFir("libTest", "libTestDesc", FilterType.FIR_HAMMING, FilterPassBandType.BAND_PASS,
+            1.0, 3.0, 2, FilterSource.USER, FilterCausality.CAUSAL, false, 40.0, 1.0,
+            new double[]{0.5, 0.5}, 1.0);
+    final List<FilterDefinition> filterDefinitions = List
+        .of(FilterTestData.FIR_FILTER_DEF, iirFilterDefinition, otherSampleRateFilterDefinition,
+            FilterTestData.FIR_FILTER_DEF);
+
+    final Map<FilterDefinition, Collection<Waveform>> filtered = plugin
+        .filterBank(FilterTestData.CHANNEL_SEGMENT2, filterDefinitions);
+
+    assertEquals(List.of(FilterTestData.FIR_FILTER_DEF, iirFilterDefinition,
+        otherSampleRateFilterDefinition), new ArrayList<>(filtered.keySet()));
+    for (FilterDefinition filterDefinition : filtered.keySet()) {
+      assertEquals(plugin.filter(FilterTestData.CHANNEL_SEGMENT2, filterDefinition),
+          filtered.get(filterDefinition));
+    }
+    assertTrue(filtered.get(otherSampleRateFilterDefinition).isEmpty());
+  }
+
+  @Test
+  public void testFilterResamples() throws Exception {
+    final LinearWaveformFilterPlugin resamplingPlugin = LinearWaveformFilterPlugin.create(
+        LinearWaveformFilterPluginConfiguration
+            .from(PluginConfiguration.from(Map.of("downsampleFactor", 2))));
+
+    final Collection<Waveform> waveforms =
+        resamplingPlugin.filter(FilterTestData.CHANNEL_SEGMENT, FilterTestData.FIR_FILTER_DEF);
+
+    assertEquals(1, waveforms.size());
+    final Waveform outputWaveform = waveforms.iterator().next();
+    assertEquals(Instant.EPOCH, outputWaveform.getStartTime());
+    assertEquals(10.0, outputWaveform.getSampleRate(), Double.MIN_NORMAL);
+    assertArrayEquals(new double[]{5.5, 3.3, 1.1}, outputWaveform.getValues(), 0.0);
+
+    final Map<FilterDefinition, Collection<Waveform>> filtered = resamplingPlugin
+        .filterBank(FilterTestData.CHANNEL_SEGMENT, List.of(FilterTestData.FIR_FILTER_DEF));
+    assertEquals(waveforms, filtered.get(FilterTestData.FIR_FILTER_DEF));
+  }
+
+  @Test
+  public void testCreateNullConfigurationExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("LinearWaveformFilterPlugin requires non-null configuration");
+    LinearWaveformFilterPlugin.create(null);
+  }
+
+  @Test
+  public void testFilterBankNullChannelSegmentExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    plugin.filterBank(null, List.of(FilterTestData.FIR_FILTER_DEF));
+  }
+
+  @Test
+  public void testFilterBankNullFilterDefinitionsExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    plugin.filterBank(FilterTestData.CHANNEL_SEGMENT, null);
+  }
+
+  @Test
+  public void testFilterStreamingContiguousSegmentsMatchFilter() throws Exception {
+    final double[] samples = new Random(31).doubles(400, -10.0, 10.0).toArray();
+    final UUID processingChannelId = UUID.randomUUID();
+
+    final Waveform first = Waveform
+        .withInferredEndTime(Instant.EPOCH, 20.0, 150, Arrays.copyOfRange(samples, 0, 150));
+    final Waveform second = Waveform
+        .withInferredEndTime(nextSampleTime(first), 20.0, 250,
+            Arrays.copyOfRange(samples, 150, 400));
+
+    final Waveform firstOutput = filterStreamingSingle(processingChannelId, first);
+    final Waveform secondOutput = filterStreamingSingle(processingChannelId, second);
+
+    final double[] expected = Fir.filter(samples, FilterTestData.FORWARD_COEFFS);
+    assertArrayEquals(Arrays.copyOfRange(expected, 0, 150), firstOutput.getValues(), 0.0);
+    assertArrayEquals(Arrays.copyOfRange(expected, 150, 400), secondOutput.getValues(), 0.0);
+    assertEquals(second.getStartTime(), secondOutput.getStartTime());
+    assertEquals(second.getEndTime(), secondOutput.getEndTime());
+  }
+
+  @Test
+  public void testFilterStreamingRestartsAfterGap() throws Exception {
+    final double[] samples = new Random(37).doubles(100, -10.0, 10.0).toArray();
+    final UUID processingChannelId = UUID.randomUUID();
+
+    final Waveform first = Waveform.withInferredEndTime(Instant.EPOCH, 20.0, 100, samples);
+    final Waveform afterGap = Waveform
+        .withInferredEndTime(first.getEndTime().plusSeconds(1), 20.0, 100, samples);
+
+    filterStreamingSingle(processingChannelId, first);
+
+    assertArrayEquals(Fir.filter(samples, FilterTestData.FORWARD_COEFFS),
+        filterStreamingSingle(processingChannelId, afterGap).getValues(), 0.0);
+  }
+
+  @Test
+  public void testFilterStreamingRestartsAfterSampleRateChange() throws Exception {
+    final double[] samples = new Random(41).doubles(100, -10.0, 10.0).toArray();
+    final UUID processingChannelId = UUID.randomUUID();
+
+    final Waveform first = Waveform.withInferredEndTime(Instant.EPOCH, 20.0, 100, samples);
+    final Waveform faster = Waveform
+        .withInferredEndTime(first.getEndTime().plusMillis(48), 20.5, 100, samples);
+
+    filterStreamingSingle(processingChannelId, first);
+
+    assertArrayEquals(Fir.filter(samples, FilterTestData.FORWARD_COEFFS),
+        filterStreamingSingle(processingChannelId, faster).getValues(), 0.0);
+  }
+
+  @Test
+  public void testEndSessionRestartsSession() throws Exception {
+    final double[] samples = new Random(43).doubles(100, -10.0, 10.0).toArray();
+    final UUID processingChannelId = UUID.randomUUID();
+
+    final Waveform first = Waveform.withInferredEndTime(Instant.EPOCH, 20.0, 100, samples);
+    final Waveform second = Waveform
+        .withInferredEndTime(nextSampleTime(first), 20.0, 100, samples);
+
+    filterStreamingSingle(processingChannelId, first);
+    plugin.endSession(processingChannelId);
+
+    assertArrayEquals(Fir.filter(samples, FilterTestData.FORWARD_COEFFS),
+        filterStreamingSingle(processingChannelId, second).getValues(), 0.0);
+  }
+
+  @Test
+  public void testFilterStreamingEvictsIdleSessions() throws Exception {
+    final double[] samples = new Random(47).doubles(100, -10.0, 10.0).toArray();
+    final UUID activeChannelId = UUID.randomUUID();
+
+    final SettableClock clock = new SettableClock(Instant.EPOCH);
+    plugin = LinearWaveformFilterPlugin
+        .create(LinearWaveformFilterPluginConfiguration.defaults(), clock);
+
+    final Waveform first = Waveform.withInferredEndTime(Instant.EPOCH, 20.0, 100, samples);
+    final Waveform second = Waveform
+        .withInferredEndTime(nextSampleTime(first), 20.0, 100, samples);
+    filterStreamingSingle(activeChannelId, first);
+    filterStreamingSingle(UUID.randomUUID(), first);
+
+    // Sessions used exactly SESSION_IDLE_TIMEOUT ago are retained, so the active channel's session
+    // continues
+    clock.instant = Instant.EPOCH.plus(LinearWaveformFilterPlugin.SESSION_IDLE_TIMEOUT);
+    final Waveform secondOutput = filterStreamingSingle(activeChannelId, second);
+    assertEquals(2, plugin.getSessionCount());
+
+    final double[] continued = Fir.filter(concat(samples, samples), FilterTestData.FORWARD_COEFFS);
+    assertArrayEquals(Arrays.copyOfRange(continued, 100, 200), secondOutput.getValues(), 0.0);
+
+    // The idle channel's session is discarded once it exceeds SESSION_IDLE_TIMEOUT
+    clock.instant = clock.instant.plusSeconds(1);
+    filterStreamingSingle(UUID.randomUUID(), first);
+    assertEquals(2, plugin.getSessionCount());
+  }
+
+  @Test
+  public void testFilterStreamingNullChannelSegmentExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    plugin.filterStreaming(null, FilterTestData.FIR_FILTER_DEF);
+  }
+
+  @Test
+  public void testFilterStreamingNullFilterDefinitionExpectNullPointerException()
+      throws Exception {
+    exception.expect(NullPointerException.class);
+    plugin.filterStreaming(FilterTestData.CHANNEL_SEGMENT, null);
+  }
+
+  @Test
+  public void testFilterStreamingResamplingExpectIllegalStateException() throws Exception {
+    final LinearWaveformFilterPlugin resamplingPlugin = LinearWaveformFilterPlugin.create(
+        LinearWaveformFilterPluginConfiguration
+            .from(PluginConfiguration.from(Map.of("downsampleFactor", 2))));
+
+    exception.expect(IllegalStateException.class);
+    exception.expectMessage("LinearWaveformFilterPlugin cannot stream filter with upsampleFactor 1 "
+        + "and downsampleFactor 2");
+    resamplingPlugin.filterStreaming(FilterTestData.CHANNEL_SEGMENT, FilterTestData.FIR_FILTER_DEF);
+  }
+
+  @Test
+  public void testEndSessionNullProcessingChannelIdExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    plugin.endSession(null);
+  }
+
+  /**
+   * Streams a {@link ChannelSegment} containing only the waveform through the plugin's FIR filter
+   * session for the processing channel and returns the single filtered waveform
+   */
+  private Waveform filterStreamingSingle(UUID processingChannelId, Waveform waveform) {
+    final ChannelSegment channelSegment = ChannelSegment.create(processingChannelId, "TEST",
+        ChannelSegmentType.FILTER, waveform.getStartTime(), waveform.getEndTime(),
+        new TreeSet<>(List.of(waveform)), CreationInfo.DEFAULT);
+
+    final Collection<Waveform> filtered = plugin
+        .filterStreaming(channelSegment, FilterTestData.FIR_FILTER_DEF);
+    assertEquals(1, filtered.size());
+
+    return filtered.iterator().next();
+  }
+
+  private static double[] concat(double[] first, double[] second) {
+    final double[] both = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, both, first.length, second.length);
+    return both;
+  }
+
+  /**
+   * {@link Clock} reporting a settable instant
+   */
+  private static class SettableClock extends Clock {
+
+    private Instant instant;
+
+    private SettableClock(Instant instant) {
+      this.instant = instant;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+
+  /**
+   * Obtains the time of the sample following the last sample in the waveform
+   */
+  private static Instant nextSampleTime(Waveform waveform) {
+    return waveform.getEndTime().plusNanos((long) (1.0e9 / waveform.getSampleRate()));
+  }
 }
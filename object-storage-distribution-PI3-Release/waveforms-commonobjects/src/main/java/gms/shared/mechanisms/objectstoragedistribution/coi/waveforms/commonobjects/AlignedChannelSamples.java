@@ -0,0 +1,273 @@
+package gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * The waveform samples of several {@link ChannelSegment}s, e.g. the channels of an array station,
+ * aligned to a common time base.  Sample k of every channel occurs at the common time
+ * startTime + k / sampleRate, so cross channel operations such as stacking and correlation work
+ * on matching indices instead of comparing sample times.
+ *
+ * Samples are stored in one contiguous channel-major matrix: sample k of channel c is at index
+ * c * sampleCount + k of {@link AlignedChannelSamples#getValues()}.  Each channel sample is placed
+ * at the nearest common sample time.  Common sample times without a channel sample (data gaps and
+ * times outside the ChannelSegment) are zero and are marked missing in the gap mask.  A channel's
+ * samples are usually offset from the common sample times by a fraction of a sample period; that
+ * offset is recorded for each of the channel's waveforms rather than interpolated away, since the
+ * phase can change from one waveform to the next (e.g. after a digitizer restart).
+ *
+ * The ChannelSegments must already have the common sample rate.  Channels at other rates leave
+ * gaps or overwrite samples; resample them first.
+ */
+public class AlignedChannelSamples {
+
+  private static final double NANOS_PER_SECOND = 1.0e9;
+
+  private final List<UUID> processingChannelIds;
+  private final Instant startTime;
+  private final double sampleRate;
+  private final int sampleCount;
+  private final double[] values;
+  private final boolean[] present;
+  private final List<OffsetRuns> fractionalOffsets;
+
+  private AlignedChannelSamples(List<UUID> processingChannelIds, Instant startTime,
+      double sampleRate, int sampleCount, double[] values, boolean[] present,
+      List<OffsetRuns> fractionalOffsets) {
+
+    this.processingChannelIds = processingChannelIds;
+    this.startTime = startTime;
+    this.sampleRate = sampleRate;
+    this.sampleCount = sampleCount;
+    this.values = values;
+    this.present = present;
+    this.fractionalOffsets = fractionalOffsets;
+  }
+
+  /**
+   * Aligns the waveform samples of the {@link ChannelSegment}s to a common time base of
+   * sampleCount samples at sampleRate beginning at startTime.  Each ChannelSegment becomes one
+   * channel (row) of the matrix, in the order provided.  Takes time proportional to the total
+   * number of waveform samples plus the size of the matrix.
+   *
+   * @param channelSegments ChannelSegments to align, not null
+   * @param startTime time of the first common sample, not null
+   * @param sampleRate common sample rate in samples per second, must be > 0
+   * @param sampleCount number of common samples, must be >= 0
+   * @return AlignedChannelSamples, not null
+   * @throws NullPointerException if channelSegments, any ChannelSegment, or startTime are null
+   * @throws IllegalArgumentException if sampleRate is not positive; if sampleCount is negative; if
+   * the matrix would hold more than Integer.MAX_VALUE samples
+   * @throws ArithmeticException if a sample time is not representable as epoch nanoseconds in a
+   * long (before 1677 or after 2262)
+   */
+  public static AlignedChannelSamples create(List<ChannelSegment> channelSegments,
+      Instant startTime, double sampleRate, int sampleCount) {
+
+    Objects.requireNonNull(channelSegments,
+        "AlignedChannelSamples requires non-null channelSegments");
+    Objects.requireNonNull(startTime, "AlignedChannelSamples requires non-null startTime");
+    Validate.isTrue(sampleRate > 0.0 && Double.isFinite(sampleRate),
+        "AlignedChannelSamples requires a positive sampleRate");
+    Validate.isTrue(sampleCount >= 0, "AlignedChannelSamples requires a non-negative sampleCount");
+    Validate.isTrue((long) channelSegments.size() * sampleCount <= Integer.MAX_VALUE,
+        "AlignedChannelSamples requires at most Integer.MAX_VALUE samples");
+
+    final int channelCount = channelSegments.size();
+    final List<UUID> processingChannelIds = new ArrayList<>(channelCount);
+    final double[] values = new double[channelCount * sampleCount];
+    final boolean[] present = new boolean[channelCount * sampleCount];
+    final List<OffsetRuns> fractionalOffsets = new ArrayList<>(channelCount);
+
+    final long startNanos = Timeseries.epochNanos(startTime);
+    for (int c = 0; c < channelCount; ++c) {
+      final ChannelSegment channelSegment = Objects.requireNonNull(channelSegments.get(c),
+          "AlignedChannelSamples requires non-null channelSegments");
+      processingChannelIds.add(channelSegment.getProcessingChannelId());
+
+      final int rowOffset = c * sampleCount;
+      final OffsetRuns offsetRuns = new OffsetRuns(channelSegment.getWaveforms().size());
+      for (Waveform waveform : channelSegment.getWaveforms()) {
+        waveform.forEachSample((index, epochNanos, value) -> {
+          // Nearest common sample, and this sample's offset from it in common sample periods
+          final double samples = (epochNanos - startNanos) * sampleRate / NANOS_PER_SECOND;
+          final long k = Math.round(samples);
+          if (k >= 0 && k < sampleCount && !present[rowOffset + (int) k]) {
+            values[rowOffset + (int) k] = value;
+            present[rowOffset + (int) k] = true;
+            offsetRuns.add((int) k, samples - k);
+          }
+        });
+        offsetRuns.endRun();
+      }
+      fractionalOffsets.add(offsetRuns);
+    }
+
+    return new AlignedChannelSamples(Collections.unmodifiableList(processingChannelIds),
+        startTime, sampleRate, sampleCount, values, present, fractionalOffsets);
+  }
+
+  /**
+   * Obtains the processing channel id of each channel, in channel order
+   *
+   * @return processing channel ids, not null
+   */
+  public List<UUID> getProcessingChannelIds() {
+    return processingChannelIds;
+  }
+
+  public int getChannelCount() {
+    return processingChannelIds.size();
+  }
+
+  public Instant getStartTime() {
+    return startTime;
+  }
+
+  public double getSampleRate() {
+    return sampleRate;
+  }
+
+  public int getSampleCount() {
+    return sampleCount;
+  }
+
+  /**
+   * Obtains the aligned samples of every channel.  Sample k of channel c is at index
+   * c * getSampleCount() + k.  Missing samples are zero.  The returned array is not copied and
+   * must not be modified.
+   *
+   * @return channel-major sample matrix, not null
+   */
+  public double[] getValues() {
+    return values;
+  }
+
+  /**
+   * Obtains an aligned sample
+   *
+   * @param channel channel index
+   * @param sample common sample index
+   * @return the channel's sample at the common sample time, or zero if it is missing
+   * @throws IndexOutOfBoundsException if channel or sample are out of range
+   */
+  public double getValue(int channel, int sample) {
+    return values[index(channel, sample)];
+  }
+
+  /**
+   * Determines whether a channel has a sample at a common sample time
+   *
+   * @param channel channel index
+   * @param sample common sample index
+   * @return true if the channel has a sample, false if the sample is in a gap
+   * @throws IndexOutOfBoundsException if channel or sample are out of range
+   */
+  public boolean hasValue(int channel, int sample) {
+    return present[index(channel, sample)];
+  }
+
+  /**
+   * Obtains the offset of a channel's sample from its common sample time, as a fraction of the
+   * common sample period in [-0.5, 0.5].  A channel sample at time t is aligned to common sample k
+   * where t = startTime + (k + offset) / sampleRate.  The offset is measured on the first aligned
+   * sample of the channel's {@link Waveform} providing the sample, so samples from different
+   * Waveforms may have different offsets.  Takes O(log W) time for W Waveforms.
+   *
+   * @param channel channel index
+   * @param sample common sample index
+   * @return fractional sample offset, or NaN if the channel's sample is missing
+   * @throws IndexOutOfBoundsException if channel or sample are out of range
+   */
+  public double getFractionalOffset(int channel, int sample) {
+    return present[index(channel, sample)]
+        ? fractionalOffsets.get(channel).offset(sample) : Double.NaN;
+  }
+
+  /**
+   * Computes the mean over the channels of each common sample, ignoring missing samples
+   *
+   * @return stacked samples, NaN where every channel is missing, not null
+   */
+  public double[] stack() {
+    final double[] sums = new double[sampleCount];
+    final int[] counts = new int[sampleCount];
+
+    // Traverse each channel's row contiguously
+    for (int c = 0; c < getChannelCount(); ++c) {
+      final int rowOffset = c * sampleCount;
+      for (int k = 0; k < sampleCount; ++k) {
+        if (present[rowOffset + k]) {
+          sums[k] += values[rowOffset + k];
+          ++counts[k];
+        }
+      }
+    }
+
+    for (int k = 0; k < sampleCount; ++k) {
+      sums[k] = counts[k] > 0 ? sums[k] / counts[k] : Double.NaN;
+    }
+
+    return sums;
+  }
+
+  private int index(int channel, int sample) {
+    if (channel < 0 || channel >= getChannelCount() || sample < 0 || sample >= sampleCount) {
+      throw new IndexOutOfBoundsException(
+          "Channel " + channel + " sample " + sample + " is not in the aligned samples");
+    }
+    return channel * sampleCount + sample;
+  }
+
+  /**
+   * A channel's fractional sample offset for each run of common samples provided by one of its
+   * {@link Waveform}s.  Runs are added in Waveform order, so they are in common sample order when
+   * the Waveforms do not overlap.
+   */
+  private static class OffsetRuns {
+
+    private final int[] starts;
+    private final double[] offsets;
+    private int count;
+    private boolean inRun;
+
+    private OffsetRuns(int capacity) {
+      this.starts = new int[capacity];
+      this.offsets = new double[capacity];
+    }
+
+    /**
+     * Records an aligned sample, starting a new run on the first sample of each Waveform
+     */
+    private void add(int sample, double offset) {
+      if (!inRun) {
+        starts[count] = sample;
+        offsets[count] = offset;
+        ++count;
+        inRun = true;
+      }
+    }
+
+    private void endRun() {
+      inRun = false;
+    }
+
+    /**
+     * Obtains the offset of the last run starting at or before the aligned sample
+     */
+    private double offset(int sample) {
+      int run = Arrays.binarySearch(starts, 0, count, sample);
+      if (run < 0) {
+        run = -run - 2;
+      }
+      return offsets[Math.max(run, 0)];
+    }
+  }
+}
@@ -3,25 +3,34 @@ package gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobje
 import gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.CreationInfo;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 
 /**
  * Represents a segment of waveform data from a ProcessingChannel.
+ *
+ * A ChannelSegment is immutable.  Its hash code covers every waveform so it is computed once and
+ * then reused.  Likewise the index converting between waveform point times and indices is built
+ * on first use.
  */
 public final class ChannelSegment implements Comparable<ChannelSegment> {
 
+  private static final long NANOS_PER_SECOND = 1000000000;
+
   private final UUID id;
   private final UUID processingChannelId;
   private final String name;
@@ -31,6 +40,11 @@ public final class ChannelSegment implements Comparable<ChannelSegment> {
   private final SortedSet<Waveform> waveforms;
   private final CreationInfo creationInfo;
 
+  // Hash code computed by the first call to hashCode(), or 0 if not yet computed
+  private int hashCode;
+
+  // Sample time index built by the first sample time lookup
+  private transient volatile WaveformTimeIndex timeIndex;
 
   public enum ChannelSegmentType {
     ACQUIRED, RAW, DETECTION_BEAM, FK_BEAM, FILTER
@@ -57,6 +71,31 @@ public final class ChannelSegment implements Comparable<ChannelSegment> {
         type, start, end, wfs, creationInfo);
   }
 
+  /**
+   * Creates a ChannelSegment anew from waveforms which are already in ascending start time order,
+   * e.g. waveforms computed in order from another ChannelSegment's waveforms.  The waveforms are
+   * copied once, in linear time, instead of being sorted into a SortedSet before they are copied.
+   *
+   * @param processingChannelId the id of the processing channel the segment is from.
+   * @param name Name of the ChannelSegment.
+   * @param type The type of the ChannelSegment, e.g. ChannelSegmentType.RAW.
+   * @param start Start time for the ChannelSegment.
+   * @param end End time for the ChannelSegment.
+   * @param orderedWfs The Waveforms representing the data of the ChannelSegment, in ascending start
+   * time order.
+   * @param creationInfo metadata about when this object was created and by what/whom.
+   * @throws NullPointerException if any arg is null
+   * @throws IllegalArgumentException if string arg is empty or the waveforms do not have strictly
+   * increasing start times
+   */
+  public static ChannelSegment createFromOrdered(UUID processingChannelId, String name,
+      ChannelSegmentType type, Instant start, Instant end, Collection<Waveform> orderedWfs,
+      CreationInfo creationInfo) {
+
+    return new ChannelSegment(UUID.randomUUID(), processingChannelId, name,
+        type, start, end, new OrderedWaveforms(orderedWfs), creationInfo);
+  }
+
   /**
    * Creates a ChannelSegment from all params.
    *
@@ -106,7 +145,10 @@ public final class ChannelSegment implements Comparable<ChannelSegment> {
     this.segmentType = Objects.requireNonNull(type);
     this.startTime = Objects.requireNonNull(start);
     this.endTime = Objects.requireNonNull(end);
-    this.waveforms = Objects.requireNonNull(wfs);
+    // Copied so the waveforms, and therefore the cached hash code, cannot change.  Copying a
+    // SortedSet into a TreeSet takes linear time since the waveforms are already ordered.
+    this.waveforms = Collections
+        .unmodifiableSortedSet(new TreeSet<>(Objects.requireNonNull(wfs)));
     this.creationInfo = Objects.requireNonNull(creationInfo);
   }
 
@@ -156,6 +198,83 @@ public final class ChannelSegment implements Comparable<ChannelSegment> {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Provides all of the waveform points of this ChannelSegment to the consumer in the same order
+   * as {@link ChannelSegment#allWaveformPoints(ChannelSegment)} without creating objects per
+   * point.  The index provided to the consumer is the point's index in that flattened list.
+   *
+   * @param consumer receives each waveform point, not null
+   * @throws NullPointerException if consumer is null
+   */
+  public void forEachWaveformPoint(Timeseries.SampleConsumer consumer) {
+    Objects.requireNonNull(consumer,
+        "ChannelSegment forEachWaveformPoint requires non-null consumer");
+
+    int offset = 0;
+    for (Waveform waveform : waveforms) {
+      final int waveformOffset = offset;
+      waveform.forEachSample((index, epochNanos, value) ->
+          consumer.accept(waveformOffset + index, epochNanos, value));
+      offset += waveform.getValuesLength();
+    }
+  }
+
+  /**
+   * Obtains the time of a waveform point in nanoseconds since the unix epoch.  The index is the
+   * point's index in {@link ChannelSegment#allWaveformPoints(ChannelSegment)}.  The time is the
+   * {@link Waveform#timeForSample(long)} of the point within its Waveform.  Finding the Waveform
+   * containing the point takes O(log W) time for W waveforms.
+   *
+   * @param index waveform point index
+   * @return waveform point time in epoch nanoseconds
+   * @throws IndexOutOfBoundsException if index is not in [0, number of waveform points - 1]
+   * @throws ArithmeticException if a waveform start time is not representable as epoch
+   * nanoseconds in a long (before 1677 or after 2262)
+   */
+  public long epochNanosForSample(int index) {
+    return timeIndex().epochNanosForSample(index);
+  }
+
+  /**
+   * Obtains the time of a waveform point.  The index is the point's index in {@link
+   * ChannelSegment#allWaveformPoints(ChannelSegment)}.  See {@link
+   * ChannelSegment#epochNanosForSample(int)}.
+   *
+   * @param index waveform point index
+   * @return {@link Instant} of the waveform point, not null
+   * @throws IndexOutOfBoundsException if index is not in [0, number of waveform points - 1]
+   * @throws ArithmeticException if a waveform start time is not representable as epoch
+   * nanoseconds in a long (before 1677 or after 2262)
+   */
+  public Instant timeForSample(int index) {
+    final long epochNanos = epochNanosForSample(index);
+    return Instant.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+        Math.floorMod(epochNanos, NANOS_PER_SECOND));
+  }
+
+  /**
+   * Finds the last waveform point occurring at or before a time, assuming the waveforms do not
+   * overlap.  Takes O(log W) time for W waveforms.
+   *
+   * @param epochNanos time in nanoseconds since the unix epoch
+   * @return index of the waveform point in {@link ChannelSegment#allWaveformPoints(ChannelSegment)},
+   * or -1 if every waveform point occurs after the time
+   * @throws ArithmeticException if a waveform start time is not representable as epoch
+   * nanoseconds in a long (before 1677 or after 2262)
+   */
+  public int sampleIndexAtOrBefore(long epochNanos) {
+    return timeIndex().sampleAtOrBefore(epochNanos);
+  }
+
+  private WaveformTimeIndex timeIndex() {
+    WaveformTimeIndex index = timeIndex;
+    if (index == null) {
+      index = WaveformTimeIndex.create(waveforms);
+      timeIndex = index;
+    }
+    return index;
+  }
+
   /**
    * Given a Collection of ChannelSegment, returns List of all Waveform's in those segments.
    *
@@ -202,66 +321,73 @@ public final class ChannelSegment implements Comparable<ChannelSegment> {
       return this;
     }
 
-    // create a new sorted set for the new channel segment and iterate over all waveforms in this
-    // channel segment. Add the first waveform to the new set to begin
-    TreeSet<Waveform> newWaveformSet = new TreeSet<>();
-    Iterator<Waveform> waveformIterator = getWaveforms().iterator();
-    Waveform previousWaveform = waveformIterator.next();
-    newWaveformSet.add(previousWaveform);
-    while (waveformIterator.hasNext()) {
+    // create a new sorted set for the new channel segment containing all waveforms in this
+    // channel segment and the interpolated waveforms between them
+    TreeSet<Waveform> newWaveformSet = new TreeSet<>(
+        interpolateGaps(sampleRateTolerance, maximumGapSampleCountLimit));
 
-      // get the next waveform after the previous and see if the sample rates are comparable.
-      Waveform nextWaveform = waveformIterator.next();
-      if (Math.abs(previousWaveform.getSampleRate() - nextWaveform.getSampleRate()) <=
-          sampleRateTolerance) {
-
-        // get the fractional gap sample count (fractional sample period between the two waveforms)
-        // and check to see if an interpolated waveform is required (gap is equal to or larger than
-        // 1.5 samples but smaller than the maximumGapLimit).
-        double fractionalGapSampleCount = getFractionalSampleCount(previousWaveform, nextWaveform);
-        if (fractionalGapSampleCount >= 1.5 && fractionalGapSampleCount <
-            maximumGapSampleCountLimit) {
-
-          // make a new Waveform that has a sample rate as close to the mean of the original adjacent
-          // waveforms as possible. The start time of the new waveform will be equal to the end time
-          // of the previous waveform plus 1 sample period (the sample period of the new waveform).
-          // The end time will be the start time of the next waveform minus 1 sample period). The
-          // number of samples will be the rounded value of the fractionalGapSampleCount - 1. Since
-          // the fractionalGapSampleCount is always 1.5 or larger the rounded value - 1 will always
-          // contain at least one sample. The new sample count will be 1 for 1.5 <= fraction < 2.5,
-          // 2 for 2.5 <= fraction < 3.5, and so on.
-          long newSampleCount = Math.round(fractionalGapSampleCount) - 1;
-
-          // make a double array of newSampleCount points and fill with the linearly interpolated values
-          // from the last sample of the previousWaveform to the first sample of the nextWaveform
-          double[] samples = new double[(int) newSampleCount];
-          double startSample = previousWaveform.getLastSample();
-          double delSample = (nextWaveform.getFirstSample() - startSample) / (newSampleCount + 1);
-          for (int i = 1; i <= newSampleCount; ++i) {
-            samples[i - 1] = delSample * i + startSample;
-          }
-
-          // create the new waveform as the previous and add to the waveform set.
-          double gapTimeWidth = getDurationSeconds(previousWaveform.getEndTime(),
-              nextWaveform.getStartTime());
-          double sampleRate = (double) (samples.length + 1) / gapTimeWidth;
-          long samplePeriod = (long) (1000000000 / sampleRate);
-
-          previousWaveform = Waveform.create(previousWaveform.getEndTime().plusNanos(samplePeriod),
-              nextWaveform.getStartTime().minusNanos(samplePeriod), sampleRate, samples.length,
-              samples);
-          newWaveformSet.add(previousWaveform);
+    // create and return the new channel segment
+    return ChannelSegment.create(this.processingChannelId, this.name, this.segmentType,
+        this.startTime, this.endTime, newWaveformSet, this.creationInfo);
+  }
+
+  /**
+   * Obtains an interpolated {@link Waveform} filling the gap between two adjacent Waveforms if the
+   * gap is interpolatable (see {@link ChannelSegment#interpolateWaveformGap(double, double)}).
+   *
+   * @param previousWaveform The earlier {@link Waveform}
+   * @param nextWaveform The later {@link Waveform}
+   * @param sampleRateTolerance The acceptable sample rate tolerance between the two {@link
+   * Waveform}s.
+   * @param maximumGapSampleCountLimit The size of the gap beyond which interpolation is not
+   * performed.
+   * @return The interpolated Waveform, or an empty Optional if the gap is not interpolatable.
+   */
+  private static Optional<Waveform> interpolateGap(Waveform previousWaveform,
+      Waveform nextWaveform, double sampleRateTolerance, double maximumGapSampleCountLimit) {
+
+    if (Math.abs(previousWaveform.getSampleRate() - nextWaveform.getSampleRate()) <=
+        sampleRateTolerance) {
+
+      // get the fractional gap sample count (fractional sample period between the two waveforms)
+      // and check to see if an interpolated waveform is required (gap is equal to or larger than
+      // 1.5 samples but smaller than the maximumGapLimit).
+      double fractionalGapSampleCount = getFractionalSampleCount(previousWaveform, nextWaveform);
+      if (fractionalGapSampleCount >= 1.5 && fractionalGapSampleCount <
+          maximumGapSampleCountLimit) {
+
+        // make a new Waveform that has a sample rate as close to the mean of the original adjacent
+        // waveforms as possible. The start time of the new waveform will be equal to the end time
+        // of the previous waveform plus 1 sample period (the sample period of the new waveform).
+        // The end time will be the start time of the next waveform minus 1 sample period). The
+        // number of samples will be the rounded value of the fractionalGapSampleCount - 1. Since
+        // the fractionalGapSampleCount is always 1.5 or larger the rounded value - 1 will always
+        // contain at least one sample. The new sample count will be 1 for 1.5 <= fraction < 2.5,
+        // 2 for 2.5 <= fraction < 3.5, and so on.
+        long newSampleCount = Math.round(fractionalGapSampleCount) - 1;
+
+        // make a double array of newSampleCount points and fill with the linearly interpolated values
+        // from the last sample of the previousWaveform to the first sample of the nextWaveform
+        double[] samples = new double[(int) newSampleCount];
+        double startSample = previousWaveform.getLastSample();
+        double delSample = (nextWaveform.getFirstSample() - startSample) / (newSampleCount + 1);
+        for (int i = 1; i <= newSampleCount; ++i) {
+          samples[i - 1] = delSample * i + startSample;
         }
-      }
 
-      // add the next waveform, update the previousWaveform and continue
-      newWaveformSet.add(nextWaveform);
-      previousWaveform = nextWaveform;
+        // create the new waveform filling the gap
+        double gapTimeWidth = getDurationSeconds(previousWaveform.getEndTime(),
+            nextWaveform.getStartTime());
+        double sampleRate = (double) (samples.length + 1) / gapTimeWidth;
+        long samplePeriod = (long) (1000000000 / sampleRate);
+
+        return Optional.of(Waveform.create(previousWaveform.getEndTime().plusNanos(samplePeriod),
+            nextWaveform.getStartTime().minusNanos(samplePeriod), sampleRate, samples.length,
+            samples));
+      }
     }
 
-    // create and return the new channel segment
-    return ChannelSegment.create(this.processingChannelId, this.name, this.segmentType,
-        this.startTime, this.endTime, newWaveformSet, this.creationInfo);
+    return Optional.empty();
   }
 
   /**
@@ -287,49 +413,356 @@ public final class ChannelSegment implements Comparable<ChannelSegment> {
       return this;
     }
 
-    // create a new sorted set for the new channel segment and iterate over all waveforms in this
-    // channel segment. Add the first waveform to the new set to begin
+    // Group the waveforms into runs of adjacent waveforms that will be merged, then build each
+    // run's waveform.  The runs are already in time order.
     TreeSet<Waveform> newWaveformSet = new TreeSet<>();
-    Iterator<Waveform> waveformIterator = getWaveforms().iterator();
-    Waveform previousWaveform = waveformIterator.next();
-    newWaveformSet.add(previousWaveform);
-    while (waveformIterator.hasNext()) {
+    mergeRuns(getWaveforms(), sampleRateTolerance, minimumGapSampleCountLimit)
+        .forEach(r -> newWaveformSet.add(r.toWaveform()));
 
-      // get the next waveform after the previous and see if the sample rates are comparable.
-      Waveform nextWaveform = waveformIterator.next();
-      if (Math.abs(previousWaveform.getSampleRate() - nextWaveform.getSampleRate())
-          <= sampleRateTolerance) {
-
-        // get the fractional gap sample count (fractional sample period between the two waveforms)
-        // and check to see if a merged waveform is required (gap is less than 1.5 samples and
-        // larger than the minimumGapLimit).
-        double fractionalGapSampleCount = getFractionalSampleCount(previousWaveform, nextWaveform);
-        if (fractionalGapSampleCount < 1.5 &&
-            fractionalGapSampleCount > minimumGapSampleCountLimit) {
-
-          // make a new Waveform that is a merger of the previousWaveform and the next Waveform
-          double[] samples = ArrayUtils
-              .addAll(previousWaveform.getValues(), nextWaveform.getValues());
-          double sampleRate = (double) (samples.length - 1) /
-              getDurationSeconds(previousWaveform.getStartTime(), nextWaveform.getEndTime());
-          nextWaveform = Waveform.create(previousWaveform.getStartTime(), nextWaveform.getEndTime(),
-              sampleRate, samples.length, samples);
-
-          // remove the previous waveform (which is now merged) and continue
-          newWaveformSet.pollLast();
-        }
-      }
+    // create and return new channel segment
+    return ChannelSegment.create(this.processingChannelId, this.name, this.segmentType,
+        this.startTime, this.endTime, newWaveformSet, this.creationInfo);
+  }
 
-      // add the next waveform, update the previousWaveform and continue
-      newWaveformSet.add(nextWaveform);
-      previousWaveform = nextWaveform;
+  /**
+   * Conditions this ChannelSegment's {@link Waveform}s in a single pass.  The result is the same as
+   * calling {@link ChannelSegment#interpolateWaveformGap(double, double)} and then {@link
+   * ChannelSegment#mergeWaveforms(double, double)}, but no intermediate ChannelSegment is created
+   * and each merged Waveform's samples are copied exactly once.
+   *
+   * @param interpolateSampleRateTolerance The acceptable sample rate tolerance between two
+   * adjacent {@link Waveform}s for gap interpolation.
+   * @param maximumGapSampleCountLimit The size of the gap beyond which interpolation is not
+   * performed.
+   * @param mergeSampleRateTolerance The acceptable sample rate tolerance between two adjacent
+   * {@link Waveform}s for merging.
+   * @param minimumGapSampleCountLimit The size of the gap within which a merger is not performed.
+   * @return A new ChannelSegment containing the interpolated and merged {@link Waveform}s.
+   */
+  public ChannelSegment condition(double interpolateSampleRateTolerance,
+      double maximumGapSampleCountLimit, double mergeSampleRateTolerance,
+      double minimumGapSampleCountLimit) {
+
+    // return this if ChannelSegment waveform set is empty.
+    if (getWaveforms().isEmpty()) {
+      return this;
     }
 
+    TreeSet<Waveform> newWaveformSet = new TreeSet<>();
+    mergeRuns(interpolateGaps(interpolateSampleRateTolerance, maximumGapSampleCountLimit),
+        mergeSampleRateTolerance, minimumGapSampleCountLimit)
+        .forEach(r -> newWaveformSet.add(r.toWaveform()));
+
     // create and return new channel segment
     return ChannelSegment.create(this.processingChannelId, this.name, this.segmentType,
         this.startTime, this.endTime, newWaveformSet, this.creationInfo);
   }
 
+  /**
+   * Conditions this ChannelSegment's {@link Waveform}s in a single pass and windows the result to
+   * [windowStart, windowEnd].  Each output Waveform is the same as calling {@link
+   * Waveform#window(Instant, Instant)} on the corresponding Waveform from {@link
+   * ChannelSegment#condition(double, double, double, double)}, except that Waveforms with no
+   * samples in the window are omitted.  Only the samples in the window are copied.
+   *
+   * @param interpolateSampleRateTolerance The acceptable sample rate tolerance between two
+   * adjacent {@link Waveform}s for gap interpolation.
+   * @param maximumGapSampleCountLimit The size of the gap beyond which interpolation is not
+   * performed.
+   * @param mergeSampleRateTolerance The acceptable sample rate tolerance between two adjacent
+   * {@link Waveform}s for merging.
+   * @param minimumGapSampleCountLimit The size of the gap within which a merger is not performed.
+   * @param windowStart The start of the window, inclusive, not null
+   * @param windowEnd The end of the window, inclusive, not null
+   * @return A new ChannelSegment spanning the overlap of this ChannelSegment and the window.
+   * @throws NullPointerException if windowStart or windowEnd are null
+   * @throws IllegalArgumentException if windowStart is not before windowEnd or the window does
+   * not overlap this ChannelSegment
+   */
+  public ChannelSegment condition(double interpolateSampleRateTolerance,
+      double maximumGapSampleCountLimit, double mergeSampleRateTolerance,
+      double minimumGapSampleCountLimit, Instant windowStart, Instant windowEnd) {
+
+    Validate.notNull(windowStart);
+    Validate.notNull(windowEnd);
+    Validate.isTrue(windowStart.isBefore(windowEnd));
+
+    TreeSet<Waveform> newWaveformSet = new TreeSet<>();
+    if (!getWaveforms().isEmpty()) {
+      mergeRuns(interpolateGaps(interpolateSampleRateTolerance, maximumGapSampleCountLimit),
+          mergeSampleRateTolerance, minimumGapSampleCountLimit)
+          .stream()
+          .map(r -> r.toWaveform(windowStart, windowEnd))
+          .filter(w -> w.getValuesLength() > 0)
+          .forEach(newWaveformSet::add);
+    }
+
+    // create and return new channel segment covering the windowed portion of this segment
+    Instant newStartTime = windowStart.isAfter(this.startTime) ? windowStart : this.startTime;
+    Instant newEndTime = windowEnd.isBefore(this.endTime) ? windowEnd : this.endTime;
+    return ChannelSegment.create(this.processingChannelId, this.name, this.segmentType,
+        newStartTime, newEndTime, newWaveformSet, this.creationInfo);
+  }
+
+  /**
+   * Obtains this ChannelSegment's {@link Waveform}s in time order with an interpolated Waveform
+   * inserted in each interpolatable gap (see {@link ChannelSegment#interpolateWaveformGap(double,
+   * double)}).
+   *
+   * @param sampleRateTolerance The acceptable sample rate tolerance between two adjacent {@link
+   * Waveform}s.
+   * @param maximumGapSampleCountLimit The size of the gap beyond which interpolation is not
+   * performed.
+   * @return The original and interpolated {@link Waveform}s in time order.
+   */
+  private List<Waveform> interpolateGaps(double sampleRateTolerance,
+      double maximumGapSampleCountLimit) {
+
+    List<Waveform> waveformList = new ArrayList<>();
+    Waveform previousWaveform = null;
+    for (Waveform nextWaveform : getWaveforms()) {
+      if (previousWaveform != null) {
+        interpolateGap(previousWaveform, nextWaveform, sampleRateTolerance,
+            maximumGapSampleCountLimit).ifPresent(waveformList::add);
+      }
+
+      waveformList.add(nextWaveform);
+      previousWaveform = nextWaveform;
+    }
+
+    return waveformList;
+  }
+
+  /**
+   * Groups adjacent {@link Waveform}s into the runs merged by {@link
+   * ChannelSegment#mergeWaveforms(double, double)}.
+   *
+   * @param waveforms The time ordered {@link Waveform}s to merge, not empty
+   * @param sampleRateTolerance The acceptable sample rate tolerance between two adjacent {@link
+   * Waveform}s.
+   * @param minimumGapSampleCountLimit The size of the gap within which a merger is not performed.
+   * @return The runs of {@link Waveform}s in time order.
+   */
+  private static List<MergedWaveformRun> mergeRuns(Collection<Waveform> waveforms,
+      double sampleRateTolerance, double minimumGapSampleCountLimit) {
+
+    // Group the waveforms into runs of adjacent waveforms that will be merged.  Each run tracks the
+    // times, length and sample rate of the waveform it merges into, so every merge decision is
+    // the same as when the merged waveform is rebuilt one waveform at a time.  Samples are only
+    // copied once the extent of each run is known.
+    List<MergedWaveformRun> runs = new ArrayList<>();
+    Iterator<Waveform> waveformIterator = waveforms.iterator();
+    MergedWaveformRun run = new MergedWaveformRun(waveformIterator.next());
+    runs.add(run);
+    while (waveformIterator.hasNext()) {
+
+      // get the next waveform after the previous and extend the run to include it if the two are
+      // merged
+      Waveform nextWaveform = waveformIterator.next();
+      if (isMergeable(run.sampleRate, run.endTime, nextWaveform.getSampleRate(),
+          nextWaveform.getStartTime(), sampleRateTolerance, minimumGapSampleCountLimit)) {
+        run.add(nextWaveform);
+        continue;
+      }
+
+      // start a new run with the next waveform
+      run = new MergedWaveformRun(nextWaveform);
+      runs.add(run);
+    }
+
+    return runs;
+  }
+
+  /**
+   * Determines whether samples starting at nextStartTime continue earlier samples ending at
+   * previousEndTime according to the merge criteria of {@link ChannelSegment#mergeWaveforms(double,
+   * double)}: the sample rates are within the sampleRateTolerance and the gap between the two is
+   * larger than the minimumGapSampleCountLimit but less than 1.5 samples.  The gap is counted in
+   * sample periods of the mean sample rate.
+   *
+   * @param previousSampleRate The sample rate of the earlier samples
+   * @param previousEndTime The time of the last earlier sample, not null
+   * @param nextSampleRate The sample rate of the later samples
+   * @param nextStartTime The time of the first later sample, not null
+   * @param sampleRateTolerance The acceptable sample rate tolerance between the earlier and later
+   * samples.
+   * @param minimumGapSampleCountLimit The size of the gap within which a merger is not performed.
+   * @return true if the later samples are merged with the earlier samples, false otherwise
+   * @throws NullPointerException if previousEndTime or nextStartTime are null
+   */
+  public static boolean isMergeable(double previousSampleRate, Instant previousEndTime,
+      double nextSampleRate, Instant nextStartTime, double sampleRateTolerance,
+      double minimumGapSampleCountLimit) {
+
+    Objects.requireNonNull(previousEndTime, "isMergeable requires non-null previousEndTime");
+    Objects.requireNonNull(nextStartTime, "isMergeable requires non-null nextStartTime");
+
+    if (Math.abs(previousSampleRate - nextSampleRate) > sampleRateTolerance) {
+      return false;
+    }
+
+    double fractionalGapSampleCount = getFractionalSampleCount(previousSampleRate,
+        previousEndTime, nextSampleRate, nextStartTime);
+    return fractionalGapSampleCount < 1.5 && fractionalGapSampleCount > minimumGapSampleCountLimit;
+  }
+
+  /**
+   * Presents a collection of {@link Waveform}s with strictly increasing start times as a {@link
+   * SortedSet} so copying it into a {@link TreeSet} takes linear time.  Only supports the
+   * operations used to copy it.
+   */
+  private static final class OrderedWaveforms extends AbstractSet<Waveform> implements
+      SortedSet<Waveform> {
+
+    private final Collection<Waveform> waveforms;
+
+    private OrderedWaveforms(Collection<Waveform> waveforms) {
+      Waveform previous = null;
+      for (Waveform waveform : Objects.requireNonNull(waveforms)) {
+        Objects.requireNonNull(waveform);
+        Validate.isTrue(previous == null || previous.compareTo(waveform) < 0,
+            "ChannelSegment requires waveforms with strictly increasing start times");
+        previous = waveform;
+      }
+
+      this.waveforms = waveforms;
+    }
+
+    @Override
+    public Iterator<Waveform> iterator() {
+      return Collections.unmodifiableCollection(waveforms).iterator();
+    }
+
+    @Override
+    public int size() {
+      return waveforms.size();
+    }
+
+    @Override
+    public Comparator<? super Waveform> comparator() {
+      // Natural ordering, matching a TreeSet created without a Comparator
+      return null;
+    }
+
+    @Override
+    public SortedSet<Waveform> subSet(Waveform fromElement, Waveform toElement) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SortedSet<Waveform> headSet(Waveform toElement) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SortedSet<Waveform> tailSet(Waveform fromElement) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Waveform first() {
+      return waveforms.iterator().next();
+    }
+
+    @Override
+    public Waveform last() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * A run of adjacent {@link Waveform}s merged into a single Waveform by {@link
+   * ChannelSegment#mergeWaveforms(double, double)}.  The merged Waveform's end time, sample count
+   * and sample rate are updated as each Waveform is added but its samples are only concatenated
+   * once, when the merged Waveform is built.
+   */
+  private static final class MergedWaveformRun {
+
+    private final List<Waveform> waveforms = new ArrayList<>();
+    private final Instant startTime;
+    private Instant endTime;
+    private int sampleCount;
+    private double sampleRate;
+
+    private MergedWaveformRun(Waveform waveform) {
+      this.waveforms.add(waveform);
+      this.startTime = waveform.getStartTime();
+      this.endTime = waveform.getEndTime();
+      this.sampleCount = waveform.getValuesLength();
+      this.sampleRate = waveform.getSampleRate();
+    }
+
+    /**
+     * Appends the waveform to this run and updates the merged end time, sample count and sample
+     * rate.  The sample rate is the rate implied by the merged sample count and time span.
+     *
+     * @param waveform the {@link Waveform} following this run
+     */
+    private void add(Waveform waveform) {
+      this.waveforms.add(waveform);
+      this.endTime = waveform.getEndTime();
+      this.sampleCount += waveform.getValuesLength();
+      this.sampleRate = (double) (sampleCount - 1) / getDurationSeconds(startTime, endTime);
+    }
+
+    /**
+     * Obtains the merged {@link Waveform}.  A run containing a single Waveform returns that
+     * Waveform unchanged.
+     *
+     * @return the merged Waveform, not null
+     */
+    private Waveform toWaveform() {
+      if (waveforms.size() == 1) {
+        return waveforms.get(0);
+      }
+
+      return Waveform.create(startTime, endTime, sampleRate, sampleCount, samples(0, sampleCount));
+    }
+
+    /**
+     * Obtains the merged {@link Waveform} windowed to [windowStart, windowEnd] exactly as by
+     * {@link Waveform#window(Instant, Instant)}, including the empty Waveform returned when no
+     * samples are in the window.  Only the samples in the window are copied.
+     *
+     * @param windowStart The start of the window, inclusive
+     * @param windowEnd The end of the window, inclusive
+     * @return the windowed Waveform, not null
+     */
+    private Waveform toWaveform(Instant windowStart, Instant windowEnd) {
+      return Waveform.window(startTime, endTime, sampleRate, sampleCount, windowStart, windowEnd,
+          this::toWaveform, (fromIndex, toIndex) -> {
+            // Sample times are computed the same way as in Waveform.slice
+            long samplePeriod = Waveform.samplePeriodNanos(sampleRate);
+            return Waveform.create(startTime.plusNanos(fromIndex * samplePeriod),
+                startTime.plusNanos((toIndex - 1) * samplePeriod), sampleRate, toIndex - fromIndex,
+                samples(fromIndex, toIndex));
+          });
+    }
+
+    /**
+     * Copies the merged samples with indices in [from, to) into a new array
+     *
+     * @param from index of the first merged sample to copy, inclusive
+     * @param to index of the last merged sample to copy, exclusive
+     * @return the copied samples, not null
+     */
+    private double[] samples(int from, int to) {
+      double[] samples = new double[to - from];
+      int offset = 0;
+      for (Waveform waveform : waveforms) {
+        int length = waveform.getValuesLength();
+        int copyFrom = Math.max(from, offset);
+        int copyTo = Math.min(to, offset + length);
+        if (copyFrom < copyTo) {
+          waveform.copyValues(copyFrom - offset, samples, copyFrom - from, copyTo - copyFrom);
+        }
+        offset += length;
+      }
+
+      return samples;
+    }
+  }
+
   /**
    * Returns the fractional sample count in a gap between the two input {@link Waveform}s as a
    * Duration.
@@ -339,9 +772,24 @@ public final class ChannelSegment implements Comparable<ChannelSegment> {
    * @return The fractional sample count as a Duration.
    */
   private static double getFractionalSampleCount(Waveform previousWaveform, Waveform nextWaveform) {
-    double meanSampleRate = (nextWaveform.getSampleRate() + previousWaveform.getSampleRate()) / 2.0;
-    return meanSampleRate * getDurationSeconds(previousWaveform.getEndTime(),
-        nextWaveform.getStartTime());
+    return getFractionalSampleCount(previousWaveform.getSampleRate(),
+        previousWaveform.getEndTime(), nextWaveform.getSampleRate(), nextWaveform.getStartTime());
+  }
+
+  /**
+   * Returns the fractional sample count in a gap between an earlier series of samples ending at
+   * previousEndTime and a later series beginning at nextStartTime.
+   *
+   * @param previousSampleRate The sample rate of the earlier samples
+   * @param previousEndTime The time of the last earlier sample
+   * @param nextSampleRate The sample rate of the later samples
+   * @param nextStartTime The time of the first later sample
+   * @return The fractional sample count using the mean of the two sample rates.
+   */
+  private static double getFractionalSampleCount(double previousSampleRate,
+      Instant previousEndTime, double nextSampleRate, Instant nextStartTime) {
+    double meanSampleRate = (nextSampleRate + previousSampleRate) / 2.0;
+    return meanSampleRate * getDurationSeconds(previousEndTime, nextStartTime);
   }
 
   /**
@@ -385,17 +833,36 @@ public final class ChannelSegment implements Comparable<ChannelSegment> {
 
   @Override
   public final boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
     if (other == null || !(other instanceof ChannelSegment)) {
       return false;
     }
 
+    // Cached hash codes reject most unequal segments without comparing their waveforms
     ChannelSegment otherSegment = (ChannelSegment) other;
-    return Objects.equals(this.getId(), otherSegment.getId()) &&
+    return hashCode() == otherSegment.hashCode() &&
+        Objects.equals(this.getId(), otherSegment.getId()) &&
         hasSameState(otherSegment);
   }
 
   @Override
   public final int hashCode() {
+    int result = hashCode;
+    if (result == 0) {
+      result = computeHashCode();
+      hashCode = result;
+    }
+    return result;
+  }
+
+  /**
+   * Computes this ChannelSegment's hash code from all of its fields, including every waveform
+   *
+   * @return hash code
+   */
+  private int computeHashCode() {
     int result = id != null ? id.hashCode() : 0;
     result = 31 * result + (processingChannelId != null ? processingChannelId.hashCode() : 0);
     result = 31 * result + (name != null ? name.hashCode() : 0);
@@ -83,11 +83,35 @@ public abstract class Timeseries implements Comparable<Timeseries> {
           "timeForSample requires sample index within the inclusive range [0, getSampleCount() - 1]");
     }
 
+    return getStartTime().plusNanos(sampleOffsetNanos(i, getSampleRate()));
+  }
+
+  /**
+   * Obtains the number of nanoseconds between the first sample of a timeseries and the sample with
+   * index i.  This is the offset used by {@link Timeseries#timeForSample(long)}.
+   *
+   * @param i sample index
+   * @param sampleRate timeseries sample rate in samples per second
+   * @return nanoseconds from the first sample to sample i
+   */
+  static long sampleOffsetNanos(long i, double sampleRate) {
     //  (1 / samplesPerSec) = secondsPerSample
     //  secondsPerSample * numSamples * 1e9 nanos / sec = nanosOffsetToSample
     // => nanosOffsetToSample = ((sampleNum * 1e9) / samplesPerSec)
-    return getStartTime()
-        .plusNanos((long) ((i * NANOSECOND) / getSampleRate()));
+    return (long) ((i * NANOSECOND) / sampleRate);
+  }
+
+  /**
+   * Obtains the number of nanoseconds since the unix epoch began (jan 1, 1970) for an instant
+   *
+   * @param instant the instant of time, not null
+   * @return epoch nanoseconds
+   * @throws ArithmeticException if the instant is not representable as epoch nanoseconds in a
+   * long (before 1677 or after 2262)
+   */
+  protected static long epochNanos(Instant instant) {
+    return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOSECOND),
+        instant.getNano());
   }
 
   @Override
@@ -125,4 +149,21 @@ public abstract class Timeseries implements Comparable<Timeseries> {
     return getStartTime().compareTo(ts.getStartTime());
   }
 
+  /**
+   * Receives a Timeseries' samples one at a time as primitives, so iterating over the samples
+   * does not create a boxed value or an {@link Instant} for every sample.
+   */
+  @FunctionalInterface
+  public interface SampleConsumer {
+
+    /**
+     * Receives a sample
+     *
+     * @param index index of the sample in the Timeseries
+     * @param epochNanos time of the sample in nanoseconds since the unix epoch
+     * @param value value of the sample
+     */
+    void accept(int index, long epochNanos, double value);
+  }
+
 }
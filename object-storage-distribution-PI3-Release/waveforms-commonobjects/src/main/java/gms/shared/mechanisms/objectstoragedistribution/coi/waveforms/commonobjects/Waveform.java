@@ -1,5 +1,7 @@
 package gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects;
 
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -7,16 +9,36 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 
 /**
  * Data class that represents a Waveform which is more generally known as a timeseries.
+ *
+ * A Waveform's samples are a range of a backing array.  Windows and slices of a Waveform are views
+ * sharing the backing array, so creating them does not copy any samples.  The backing array must
+ * not be modified after the Waveform is created: the Waveform's hash code is computed from the
+ * samples once and then reused.
+ *
+ * The backing array either holds the data points as doubles or holds integer digitizer counts
+ * which are multiplied by a calibration factor when the data points are read (see {@link
+ * Waveform#createFromCounts(Instant, Instant, double, long, int[], double)}).  The backing array
+ * may also be a direct or memory mapped buffer outside of the Java heap (see {@link
+ * Waveform#createFromBuffer(Instant, Instant, double, long, DoubleBuffer)}).
  */
 public final class Waveform extends Timeseries {
 
-  private final double[] values;
+  // Data points are values.get(0) through values.get(values.length() - 1).  Windows and slices
+  // share the storage's backing array.
+  private final WaveformSamples values;
+
+  // Data points of a view of a heap double array copied into their own array by the first call
+  // to getValues()
+  private transient volatile double[] viewValues;
+
+  // Hash code computed by the first call to hashCode(), or 0 if not yet computed
+  private int hashCode;
 
   /**
    * Creates a waveform that omits samples.  Infers the sample count by the time range and sample
@@ -65,6 +87,55 @@ public final class Waveform extends Timeseries {
     return new Waveform(startTime, endTime, sampleRate, sampleCount, values);
   }
 
+  /**
+   * Creates a Waveform from integer digitizer counts.  The Waveform's data points are the counts
+   * multiplied by the calibrationFactor.  The counts are stored rather than the data points, which
+   * halves the Waveform's memory use.  Data points are computed when read: {@link
+   * Waveform#getValue(int)} and {@link Waveform#copyValues(int, double[], int, int)} compute the
+   * requested data points and every call to {@link Waveform#getValues()} computes all of them into
+   * a new array, which is not retained so the memory saving is kept.  Prefer getValue and
+   * copyValues to read such a Waveform.
+   *
+   * @param startTime The time at which the Waveform beings.
+   * @param endTime The time at which the Waveform ends.
+   * @param sampleRate The sample rate (a measurement of how many data points there are per unit
+   * time)
+   * @param sampleCount How many total samples there are in this Waveform.
+   * @param counts The digitizer counts of this Waveform.
+   * @param calibrationFactor Factor converting a count to a data point value.
+   * @throws NullPointerException if any arg is null
+   */
+  public static Waveform createFromCounts(Instant startTime, Instant endTime, double sampleRate,
+      long sampleCount, int[] counts, double calibrationFactor) {
+
+    return new Waveform(startTime, endTime, sampleRate, sampleCount,
+        WaveformSamples.ofCounts(IntBuffer.wrap(Objects.requireNonNull(counts)),
+            calibrationFactor));
+  }
+
+  /**
+   * Creates a Waveform whose data points are the values buffer's remaining elements (from its
+   * position to its limit).  The buffer is not copied and may be a direct or memory mapped buffer
+   * (see {@link WaveformBuffers}) so the data points are stored outside of the Java heap.  Read
+   * such a Waveform's data points with {@link Waveform#getValue(int)}, {@link
+   * Waveform#copyValues(int, double[], int, int)} or {@link Waveform#forEachSample(SampleConsumer)}
+   * to keep them off the heap.
+   *
+   * @param startTime The time at which the Waveform beings.
+   * @param endTime The time at which the Waveform ends.
+   * @param sampleRate The sample rate (a measurement of how many data points there are per unit
+   * time)
+   * @param sampleCount How many total samples there are in this Waveform.
+   * @param values The buffer holding the data points of this Waveform.
+   * @throws NullPointerException if any arg is null
+   */
+  public static Waveform createFromBuffer(Instant startTime, Instant endTime, double sampleRate,
+      long sampleCount, DoubleBuffer values) {
+
+    return new Waveform(startTime, endTime, sampleRate, sampleCount,
+        WaveformSamples.ofValues(Objects.requireNonNull(values).slice()));
+  }
+
   /**
    * Creates a Waveform.
    *
@@ -79,17 +150,104 @@ public final class Waveform extends Timeseries {
   private Waveform(Instant startTime, Instant endTime, double sampleRate, long sampleCount,
       double[] values) {
 
+    this(startTime, endTime, sampleRate, sampleCount,
+        WaveformSamples.ofValues(DoubleBuffer.wrap(Objects.requireNonNull(values))));
+  }
+
+  /**
+   * Creates a Waveform whose data points are held in the values storage.
+   *
+   * @param startTime The time at which the Waveform beings.
+   * @param endTime The time at which the Waveform ends.
+   * @param sampleRate The sample rate (a measurement of how many data points there are per unit
+   * time)
+   * @param sampleCount How many total samples there are in this Waveform.
+   * @param values The storage containing this Waveform's data points.
+   * @throws NullPointerException if any arg is null
+   */
+  private Waveform(Instant startTime, Instant endTime, double sampleRate, long sampleCount,
+      WaveformSamples values) {
+
     super(startTime, endTime, sampleRate, sampleCount);
     this.values = Objects.requireNonNull(values);
   }
 
+  /**
+   * Obtains this Waveform's data points.  For a Waveform that is not a view this is the array the
+   * Waveform was created with.  The first call on a view of a double array copies the data points
+   * into a new array which is returned by every later call.  Data points stored as counts or
+   * outside of the Java heap are copied into a new array on every call so the copy does not stay on
+   * the heap; read them with {@link Waveform#getValue(int)} or {@link Waveform#copyValues(int,
+   * double[], int, int)} instead.
+   *
+   * @return the data points, not null
+   */
   public double[] getValues() {
-    return values;
+    double[] array = values.array();
+    if (array != null) {
+      return array;
+    }
+
+    if (values.isDirect() || values.isCounts()) {
+      double[] copy = new double[values.length()];
+      copyValues(0, copy, 0, copy.length);
+      return copy;
+    }
+
+    double[] copy = viewValues;
+    if (copy == null) {
+      copy = new double[values.length()];
+      copyValues(0, copy, 0, copy.length);
+      viewValues = copy;
+    }
+    return copy;
   }
 
-  public double getFirstSample() { return values[0]; }
+  /**
+   * Obtains the number of data points in this Waveform.  Equivalent to getValues().length without
+   * copying a view's data points.
+   *
+   * @return number of data points
+   */
+  public int getValuesLength() {
+    return values.length();
+  }
 
-  public double getLastSample() { return values[values.length - 1]; }
+  /**
+   * Obtains a data point.  Equivalent to getValues()[index] without copying a view's data points.
+   *
+   * @param index index of the data point
+   * @return the data point at index
+   * @throws IndexOutOfBoundsException if index is not in [0, getValuesLength() - 1]
+   */
+  public double getValue(int index) {
+    return values.get(index);
+  }
+
+  /**
+   * Copies data points into an array.  Equivalent to System.arraycopy(getValues(), srcPos, dest,
+   * destPos, length) without copying a view's data points first.
+   *
+   * @param srcPos index of the first data point to copy
+   * @param dest destination array, not null
+   * @param destPos position of the first copied data point in dest
+   * @param length number of data points to copy
+   * @throws NullPointerException if dest is null
+   * @throws IndexOutOfBoundsException if the source or destination range is out of bounds
+   */
+  public void copyValues(int srcPos, double[] dest, int destPos, int length) {
+    Objects.requireNonNull(dest);
+    if (srcPos < 0 || length < 0 || srcPos > values.length() - length) {
+      throw new IndexOutOfBoundsException(
+          "Waveform cannot copy " + length + " values starting at index " + srcPos);
+    }
+
+    values.copyTo(srcPos, dest, destPos, length);
+  }
+
+  public double getFirstSample() { return getValue(0); }
+
+  public double getLastSample() { return getValue(values.length() - 1); }
 
   /**
    * Expands this waveform data points into time/value pairs using the start time and sample rate.
@@ -98,19 +256,38 @@ public final class Waveform extends Timeseries {
    */
   public List<ImmutablePair<Instant, Double>> asTimedPairs() {
 
-    List<ImmutablePair<Instant, Double>> timePairs = new ArrayList<>();
-    double[] values = this.getValues();
-    long nanosecondsBetweenSamples = (long) (1.0 / this.getSampleRate() * 1E+9);
+    List<ImmutablePair<Instant, Double>> timePairs = new ArrayList<>(values.length());
+    long nanosecondsBetweenSamples = samplePeriodNanos();
     Instant start = this.getStartTime();
 
-    for (int s = 0; s < values.length; s++) {
+    for (int s = 0; s < values.length(); s++) {
       Instant sampleTime = start.plusNanos(s * nanosecondsBetweenSamples);
-      timePairs.add(new ImmutablePair<>(sampleTime, values[s]));
+      timePairs.add(new ImmutablePair<>(sampleTime, values.get(s)));
     }
 
     return timePairs;
   }
 
+  /**
+   * Provides each of this waveform's data points, in order, to the consumer along with its index
+   * and time.  Sample times are the same as the times computed by {@link
+   * Waveform#asTimedPairs()} but no objects are created per sample.
+   *
+   * @param consumer receives each data point, not null
+   * @throws NullPointerException if consumer is null
+   * @throws ArithmeticException if this waveform's start time is not representable as epoch
+   * nanoseconds in a long (before 1677 or after 2262)
+   */
+  public void forEachSample(SampleConsumer consumer) {
+    Objects.requireNonNull(consumer, "Waveform forEachSample requires non-null consumer");
+
+    final long startNanos = epochNanos(this.getStartTime());
+    final long nanosecondsBetweenSamples = samplePeriodNanos();
+    for (int s = 0; s < values.length(); s++) {
+      consumer.accept(s, startNanos + s * nanosecondsBetweenSamples, values.get(s));
+    }
+  }
+
   /**
    * Windows this waveform to be within the specified time bounds.
    *
@@ -128,29 +305,138 @@ public final class Waveform extends Timeseries {
    */
   public Waveform window(Instant start, Instant end)
       throws NullPointerException, IllegalArgumentException {
+    return window(this.getStartTime(), this.getEndTime(), this.getSampleRate(), values.length(),
+        start, end, () -> this, this::slice);
+  }
+
+  /**
+   * Windows the waveform described by waveformStart, waveformEnd, sampleRate and length to be
+   * within the specified time bounds, as described in {@link Waveform#window(Instant, Instant)}.
+   * Shared by Waveform and by waveforms which have not been built yet (e.g. merged waveforms in
+   * {@link ChannelSegment}) so both keep exactly the same samples.
+   *
+   * @param waveformStart start time of the waveform, not null
+   * @param waveformEnd end time of the waveform, not null
+   * @param sampleRate sample rate of the waveform
+   * @param length number of samples in the waveform
+   * @param start the start of the time bound
+   * @param end the end of the time bound
+   * @param whole supplies the entire waveform, used when it is already exactly windowed
+   * @param slicer creates the waveform containing the samples with indices in [fromIndex, toIndex)
+   * @return the windowed Waveform, not null
+   * @throws NullPointerException if start or end are null
+   * @throws IllegalArgumentException if start is not before end.
+   */
+  static Waveform window(Instant waveformStart, Instant waveformEnd, double sampleRate, int length,
+      Instant start, Instant end, Supplier<Waveform> whole, IndexRangeSlicer slicer) {
+
     Validate.notNull(start);
     Validate.notNull(end);
     Validate.isTrue(start.isBefore(end));
 
-    // Already exactly windowed?  Great, just return this!
-    if (this.getStartTime().equals(start) && this.getEndTime().equals(end)) {
-      return this;
+    // Already exactly windowed?  Great, just return the whole waveform!
+    if (waveformStart.equals(start) && waveformEnd.equals(end)) {
+      return whole.get();
     }
 
     // If Waveform doesn't have samples, return new waveform with the new time range.
-    if (this.getValues().length == 0) {
-      return Waveform.withoutValues(start, end, this.getSampleRate());
+    if (length == 0) {
+      return Waveform.withoutValues(start, end, sampleRate);
+    }
+
+    // Find the range of samples whose times (as computed by asTimedPairs) are in [start, end]
+    long first;
+    long last;
+    long samplePeriod = samplePeriodNanos(sampleRate);
+    if (samplePeriod <= 0) {
+      // Every sample occurs at the start time
+      boolean inRange = isInRange(waveformStart, start, end);
+      first = 0;
+      last = inRange ? length - 1 : -1;
+    } else {
+      long startOffset = saturatedNanosBetween(waveformStart, start);
+      long endOffset = saturatedNanosBetween(waveformStart, end);
+      first = startOffset <= 0 ? 0
+          : startOffset / samplePeriod + (startOffset % samplePeriod == 0 ? 0 : 1);
+      last = endOffset < 0 ? -1 : Math.min(length - 1, endOffset / samplePeriod);
     }
 
-    List<ImmutablePair<Instant, Double>> timedPairs = this.asTimedPairs().stream()
-        .filter(p -> isInRange(p.getLeft(), start, end))
-        .collect(Collectors.toList());
+    if (first > last) {
+      return new Waveform(start, end, sampleRate, 0, new double[]{});
+    }
+
+    return slicer.slice((int) first, (int) last + 1);
+  }
+
+  /**
+   * Creates the Waveform containing a waveform's samples with indices in [fromIndex, toIndex) for
+   * {@link Waveform#window(Instant, Instant, double, int, Instant, Instant, Supplier,
+   * IndexRangeSlicer)}
+   */
+  @FunctionalInterface
+  interface IndexRangeSlicer {
+
+    Waveform slice(int fromIndex, int toIndex);
+  }
+
+  /**
+   * Obtains a view of this Waveform's data points with indices in [fromIndex, toIndex).  The view
+   * shares this Waveform's backing array so no data points are copied.  The view's start and end
+   * times are the times of its first and last data points as computed by {@link
+   * Waveform#asTimedPairs()}.
+   *
+   * @param fromIndex index of the first data point in the view, inclusive
+   * @param toIndex index of the last data point in the view, exclusive
+   * @return A Waveform view, not null
+   * @throws IllegalArgumentException if fromIndex is negative, toIndex is larger than {@link
+   * Waveform#getValuesLength()}, or fromIndex is not less than toIndex
+   */
+  public Waveform slice(int fromIndex, int toIndex) {
+    Validate.isTrue(fromIndex >= 0 && toIndex <= values.length() && fromIndex < toIndex,
+        "Waveform slice requires 0 <= fromIndex < toIndex <= getValuesLength()");
+
+    long samplePeriod = samplePeriodNanos();
+    Instant newStart = this.getStartTime().plusNanos(fromIndex * samplePeriod);
+    Instant newEnd = this.getStartTime().plusNanos((toIndex - 1) * samplePeriod);
+    return new Waveform(newStart, newEnd, this.getSampleRate(), toIndex - fromIndex,
+        values.slice(fromIndex, toIndex));
+  }
+
+  /**
+   * Obtains the time between samples in nanoseconds as used to compute sample times in {@link
+   * Waveform#asTimedPairs()}
+   *
+   * @return sample period in nanoseconds
+   */
+  private long samplePeriodNanos() {
+    return samplePeriodNanos(this.getSampleRate());
+  }
 
-    Instant newStart = timedPairs.isEmpty() ? start : timedPairs.get(0).getLeft();
-    Instant newEnd = timedPairs.isEmpty() ? end : timedPairs.get(timedPairs.size() - 1).getLeft();
-    double[] newValues = timedPairs.stream().mapToDouble(ImmutablePair::getRight).toArray();
+  /**
+   * Obtains the time between samples in nanoseconds as used to compute sample times in {@link
+   * Waveform#asTimedPairs()} for a waveform with the provided sample rate
+   *
+   * @param sampleRate sample rate in samples per second
+   * @return sample period in nanoseconds
+   */
+  static long samplePeriodNanos(double sampleRate) {
+    return (long) (1.0 / sampleRate * 1E+9);
+  }
 
-    return new Waveform(newStart, newEnd, this.getSampleRate(), newValues.length, newValues);
+  /**
+   * Obtains the number of nanoseconds from start to end, saturating at {@link Long#MIN_VALUE} and
+   * {@link Long#MAX_VALUE}
+   *
+   * @param start start time, not null
+   * @param end end time, not null
+   * @return nanoseconds between start and end
+   */
+  private static long saturatedNanosBetween(Instant start, Instant end) {
+    try {
+      return Duration.between(start, end).toNanos();
+    } catch (ArithmeticException e) {
+      return end.isBefore(start) ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
   }
 
   /**
@@ -187,20 +473,71 @@ public final class Waveform extends Timeseries {
 
   @Override
   public final boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
     if (!(o instanceof Waveform)) {
       return false;
     }
     Waveform that = (Waveform) o;
 
-    return Arrays.equals(values, that.values) &&
-        super.equals(that);
+    // Cached hash codes reject most unequal Waveforms without comparing their samples
+    return hashCode() == that.hashCode() && super.equals(that) && valuesEqual(that);
   }
 
   @Override
   public final int hashCode() {
+    int result = hashCode;
+    if (result == 0) {
+      result = computeHashCode();
+      hashCode = result;
+    }
+    return result;
+  }
+
+  /**
+   * Computes this Waveform's hash code from its time range, sample rate, sample count and data
+   * points
+   *
+   * @return hash code
+   */
+  private int computeHashCode() {
     int result = super.hashCode();
-    result = 31 * result + Arrays.hashCode(values);
+    result = 31 * result + valuesHashCode();
+    return result;
+  }
+
+  /**
+   * Obtains the same hash code as {@link Arrays#hashCode(double[])} for this Waveform's data
+   * points without copying a view's data points
+   *
+   * @return hash code of the data points
+   */
+  private int valuesHashCode() {
+    int result = 1;
+    for (int i = 0; i < values.length(); ++i) {
+      result = 31 * result + Double.hashCode(values.get(i));
+    }
     return result;
   }
 
+  /**
+   * Determines whether this Waveform and that Waveform have the same data points using the same
+   * comparison as {@link Arrays#equals(double[], double[])}
+   *
+   * @param that other Waveform, not null
+   * @return true if the data points are the same
+   */
+  private boolean valuesEqual(Waveform that) {
+    if (values.length() != that.values.length()) {
+      return false;
+    }
+
+    for (int i = 0; i < values.length(); ++i) {
+      if (Double.doubleToLongBits(values.get(i)) != Double.doubleToLongBits(that.values.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
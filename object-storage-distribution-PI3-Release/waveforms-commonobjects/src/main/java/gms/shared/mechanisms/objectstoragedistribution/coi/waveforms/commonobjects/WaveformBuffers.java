@@ -0,0 +1,94 @@
+package gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Allocates storage outside of the Java heap for the data points of very large {@link
+ * Waveform}s.  Fill the returned buffer and then create the Waveform with {@link
+ * Waveform#createFromBuffer(java.time.Instant, java.time.Instant, double, long, DoubleBuffer)}.
+ * The storage is released when the buffer is garbage collected.
+ *
+ * A single buffer is limited to {@link WaveformBuffers#MAX_LENGTH} data points (2 GB).  Longer
+ * series are stored as several Waveforms.
+ */
+public class WaveformBuffers {
+
+  /**
+   * Maximum number of data points in one buffer
+   */
+  public static final int MAX_LENGTH = Integer.MAX_VALUE / Double.BYTES;
+
+  private static final String TEMPORARY_FILE_PREFIX = "waveform";
+  private static final String TEMPORARY_FILE_SUFFIX = ".samples";
+
+  private WaveformBuffers() {
+  }
+
+  /**
+   * Allocates a direct buffer holding length data points.  Every data point is initially zero.
+   *
+   * @param length number of data points
+   * @return DoubleBuffer with position 0 and limit length, not null
+   * @throws IllegalArgumentException if length is negative or larger than {@link
+   * WaveformBuffers#MAX_LENGTH}
+   */
+  public static DoubleBuffer allocateDirect(int length) {
+    validateLength(length);
+
+    return ByteBuffer.allocateDirect(length * Double.BYTES)
+        .order(ByteOrder.nativeOrder())
+        .asDoubleBuffer();
+  }
+
+  /**
+   * Maps a new temporary file holding length data points into memory.  The operating system pages
+   * the data points between memory and the file as they are accessed, so the data points can
+   * exceed the available memory.  The file is deleted once mapped (or when the JVM exits on
+   * platforms which do not allow deleting a mapped file).  Every data point is initially zero.
+   *
+   * @param length number of data points
+   * @return DoubleBuffer with position 0 and limit length, not null
+   * @throws IllegalArgumentException if length is negative or larger than {@link
+   * WaveformBuffers#MAX_LENGTH}
+   * @throws IOException if the temporary file cannot be created or mapped
+   */
+  public static DoubleBuffer mapTemporaryFile(int length) throws IOException {
+    validateLength(length);
+
+    final Path file = Files.createTempFile(TEMPORARY_FILE_PREFIX, TEMPORARY_FILE_SUFFIX);
+    final DoubleBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+
+      // The mapping remains valid after the channel is closed
+      buffer = channel.map(MapMode.READ_WRITE, 0, length * Double.BYTES)
+          .order(ByteOrder.nativeOrder())
+          .asDoubleBuffer();
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+
+    try {
+      Files.delete(file);
+    } catch (IOException e) {
+      file.toFile().deleteOnExit();
+    }
+
+    return buffer;
+  }
+
+  private static void validateLength(int length) {
+    Validate.isTrue(length >= 0 && length <= MAX_LENGTH,
+        "WaveformBuffers requires a length in [0, MAX_LENGTH]");
+  }
+}
@@ -0,0 +1,210 @@
+package gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.Objects;
+
+/**
+ * Storage for the data points of a {@link Waveform}.  Data points are either stored as doubles or
+ * as integer digitizer counts which are multiplied by a calibration factor when read.  Either kind
+ * of storage may be on the Java heap or in a direct or memory mapped buffer.  Slicing storage
+ * shares the stored data points rather than copying them.
+ */
+abstract class WaveformSamples {
+
+  /**
+   * Obtains storage for the double values from index 0 to the buffer's limit.  The buffer's
+   * position and limit are never modified.
+   *
+   * @param values data points, not null
+   * @return WaveformSamples, not null
+   * @throws NullPointerException if values is null
+   */
+  static WaveformSamples ofValues(DoubleBuffer values) {
+    return new DoubleSamples(Objects.requireNonNull(values));
+  }
+
+  /**
+   * Obtains storage for the counts from index 0 to the buffer's limit.  Each data point is a count
+   * multiplied by the calibrationFactor.  The buffer's position and limit are never modified.
+   *
+   * @param counts digitizer counts, not null
+   * @param calibrationFactor factor converting a count to a data point value
+   * @return WaveformSamples, not null
+   * @throws NullPointerException if counts is null
+   */
+  static WaveformSamples ofCounts(IntBuffer counts, double calibrationFactor) {
+    return new CountSamples(Objects.requireNonNull(counts), calibrationFactor);
+  }
+
+  /**
+   * Obtains the number of data points
+   *
+   * @return number of data points
+   */
+  abstract int length();
+
+  /**
+   * Obtains a data point
+   *
+   * @param index index of the data point
+   * @return the data point at index
+   * @throws IndexOutOfBoundsException if index is not in [0, length() - 1]
+   */
+  abstract double get(int index);
+
+  /**
+   * Copies data points into an array.  The caller validates the source range.
+   *
+   * @param srcPos index of the first data point to copy
+   * @param dest destination array, not null
+   * @param destPos position of the first copied data point in dest
+   * @param length number of data points to copy
+   * @throws IndexOutOfBoundsException if the destination range is out of bounds
+   */
+  abstract void copyTo(int srcPos, double[] dest, int destPos, int length);
+
+  /**
+   * Obtains storage sharing the data points with indices in [fromIndex, toIndex).  The caller
+   * validates the range.
+   *
+   * @param fromIndex index of the first data point, inclusive
+   * @param toIndex index of the last data point, exclusive
+   * @return WaveformSamples, not null
+   */
+  abstract WaveformSamples slice(int fromIndex, int toIndex);
+
+  /**
+   * Determines whether the data points are stored outside of the Java heap
+   *
+   * @return true if the data points are in direct or memory mapped storage
+   */
+  abstract boolean isDirect();
+
+  /**
+   * Determines whether the data points are stored as digitizer counts
+   *
+   * @return true if the data points are computed from counts when read
+   */
+  abstract boolean isCounts();
+
+  /**
+   * Obtains the array holding exactly these data points, if there is one
+   *
+   * @return the data points array, or null if the data points are not stored in their own double
+   * array
+   */
+  double[] array() {
+    return null;
+  }
+
+  /**
+   * Data points stored as doubles in a heap or direct buffer
+   */
+  private static final class DoubleSamples extends WaveformSamples {
+
+    private final DoubleBuffer values;
+
+    private DoubleSamples(DoubleBuffer values) {
+      this.values = values;
+    }
+
+    @Override
+    int length() {
+      return values.limit();
+    }
+
+    @Override
+    boolean isDirect() {
+      return values.isDirect();
+    }
+
+    @Override
+    boolean isCounts() {
+      return false;
+    }
+
+    @Override
+    double get(int index) {
+      return values.get(index);
+    }
+
+    @Override
+    void copyTo(int srcPos, double[] dest, int destPos, int length) {
+      DoubleBuffer source = values.duplicate();
+      source.position(srcPos);
+      source.get(dest, destPos, length);
+    }
+
+    @Override
+    WaveformSamples slice(int fromIndex, int toIndex) {
+      DoubleBuffer view = values.duplicate();
+      view.position(fromIndex);
+      view.limit(toIndex);
+      return new DoubleSamples(view.slice());
+    }
+
+    @Override
+    double[] array() {
+      if (values.hasArray() && values.arrayOffset() == 0
+          && values.array().length == values.limit()) {
+        return values.array();
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Data points stored as integer counts with a calibration factor
+   */
+  private static final class CountSamples extends WaveformSamples {
+
+    private final IntBuffer counts;
+    private final double calibrationFactor;
+
+    private CountSamples(IntBuffer counts, double calibrationFactor) {
+      this.counts = counts;
+      this.calibrationFactor = calibrationFactor;
+    }
+
+    @Override
+    int length() {
+      return counts.limit();
+    }
+
+    @Override
+    boolean isDirect() {
+      return counts.isDirect();
+    }
+
+    @Override
+    boolean isCounts() {
+      return true;
+    }
+
+    @Override
+    double get(int index) {
+      return counts.get(index) * calibrationFactor;
+    }
+
+    @Override
+    void copyTo(int srcPos, double[] dest, int destPos, int length) {
+      if (destPos < 0 || length < 0 || destPos > dest.length - length) {
+        throw new IndexOutOfBoundsException(
+            "Cannot copy " + length + " values to index " + destPos);
+      }
+
+      for (int i = 0; i < length; ++i) {
+        dest[destPos + i] = counts.get(srcPos + i) * calibrationFactor;
+      }
+    }
+
+    @Override
+    WaveformSamples slice(int fromIndex, int toIndex) {
+      IntBuffer view = counts.duplicate();
+      view.position(fromIndex);
+      view.limit(toIndex);
+      return new CountSamples(view.slice(), calibrationFactor);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects;
+
+import java.util.Collection;
+
+/**
+ * Converts between the times and the flattened indices of the data points in a time ordered
+ * collection of {@link Waveform}s.  A data point's flattened index is its position when the data
+ * points of every Waveform are concatenated in order (see {@link
+ * ChannelSegment#forEachWaveformPoint(Timeseries.SampleConsumer)}).
+ *
+ * Each Waveform's start time is stored as epoch nanoseconds alongside the flattened index of its
+ * first data point, so both conversions binary search the Waveforms and then compute the time or
+ * index within one Waveform without creating any objects.  Data point times match {@link
+ * Timeseries#timeForSample(long)}.
+ */
+final class WaveformTimeIndex {
+
+  private final double[] sampleRates;
+  private final long[] startNanos;
+
+  // firstSamples[w] is the flattened index of waveform w's first data point.  The final entry is
+  // the total number of data points.
+  private final int[] firstSamples;
+
+  private WaveformTimeIndex(double[] sampleRates, long[] startNanos, int[] firstSamples) {
+    this.sampleRates = sampleRates;
+    this.startNanos = startNanos;
+    this.firstSamples = firstSamples;
+  }
+
+  /**
+   * Obtains a {@link WaveformTimeIndex} for the waveforms
+   *
+   * @param waveforms Waveforms ordered by start time, not null
+   * @return WaveformTimeIndex, not null
+   * @throws ArithmeticException if a Waveform's start time is not representable as epoch
+   * nanoseconds or there are more than Integer.MAX_VALUE data points
+   */
+  static WaveformTimeIndex create(Collection<Waveform> waveforms) {
+    final double[] sampleRates = new double[waveforms.size()];
+    final long[] startNanos = new long[waveforms.size()];
+    final int[] firstSamples = new int[waveforms.size() + 1];
+
+    int w = 0;
+    for (Waveform waveform : waveforms) {
+      sampleRates[w] = waveform.getSampleRate();
+      startNanos[w] = Timeseries.epochNanos(waveform.getStartTime());
+      firstSamples[w + 1] = Math.addExact(firstSamples[w], waveform.getValuesLength());
+      ++w;
+    }
+
+    return new WaveformTimeIndex(sampleRates, startNanos, firstSamples);
+  }
+
+  /**
+   * Obtains the total number of data points
+   *
+   * @return number of data points
+   */
+  int length() {
+    return firstSamples[firstSamples.length - 1];
+  }
+
+  /**
+   * Obtains the time of the data point with the flattened index
+   *
+   * @param index flattened data point index
+   * @return data point time in epoch nanoseconds
+   * @throws IndexOutOfBoundsException if index is not in [0, length() - 1]
+   */
+  long epochNanosForSample(int index) {
+    if (index < 0 || index >= length()) {
+      throw new IndexOutOfBoundsException(
+          "Sample index " + index + " is not in [0, " + length() + ")");
+    }
+
+    // Last waveform starting at or before the index.  Waveforms without data points share their
+    // first index with the next waveform so they are never found.
+    final int w = lastAtOrBefore(firstSamples, firstSamples.length - 1, index);
+    return startNanos[w]
+        + Timeseries.sampleOffsetNanos(index - firstSamples[w], sampleRates[w]);
+  }
+
+  /**
+   * Obtains the flattened index of the last data point occurring at or before the time.  Assumes
+   * the waveforms do not overlap.
+   *
+   * @param epochNanos time in epoch nanoseconds
+   * @return flattened data point index, or -1 if every data point occurs after the time
+   */
+  int sampleAtOrBefore(long epochNanos) {
+    final int w = lastAtOrBefore(startNanos, startNanos.length, epochNanos);
+    if (w < 0) {
+      return -1;
+    }
+
+    final int length = firstSamples[w + 1] - firstSamples[w];
+    if (length == 0) {
+      return firstSamples[w] - 1;
+    }
+
+    // The time is at or after the waveform start, so a negative difference has overflowed
+    final long difference = epochNanos - startNanos[w];
+    final long offset = difference < 0 ? Long.MAX_VALUE : difference;
+
+    // Estimate the index from the sample rate, then correct for the truncation in sample times
+    final double sampleRate = sampleRates[w];
+    int i = (int) Math.max(0, Math.min(length - 1, (long) (offset * sampleRate / 1.0e9)));
+    while (i + 1 < length && Timeseries.sampleOffsetNanos(i + 1, sampleRate) <= offset) {
+      ++i;
+    }
+    while (i > 0 && Timeseries.sampleOffsetNanos(i, sampleRate) > offset) {
+      --i;
+    }
+
+    return firstSamples[w] + i;
+  }
+
+  /**
+   * Binary searches the first length entries of the sorted values for the last entry less than or
+   * equal to the key
+   *
+   * @return index of the entry, or -1 if every entry is greater than the key
+   */
+  private static int lastAtOrBefore(int[] values, int length, int key) {
+    int low = 0;
+    int high = length - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      if (values[mid] <= key) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high;
+  }
+
+  /**
+   * Binary searches the first length entries of the sorted values for the last entry less than or
+   * equal to the key
+   *
+   * @return index of the entry, or -1 if every entry is greater than the key
+   */
+  private static int lastAtOrBefore(long[] values, int length, long key) {
+    int low = 0;
+    int high = length - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      if (values[mid] <= key) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high;
+  }
+}
@@ -2,14 +2,17 @@ package gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.datatransf
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
 import java.time.Instant;
 
 /**
  * A Data Transfer Object (DTO) for the Waveform class. Annotates some properties so that Jackson
  * knows how to deserialize them - part of the reason this is necessary is that the original
- * Waveform class is immutable.  This class is a Jackson 'Mix-in annotations' class.
+ * Waveform class is immutable.  This class is a Jackson 'Mix-in annotations' class.  Waveforms
+ * are serialized by {@link WaveformSerializer} so their data points are not copied into an array.
  */
+@JsonSerialize(using = WaveformSerializer.class)
 public interface WaveformDto {
 
   @JsonCreator
@@ -28,4 +31,7 @@ public interface WaveformDto {
   @JsonIgnore
   double getLastSample();
 
+  @JsonIgnore
+  int getValuesLength();
+
 }
@@ -0,0 +1,40 @@
+package gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.datatransferobjects;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
+import java.io.IOException;
+
+/**
+ * Serializes a {@link Waveform} with the same properties as {@link WaveformDto} deserializes.  The
+ * data points are written one at a time with {@link Waveform#getValue(int)} so serializing a
+ * Waveform created from counts, from a buffer outside of the Java heap, or as a view does not
+ * first copy all of its data points into a new array.
+ */
+class WaveformSerializer extends StdSerializer<Waveform> {
+
+  public WaveformSerializer() {
+    super(Waveform.class);
+  }
+
+  @Override
+  public void serialize(Waveform waveform, JsonGenerator gen, SerializerProvider provider)
+      throws IOException {
+
+    gen.writeStartObject();
+    provider.defaultSerializeField("startTime", waveform.getStartTime(), gen);
+    provider.defaultSerializeField("endTime", waveform.getEndTime(), gen);
+    gen.writeNumberField("sampleRate", waveform.getSampleRate());
+    gen.writeNumberField("sampleCount", waveform.getSampleCount());
+
+    gen.writeArrayFieldStart("values");
+    final int length = waveform.getValuesLength();
+    for (int i = 0; i < length; ++i) {
+      gen.writeNumber(waveform.getValue(i));
+    }
+    gen.writeEndArray();
+
+    gen.writeEndObject();
+  }
+}
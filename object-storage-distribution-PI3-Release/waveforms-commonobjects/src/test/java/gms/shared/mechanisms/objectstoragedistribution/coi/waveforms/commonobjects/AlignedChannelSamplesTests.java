@@ -0,0 +1,155 @@
+package gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.CreationInfo;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment.ChannelSegmentType;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class AlignedChannelSamplesTests {
+
+  @Rule
+  public final ExpectedException exception = ExpectedException.none();
+
+  private final Instant start = Instant.EPOCH;
+
+  // 10 samples at 10 Hz starting on the common time base
+  private final ChannelSegment alignedChannel = channelSegment(
+      Waveform.withInferredEndTime(start, 10.0, 10,
+          new double[]{1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0, 10.0}));
+
+  // Samples 0-2 and 6-9 at 10 Hz, each 20 ms (0.2 samples) after the common sample times
+  private final ChannelSegment offsetChannelWithGap = channelSegment(
+      Waveform.withInferredEndTime(start.plusMillis(20), 10.0, 3, new double[]{3.0, 3.0, 3.0}),
+      Waveform.withInferredEndTime(start.plusMillis(620), 10.0, 4,
+          new double[]{5.0, 5.0, 5.0, 5.0}));
+
+  @Test
+  public void testCreateAlignsSamples() {
+    final AlignedChannelSamples samples = AlignedChannelSamples
+        .create(List.of(alignedChannel, offsetChannelWithGap), start, 10.0, 10);
+
+    assertEquals(List.of(alignedChannel.getProcessingChannelId(),
+        offsetChannelWithGap.getProcessingChannelId()), samples.getProcessingChannelIds());
+    assertEquals(2, samples.getChannelCount());
+    assertEquals(10, samples.getSampleCount());
+    assertEquals(start, samples.getStartTime());
+    assertEquals(10.0, samples.getSampleRate(), Double.MIN_NORMAL);
+
+    assertArrayEquals(new double[]{
+            1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0, 10.0,
+            3.0, 3.0, 3.0, 0.0, 0.0, 0.0, 5.0, 5.0, 5.0, 5.0},
+        samples.getValues(), 0.0);
+
+    for (int k = 0; k < 10; ++k) {
+      assertTrue(samples.hasValue(0, k));
+      assertEquals(k < 3 || k > 5, samples.hasValue(1, k));
+    }
+    assertEquals(4.0, samples.getValue(0, 3), 0.0);
+
+    for (int k = 0; k < 10; ++k) {
+      assertEquals(0.0, samples.getFractionalOffset(0, k), 1e-9);
+      if (samples.hasValue(1, k)) {
+        assertEquals(0.2, samples.getFractionalOffset(1, k), 1e-9);
+      } else {
+        assertTrue(Double.isNaN(samples.getFractionalOffset(1, k)));
+      }
+    }
+  }
+
+  @Test
+  public void testCreateRecordsFractionalOffsetPerWaveform() {
+    // Samples 0-2 are 0.2 samples after the common sample times and samples 3-6 are 0.3 samples
+    // before them
+    final ChannelSegment phaseChange = channelSegment(
+        Waveform.withInferredEndTime(start.plusMillis(20), 10.0, 3, new double[]{1.0, 1.0, 1.0}),
+        Waveform.withInferredEndTime(start.plusMillis(270), 10.0, 4,
+            new double[]{2.0, 2.0, 2.0, 2.0}));
+
+    final AlignedChannelSamples samples = AlignedChannelSamples
+        .create(List.of(phaseChange), start, 10.0, 7);
+
+    for (int k = 0; k < 7; ++k) {
+      assertEquals(k < 3 ? 0.2 : -0.3, samples.getFractionalOffset(0, k), 1e-9);
+    }
+  }
+
+  @Test
+  public void testCreateOmitsSamplesOutsideTimeBase() {
+    final AlignedChannelSamples samples = AlignedChannelSamples
+        .create(List.of(alignedChannel), start.plusMillis(500), 10.0, 8);
+
+    for (int k = 0; k < 8; ++k) {
+      assertEquals(k < 5, samples.hasValue(0, k));
+    }
+    assertArrayEquals(new double[]{6.0, 7.0, 8.0, 9.0, 10.0, 0.0, 0.0, 0.0},
+        samples.getValues(), 0.0);
+  }
+
+  @Test
+  public void testStackIgnoresMissingSamples() {
+    final double[] stacked = AlignedChannelSamples
+        .create(List.of(alignedChannel, offsetChannelWithGap), start, 10.0, 11).stack();
+
+    assertArrayEquals(new double[]{2.0, 2.5, 3.0, 4.0, 5.0, 6.0, 6.0, 6.5, 7.0, 7.5},
+        Arrays.copyOf(stacked, 10), 0.0);
+    assertTrue(Double.isNaN(stacked[10]));
+  }
+
+  @Test
+  public void testChannelWithoutSamplesHasNaNOffset() {
+    final AlignedChannelSamples samples = AlignedChannelSamples
+        .create(List.of(alignedChannel), start.plusSeconds(10), 10.0, 5);
+
+    assertTrue(Double.isNaN(samples.getFractionalOffset(0, 0)));
+    assertFalse(samples.hasValue(0, 0));
+  }
+
+  @Test
+  public void testGetValueOutOfRangeExpectIndexOutOfBoundsException() {
+    final AlignedChannelSamples samples = AlignedChannelSamples
+        .create(List.of(alignedChannel), start, 10.0, 10);
+
+    exception.expect(IndexOutOfBoundsException.class);
+    samples.getValue(0, 10);
+  }
+
+  @Test
+  public void testCreateNullChannelSegmentsExpectNullPointerException() {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("AlignedChannelSamples requires non-null channelSegments");
+    AlignedChannelSamples.create(null, start, 10.0, 10);
+  }
+
+  @Test
+  public void testCreateNonPositiveSampleRateExpectIllegalArgumentException() {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("AlignedChannelSamples requires a positive sampleRate");
+    AlignedChannelSamples.create(List.of(alignedChannel), start, 0.0, 10);
+  }
+
+  @Test
+  public void testCreateNegativeSampleCountExpectIllegalArgumentException() {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("AlignedChannelSamples requires a non-negative sampleCount");
+    AlignedChannelSamples.create(List.of(alignedChannel), start, 10.0, -1);
+  }
+
+  private static ChannelSegment channelSegment(Waveform... waveforms) {
+    final TreeSet<Waveform> waveformSet = new TreeSet<>(Set.of(waveforms));
+    return ChannelSegment.create(UUID.randomUUID(), "NAME", ChannelSegmentType.RAW,
+        waveformSet.first().getStartTime(), waveformSet.last().getEndTime(), waveformSet,
+        CreationInfo.DEFAULT);
+  }
+}
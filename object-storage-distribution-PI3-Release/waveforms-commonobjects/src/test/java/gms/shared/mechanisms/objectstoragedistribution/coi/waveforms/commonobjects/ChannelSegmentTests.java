@@ -1,30 +1,43 @@
 package gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 
 import gms.shared.mechanisms.objectstoragedistribution.coi.common.TestUtilities;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment.ChannelSegmentType;
 
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.CreationInfo;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 
 /**
  * Tests {@link Waveform} creation and usage semantics Created by trsault on 8/25/17.
  */
 public class ChannelSegmentTests {
 
+  @Rule
+  public final ExpectedException exception = ExpectedException.none();
+
   private final UUID segmentId = UUID.fromString("8952f988-ff83-4f3d-a832-a82a04022539"),
       processingChannelId = UUID.fromString("41ea0291-af5e-4694-a551-a215f95c78d1");
   private final ChannelSegment.ChannelSegmentType type = ChannelSegment.ChannelSegmentType.ACQUIRED;
@@ -138,7 +151,15 @@ public class ChannelSegmentTests {
 
   @Test
   public void equalsAndHashcodeTest() {
-    TestUtilities.checkClassEqualsAndHashcode(ChannelSegment.class);
+    final ChannelSegment example = createChannelSegment(start, end,
+        Set.of(Waveform.withInferredEndTime(start, 10.0, 2, new double[]{1.0, 2.0})));
+
+    EqualsVerifier.forClass(ChannelSegment.class)
+        .withCachedHashCode("hashCode", "computeHashCode", example)
+        .withPrefabValues(WaveformSamples.class,
+            WaveformSamples.ofValues(DoubleBuffer.wrap(new double[]{1.0})),
+            WaveformSamples.ofCounts(IntBuffer.wrap(new int[]{2, 3}), 1.0))
+        .verify();
   }
 
   @Test
@@ -157,6 +178,66 @@ public class ChannelSegmentTests {
         processingChannelId, "NAME", type, start, end, set, CreationInfo.DEFAULT);
   }
 
+  @Test
+  public void testChannelSegmentWaveformsUnaffectedByInputSet() {
+    final SortedSet<Waveform> waveforms = new TreeSet<>(Set.of(waveform1));
+    final ChannelSegment channelSegment = ChannelSegment.from(segmentId, processingChannelId,
+        "NAME", type, start, waveform3.getEndTime(), waveforms, CreationInfo.DEFAULT);
+    final int hashCode = channelSegment.hashCode();
+
+    waveforms.add(waveform3);
+
+    assertEquals(Set.of(waveform1), channelSegment.getWaveforms());
+    assertEquals(hashCode, channelSegment.hashCode());
+    assertEquals(channelSegment, ChannelSegment.from(segmentId, processingChannelId, "NAME", type,
+        start, waveform3.getEndTime(), new TreeSet<>(Set.of(waveform1)), CreationInfo.DEFAULT));
+  }
+
+  @Test
+  public void testChannelSegmentCreateFromOrderedNullArguments() throws Exception {
+    TestUtilities.checkStaticMethodValidatesNullArguments(
+        ChannelSegment.class, "createFromOrdered",
+        processingChannelId, "NAME", type, start, end, List.of(waveform), CreationInfo.DEFAULT);
+  }
+
+  @Test
+  public void testChannelSegmentCreateFromOrderedMatchesCreate() {
+    final ChannelSegment fromOrdered = ChannelSegment.createFromOrdered(processingChannelId,
+        "NAME", type, start, waveform3.getEndTime(),
+        List.of(waveform1, waveform2InterpolatedGap1, waveform3), CreationInfo.DEFAULT);
+
+    final ChannelSegment created = ChannelSegment.create(processingChannelId, "NAME", type,
+        start, waveform3.getEndTime(),
+        new TreeSet<>(Set.of(waveform1, waveform2InterpolatedGap1, waveform3)),
+        CreationInfo.DEFAULT);
+
+    assertTrue(fromOrdered.hasSameState(created));
+    assertEquals(List.of(waveform1, waveform2InterpolatedGap1, waveform3),
+        new ArrayList<>(fromOrdered.getWaveforms()));
+  }
+
+  @Test
+  public void testChannelSegmentCreateFromOrderedUnorderedExpectIllegalArgumentException() {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("strictly increasing start times");
+    ChannelSegment.createFromOrdered(processingChannelId, "NAME", type, start,
+        waveform3.getEndTime(), List.of(waveform3, waveform1), CreationInfo.DEFAULT);
+  }
+
+  @Test
+  public void testChannelSegmentCreateFromOrderedDuplicateStartExpectIllegalArgumentException() {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("strictly increasing start times");
+    ChannelSegment.createFromOrdered(processingChannelId, "NAME", type, start,
+        waveform3.getEndTime(), List.of(waveform1, waveform1), CreationInfo.DEFAULT);
+  }
+
+  @Test
+  public void testChannelSegmentGetWaveformsUnmodifiable() {
+    exception.expect(UnsupportedOperationException.class);
+    channelSegmentInterpolatedGap1_5.getWaveforms().add(waveform1);
+  }
+
   /**
    * Test merged waveforms where gaps are a couple nanoseconds less than the minimumGapLimit (1.0)
    * so no merged waveforms are created.
@@ -264,6 +345,118 @@ public class ChannelSegmentTests {
     assertEquals(newChannelSegment.getWaveforms().last(), waveform3);
   }
 
+  /**
+   * Test merging many contiguous packets produces a single waveform containing every packet's
+   * samples in order.
+   */
+  @Test
+  public void testChannelSegmentMergedWaveformManyPackets() {
+    final int packetCount = 1000;
+    final int packetLength = 40;
+    final double sampleRate = 40.0;
+
+    SortedSet<Waveform> packets = new TreeSet<>();
+    for (int p = 0; p < packetCount; ++p) {
+      final int offset = p * packetLength;
+      double[] values = new double[packetLength];
+      Arrays.setAll(values, i -> offset + i);
+      packets.add(Waveform.withInferredEndTime(start.plusSeconds(p), sampleRate, packetLength,
+          values));
+    }
+
+    ChannelSegment channelSegment = ChannelSegment.create(UUID.randomUUID(), "NAME",
+        ChannelSegmentType.FILTER, start, packets.last().getEndTime(), packets,
+        CreationInfo.DEFAULT);
+    ChannelSegment newChannelSegment = channelSegment.mergeWaveforms(1.0e-7, 0.5);
+
+    assertEquals(1, newChannelSegment.getWaveforms().size());
+    Waveform waveform = newChannelSegment.getWaveforms().first();
+    assertEquals(start, waveform.getStartTime());
+    assertEquals(packets.last().getEndTime(), waveform.getEndTime());
+    assertEquals(packetCount * packetLength, waveform.getSampleCount());
+    for (int i = 0; i < packetCount * packetLength; ++i) {
+      assertEquals(i, waveform.getValues()[i], 0.0);
+    }
+    assertEquals(sampleRate, waveform.getSampleRate(), 1.0e-9);
+  }
+
+  /**
+   * Test conditioning produces the same waveforms as interpolating gaps and then merging waveforms.
+   */
+  @Test
+  public void testChannelSegmentConditionMatchesInterpolateThenMerge() {
+    for (ChannelSegment channelSegment : List.of(channelSegmentDifferentSampleRates,
+        channelSegmentInterpolatedGap1, channelSegmentInterpolatedGap2,
+        channelSegmentInterpolatedGap4, channelSegmentInterpolatedGap1_5,
+        channelSegmentMergedGap1, channelSegmentMergedGap2)) {
+
+      ChannelSegment expected = channelSegment.interpolateWaveformGap(1.25, 6.0)
+          .mergeWaveforms(1.25, 0.9);
+      ChannelSegment actual = channelSegment.condition(1.25, 6.0, 1.25, 0.9);
+
+      assertEquals(channelSegment.getStartTime(), actual.getStartTime());
+      assertEquals(channelSegment.getEndTime(), actual.getEndTime());
+      assertEquals(new ArrayList<>(expected.getWaveforms()),
+          new ArrayList<>(actual.getWaveforms()));
+    }
+  }
+
+  /**
+   * Test windowed conditioning produces the same waveforms as windowing each conditioned waveform,
+   * omitting waveforms without samples in the window.
+   */
+  @Test
+  public void testChannelSegmentConditionWindowMatchesWindow() {
+    ChannelSegment conditioned = channelSegmentMergedGap2.condition(1.25, 1.5, 1.25, 0.9);
+    Instant windowEnd = waveform3.getEndTime();
+
+    for (Instant windowStart : List.of(Instant.EPOCH.minusSeconds(1),
+        Instant.EPOCH.plusMillis(510), Instant.EPOCH.plusMillis(1900),
+        waveform3.getStartTime().plusNanos(1))) {
+
+      List<Waveform> expected = conditioned.getWaveforms().stream()
+          .map(w -> w.window(windowStart, windowEnd))
+          .filter(w -> w.getSampleCount() > 0)
+          .collect(Collectors.toList());
+
+      ChannelSegment actual = channelSegmentMergedGap2
+          .condition(1.25, 1.5, 1.25, 0.9, windowStart, windowEnd);
+
+      assertEquals(windowStart.isAfter(Instant.EPOCH) ? windowStart : Instant.EPOCH,
+          actual.getStartTime());
+      assertEquals(expected, new ArrayList<>(actual.getWaveforms()));
+    }
+  }
+
+  @Test
+  public void testChannelSegmentConditionWindowWithoutSamplesOrExactMatchesWindow() {
+    ChannelSegment conditioned = channelSegmentMergedGap2.condition(1.25, 1.5, 1.25, 0.9);
+    Waveform firstRun = conditioned.getWaveforms().first();
+
+    // A window between two sample times of the first merged run, and a window exactly covering it
+    for (List<Instant> window : List.of(
+        List.of(Instant.EPOCH.plusMillis(1), Instant.EPOCH.plusMillis(2)),
+        List.of(firstRun.getStartTime(), firstRun.getEndTime()))) {
+
+      List<Waveform> expected = conditioned.getWaveforms().stream()
+          .map(w -> w.window(window.get(0), window.get(1)))
+          .filter(w -> w.getSampleCount() > 0)
+          .collect(Collectors.toList());
+
+      ChannelSegment actual = channelSegmentMergedGap2
+          .condition(1.25, 1.5, 1.25, 0.9, window.get(0), window.get(1));
+
+      assertEquals(expected, new ArrayList<>(actual.getWaveforms()));
+    }
+  }
+
+  @Test
+  public void testChannelSegmentConditionWindowStartAfterEndExpectIllegalArgumentException() {
+    exception.expect(IllegalArgumentException.class);
+    channelSegmentMergedGap1.condition(1.25, 1.5, 1.25, 0.9, waveform3.getEndTime(),
+        Instant.EPOCH);
+  }
+
   /**
    * Test that no waveforms are interpolated if the gaps exceed the maximumGapLimit setting. Using
    * channelSegmentInterpolatedGap2 where the gap sample periods are 2.5 and setting the limit to 2.0.
@@ -444,6 +637,93 @@ public class ChannelSegmentTests {
     }
   }
 
+  @Test
+  public void testChannelSegmentForEachWaveformPointMatchesAllWaveformPoints() {
+    final List<ImmutablePair<Instant, Double>> points = new ArrayList<>();
+    final List<Integer> indices = new ArrayList<>();
+    channelSegmentInterpolatedGap1_5.forEachWaveformPoint((index, epochNanos, value) -> {
+      indices.add(index);
+      points.add(new ImmutablePair<>(Instant.ofEpochSecond(0, epochNanos), value));
+    });
+
+    assertEquals(ChannelSegment.allWaveformPoints(channelSegmentInterpolatedGap1_5), points);
+    for (int i = 0; i < indices.size(); ++i) {
+      assertEquals(i, indices.get(i).intValue());
+    }
+  }
+
+  @Test
+  public void testChannelSegmentTimeForSampleMatchesWaveformTimeForSample() {
+    final ChannelSegment channelSegment = timeIndexChannelSegment();
+
+    int index = 0;
+    for (Waveform wf : channelSegment.getWaveforms()) {
+      for (int i = 0; i < wf.getValuesLength(); ++i, ++index) {
+        assertEquals(wf.timeForSample(i), channelSegment.timeForSample(index));
+        assertEquals(wf.timeForSample(i),
+            Instant.ofEpochSecond(0, channelSegment.epochNanosForSample(index)));
+      }
+    }
+  }
+
+  @Test
+  public void testChannelSegmentSampleIndexAtOrBefore() {
+    final ChannelSegment channelSegment = timeIndexChannelSegment();
+    final int length = channelSegment.getWaveforms().stream()
+        .mapToInt(Waveform::getValuesLength).sum();
+
+    for (int i = 0; i < length; ++i) {
+      final long sampleNanos = channelSegment.epochNanosForSample(i);
+      assertEquals(i, channelSegment.sampleIndexAtOrBefore(sampleNanos));
+      assertEquals(i - 1, channelSegment.sampleIndexAtOrBefore(sampleNanos - 1));
+    }
+
+    // Times in the gap between waveforms find the last sample of the earlier waveform
+    assertEquals(9, channelSegment.sampleIndexAtOrBefore(
+        channelSegment.epochNanosForSample(10) - 1000000000L));
+    assertEquals(length - 1, channelSegment.sampleIndexAtOrBefore(Long.MAX_VALUE));
+    assertEquals(-1, channelSegment.sampleIndexAtOrBefore(Long.MIN_VALUE));
+  }
+
+  @Test
+  public void testIsMergeable() {
+    final Instant end = Instant.EPOCH;
+
+    // Next sample one sample period (0.1 s) after the previous sample
+    assertTrue(ChannelSegment.isMergeable(10.0, end, 10.0, end.plusMillis(100), 1.0e-7, 0.5));
+
+    // Gaps of 1.5 samples or more are not merged
+    assertFalse(ChannelSegment.isMergeable(10.0, end, 10.0, end.plusMillis(150), 1.0e-7, 0.5));
+
+    // Gaps within the minimum gap sample count limit are not merged
+    assertFalse(ChannelSegment.isMergeable(10.0, end, 10.0, end.plusMillis(50), 1.0e-7, 0.5));
+
+    // Sample rates outside of the tolerance are not merged
+    assertFalse(ChannelSegment.isMergeable(10.0, end, 10.1, end.plusMillis(100), 0.05, 0.5));
+    assertTrue(ChannelSegment.isMergeable(10.0, end, 10.1, end.plusMillis(100), 0.2, 0.5));
+  }
+
+  @Test
+  public void testChannelSegmentTimeForSampleOutOfRangeExpectIndexOutOfBoundsException() {
+    final ChannelSegment channelSegment = timeIndexChannelSegment();
+
+    exception.expect(IndexOutOfBoundsException.class);
+    channelSegment.timeForSample(15);
+  }
+
+  /**
+   * Creates a ChannelSegment with 10 samples at 3 samples per second, a waveform without values,
+   * and 5 samples at 7 samples per second.  Neither sample period is a whole number of
+   * nanoseconds.
+   */
+  private ChannelSegment timeIndexChannelSegment() {
+    final Instant secondStart = start.plusSeconds(20);
+    return createChannelSegment(start, secondStart.plusSeconds(1), Set.of(
+        Waveform.withInferredEndTime(start, 3.0, 10, getDoubleArray(10, 1.0)),
+        Waveform.withoutValues(start.plusSeconds(10), start.plusSeconds(11), 3.0),
+        Waveform.withInferredEndTime(secondStart, 7.0, 5, getDoubleArray(5, 2.0))));
+  }
+
   /**
    * Tests that interpolated waveforms are inserted when the the sample time difference (using a
    * mean sample rate between the adjacent waveforms) between two consecutive waveforms are just
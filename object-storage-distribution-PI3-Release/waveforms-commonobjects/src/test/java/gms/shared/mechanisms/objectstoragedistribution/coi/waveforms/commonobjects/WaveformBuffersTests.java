@@ -0,0 +1,82 @@
+package gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.DoubleBuffer;
+import java.time.Instant;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests {@link WaveformBuffers}
+ */
+public class WaveformBuffersTests {
+
+  @Rule
+  public final ExpectedException exception = ExpectedException.none();
+
+  private final double[] values = new double[]{1.0, -2.0, 3.5, 4.25, 0.0, 6.0};
+
+  @Test
+  public void testAllocateDirect() {
+    final DoubleBuffer buffer = WaveformBuffers.allocateDirect(values.length);
+
+    assertTrue(buffer.isDirect());
+    assertEquals(0, buffer.position());
+    assertEquals(values.length, buffer.limit());
+    assertEquals(0.0, buffer.get(3), 0.0);
+    assertWaveformMatches(buffer);
+  }
+
+  @Test
+  public void testMapTemporaryFile() throws Exception {
+    final DoubleBuffer buffer = WaveformBuffers.mapTemporaryFile(values.length);
+
+    assertTrue(buffer.isDirect());
+    assertEquals(0, buffer.position());
+    assertEquals(values.length, buffer.limit());
+    assertEquals(0.0, buffer.get(3), 0.0);
+    assertWaveformMatches(buffer);
+  }
+
+  @Test
+  public void testAllocateDirectEmpty() {
+    assertEquals(0, WaveformBuffers.allocateDirect(0).limit());
+  }
+
+  @Test
+  public void testAllocateDirectNegativeLengthExpectIllegalArgumentException() {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("WaveformBuffers requires a length in [0, MAX_LENGTH]");
+    WaveformBuffers.allocateDirect(-1);
+  }
+
+  @Test
+  public void testMapTemporaryFileTooLongExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("WaveformBuffers requires a length in [0, MAX_LENGTH]");
+    WaveformBuffers.mapTemporaryFile(WaveformBuffers.MAX_LENGTH + 1);
+  }
+
+  /**
+   * Fills the buffer and verifies a Waveform created from it matches a Waveform created from the
+   * values array
+   */
+  private void assertWaveformMatches(DoubleBuffer buffer) {
+    buffer.put(values);
+    buffer.flip();
+
+    final Instant start = Instant.EPOCH;
+    final Instant end = start.plusMillis(500);
+    final Waveform expected = Waveform.create(start, end, 10.0, values.length, values);
+    final Waveform actual = Waveform.createFromBuffer(start, end, 10.0, values.length, buffer);
+
+    assertEquals(expected, actual);
+    assertEquals(expected.hashCode(), actual.hashCode());
+    assertArrayEquals(values, actual.getValues(), 0.0);
+    assertEquals(expected.slice(2, 5), actual.slice(2, 5));
+  }
+}
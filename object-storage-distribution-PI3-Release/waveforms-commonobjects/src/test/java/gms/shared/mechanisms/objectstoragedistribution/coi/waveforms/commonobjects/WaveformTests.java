@@ -1,7 +1,22 @@
 package gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
 import gms.shared.mechanisms.objectstoragedistribution.coi.common.TestUtilities;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import nl.jqno.equalsverifier.Warning;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -16,12 +31,225 @@ public class WaveformTests {
   private final Instant endTime = Instant.now();
   private final double[] values = new double[]{0};
 
+  private final double[] tenValues = new double[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+
   @Rule
   public ExpectedException thrown = ExpectedException.none();
 
   @Test
   public void equalsAndHashcodeTest() {
-    TestUtilities.checkClassEqualsAndHashcode(Waveform.class, false);
+    // Waveform's constructors reject null values
+    EqualsVerifier.forClass(Waveform.class)
+        .withRedefinedSuperclass()
+        .suppress(Warning.NULL_FIELDS)
+        .withCachedHashCode("hashCode", "computeHashCode",
+            Waveform.withInferredEndTime(startTime, 10.0, 10, tenValues))
+        .withPrefabValues(WaveformSamples.class,
+            WaveformSamples.ofValues(DoubleBuffer.wrap(new double[]{1.0})),
+            WaveformSamples.ofCounts(IntBuffer.wrap(new int[]{2, 3}), 1.0))
+        .verify();
+  }
+
+  @Test
+  public void testEqualsComparesSamples() {
+    final Waveform waveform = Waveform.withInferredEndTime(startTime, 10.0, 10, tenValues);
+    final Waveform copy = Waveform
+        .withInferredEndTime(startTime, 10.0, 10, tenValues.clone());
+
+    final double[] otherValues = tenValues.clone();
+    otherValues[9] = 10.0;
+    final Waveform other = Waveform.withInferredEndTime(startTime, 10.0, 10, otherValues);
+
+    assertEquals(waveform.hashCode(), copy.hashCode());
+    assertEquals(waveform, copy);
+    assertNotEquals(waveform, other);
+    assertNotEquals(other, waveform);
+  }
+
+  @Test
+  public void testCreateFromCountsMatchesCreate() {
+    final int[] counts = new int[]{0, 1, -2, 3, -4, 5, 6, 7, 8, Integer.MAX_VALUE};
+    final Waveform fromCounts = Waveform
+        .createFromCounts(startTime, endTime, 10.0, 10, counts, 0.5);
+
+    final double[] expectedValues = Arrays.stream(counts).mapToDouble(c -> c * 0.5).toArray();
+    final Waveform expected = Waveform.create(startTime, endTime, 10.0, 10, expectedValues);
+
+    assertEquals(expected, fromCounts);
+    assertEquals(fromCounts, expected);
+    assertEquals(expected.hashCode(), fromCounts.hashCode());
+    assertEquals(10, fromCounts.getValuesLength());
+    assertEquals(-1.0, fromCounts.getValue(2), 0.0);
+    assertEquals(Integer.MAX_VALUE * 0.5, fromCounts.getLastSample(), 0.0);
+    assertArrayEquals(expectedValues, fromCounts.getValues(), 0.0);
+    // The expanded data points are not retained so counts keep their memory saving
+    assertNotSame(fromCounts.getValues(), fromCounts.getValues());
+    assertEquals(expected.asTimedPairs(), fromCounts.asTimedPairs());
+  }
+
+  @Test
+  public void testCreateFromCountsSliceSharesCounts() {
+    final int[] counts = new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+    final Waveform slice = Waveform.createFromCounts(startTime,
+        startTime.plusMillis(900), 10.0, 10, counts, 2.0).slice(4, 8);
+
+    final double[] copy = new double[3];
+    slice.copyValues(1, copy, 0, 3);
+    assertArrayEquals(new double[]{10.0, 12.0, 14.0}, copy, 0.0);
+
+    counts[5] = 50;
+    assertEquals(100.0, slice.getValue(1), 0.0);
+  }
+
+  @Test
+  public void testCreateFromCountsNullCountsExpectNullPointerException() {
+    thrown.expect(NullPointerException.class);
+    Waveform.createFromCounts(startTime, endTime, 10.0, 10, null, 1.0);
+  }
+
+  @Test
+  public void testCreateFromBufferUsesRemainingValues() {
+    final DoubleBuffer buffer = DoubleBuffer.wrap(tenValues);
+    buffer.position(2);
+    buffer.limit(6);
+
+    final Waveform waveform = Waveform
+        .createFromBuffer(startTime, startTime.plusMillis(300), 10.0, 4, buffer);
+
+    assertEquals(Waveform.create(startTime, startTime.plusMillis(300), 10.0, 4,
+        new double[]{2, 3, 4, 5}), waveform);
+    assertEquals(2, buffer.position());
+    assertEquals(6, buffer.limit());
+  }
+
+  @Test
+  public void testCreateFromDirectBufferGetValuesCopies() {
+    final DoubleBuffer buffer = WaveformBuffers.allocateDirect(tenValues.length);
+    buffer.put(tenValues);
+    buffer.flip();
+
+    final Waveform waveform = Waveform.createFromBuffer(startTime, endTime, 10.0, 10, buffer);
+    final double[] first = waveform.getValues();
+
+    assertArrayEquals(tenValues, first, 0.0);
+    assertNotSame(first, waveform.getValues());
+  }
+
+  @Test
+  public void testCreateFromBufferNullValuesExpectNullPointerException() {
+    thrown.expect(NullPointerException.class);
+    Waveform.createFromBuffer(startTime, endTime, 10.0, 10, null);
+  }
+
+  @Test
+  public void testWindowMatchesCopiedWaveform() {
+    final Waveform waveform = Waveform.withInferredEndTime(startTime, 10.0, 10, tenValues);
+    final Waveform windowed = waveform
+        .window(startTime.plusMillis(250), startTime.plusMillis(650));
+
+    final Waveform expected = Waveform.create(startTime.plusMillis(300),
+        startTime.plusMillis(600), 10.0, 4, new double[]{3, 4, 5, 6});
+
+    assertEquals(expected, windowed);
+    assertEquals(windowed, expected);
+    assertEquals(expected.hashCode(), windowed.hashCode());
+    assertEquals(4, windowed.getValuesLength());
+    assertEquals(3.0, windowed.getFirstSample(), 0.0);
+    assertEquals(6.0, windowed.getLastSample(), 0.0);
+    assertArrayEquals(expected.getValues(), windowed.getValues(), 0.0);
+    assertEquals(expected.asTimedPairs(), windowed.asTimedPairs());
+  }
+
+  @Test
+  public void testWindowOfWindowMatchesWindow() {
+    final Waveform waveform = Waveform.withInferredEndTime(startTime, 10.0, 10, tenValues);
+    final Waveform windowed = waveform
+        .window(startTime.plusMillis(100), startTime.plusMillis(800))
+        .window(startTime.plusMillis(300), startTime.plusMillis(500));
+
+    assertEquals(waveform.window(startTime.plusMillis(300), startTime.plusMillis(500)), windowed);
+    assertArrayEquals(new double[]{3, 4, 5}, windowed.getValues(), 0.0);
+  }
+
+  @Test
+  public void testWindowSharesValues() {
+    final double[] samples = tenValues.clone();
+    final Waveform windowed = Waveform.withInferredEndTime(startTime, 10.0, 10, samples)
+        .window(startTime.plusMillis(200), startTime.plusMillis(400));
+
+    samples[3] = 30.0;
+    assertEquals(30.0, windowed.getValue(1), 0.0);
+  }
+
+  @Test
+  public void testGetValuesReturnsCreatedArray() {
+    final Waveform waveform = Waveform.withInferredEndTime(startTime, 10.0, 10, tenValues);
+    assertSame(tenValues, waveform.getValues());
+    assertSame(tenValues, waveform.slice(0, 10).getValues());
+
+    final Waveform slice = waveform.slice(2, 5);
+    assertSame(slice.getValues(), slice.getValues());
+  }
+
+  @Test
+  public void testSliceTimes() {
+    final Waveform slice = Waveform.withInferredEndTime(startTime, 10.0, 10, tenValues)
+        .slice(9, 10);
+
+    assertEquals(startTime.plus(Duration.ofMillis(900)), slice.getStartTime());
+    assertEquals(slice.getStartTime(), slice.getEndTime());
+    assertEquals(1, slice.getSampleCount());
+    assertArrayEquals(new double[]{9}, slice.getValues(), 0.0);
+  }
+
+  @Test
+  public void testCopyValues() {
+    final double[] copy = new double[5];
+    Waveform.withInferredEndTime(startTime, 10.0, 10, tenValues).slice(4, 8)
+        .copyValues(1, copy, 2, 3);
+
+    assertArrayEquals(new double[]{0, 0, 5, 6, 7}, copy, 0.0);
+  }
+
+  @Test
+  public void testSliceEmptyRangeExpectIllegalArgumentException() {
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("Waveform slice requires 0 <= fromIndex < toIndex <= getValuesLength()");
+    Waveform.withInferredEndTime(startTime, 10.0, 10, tenValues).slice(3, 3);
+  }
+
+  @Test
+  public void testSliceBeyondValuesExpectIllegalArgumentException() {
+    thrown.expect(IllegalArgumentException.class);
+    Waveform.withInferredEndTime(startTime, 10.0, 10, tenValues).slice(5, 11);
+  }
+
+  @Test
+  public void testGetValueOutsideViewExpectIndexOutOfBoundsException() {
+    thrown.expect(IndexOutOfBoundsException.class);
+    Waveform.withInferredEndTime(startTime, 10.0, 10, tenValues).slice(2, 5).getValue(3);
+  }
+
+  @Test
+  public void testForEachSampleMatchesAsTimedPairs() {
+    final Waveform waveform = Waveform.withInferredEndTime(Instant.parse("2010-05-20T22:30:00Z"),
+        40.0, 10, tenValues).slice(1, 9);
+
+    final List<ImmutablePair<Instant, Double>> samples = new ArrayList<>();
+    final List<Integer> indices = new ArrayList<>();
+    waveform.forEachSample((index, epochNanos, value) -> {
+      indices.add(index);
+      samples.add(new ImmutablePair<>(Instant.ofEpochSecond(0, epochNanos), value));
+    });
+
+    assertEquals(waveform.asTimedPairs(), samples);
+    assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7), indices);
+  }
+
+  @Test
+  public void testForEachSampleNullConsumerExpectNullPointerException() {
+    thrown.expect(NullPointerException.class);
+    Waveform.withInferredEndTime(startTime, 10.0, 10, tenValues).forEachSample(null);
   }
 
   @Test
@@ -1,10 +1,12 @@
 package gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.datatransferobjects;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.TestFixtures;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
+import java.time.Instant;
 import org.junit.Test;
 
 
@@ -30,4 +32,26 @@ public class WaveformDtoTest {
         assertNotNull(deserializedWaveform);
         assertTrue(deserializedWaveform.equals(TestFixtures.waveform1));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that a Waveform created from counts, and a view of a Waveform, serialize to the same
+     * JSON as an equal Waveform created from doubles and deserialize to an equal Waveform.
+     * @throws Exception
+     */
+    @Test
+    public void serializationCountsAndViewTest() throws Exception {
+        final Instant start = Instant.EPOCH;
+        final Instant end = start.plusSeconds(2);
+        final Waveform waveform = Waveform.create(start, end, 1.0, 3, new double[]{1.0, -2.5, 3.0});
+        final Waveform fromCounts = Waveform
+            .createFromCounts(start, end, 1.0, 3, new int[]{2, -5, 6}, 0.5);
+        final Waveform view = Waveform
+            .create(start, end.plusSeconds(1), 1.0, 4, new double[]{1.0, -2.5, 3.0, 4.0})
+            .slice(0, 3);
+
+        final String json = TestFixtures.objMapper.writeValueAsString(waveform);
+        assertEquals(json, TestFixtures.objMapper.writeValueAsString(fromCounts));
+        assertEquals(json, TestFixtures.objMapper.writeValueAsString(view));
+        assertEquals(waveform, TestFixtures.objMapper.readValue(json, Waveform.class));
+    }
+}
@@ -95,15 +95,57 @@ public class InfluxDbUtility {
    * @param id The UUID to associate with the series.
    */
   private static Point toPoint(ImmutablePair<Instant, Double> point, double sampleRate, UUID id) {
+    return toPoint(getEpochMicroseconds(point.getLeft()), point.getRight(), sampleRate,
+        id.toString());
+  }
+
+  /**
+   * Creates a point given a time, a value, a sample rate, and an ID.
+   *
+   * @param epochMicroseconds The time of the point in microseconds since the unix epoch.
+   * @param value The value of the point.
+   * @param sampleRate The sample rate of the series.
+   * @param id The UUID string to associate with the series.
+   */
+  private static Point toPoint(long epochMicroseconds, double value, double sampleRate,
+      String id) {
 
     return Point.measurement(RAW_MEASUREMENT_NAME)
-        .time(getEpochMicroseconds(point.getLeft()), TimeUnit.MICROSECONDS)
-        .addField(VALUE_TAG, point.getRight())
+        .time(epochMicroseconds, TimeUnit.MICROSECONDS)
+        .addField(VALUE_TAG, value)
         .addField(SAMPLE_RATE_TAG, sampleRate)
-        .tag(ID_TAG, id.toString())
+        .tag(ID_TAG, id)
         .build();
   }
 
+  /**
+   * Save a waveform's points and tag them with the unique channel segment UUID.  Writes the same
+   * points as {@link InfluxDbUtility#writeWaveformPoints(InfluxDB, Collection, double, UUID)} does
+   * for the waveform's {@link Waveform#asTimedPairs()}, without creating a time/value pair for
+   * every point.
+   *
+   * @param influx The connection manager for InfluxDB.
+   * @param waveform The waveform to save.
+   * @param id The ChannelSegment UUID used to tag the series.
+   */
+  public static void writeWaveform(InfluxDB influx, Waveform waveform, UUID id)
+      throws NullPointerException {
+    Validate.notNull(influx);
+    Validate.notNull(waveform);
+    Validate.notNull(id);
+
+    long startTime = System.currentTimeMillis();
+
+    final double sampleRate = waveform.getSampleRate();
+    final String idString = id.toString();
+    waveform.forEachSample((index, epochNanos, value) -> influx
+        .write(toPoint(Math.floorDiv(epochNanos, 1000L), value, sampleRate, idString)));
+    influx.flush();
+
+    logger.debug("Wrote " + waveform.getValuesLength() + " points to Influx in "
+        + (System.currentTimeMillis() - startTime) + " milliseconds.");
+  }
+
   /**
    * Save a series of waveform point and tag with the unique channel segment UUID.
    *
@@ -131,8 +131,7 @@ public class WaveformRepositoryInfluxDb implements WaveformRepositoryInterface {
     }
 
     // Write the data points.
-    InfluxDbUtility.writeWaveformPoints(influxDB, waveform.asTimedPairs(),
-        waveform.getSampleRate(), processingChannelId);
+    InfluxDbUtility.writeWaveform(influxDB, waveform, processingChannelId);
   }
 
   /**
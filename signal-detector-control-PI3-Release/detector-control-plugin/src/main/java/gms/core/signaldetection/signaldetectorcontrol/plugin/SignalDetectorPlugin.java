@@ -43,4 +43,18 @@ public interface SignalDetectorPlugin {
    * @return Collection of {@link Instant} signal arrival times, not null
    */
   Collection<Instant> detectSignals(ChannelSegment channelSegment);
+
+  /**
+   * Detects signal arrival times on the input {@link ChannelSegment}, which contains newly arrived
+   * data for its processing channel.  Plugins which carry detector state from one ChannelSegment
+   * to the next for each processing channel override this so streaming data does not need to
+   * repeat the detector's lead-in samples.  By default this is {@link
+   * SignalDetectorPlugin#detectSignals(ChannelSegment)}.
+   *
+   * @param channelSegment detect signal arrivals in this ChannelSegment, not null
+   * @return Collection of {@link Instant} signal arrival times, not null
+   */
+  default Collection<Instant> detectSignalsStreaming(ChannelSegment channelSegment) {
+    return detectSignals(channelSegment);
+  }
 }
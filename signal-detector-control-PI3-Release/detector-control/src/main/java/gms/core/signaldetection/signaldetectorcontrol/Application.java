@@ -11,12 +11,15 @@ import gms.core.signaldetection.signaldetectorcontrol.osdgateway.client.HttpClie
 import gms.core.signaldetection.signaldetectorcontrol.osdgateway.client.OsdGatewayClient;
 import gms.core.signaldetection.signaldetectorcontrol.plugin.SignalDetectorControlPluginRegistry;
 import gms.core.signaldetection.signaldetectorcontrol.plugin.SignalDetectorPlugin;
+import gms.core.signaldetection.signaldetectorcontrol.util.ConfigurationLoader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.MissingResourceException;
 import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.ServiceLoader.Provider;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -44,6 +47,18 @@ public class Application {
    */
   private static final String claimCheckPath = "/claim-check";
 
+  /**
+   * Property key for the number of threads {@link SignalDetectorControl} uses to execute signal
+   * detector plugins
+   */
+  private static final String DETECTOR_THREADS_KEY = "detector_threads";
+
+  /**
+   * Executes the signal detector plugins.  Created when the service starts and shut down when the
+   * service stops.
+   */
+  private static ExecutorService detectorExecutor;
+
   public static void main(String[] args) {
     Runtime.getRuntime().addShutdownHook(new Thread(Application::stop));
     Application.start();
@@ -65,8 +80,12 @@ public class Application {
     configureServer(config);
     logger.info("Embedded server initialized.");
 
+    final int detectorThreads = ConfigurationLoader.load(getUrlToResourceFile(propertiesFile))
+        .getInt(DETECTOR_THREADS_KEY, Runtime.getRuntime().availableProcessors());
+    detectorExecutor = Executors.newFixedThreadPool(detectorThreads);
+
     logger.info("Initializing signal-detector-control routes...");
-    configureRoutes(config);
+    configureRoutes(config, detectorExecutor);
     logger.info("signal-detector-control routes initialized.");
 
     Spark.awaitInitialization();
@@ -74,15 +93,21 @@ public class Application {
   }
 
   /**
-   * Stops the Spark HTTP server
+   * Stops the Spark HTTP server and the signal detector plugin executor
    */
   private static void stop() {
     Spark.stop();
+
+    if (detectorExecutor != null) {
+      detectorExecutor.shutdown();
+    }
   }
 
-  private static void configureRoutes(HttpServiceConfiguration config) {
+  private static void configureRoutes(HttpServiceConfiguration config,
+      ExecutorService detectorExecutor) {
     // Delegate calls to this route handler
-    SignalDetectorControlRouteHandler signalDetectorControlRouteHandler = getSignalDetectorControlRouteHandler();
+    SignalDetectorControlRouteHandler signalDetectorControlRouteHandler = getSignalDetectorControlRouteHandler(
+        detectorExecutor);
 
     // Configure the streaming route handler
     Function<Request, StandardResponse> streamingClosure = r -> signalDetectorControlRouteHandler
@@ -138,14 +163,16 @@ public class Application {
     return ContentType.parse(request.headers("Accept"));
   }
 
-  private static SignalDetectorControlRouteHandler getSignalDetectorControlRouteHandler() {
-    return SignalDetectorControlRouteHandler.create(getSignalDetectorControl());
+  private static SignalDetectorControlRouteHandler getSignalDetectorControlRouteHandler(
+      ExecutorService detectorExecutor) {
+    return SignalDetectorControlRouteHandler.create(getSignalDetectorControl(detectorExecutor));
   }
 
-  private static SignalDetectorControl getSignalDetectorControl() {
+  private static SignalDetectorControl getSignalDetectorControl(
+      ExecutorService detectorExecutor) {
     //TODO: Pass in proper SignalDetectorControl object
     SignalDetectorControl signalDetectorControl = SignalDetectorControl
-        .create(getSignalDetectorControlPluginRegistry(), getOsdGatewayClient());
+        .create(getSignalDetectorControlPluginRegistry(), getOsdGatewayClient(), detectorExecutor);
     signalDetectorControl.initialize();
     return signalDetectorControl;
   }
@@ -13,15 +13,21 @@ import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commo
 import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FeatureMeasurementType;
 import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.SignalDetection;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -33,15 +39,17 @@ public class SignalDetectorControl {
 
   private final SignalDetectorControlPluginRegistry registry;
   private final OsdGatewayClient osdGatewayAccess;
+  private final ExecutorService executor;
   private SignalDetectorConfiguration configuration;
 
   private boolean initialized;
 
   private SignalDetectorControl(
       SignalDetectorControlPluginRegistry registry,
-      OsdGatewayClient osdGatewayAccess) {
+      OsdGatewayClient osdGatewayAccess, ExecutorService executor) {
     this.registry = registry;
     this.osdGatewayAccess = osdGatewayAccess;
+    this.executor = executor;
     this.initialized = false;
   }
 
@@ -61,7 +69,8 @@ public class SignalDetectorControl {
   }
 
   /**
-   * Factory method for creating a SignalDetectorControl
+   * Factory method for creating a SignalDetectorControl which executes signal detector plugins on
+   * the {@link ForkJoinPool#commonPool()}
    *
    * @param registry plugin registry, not null
    * @param osdGatewayAccessLibrary osd gateway access library, not null
@@ -70,12 +79,31 @@ public class SignalDetectorControl {
   public static SignalDetectorControl create(SignalDetectorControlPluginRegistry registry,
       OsdGatewayClient osdGatewayAccessLibrary) {
 
+    return create(registry, osdGatewayAccessLibrary, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Factory method for creating a SignalDetectorControl which executes signal detector plugins on
+   * the provided executor.  Each plugin invocation on each {@link ChannelSegment} is an
+   * independent task.  The caller owns the executor and is responsible for shutting it down once
+   * the SignalDetectorControl is no longer used.
+   *
+   * @param registry plugin registry, not null
+   * @param osdGatewayAccessLibrary osd gateway access library, not null
+   * @param executor executes the plugin invocations, not null
+   * @return a new SignalDetectorControl object
+   */
+  public static SignalDetectorControl create(SignalDetectorControlPluginRegistry registry,
+      OsdGatewayClient osdGatewayAccessLibrary, ExecutorService executor) {
+
     Objects
         .requireNonNull(registry, "Error creating SignalDetectorControl: registry cannot be null");
     Objects.requireNonNull(osdGatewayAccessLibrary,
         "Error creating SignalDetectorControl: osdGatewayAccessLibrary cannot be null");
+    Objects
+        .requireNonNull(executor, "Error creating SignalDetectorControl: executor cannot be null");
 
-    return new SignalDetectorControl(registry, osdGatewayAccessLibrary);
+    return new SignalDetectorControl(registry, osdGatewayAccessLibrary, executor);
   }
 
   /**
@@ -99,13 +127,22 @@ public class SignalDetectorControl {
     logger.info("SignalDetectorControl ClaimCheck execution processing {} ChannelSegments",
         channelSegments.size());
 
-    return channelSegments.stream()
-        .map(cs -> execute(cs, command.getProcessingContext(), cs.getProcessingChannelId()))
-        .flatMap(Collection::stream).map(SignalDetection::getId).collect(Collectors.toList());
+    // Process the ChannelSegments in a deterministic order so the output order does not depend
+    // on the loaded Set's iteration order or on task completion order
+    final List<ChannelSegment> orderedChannelSegments = channelSegments.stream()
+        .sorted(Comparator.comparing(ChannelSegment::getStartTime)
+            .thenComparing(ChannelSegment::getProcessingChannelId))
+        .collect(Collectors.toList());
+
+    return execute(orderedChannelSegments, command.getProcessingContext(), false).stream()
+        .map(SignalDetection::getId).collect(Collectors.toList());
   }
 
   /**
-   * Execute signal detection using the provided {@link ExecuteStreamingCommand}
+   * Execute signal detection using the provided {@link ExecuteStreamingCommand}.  The command's
+   * {@link ChannelSegment} is processed with {@link
+   * SignalDetectorPlugin#detectSignalsStreaming(ChannelSegment)} so plugins can continue from the
+   * data previously streamed on the same processing channel.
    *
    * @param command object describing the qc processing request, not null
    * @return list of generated {@link ChannelSegment}, not null
@@ -117,62 +154,112 @@ public class SignalDetectorControl {
 
     Objects.requireNonNull(command, "SignalDetectorControl cannot execute a null StreamingCommand");
 
-    return execute(command.getChannelSegment(), command.getProcessingContext(),
-        command.getChannelSegment().getProcessingChannelId());
+    return execute(List.of(command.getChannelSegment()), command.getProcessingContext(), true);
   }
 
   /**
-   * Creates a list of signal detections given a channel segment, time range, processing context and
-   * processing channel id. Signal detections are created by calling plugins configured for use with
-   * the processing channel.
+   * Creates a list of signal detections from the channel segments and processing context.  Signal
+   * detections are created by calling the plugins configured for use with each channel segment's
+   * processing channel.  Every plugin invocation on every channel segment executes as a separate
+   * task on this control's executor.  The returned detections are ordered by channel segment, then
+   * by the configured plugin order, then by the order each plugin returned its arrival times.  A
+   * failed plugin invocation is logged and contributes no detections but does not prevent the
+   * other invocations from completing.
    *
-   * @param channelSegment channel segment to process
+   * @param channelSegments channel segments to process, in output order
    * @param processingContext processing context
-   * @param processingChannelId processingChannelId to process
+   * @param streaming whether the channel segments contain newly streamed data
    * @return list of SignalDetections
    */
-  private Collection<SignalDetection> execute(ChannelSegment channelSegment,
-      ProcessingContext processingContext, UUID processingChannelId) {
+  private List<SignalDetection> execute(List<ChannelSegment> channelSegments,
+      ProcessingContext processingContext, boolean streaming) {
+
+    // Look up the plugins for every channel segment before submitting any tasks so missing
+    // configuration fails the whole request without invoking any plugins
+    final List<List<SignalDetectorPlugin>> plugins = channelSegments.stream()
+        .map(c -> getPlugins(c.getProcessingChannelId()))
+        .collect(Collectors.toList());
+
+    final List<List<CompletableFuture<Optional<PluginResult>>>> tasks = new ArrayList<>();
+    for (int i = 0; i < channelSegments.size(); ++i) {
+      final ChannelSegment channelSegment = channelSegments.get(i);
+      logger.info("Performing signal detection on ChannelSegment {}", channelSegment);
+
+      tasks.add(plugins.get(i).stream()
+          .map(plugin -> CompletableFuture
+              .supplyAsync(() -> detect(plugin, channelSegment, processingContext, streaming),
+                  executor))
+          .collect(Collectors.toList()));
+    }
 
-    logger.info("Performing signal detection on ChannelSegment {}", channelSegment);
+    final List<SignalDetection> signalDetections = new ArrayList<>();
+    for (List<CompletableFuture<Optional<PluginResult>>> channelSegmentTasks : tasks) {
+      final List<CreationInformation> creationInformationList = new ArrayList<>();
+      final List<SignalDetection> channelSegmentDetections = new ArrayList<>();
 
-    List<SignalDetectorPlugin> plugins = getPlugins(processingChannelId);
+      channelSegmentTasks.stream().map(CompletableFuture::join)
+          .filter(Optional::isPresent).map(Optional::get)
+          .forEach(r -> {
+            creationInformationList.add(r.creationInformation);
+            channelSegmentDetections.addAll(r.signalDetections);
+          });
 
-    // create creationInformation for each filter plugin
-    List<CreationInformation> creationInformationList = new ArrayList<>();
-    Set<SignalDetection> signalDetectionSet = new HashSet<>();
+      osdGatewayAccess.store(new HashSet<>(channelSegmentDetections), creationInformationList,
+          processingContext.getStorageVisibility());
 
-    plugins.stream().forEach(plugin -> {
+      signalDetections.addAll(channelSegmentDetections);
+    }
 
-      logger.info("SignalDetectionControl invoking plugin {} {} for Channel {}", plugin.getName(),
-          plugin.getVersion(), processingChannelId);
+    return signalDetections;
+  }
 
+  /**
+   * Invokes a single plugin on a single channel segment.  Any exception thrown by the plugin is
+   * logged and results in an empty Optional.
+   *
+   * @param plugin signal detector plugin, not null
+   * @param channelSegment channel segment to process, not null
+   * @param processingContext processing context, not null
+   * @param streaming whether to invoke the plugin's streaming detection
+   * @return {@link PluginResult} containing the plugin's detections, or an empty Optional if the
+   * plugin failed
+   */
+  private static Optional<PluginResult> detect(SignalDetectorPlugin plugin,
+      ChannelSegment channelSegment, ProcessingContext processingContext, boolean streaming) {
+
+    final UUID processingChannelId = channelSegment.getProcessingChannelId();
+
+    logger.info("SignalDetectionControl invoking plugin {} {} for Channel {}", plugin.getName(),
+        plugin.getVersion(), processingChannelId);
+
+    try {
       final CreationInformation creationInformation = createCreationInformation(plugin,
           processingContext);
 
-      creationInformationList.add(creationInformation);
+      final Collection<Instant> arrivalTimes = streaming
+          ? plugin.detectSignalsStreaming(channelSegment)
+          : plugin.detectSignals(channelSegment);
 
-      Collection<SignalDetection> newDetections = plugin.detectSignals(channelSegment).stream()
+      final List<SignalDetection> newDetections = arrivalTimes.stream()
           .map(arrivalTime -> SignalDetection
               .create("Organization", processingChannelId, "phase",
                   List.of(FeatureMeasurement
                       .create(FeatureMeasurementType.ARRIVAL_TIME, arrivalTime.toEpochMilli(),
-                          creationInformation.getId())), creationInformation.getId())).collect(
-              Collectors.toSet());
-
-      newDetections.stream().forEach(sd -> logger.info("Created new SignalDetection {}", sd));
+                          creationInformation.getId())), creationInformation.getId()))
+          .collect(Collectors.toList());
 
-      signalDetectionSet.addAll(newDetections);
-    });
+      newDetections.forEach(sd -> logger.info("Created new SignalDetection {}", sd));
 
-    osdGatewayAccess.store(signalDetectionSet, creationInformationList,
-        processingContext.getStorageVisibility());
-
-    return signalDetectionSet;
+      return Optional.of(new PluginResult(creationInformation, newDetections));
+    } catch (RuntimeException e) {
+      logger.error("SignalDetectionControl plugin " + plugin.getName() + " " + plugin.getVersion()
+          + " failed for Channel " + processingChannelId, e);
+      return Optional.empty();
+    }
   }
 
   /**
-   * Returns a list of detector plugins used for a channel.
+   * Returns a list of detector plugins used for a channel, in the configured order.
    *
    * @param channelId {@link UUID} holding the id to a processing channel
    * @return List of plugins that were found
@@ -186,9 +273,11 @@ public class SignalDetectorControl {
       throw new IllegalStateException("No SignalDetectorParameters for channel " + channelId);
     }
 
+    // LinkedHashMap preserves the configured plugin order
     Map<RegistrationInfo, Optional<SignalDetectorPlugin>> potentialPlugins =
         signalDetectorParameters.get().signalDetectorPlugins()
-            .collect(Collectors.toMap(Function.identity(), registry::lookup));
+            .collect(Collectors.toMap(Function.identity(), registry::lookup, (a, b) -> a,
+                LinkedHashMap::new));
 
     // get list of missingPlugins and throw an error if there are any
     List<RegistrationInfo> missingPlugins = potentialPlugins.entrySet().stream()
@@ -219,4 +308,20 @@ public class SignalDetectorControl {
         processingContext.getProcessingStepReference(),
         new SoftwareComponentInfo(plugin.getName(), plugin.getVersion().toString()));
   }
-}
\ No newline at end of file
+
+  /**
+   * Signal detections created by one plugin invocation along with the {@link CreationInformation}
+   * describing that invocation
+   */
+  private static class PluginResult {
+
+    private final CreationInformation creationInformation;
+    private final List<SignalDetection> signalDetections;
+
+    private PluginResult(CreationInformation creationInformation,
+        List<SignalDetection> signalDetections) {
+      this.creationInformation = creationInformation;
+      this.signalDetections = signalDetections;
+    }
+  }
+}
@@ -2,12 +2,15 @@ package gms.core.signaldetection.signaldetectorcontrol.control;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNotNull;
 import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -27,11 +30,18 @@ import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjec
 import java.io.InputStream;
 import java.time.Instant;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -39,6 +49,7 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import org.yaml.snakeyaml.Yaml;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -88,6 +99,14 @@ public class SignalDetectorControlTests {
     SignalDetectorControl.create(new SignalDetectorControlPluginRegistry(), null);
   }
 
+  @Test
+  public void testCreateNullExecutorExpectNullPointerException() {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("Error creating SignalDetectorControl: executor cannot be null");
+    SignalDetectorControl
+        .create(new SignalDetectorControlPluginRegistry(), mock(OsdGatewayClient.class), null);
+  }
+
   @Test
   public void testCreate() {
     assertNotNull(
@@ -219,6 +238,50 @@ public class SignalDetectorControlTests {
             StorageVisibility.PRIVATE)));
   }
 
+  @Test
+  public void testExecuteClaimCheckMissingLaterParametersInvokesNoPlugins() throws Exception {
+    final Instant start = Instant.EPOCH;
+    final Instant end = start.plusSeconds(7864);
+
+    // Both ChannelSegments start at the same time so they are processed in processing channel
+    // order.  Only the first ChannelSegment has configured plugins.
+    final List<ChannelSegment> channelSegments = Stream
+        .of(TestFixtures.randomChannelSegment(), TestFixtures.randomChannelSegment())
+        .sorted(Comparator.comparing(ChannelSegment::getProcessingChannelId))
+        .collect(Collectors.toList());
+
+    RegistrationInfo registrationInfo = RegistrationInfo
+        .from("mockDetector1", PluginVersion.from(1, 0, 0));
+
+    given(mockOsdGatewayClient.loadConfiguration()).willReturn(mockSignalDetectorConfiguration);
+    given(mockOsdGatewayClient.loadChannelSegments(notNull(), notNull(), notNull()))
+        .willReturn(Set.copyOf(channelSegments));
+    given(mockSignalDetectorConfiguration
+        .createParameters(channelSegments.get(0).getProcessingChannelId()))
+        .willReturn(Optional.of(mockSignalDetectorParameters));
+    given(mockSignalDetectorParameters.signalDetectorPlugins())
+        .willReturn(Stream.of(registrationInfo));
+    given(mockSignalDetectorControlPluginRegistry.lookup(registrationInfo))
+        .willReturn(Optional.of(mockSignalDetectorPlugin1));
+    given(mockSignalDetectorConfiguration
+        .createParameters(channelSegments.get(1).getProcessingChannelId()))
+        .willReturn(Optional.empty());
+
+    signalDetectorControl.initialize();
+
+    try {
+      signalDetectorControl.execute(ExecuteClaimCheckCommand.create(UUID.randomUUID(), start, end,
+          ProcessingContext.createInteractive(UUID.randomUUID(), UUID.randomUUID(),
+              UUID.randomUUID(), StorageVisibility.PRIVATE)));
+      fail("Expected IllegalStateException for the ChannelSegment without parameters");
+    } catch (IllegalStateException e) {
+      assertTrue(e.getMessage().contains("No SignalDetectorParameters for channel"));
+    }
+
+    verify(mockSignalDetectorPlugin1, never()).detectSignals(any());
+    verify(mockOsdGatewayClient, never()).store(any(), any(), any());
+  }
+
   @Test
   public void testExecuteStreamingNullStreamingExpectNullPointerException() {
     signalDetectorControl.initialize();
@@ -247,14 +310,14 @@ public class SignalDetectorControlTests {
         .from("mockDetector2", PluginVersion.from(1, 0, 0));
     List<RegistrationInfo> registrationInfos = List.of(registrationInfo1, registrationInfo2);
 
-    given(mockSignalDetectorPlugin1.detectSignals((ChannelSegment) notNull()))
+    given(mockSignalDetectorPlugin1.detectSignalsStreaming((ChannelSegment) notNull()))
         .willReturn(List.of(start.plusSeconds(1000), start.plusSeconds(1060)));
     given(mockSignalDetectorPlugin1.getName()).willReturn("mockDetector1");
     given(mockSignalDetectorPlugin1.getVersion()).willReturn(PluginVersion.from(1, 0, 0));
     given(mockSignalDetectorControlPluginRegistry.lookup(registrationInfo1)).willReturn(
         Optional.of(mockSignalDetectorPlugin1));
 
-    given(mockSignalDetectorPlugin2.detectSignals((ChannelSegment) notNull()))
+    given(mockSignalDetectorPlugin2.detectSignalsStreaming((ChannelSegment) notNull()))
         .willReturn(List.of(start.plusSeconds(1000), start.plusSeconds(1060)));
     given(mockSignalDetectorPlugin2.getName()).willReturn("mockDetector2");
     given(mockSignalDetectorPlugin2.getVersion()).willReturn(PluginVersion.from(1, 0, 0));
@@ -285,5 +348,120 @@ public class SignalDetectorControlTests {
     //TODO: Check for appropriate size depending on test case
     assertEquals(4, signalDetections.size());
     //TODO: Check that correct UUIDs were returned
+
+    // Streaming commands use the plugins' streaming detection
+    verify(mockSignalDetectorPlugin1, never()).detectSignals(any());
+    verify(mockSignalDetectorPlugin2, never()).detectSignals(any());
+  }
+
+  @Test
+  public void testExecuteStreamingPreservesPluginAndArrivalTimeOrder() {
+    final Instant start = Instant.EPOCH;
+    ChannelSegment channelSegment = TestFixtures.randomChannelSegment();
+
+    givenPlugins(channelSegment);
+    given(mockSignalDetectorPlugin1.detectSignalsStreaming((ChannelSegment) notNull()))
+        .willReturn(List.of(start.plusSeconds(1060), start.plusSeconds(1000)));
+    given(mockSignalDetectorPlugin2.detectSignalsStreaming((ChannelSegment) notNull()))
+        .willReturn(List.of(start.plusSeconds(500)));
+
+    signalDetectorControl.initialize();
+
+    final List<Double> arrivalTimes = signalDetectorControl.execute(streamingCommand(channelSegment))
+        .stream().map(SignalDetectorControlTests::arrivalTimeMillis).collect(Collectors.toList());
+
+    assertEquals(List.of(1060000.0, 1000000.0, 500000.0), arrivalTimes);
+  }
+
+  @Test
+  public void testExecuteStreamingPluginFailureDoesNotAffectOtherPlugins() {
+    final Instant start = Instant.EPOCH;
+    ChannelSegment channelSegment = TestFixtures.randomChannelSegment();
+
+    givenPlugins(channelSegment);
+    given(mockSignalDetectorPlugin1.detectSignalsStreaming((ChannelSegment) notNull()))
+        .willThrow(new IllegalStateException("mockDetector1 failure"));
+    given(mockSignalDetectorPlugin2.detectSignalsStreaming((ChannelSegment) notNull()))
+        .willReturn(List.of(start.plusSeconds(1000), start.plusSeconds(1060)));
+
+    signalDetectorControl.initialize();
+
+    Collection<SignalDetection> signalDetections = signalDetectorControl
+        .execute(streamingCommand(channelSegment));
+
+    verify(mockOsdGatewayClient, times(1))
+        .store(isNotNull(), isNotNull(), eq(StorageVisibility.PUBLIC));
+
+    assertEquals(2, signalDetections.size());
+  }
+
+  @Test
+  public void testExecuteStreamingPluginsExecuteConcurrently() {
+    ChannelSegment channelSegment = TestFixtures.randomChannelSegment();
+
+    // Each plugin waits for the other plugin to start, which only succeeds if they execute at
+    // the same time
+    final CountDownLatch started = new CountDownLatch(2);
+    final Answer<List<Instant>> awaitOtherPlugin = invocation -> {
+      started.countDown();
+      return started.await(10, TimeUnit.SECONDS) ? List.of(Instant.EPOCH) : List.of();
+    };
+
+    givenPlugins(channelSegment);
+    given(mockSignalDetectorPlugin1.detectSignalsStreaming((ChannelSegment) notNull()))
+        .willAnswer(awaitOtherPlugin);
+    given(mockSignalDetectorPlugin2.detectSignalsStreaming((ChannelSegment) notNull()))
+        .willAnswer(awaitOtherPlugin);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      signalDetectorControl = SignalDetectorControl
+          .create(mockSignalDetectorControlPluginRegistry, mockOsdGatewayClient, executor);
+      signalDetectorControl.initialize();
+
+      assertEquals(2, signalDetectorControl.execute(streamingCommand(channelSegment)).size());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Configures the mock registry and configuration to provide mockSignalDetectorPlugin1 followed
+   * by mockSignalDetectorPlugin2 for the channelSegment's processing channel
+   */
+  private void givenPlugins(ChannelSegment channelSegment) {
+    RegistrationInfo registrationInfo1 = RegistrationInfo
+        .from("mockDetector1", PluginVersion.from(1, 0, 0));
+    RegistrationInfo registrationInfo2 = RegistrationInfo
+        .from("mockDetector2", PluginVersion.from(1, 0, 0));
+
+    given(mockSignalDetectorPlugin1.getName()).willReturn("mockDetector1");
+    given(mockSignalDetectorPlugin1.getVersion()).willReturn(PluginVersion.from(1, 0, 0));
+    given(mockSignalDetectorControlPluginRegistry.lookup(registrationInfo1)).willReturn(
+        Optional.of(mockSignalDetectorPlugin1));
+
+    given(mockSignalDetectorPlugin2.getName()).willReturn("mockDetector2");
+    given(mockSignalDetectorPlugin2.getVersion()).willReturn(PluginVersion.from(1, 0, 0));
+    given(mockSignalDetectorControlPluginRegistry.lookup(registrationInfo2)).willReturn(
+        Optional.of(mockSignalDetectorPlugin2));
+
+    given(mockOsdGatewayClient.loadConfiguration())
+        .willReturn(mockSignalDetectorConfiguration);
+    given(mockSignalDetectorConfiguration.createParameters(channelSegment.getProcessingChannelId()))
+        .willReturn(Optional.of(mockSignalDetectorParameters));
+    given(mockSignalDetectorParameters.signalDetectorPlugins())
+        .willReturn(Stream.of(registrationInfo1, registrationInfo2));
+  }
+
+  private static ExecuteStreamingCommand streamingCommand(ChannelSegment channelSegment) {
+    return ExecuteStreamingCommand.create(channelSegment, Instant.EPOCH,
+        Instant.EPOCH.plusSeconds(7864),
+        ProcessingContext.createInteractive(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+            StorageVisibility.PUBLIC));
+  }
+
+  private static double arrivalTimeMillis(SignalDetection signalDetection) {
+    return signalDetection.getSignalDetectionHypotheses().get(0).getFeatureMeasurements().get(0)
+        .getFeatureMeasurementValue();
   }
 }
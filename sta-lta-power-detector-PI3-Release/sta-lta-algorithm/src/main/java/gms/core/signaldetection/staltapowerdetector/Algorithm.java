@@ -6,9 +6,7 @@ import java.util.PrimitiveIterator.OfDouble;
 import java.util.Set;
 import java.util.function.DoubleUnaryOperator;
 import java.util.function.IntToDoubleFunction;
-import java.util.stream.Collectors;
 import java.util.stream.DoubleStream;
-import java.util.stream.IntStream;
 
 /**
  * Implements the STA/LTA algorithm (both standard and recursive).
@@ -57,6 +55,8 @@ public class Algorithm {
    * exceeds triggerThreshold at the beggining of the waveform or after previously descending below
    * detriggerThreshold.
    *
+   * The transformation, STA/LTA, and triggering all occur in a single pass over the waveform.
+   *
    * @param algorithmType an {@link AlgorithmType}, not null
    * @param waveformTransformation an {@link WaveformTransformation}, not null
    * @param staLeadSamples number of samples the STA window leads the transformed sample
@@ -68,28 +68,36 @@ public class Algorithm {
    * @param waveform double[] of data to transform, not null
    * @return Set of signal detection sample indices, not null
    * @throws NullPointerException if waveform, algorithmType, or waveformTransformation are null
-   * @throws IllegalArgumentException if STA or LTA window length <= 0;
-   * @throws IllegalArgumentException if algorithmType is {@link AlgorithmType#RECURSIVE}
+   * @throws IllegalArgumentException if STA or LTA window length <= 0; if triggerThreshold <= 0;
+   * if detriggerThreshold <= 0
    */
   public Set<Integer> staLta(AlgorithmType algorithmType,
       WaveformTransformation waveformTransformation, int staLeadSamples, int staLengthSamples,
       int ltaLeadSamples, int ltaLengthSamples, double triggerThreshold, double detriggerThreshold,
       double[] waveform) {
 
-    // Parameter validation.  Additional validation occurs in the transform and trigger operations
+    // Parameter validation
     Objects.requireNonNull(waveform, "STA/LTA cannot operate on a null waveform");
     Objects.requireNonNull(algorithmType, "STA/LTA requires non-null algorithmType");
     Objects
         .requireNonNull(waveformTransformation, "STA/LTA requires non-null waveformTransformation");
+    ParameterValidation.validateWindowLengths(staLengthSamples, ltaLengthSamples, i -> i > 0);
+    ParameterValidation.validateTriggerThresholds(triggerThreshold, detriggerThreshold);
 
-    // Compute triggers on the transformed waveform
-    final Set<Integer> triggers = trigger(triggerThreshold, detriggerThreshold,
-        transform(algorithmType, waveformTransformation, staLeadSamples, staLengthSamples,
-            ltaLeadSamples, ltaLengthSamples, waveform));
+    // Triggers are found as each STA/LTA value is computed.  The consumer receives input waveform
+    // sample indices so the trigger indices do not need to be converted.
+    final TriggerDetector triggerDetector = new TriggerDetector(triggerThreshold,
+        detriggerThreshold);
+    final Set<Integer> triggers = new HashSet<>();
 
-    // Convert trigger sample indices to corresponding input waveform sample indices
-    final int firstTransformed = firstTransformedIndex(staLeadSamples, ltaLeadSamples);
-    return triggers.stream().map(i -> i + firstTransformed).collect(Collectors.toSet());
+    computeStaLta(algorithmType, waveformTransformation, staLeadSamples, staLengthSamples,
+        ltaLeadSamples, ltaLengthSamples, waveform, (i, staLta) -> {
+          if (triggerDetector.isTrigger(staLta)) {
+            triggers.add(i);
+          }
+        });
+
+    return triggers;
   }
 
   /**
@@ -111,7 +119,6 @@ public class Algorithm {
    * @param waveform double[] of data to transform, not null
    * @return {@link DoubleStream} containing the STA/LTA transformed waveform, not null
    * @throws IllegalArgumentException if STA or LTA window length <= 0;
-   * @throws IllegalArgumentException if algorithmType is {@link AlgorithmType#RECURSIVE}
    */
   static DoubleStream transform(AlgorithmType algorithmType,
       WaveformTransformation waveformTransformation, int staLeadSamples, int staLengthSamples,
@@ -120,65 +127,109 @@ public class Algorithm {
     // Validate the STA and LTA windows
     ParameterValidation.validateWindowLengths(staLengthSamples, ltaLengthSamples, i -> i > 0);
 
-    // TODO: if demeaning is required then the WaveformTransformation needs to be applied within
-    // the STA/LTA loop since demeaning uses the samples used to compute a single STA/LTA point.
+    final int firstSample = firstTransformedIndex(staLeadSamples, ltaLeadSamples);
+    final int lastSample = lastTransformedIndex(staLeadSamples, staLengthSamples, ltaLeadSamples,
+        ltaLengthSamples, waveform.length);
 
-    // Compute the transformed input waveform (rectified, squared, etc.)
-    double[] transformedWaveform = DoubleStream.of(waveform)
-        .map(waveformTransformation.getOperation()).toArray();
+    // Collect the STA/LTA value computed for each transformed sample
+    final double[] transformed = new double[Math.max(0, lastSample - firstSample + 1)];
+    computeStaLta(algorithmType, waveformTransformation, staLeadSamples, staLengthSamples,
+        ltaLeadSamples, ltaLengthSamples, waveform,
+        (i, staLta) -> transformed[i - firstSample] = staLta);
 
-    if (AlgorithmType.STANDARD == algorithmType) {
-      return standardTransform(staLeadSamples, staLengthSamples,
-          ltaLeadSamples, ltaLengthSamples, transformedWaveform);
-    } else {
-      throw new IllegalArgumentException("Recursive STA/LTA not implemented");
-    }
+    return DoubleStream.of(transformed);
   }
 
   /**
-   * Compute the standard STA/LTA transform on waveform with the provided STA and LTA windows
+   * Computes STA/LTA for each transformable sample in waveform and provides each (input waveform
+   * index, STA/LTA value) pair to the staLtaConsumer in increasing index order.  The STA and LTA
+   * windows slide forward one sample at a time and the {@link WindowAverage} for the algorithmType
+   * updates each average in constant time.  The {@link WaveformTransformation} is applied to
+   * samples as they enter or leave the windows, so the transformed waveform is never materialized.
    *
+   * @param algorithmType an {@link AlgorithmType}, not null
+   * @param waveformTransformation an {@link WaveformTransformation}, not null
    * @param staLeadSamples number of samples the STA window leads the transformed sample
-   * @param staLengthSamples length of the STA window
+   * @param staLengthSamples length of the STA window, > 0
    * @param ltaLeadSamples number of samples the LTA window leads the transformed sample
-   * @param ltaLengthSamples length of the LTA window
+   * @param ltaLengthSamples length of the LTA window, > 0
    * @param waveform double[] of data to transform, not null
-   * @return DoubleStream containing the STA/LTA transformed waveform, not null
+   * @param staLtaConsumer receives each (waveform index, STA/LTA value) pair, not null
    */
-  private static DoubleStream standardTransform(int staLeadSamples, int staLengthSamples,
-      int ltaLeadSamples, int ltaLengthSamples, double[] waveform) {
-
-    // TODO: consider refactoring when implementing recursive algorithm to avoid duplication
+  private static void computeStaLta(AlgorithmType algorithmType,
+      WaveformTransformation waveformTransformation, int staLeadSamples, int staLengthSamples,
+      int ltaLeadSamples, int ltaLengthSamples, double[] waveform,
+      StaLtaConsumer staLtaConsumer) {
 
-    // Compute waveform STA and LTA over the defined windows
-    IntToDoubleFunction sta = getAvgClosure(staLeadSamples, staLengthSamples, waveform);
-    IntToDoubleFunction lta = getAvgClosure(ltaLeadSamples, ltaLengthSamples, waveform);
+    // TODO: if demeaning is required then the WaveformTransformation needs to be applied within
+    // the STA/LTA loop since demeaning uses the samples used to compute a single STA/LTA point.
 
-    // Compute STA/LTA for each sample.
     final int firstSample = firstTransformedIndex(staLeadSamples, ltaLeadSamples);
     final int lastSample = lastTransformedIndex(staLeadSamples, staLengthSamples, ltaLeadSamples,
         ltaLengthSamples, waveform.length);
 
-    return IntStream.rangeClosed(firstSample, lastSample)
-        .mapToDouble(i -> sta.applyAsDouble(i) / lta.applyAsDouble(i));
+    if (firstSample > lastSample) {
+      return;
+    }
+
+    // Initially the windows contain the samples used to compute STA/LTA at firstSample
+    final DoubleUnaryOperator operation = waveformTransformation.getOperation();
+    final int staFirst = firstSample - staLeadSamples;
+    final int ltaFirst = firstSample - ltaLeadSamples;
+
+    final WindowAverage sta = createWindowAverage(algorithmType, staLengthSamples,
+        j -> operation.applyAsDouble(waveform[staFirst + j]));
+    final WindowAverage lta = createWindowAverage(algorithmType, ltaLengthSamples,
+        j -> operation.applyAsDouble(waveform[ltaFirst + j]));
+
+    for (int i = firstSample; i < lastSample; ++i) {
+      staLtaConsumer.accept(i, sta.average() / lta.average());
+
+      // Slide each window forward to the samples used to compute STA/LTA at i + 1
+      final int staLeaving = i - staLeadSamples;
+      final int ltaLeaving = i - ltaLeadSamples;
+      sta.slide(operation.applyAsDouble(waveform[staLeaving + staLengthSamples]),
+          operation.applyAsDouble(waveform[staLeaving]));
+      lta.slide(operation.applyAsDouble(waveform[ltaLeaving + ltaLengthSamples]),
+          operation.applyAsDouble(waveform[ltaLeaving]));
+    }
+
+    staLtaConsumer.accept(lastSample, sta.average() / lta.average());
   }
 
   /**
-   * Obtain an (int -> double) function which computes an average value from the provided waveform
-   * values based on the integer parameter, leadSamples before the integer, and numSamples in the
-   * average.
+   * Obtains the {@link WindowAverage} implementing the algorithmType initialized to the average of
+   * the length transformed samples provided by transformedSample.
    *
-   * @param leadSamples number of samples the average window leads the input sample
-   * @param numSamples number of samples in the average window
-   * @param waveform data values
-   * @return {@link IntToDoubleFunction} computing waveform average value in a window around the
-   * sample index
+   * @param algorithmType an {@link AlgorithmType}, not null
+   * @param length number of samples in the window, > 0
+   * @param transformedSample provides the transformed samples in the initial window by their
+   * offset from the window start, not null
+   * @return {@link WindowAverage}, not null
    */
-  private static IntToDoubleFunction getAvgClosure(int leadSamples, int numSamples,
-      double[] waveform) {
+  static WindowAverage createWindowAverage(AlgorithmType algorithmType, int length,
+      IntToDoubleFunction transformedSample) {
+
+    final WindowSum windowSum = new WindowSum(length);
+    for (int j = 0; j < length; ++j) {
+      windowSum.add(transformedSample.applyAsDouble(j));
+    }
+
+    return createWindowAverage(algorithmType, windowSum);
+  }
 
-    return i -> IntStream.rangeClosed(i - leadSamples, i - leadSamples + numSamples - 1)
-        .mapToDouble(j -> waveform[j]).sum() / numSamples;
+  /**
+   * Obtains the {@link WindowAverage} implementing the algorithmType initialized to the average of
+   * the transformed samples already added to initialWindow.
+   *
+   * @param algorithmType an {@link AlgorithmType}, not null
+   * @param initialWindow {@link WindowSum} containing every transformed sample in the initial
+   * window, not null
+   * @return {@link WindowAverage}, not null
+   */
+  static WindowAverage createWindowAverage(AlgorithmType algorithmType, WindowSum initialWindow) {
+    return (AlgorithmType.STANDARD == algorithmType) ? initialWindow
+        : new RecursiveAverage(initialWindow.average(), initialWindow.length);
   }
 
   /**
@@ -189,7 +240,7 @@ public class Algorithm {
    * @param ltaLeadSamples number of samples the LTA window leads the transformed sample
    * @return integer >= 0
    */
-  private static int firstTransformedIndex(int staLeadSamples, int ltaLeadSamples) {
+  static int firstTransformedIndex(int staLeadSamples, int ltaLeadSamples) {
     return Math.max(staLeadSamples, ltaLeadSamples);
   }
 
@@ -242,32 +293,191 @@ public class Algorithm {
 
     ParameterValidation.validateTriggerThresholds(triggerThreshold, detriggerThreshold);
 
+    final TriggerDetector triggerDetector = new TriggerDetector(triggerThreshold,
+        detriggerThreshold);
+
     Set<Integer> triggers = new HashSet<>();
 
     // Tracks sample index
     int i = 0;
 
-    // Initial state is untriggered
-    boolean triggered = false;
-
     OfDouble wfIter = waveform.iterator();
     while (wfIter.hasNext()) {
-      final double sample = wfIter.nextDouble();
+      if (triggerDetector.isTrigger(wfIter.nextDouble())) {
+        triggers.add(i);
+      }
+
+      i = i + 1;
+    }
+
+    return triggers;
+  }
+
+  /**
+   * Receives the STA/LTA value computed for a waveform sample index
+   */
+  @FunctionalInterface
+  private interface StaLtaConsumer {
+
+    /**
+     * Accepts the STA/LTA value computed for the waveform sample at index
+     *
+     * @param index waveform sample index
+     * @param staLta STA/LTA value at index
+     */
+    void accept(int index, double staLta);
+  }
+
+  /**
+   * Tracks the trigger state of a sequence of STA/LTA values.  A value creates a trigger when it
+   * exceeds the trigger threshold and is either the first value or occurs after a value drops below
+   * the detrigger threshold.
+   */
+  static final class TriggerDetector {
+
+    private final double triggerThreshold;
+    private final double detriggerThreshold;
+
+    // Initial state is untriggered
+    private boolean triggered = false;
+
+    TriggerDetector(double triggerThreshold, double detriggerThreshold) {
+      this.triggerThreshold = triggerThreshold;
+      this.detriggerThreshold = detriggerThreshold;
+    }
+
+    /**
+     * Updates the trigger state with the next STA/LTA value
+     *
+     * @param staLta next STA/LTA value
+     * @return true if staLta creates a trigger, false otherwise
+     */
+    boolean isTrigger(double staLta) {
 
       // Not currently triggered and sample exceeds trigger threshold -> create trigger
-      if (!triggered && sample > triggerThreshold) {
-        triggers.add(i);
+      if (!triggered && staLta > triggerThreshold) {
         triggered = true;
+        return true;
       }
 
       // Currently triggered and sample drops below detrigger threshold -> allow triggering again
-      else if (triggered && sample < detriggerThreshold) {
+      else if (triggered && staLta < detriggerThreshold) {
         triggered = false;
       }
 
-      i = i + 1;
+      return false;
     }
+  }
 
-    return triggers;
+  /**
+   * Average of transformed waveform samples in a window which slides forward one sample at a time
+   */
+  interface WindowAverage {
+
+    /**
+     * Moves the window forward by one sample
+     *
+     * @param entering transformed sample entering the window
+     * @param leaving transformed sample leaving the window
+     */
+    void slide(double entering, double leaving);
+
+    /**
+     * Obtains the average of the transformed samples currently in the window
+     *
+     * @return window average
+     */
+    double average();
+  }
+
+  /**
+   * {@link AlgorithmType#STANDARD} {@link WindowAverage} computed from a running sum of the
+   * transformed waveform samples in a fixed length window.  Uses compensated (Kahan-Babuska)
+   * summation so the rounding error from adding and later removing large amplitude samples does
+   * not remain in the sum.  Without the compensation that residue can dominate the averages
+   * computed over the quiet data following a large event in a long waveform.
+   */
+  static final class WindowSum implements WindowAverage {
+
+    private final int length;
+
+    private double sum = 0.0;
+    private double compensation = 0.0;
+
+    /**
+     * Obtains an empty WindowSum for a window containing length samples
+     *
+     * @param length number of samples in the window, > 0
+     */
+    WindowSum(int length) {
+      this.length = length;
+    }
+
+    @Override
+    public void slide(double entering, double leaving) {
+      add(entering);
+      add(-leaving);
+    }
+
+    @Override
+    public double average() {
+      return (sum + compensation) / length;
+    }
+
+    /**
+     * Adds value to the sum, accumulating the low order bits lost in the addition into the
+     * compensation term
+     *
+     * @param value add this value to the sum
+     */
+    void add(double value) {
+      final double total = sum + value;
+
+      if (Math.abs(sum) >= Math.abs(value)) {
+        compensation += (sum - total) + value;
+      } else {
+        compensation += (value - total) + sum;
+      }
+
+      sum = total;
+    }
+  }
+
+  /**
+   * {@link AlgorithmType#RECURSIVE} {@link WindowAverage} computed as an exponentially weighted
+   * average of the transformed waveform samples.  The average is initialized to the standard
+   * average of the first window and then each new sample entering the window updates the average
+   * with weight 1 / length:
+   *
+   * average(i) = average(i - 1) + (sample(i) - average(i - 1)) / length
+   *
+   * Each update uses constant time and the state does not depend on the window length.
+   */
+  private static final class RecursiveAverage implements WindowAverage {
+
+    private final double length;
+
+    private double average;
+
+    /**
+     * Obtains a RecursiveAverage with the provided initial average
+     *
+     * @param initialAverage standard average of the samples in the first window
+     * @param length number of samples in the window, > 0
+     */
+    private RecursiveAverage(double initialAverage, int length) {
+      this.length = length;
+      this.average = initialAverage;
+    }
+
+    @Override
+    public void slide(double entering, double leaving) {
+      average += (entering - average) / length;
+    }
+
+    @Override
+    public double average() {
+      return average;
+    }
   }
 }
@@ -0,0 +1,219 @@
+package gms.core.signaldetection.staltapowerdetector;
+
+import gms.core.signaldetection.staltapowerdetector.Algorithm.AlgorithmType;
+import gms.core.signaldetection.staltapowerdetector.Algorithm.TriggerDetector;
+import gms.core.signaldetection.staltapowerdetector.Algorithm.WaveformTransformation;
+import gms.core.signaldetection.staltapowerdetector.Algorithm.WindowAverage;
+import gms.core.signaldetection.staltapowerdetector.Algorithm.WindowSum;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Computes STA/LTA triggers on a stream of contiguous waveform sample blocks.  The STA and LTA
+ * averages, the trigger state, and the transformed samples still needed by the STA and LTA windows
+ * carry over from one block to the next, so each block only needs to contain newly received
+ * samples.  Processing a waveform in consecutive blocks finds the same triggers as calling {@link
+ * Algorithm#staLta(AlgorithmType, WaveformTransformation, int, int, int, int, double, double,
+ * double[])} on the entire waveform.
+ *
+ * Sample indices are counted from the first sample provided to the StreamingStaLta.  The STA/LTA
+ * value for a sample is not computed until the samples in its lagging windows are available, so a
+ * block may produce triggers on samples provided in earlier blocks.
+ *
+ * A StreamingStaLta is not thread safe.
+ */
+public class StreamingStaLta {
+
+  private final AlgorithmType algorithmType;
+  private final DoubleUnaryOperator operation;
+  private final int staLeadSamples;
+  private final int staLengthSamples;
+  private final int ltaLeadSamples;
+  private final int ltaLengthSamples;
+
+  // Index of the first sample with a computable STA/LTA value
+  private final int firstSample;
+
+  // Number of samples following a sample needed to compute its STA/LTA value
+  private final int lagSamples;
+
+  private final TriggerDetector triggerDetector;
+
+  // Transformed samples which are still needed by the STA or LTA windows.  The transformed sample
+  // with index i is stored at history[i % history.length].
+  private final double[] history;
+
+  // RECURSIVE averages never remove samples from their windows, so the initial windows are summed
+  // as their samples arrive and history only holds the samples which have not yet entered a window.
+  // Null for STANDARD and after the STA/LTA value for firstSample is computed.
+  private WindowSum staInitial;
+  private WindowSum ltaInitial;
+
+  // Number of samples received by this StreamingStaLta
+  private long sampleCount = 0;
+
+  // Created when the STA/LTA value for firstSample is computed
+  private WindowAverage sta;
+  private WindowAverage lta;
+
+  private StreamingStaLta(AlgorithmType algorithmType,
+      WaveformTransformation waveformTransformation, int staLeadSamples, int staLengthSamples,
+      int ltaLeadSamples, int ltaLengthSamples, double triggerThreshold,
+      double detriggerThreshold) {
+
+    this.algorithmType = algorithmType;
+    this.operation = waveformTransformation.getOperation();
+    this.staLeadSamples = staLeadSamples;
+    this.staLengthSamples = staLengthSamples;
+    this.ltaLeadSamples = ltaLeadSamples;
+    this.ltaLengthSamples = ltaLengthSamples;
+
+    this.firstSample = Algorithm.firstTransformedIndex(staLeadSamples, ltaLeadSamples);
+    this.lagSamples = Math.max(0, Math.max(staLengthSamples - staLeadSamples - 1,
+        ltaLengthSamples - ltaLeadSamples - 1));
+
+    this.triggerDetector = new TriggerDetector(triggerThreshold, detriggerThreshold);
+
+    if (AlgorithmType.RECURSIVE == algorithmType) {
+      // Sliding the windows to i + 1 only uses the entering samples i + 1 - lead + length - 1 which
+      // are at most lagSamples + 1 + lead - length samples older than the newest sample i + lagSamples
+      this.history = new double[lagSamples + 2
+          + Math.max(staLeadSamples - staLengthSamples, ltaLeadSamples - ltaLengthSamples)];
+      this.staInitial = new WindowSum(staLengthSamples);
+      this.ltaInitial = new WindowSum(ltaLengthSamples);
+    } else {
+      // Computing STA/LTA at sample i and then sliding the windows to i + 1 uses samples in the
+      // range [i - firstSample, i + 1 + lagSamples]
+      this.history = new double[firstSample + lagSamples + 2];
+    }
+  }
+
+  /**
+   * Obtains a new {@link StreamingStaLta} which has not received any samples.
+   *
+   * @param algorithmType an {@link AlgorithmType}, not null
+   * @param waveformTransformation an {@link WaveformTransformation}, not null
+   * @param staLeadSamples number of samples the STA window leads the transformed sample, >= 0
+   * @param staLengthSamples length of the STA window, > 0
+   * @param ltaLeadSamples number of samples the LTA window leads the transformed sample, >= 0
+   * @param ltaLengthSamples length of the LTA window, > 0
+   * @param triggerThreshold minimum waveform value not causing a trigger, > 0
+   * @param detriggerThreshold maximum waveform value not causing a detrigger, > 0
+   * @return StreamingStaLta, not null
+   * @throws NullPointerException if algorithmType or waveformTransformation are null
+   * @throws IllegalArgumentException if STA or LTA window length <= 0; if STA or LTA lead < 0; if
+   * triggerThreshold <= 0; if detriggerThreshold <= 0
+   */
+  public static StreamingStaLta create(AlgorithmType algorithmType,
+      WaveformTransformation waveformTransformation, int staLeadSamples, int staLengthSamples,
+      int ltaLeadSamples, int ltaLengthSamples, double triggerThreshold,
+      double detriggerThreshold) {
+
+    Objects.requireNonNull(algorithmType, "STA/LTA requires non-null algorithmType");
+    Objects
+        .requireNonNull(waveformTransformation, "STA/LTA requires non-null waveformTransformation");
+    ParameterValidation.validateWindowLengths(staLengthSamples, ltaLengthSamples, i -> i > 0);
+    ParameterValidation.validateTriggerThresholds(triggerThreshold, detriggerThreshold);
+
+    if (staLeadSamples < 0 || ltaLeadSamples < 0) {
+      throw new IllegalArgumentException("Streaming STA/LTA requires non-negative window leads");
+    }
+
+    return new StreamingStaLta(algorithmType, waveformTransformation, staLeadSamples,
+        staLengthSamples, ltaLeadSamples, ltaLengthSamples, triggerThreshold, detriggerThreshold);
+  }
+
+  /**
+   * Obtains the number of samples this {@link StreamingStaLta} has received.  This is also the
+   * index the next received sample will have.
+   *
+   * @return number of received samples, >= 0
+   */
+  public long getSampleCount() {
+    return sampleCount;
+  }
+
+  /**
+   * Processes the next block of contiguous samples and finds the trigger indices for every sample
+   * whose STA/LTA value becomes computable.
+   *
+   * @param samples next samples in the stream, not null
+   * @return Set of signal detection sample indices, counted from the first sample received by this
+   * StreamingStaLta, not null
+   * @throws NullPointerException if samples is null
+   */
+  public Set<Long> process(double[] samples) {
+    Objects.requireNonNull(samples, "Streaming STA/LTA cannot process null samples");
+
+    final Set<Long> triggers = new HashSet<>();
+
+    for (double sample : samples) {
+      final double transformed = operation.applyAsDouble(sample);
+      history[index(sampleCount)] = transformed;
+
+      if (staInitial != null) {
+        addToInitialWindows(sampleCount, transformed);
+      }
+
+      sampleCount = sampleCount + 1;
+
+      // The newest sample completes the windows for sample i
+      final long i = sampleCount - 1 - lagSamples;
+
+      if (i == firstSample && staInitial != null) {
+        sta = Algorithm.createWindowAverage(algorithmType, staInitial);
+        lta = Algorithm.createWindowAverage(algorithmType, ltaInitial);
+        staInitial = null;
+        ltaInitial = null;
+      } else if (i == firstSample) {
+        sta = Algorithm.createWindowAverage(algorithmType, staLengthSamples,
+            j -> history[index(i - staLeadSamples + j)]);
+        lta = Algorithm.createWindowAverage(algorithmType, ltaLengthSamples,
+            j -> history[index(i - ltaLeadSamples + j)]);
+      } else if (i > firstSample) {
+        // RECURSIVE averages ignore the leaving samples, which their shorter history no longer holds
+        final long staLeaving = i - 1 - staLeadSamples;
+        final long ltaLeaving = i - 1 - ltaLeadSamples;
+        sta.slide(history[index(staLeaving + staLengthSamples)], history[index(staLeaving)]);
+        lta.slide(history[index(ltaLeaving + ltaLengthSamples)], history[index(ltaLeaving)]);
+      }
+
+      if (i >= firstSample && triggerDetector.isTrigger(sta.average() / lta.average())) {
+        triggers.add(i);
+      }
+    }
+
+    return triggers;
+  }
+
+  /**
+   * Adds the transformed sample with index s to the initial STA and LTA windows containing it.  The
+   * initial windows are the windows used to compute the STA/LTA value for firstSample.
+   *
+   * @param s sample index
+   * @param transformed transformed sample value
+   */
+  private void addToInitialWindows(long s, double transformed) {
+    final long staStart = firstSample - staLeadSamples;
+    if (s >= staStart && s < staStart + staLengthSamples) {
+      staInitial.add(transformed);
+    }
+
+    final long ltaStart = firstSample - ltaLeadSamples;
+    if (s >= ltaStart && s < ltaStart + ltaLengthSamples) {
+      ltaInitial.add(transformed);
+    }
+  }
+
+  /**
+   * Obtains the location in {@link StreamingStaLta#history} of the sample with index i
+   *
+   * @param i sample index
+   * @return index into history
+   */
+  private int index(long i) {
+    return (int) (i % history.length);
+  }
+}
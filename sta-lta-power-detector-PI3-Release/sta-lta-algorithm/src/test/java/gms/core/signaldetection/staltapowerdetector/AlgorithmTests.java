@@ -8,7 +8,9 @@ import static org.junit.Assert.assertTrue;
 import gms.core.signaldetection.staltapowerdetector.Algorithm.AlgorithmType;
 import gms.core.signaldetection.staltapowerdetector.Algorithm.WaveformTransformation;
 import java.util.Arrays;
+import java.util.Random;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 import org.junit.Rule;
@@ -184,7 +186,7 @@ public class AlgorithmTests {
         .transform(AlgorithmType.STANDARD, WaveformTransformation.RECTIFIED, staLeadSamples,
             staLengthSamples, ltaLeadSamples, ltaLengthSamples, waveform).toArray();
 
-    assertArrayEquals(expected, transformResult, 0);
+    assertArrayEquals(expected, transformResult, 1e-12);
   }
 
   @Test
@@ -206,7 +208,7 @@ public class AlgorithmTests {
         .transform(AlgorithmType.STANDARD, WaveformTransformation.SQUARED, staLeadSamples,
             staLengthSamples, ltaLeadSamples, ltaLengthSamples, waveform).toArray();
 
-    assertArrayEquals(expected, transformResult, 0);
+    assertArrayEquals(expected, transformResult, 1e-12);
   }
 
   /**
@@ -273,11 +275,199 @@ public class AlgorithmTests {
   }
 
   @Test
-  public void testRecursiveExpectIllegalArgumentException() throws Exception {
-    exception.expect(IllegalArgumentException.class);
-    exception.expectMessage("Recursive STA/LTA not implemented");
-    Algorithm.transform(AlgorithmType.RECURSIVE, WaveformTransformation.RECTIFIED, 2,
-        4, 6, 6, new double[10]);
+  public void testStandardMatchesWindowAverages() throws Exception {
+    final int length = 5000;
+    final int staLeadSamples = 3;
+    final int staLengthSamples = 20;
+    final int ltaLeadSamples = 400;
+    final int ltaLengthSamples = 400;
+    final Random random = new Random(42);
+    final double[] waveform = DoubleStream.generate(random::nextGaussian).limit(length).toArray();
+
+    final double[] squared = Arrays.stream(waveform).map(d -> d * d).toArray();
+    final double[] expected = getExpectedStaLta(length - 16, staLeadSamples, staLengthSamples,
+        ltaLeadSamples, ltaLengthSamples, squared);
+
+    final double[] transformResult = Algorithm
+        .transform(AlgorithmType.STANDARD, WaveformTransformation.SQUARED, staLeadSamples,
+            staLengthSamples, ltaLeadSamples, ltaLengthSamples, waveform).toArray();
+
+    assertArrayEquals(expected, transformResult, 1e-12);
+  }
+
+  @Test
+  public void testStandardStableAfterLargeAmplitudes() throws Exception {
+    // Quiet data with a very large event near the start.  Running sums that are not compensated
+    // retain rounding error from the event samples long after they leave the windows.
+    final int length = 200000;
+    final double[] waveform = new double[length];
+    for (int i = 0; i < length; ++i) {
+      waveform[i] = 1.0 + 0.1 * Math.sin(i / 7.0);
+    }
+    for (int i = 1000; i < 1100; ++i) {
+      waveform[i] = 1.0e8 * Math.cos(i / 3.0);
+    }
+
+    final double[] squared = Arrays.stream(waveform).map(d -> d * d).toArray();
+    final double[] transformResult = Algorithm
+        .transform(AlgorithmType.STANDARD, WaveformTransformation.SQUARED, 0, 10, 200, 200,
+            waveform).toArray();
+
+    // Compare the final STA/LTA value, computed long after the event, to the direct computation
+    final int lastIndex = length - 10;
+    final double expected = average(squared, lastIndex, lastIndex + 9) /
+        average(squared, lastIndex - 200, lastIndex - 1);
+
+    assertEquals(expected, transformResult[transformResult.length - 1], 1e-12);
+  }
+
+  @Test
+  public void testStaLtaTriggersMatchTransformTriggers() throws Exception {
+    final int staLeadSamples = 2;
+    final int staLengthSamples = 10;
+    final int ltaLeadSamples = 100;
+    final int ltaLengthSamples = 100;
+    final Random random = new Random(7);
+    final double[] waveform = DoubleStream.generate(random::nextGaussian).limit(10000).toArray();
+    for (int i = 3000; i < 3050; ++i) {
+      waveform[i] = waveform[i] * 20.0;
+    }
+    for (int i = 7000; i < 7020; ++i) {
+      waveform[i] = waveform[i] * 50.0;
+    }
+
+    final Set<Integer> expected = Algorithm.trigger(4.0, 2.0,
+        Algorithm.transform(AlgorithmType.STANDARD, WaveformTransformation.SQUARED,
+            staLeadSamples, staLengthSamples, ltaLeadSamples, ltaLengthSamples, waveform))
+        .stream().map(i -> i + ltaLeadSamples).collect(Collectors.toSet());
+
+    final Set<Integer> triggers = new Algorithm()
+        .staLta(AlgorithmType.STANDARD, WaveformTransformation.SQUARED, staLeadSamples,
+            staLengthSamples, ltaLeadSamples, ltaLengthSamples, 4.0, 2.0, waveform);
+
+    assertTrue(triggers.size() >= 2);
+    assertEquals(expected, triggers);
+  }
+
+  @Test
+  public void testRecursive() throws Exception {
+    // STA is current sample, LTA is initialized to the average of the two previous samples and
+    // then updated with weight 1/2 by each new sample entering the LTA window
+    // STA =      [-, -, 100,    50,     1,      1,       1,       1,      200]
+    // LTA =      [-, -,   1,  50.5, 50.25, 25.625, 13.3125, 7.15625, 4.078125]
+    // Triggers = [-, -,   Y,     N,     N,      N,       N,       N,        Y]
+    final double[] waveform = new double[]{1, 1, 100, 50, 1, 1, 1, 1, 200};
+    final double[] expected = new double[]{100.0 / 1.0, 50.0 / 50.5, 1.0 / 50.25, 1.0 / 25.625,
+        1.0 / 13.3125, 1.0 / 7.15625, 200.0 / 4.078125};
+
+    final double[] transformResult = Algorithm
+        .transform(AlgorithmType.RECURSIVE, WaveformTransformation.RECTIFIED, 0, 1, 2, 2,
+            waveform).toArray();
+
+    assertArrayEquals(expected, transformResult, 1e-12);
+
+    final Set<Integer> triggers = new Algorithm()
+        .staLta(AlgorithmType.RECURSIVE, WaveformTransformation.RECTIFIED, 0, 1, 2, 2, 5.0, 3.0,
+            waveform);
+
+    assertNotNull(triggers);
+    assertEquals(2, triggers.size());
+    assertTrue(triggers.contains(2));
+    assertTrue(triggers.contains(8));
+  }
+
+  @Test
+  public void testRecursiveSquared() throws Exception {
+    final int length = 2000;
+    final int staLeadSamples = 2;
+    final int staLengthSamples = 5;
+    final int ltaLeadSamples = 60;
+    final int ltaLengthSamples = 50;
+    final Random random = new Random(11);
+    final double[] waveform = DoubleStream.generate(random::nextGaussian).limit(length).toArray();
+
+    // Compute expected results
+    final double[] squared = Arrays.stream(waveform).map(d -> d * d).toArray();
+    final double[] expected = getExpectedRecursiveStaLta(staLeadSamples, staLengthSamples,
+        ltaLeadSamples, ltaLengthSamples, squared);
+
+    // Get actual results
+    final double[] transformResult = Algorithm
+        .transform(AlgorithmType.RECURSIVE, WaveformTransformation.SQUARED, staLeadSamples,
+            staLengthSamples, ltaLeadSamples, ltaLengthSamples, waveform).toArray();
+
+    assertArrayEquals(expected, transformResult, 1e-12);
+  }
+
+  @Test
+  public void testRecursiveOutputLength() throws Exception {
+    final int length = 200;
+    final double[] standard = Algorithm
+        .transform(AlgorithmType.STANDARD, WaveformTransformation.RECTIFIED, 2, 4, 6, 13,
+            new double[length]).toArray();
+
+    final double[] recursive = Algorithm
+        .transform(AlgorithmType.RECURSIVE, WaveformTransformation.RECTIFIED, 2, 4, 6, 13,
+            new double[length]).toArray();
+
+    assertEquals(standard.length, recursive.length);
+  }
+
+  @Test
+  public void testRecursiveNegativeOutputLength() throws Exception {
+    final double[] result = Algorithm
+        .transform(AlgorithmType.RECURSIVE, WaveformTransformation.RECTIFIED, 0, 6, 10, 9,
+            new double[10]).toArray();
+
+    assertNotNull(result);
+    assertEquals(0, result.length);
+  }
+
+  @Test
+  public void testRecursiveFirstValueMatchesStandard() throws Exception {
+    final double[] waveform = DoubleStream.iterate(0.0, d -> d - 1.1).limit(100).toArray();
+
+    final double standard = Algorithm
+        .transform(AlgorithmType.STANDARD, WaveformTransformation.RECTIFIED, 2, 4, 6, 5,
+            waveform).findFirst().getAsDouble();
+
+    final double recursive = Algorithm
+        .transform(AlgorithmType.RECURSIVE, WaveformTransformation.RECTIFIED, 2, 4, 6, 5,
+            waveform).findFirst().getAsDouble();
+
+    assertEquals(standard, recursive, 1e-12);
+  }
+
+  /**
+   * Computes an expected recursive STA/LTA waveform.  Each average is initialized to the average
+   * of its first window and then updated by each sample entering the window.
+   */
+  private static double[] getExpectedRecursiveStaLta(int staLeadSamples, int staLengthSamples,
+      int ltaLeadSamples, int ltaLengthSamples, double[] waveform) {
+
+    final int first = Math.max(staLeadSamples, ltaLeadSamples);
+    final int lag = Math.max(staLengthSamples - staLeadSamples - 1,
+        ltaLengthSamples - ltaLeadSamples - 1);
+    final int last = waveform.length - 1 - Math.max(0, lag);
+
+    double sta = average(waveform, first - staLeadSamples,
+        first - staLeadSamples + staLengthSamples - 1);
+    double lta = average(waveform, first - ltaLeadSamples,
+        first - ltaLeadSamples + ltaLengthSamples - 1);
+
+    final double[] expected = new double[last - first + 1];
+    for (int i = first; i <= last; ++i) {
+      if (i > first) {
+        final double staSample = waveform[i - staLeadSamples + staLengthSamples - 1];
+        final double ltaSample = waveform[i - ltaLeadSamples + ltaLengthSamples - 1];
+        sta = sta * (1.0 - 1.0 / staLengthSamples) + staSample / staLengthSamples;
+        lta = lta * (1.0 - 1.0 / ltaLengthSamples) + ltaSample / ltaLengthSamples;
+      }
+
+      expected[i - first] = sta / lta;
+    }
+
+    return expected;
   }
 
   @Test
@@ -0,0 +1,177 @@
+package gms.core.signaldetection.staltapowerdetector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import gms.core.signaldetection.staltapowerdetector.Algorithm.AlgorithmType;
+import gms.core.signaldetection.staltapowerdetector.Algorithm.WaveformTransformation;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class StreamingStaLtaTests {
+
+  @Rule
+  public final ExpectedException exception = ExpectedException.none();
+
+  @Test
+  public void testStreamingMatchesStaLta() throws Exception {
+    final double[] waveform = new double[]{1, 1, 100, 50, 1, 1, 1, 1, 200};
+
+    final StreamingStaLta streamingStaLta = StreamingStaLta
+        .create(AlgorithmType.STANDARD, WaveformTransformation.RECTIFIED, 0, 1, 2, 2, 5.0, 3.0);
+
+    final Set<Long> triggers = new HashSet<>();
+    triggers.addAll(streamingStaLta.process(Arrays.copyOfRange(waveform, 0, 4)));
+    triggers.addAll(streamingStaLta.process(Arrays.copyOfRange(waveform, 4, 9)));
+
+    assertEquals(Set.of(2L, 8L), triggers);
+    assertEquals(waveform.length, streamingStaLta.getSampleCount());
+  }
+
+  @Test
+  public void testStreamingStandardBlocksMatchStaLta() throws Exception {
+    assertBlocksMatchStaLta(AlgorithmType.STANDARD, WaveformTransformation.SQUARED, 3, 20, 400,
+        400, 137);
+  }
+
+  @Test
+  public void testStreamingStandardLaggingWindowsMatchStaLta() throws Exception {
+    assertBlocksMatchStaLta(AlgorithmType.STANDARD, WaveformTransformation.SQUARED, 2, 30, 100,
+        120, 41);
+  }
+
+  @Test
+  public void testStreamingRecursiveBlocksMatchStaLta() throws Exception {
+    assertBlocksMatchStaLta(AlgorithmType.RECURSIVE, WaveformTransformation.SQUARED, 3, 20, 400,
+        400, 250);
+  }
+
+  @Test
+  public void testStreamingRecursiveLaggingWindowsMatchStaLta() throws Exception {
+    assertBlocksMatchStaLta(AlgorithmType.RECURSIVE, WaveformTransformation.SQUARED, 2, 30, 150,
+        120, 41);
+  }
+
+  @Test
+  public void testStreamingRecursiveSingleSampleBlocksMatchStaLta() throws Exception {
+    assertBlocksMatchStaLta(AlgorithmType.RECURSIVE, WaveformTransformation.RECTIFIED, 0, 10, 100,
+        100, 1);
+  }
+
+  @Test
+  public void testStreamingSingleSampleBlocksMatchStaLta() throws Exception {
+    assertBlocksMatchStaLta(AlgorithmType.STANDARD, WaveformTransformation.SQUARED, 2, 10, 100,
+        100, 1);
+  }
+
+  @Test
+  public void testTriggerStateCarriesAcrossBlocks() throws Exception {
+    final StreamingStaLta streamingStaLta = StreamingStaLta
+        .create(AlgorithmType.STANDARD, WaveformTransformation.RECTIFIED, 0, 1, 2, 2, 5.0, 3.0);
+
+    // Triggers on the third sample and remains triggered through the second block
+    assertEquals(Set.of(2L), streamingStaLta.process(new double[]{1, 1, 100}));
+    assertEquals(Set.of(), streamingStaLta.process(new double[]{400, 1600}));
+  }
+
+  @Test
+  public void testEmptyBlock() throws Exception {
+    final StreamingStaLta streamingStaLta = StreamingStaLta
+        .create(AlgorithmType.STANDARD, WaveformTransformation.RECTIFIED, 0, 1, 2, 2, 5.0, 3.0);
+
+    final Set<Long> triggers = streamingStaLta.process(new double[]{});
+    assertNotNull(triggers);
+    assertTrue(triggers.isEmpty());
+    assertEquals(0, streamingStaLta.getSampleCount());
+  }
+
+  @Test
+  public void testProcessNullSamplesExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("Streaming STA/LTA cannot process null samples");
+    StreamingStaLta
+        .create(AlgorithmType.STANDARD, WaveformTransformation.RECTIFIED, 0, 1, 2, 2, 5.0, 3.0)
+        .process(null);
+  }
+
+  @Test
+  public void testCreateNullAlgorithmTypeExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("STA/LTA requires non-null algorithmType");
+    StreamingStaLta.create(null, WaveformTransformation.RECTIFIED, 0, 1, 2, 2, 5.0, 3.0);
+  }
+
+  @Test
+  public void testCreateNullWaveformTransformationExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("STA/LTA requires non-null waveformTransformation");
+    StreamingStaLta.create(AlgorithmType.STANDARD, null, 0, 1, 2, 2, 5.0, 3.0);
+  }
+
+  @Test
+  public void testCreateNegativeLtaLengthExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("LTA window must have positive length");
+    StreamingStaLta
+        .create(AlgorithmType.STANDARD, WaveformTransformation.RECTIFIED, 0, 1, 2, -2, 5.0, 3.0);
+  }
+
+  @Test
+  public void testCreateNegativeLeadExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("Streaming STA/LTA requires non-negative window leads");
+    StreamingStaLta
+        .create(AlgorithmType.STANDARD, WaveformTransformation.RECTIFIED, -1, 1, 2, 2, 5.0, 3.0);
+  }
+
+  @Test
+  public void testCreateNegativeTriggerThresholdExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("STA/LTA trigger threshold must be positive");
+    StreamingStaLta
+        .create(AlgorithmType.STANDARD, WaveformTransformation.RECTIFIED, 0, 1, 2, 2, -5.0, 3.0);
+  }
+
+  /**
+   * Processes a random waveform containing two events in blocks of blockLength samples and
+   * verifies the triggers match the triggers found by processing the entire waveform at once.
+   */
+  private static void assertBlocksMatchStaLta(AlgorithmType algorithmType,
+      WaveformTransformation waveformTransformation, int staLead, int staLength, int ltaLead,
+      int ltaLength, int blockLength) {
+
+    final Random random = new Random(3);
+    final double[] waveform = DoubleStream.generate(random::nextGaussian).limit(10000).toArray();
+    for (int i = 3000; i < 3050; ++i) {
+      waveform[i] = waveform[i] * 20.0;
+    }
+    for (int i = 7000; i < 7020; ++i) {
+      waveform[i] = waveform[i] * 50.0;
+    }
+
+    final Set<Long> expected = new Algorithm()
+        .staLta(algorithmType, waveformTransformation, staLead, staLength, ltaLead, ltaLength, 4.0,
+            2.0, waveform).stream().map(Integer::longValue).collect(Collectors.toSet());
+
+    final StreamingStaLta streamingStaLta = StreamingStaLta
+        .create(algorithmType, waveformTransformation, staLead, staLength, ltaLead, ltaLength, 4.0,
+            2.0);
+
+    final Set<Long> actual = new HashSet<>();
+    for (int start = 0; start < waveform.length; start += blockLength) {
+      actual.addAll(streamingStaLta.process(Arrays.copyOfRange(waveform, start,
+          Math.min(waveform.length, start + blockLength))));
+    }
+
+    assertTrue(expected.size() >= 2);
+    assertEquals(expected, actual);
+  }
+}
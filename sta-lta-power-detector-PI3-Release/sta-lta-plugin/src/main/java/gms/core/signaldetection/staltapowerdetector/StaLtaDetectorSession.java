@@ -0,0 +1,149 @@
+package gms.core.signaldetection.staltapowerdetector;
+
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * STA/LTA detection state for a single processing channel.  Wraps a {@link StreamingStaLta} which
+ * carries the STA and LTA averages and the trigger state from one {@link ChannelSegment} to the
+ * next.  A session only continues when a {@link Waveform} begins one sample after the last sample
+ * the session processed, has a sample rate within the merge tolerance of the session's sample
+ * rate, and is processed with the same {@link StaLtaParameters}.  Otherwise the session restarts
+ * and the new Waveform must provide the STA/LTA lead-in samples again.
+ *
+ * Trigger times may precede the start of the processed {@link ChannelSegment} since the STA/LTA
+ * value for a sample is only computed once the samples in its lagging windows arrive.
+ */
+public class StaLtaDetectorSession {
+
+  private static final Logger logger = LoggerFactory.getLogger(StaLtaDetectorSession.class);
+
+  // Session state.  All of these are null until the first Waveform is processed.
+  private StaLtaParameters parameters;
+  private StreamingStaLta streamingStaLta;
+  private double sampleRate;
+  private Instant lastSampleTime;
+
+  private StaLtaDetectorSession() {
+  }
+
+  /**
+   * Obtains a new {@link StaLtaDetectorSession} which has not processed any data
+   *
+   * @return StaLtaDetectorSession, not null
+   */
+  public static StaLtaDetectorSession create() {
+    return new StaLtaDetectorSession();
+  }
+
+  /**
+   * Finds STA/LTA signal detection times in the conditioned {@link ChannelSegment}.  Each {@link
+   * Waveform} in the ChannelSegment either continues this session or restarts it.
+   *
+   * @param conditioned {@link ChannelSegment} conditioned by {@link
+   * StaLtaPowerDetectorPlugin#condition(ChannelSegment, StaLtaParameters)}, not null
+   * @param parameters {@link StaLtaParameters} for the ChannelSegment's processing channel, not
+   * null
+   * @return Set of {@link Instant} signal detection times, not null
+   * @throws NullPointerException if conditioned or parameters are null
+   */
+  public synchronized Set<Instant> detect(ChannelSegment conditioned,
+      StaLtaParameters parameters) {
+
+    Objects.requireNonNull(conditioned, "StaLtaDetectorSession cannot process null channelSegment");
+    Objects.requireNonNull(parameters, "StaLtaDetectorSession requires non-null parameters");
+
+    final Set<Instant> triggerTimes = new HashSet<>();
+
+    for (Waveform wf : conditioned.getWaveforms()) {
+      if (wf.getValuesLength() == 0) {
+        continue;
+      }
+
+      if (!isContinuation(wf, parameters)) {
+        restart(wf, parameters);
+      }
+
+      // Trigger indices are relative to the session start, so convert them to offsets from the
+      // first sample in this waveform before computing the trigger times
+      final long firstIndex = streamingStaLta.getSampleCount();
+      streamingStaLta.process(wf.getValues()).stream()
+          .map(i -> timeForSample(wf, i - firstIndex))
+          .forEach(triggerTimes::add);
+
+      lastSampleTime = wf.getEndTime();
+    }
+
+    return triggerTimes;
+  }
+
+  /**
+   * Determines whether the {@link Waveform} continues the data processed by this session
+   *
+   * @param wf next {@link Waveform}, not null
+   * @param parameters {@link StaLtaParameters} for the waveform, not null
+   * @return true if the waveform continues this session, false otherwise
+   */
+  private boolean isContinuation(Waveform wf, StaLtaParameters parameters) {
+    if (streamingStaLta == null || !parameters.equals(this.parameters)) {
+      return false;
+    }
+
+    // Same criteria used by ChannelSegment.mergeWaveforms when conditioning the ChannelSegment, so
+    // the session continues across the same gaps that conditioning merges
+    return ChannelSegment.isMergeable(sampleRate, lastSampleTime, wf.getSampleRate(),
+        wf.getStartTime(), parameters.getMergeWaveformsSampleRateTolerance(),
+        StaLtaPowerDetectorPlugin
+            .fractionalSamplesFromDuration(sampleRate, parameters.getMergeWaveformsMinLength()));
+  }
+
+  /**
+   * Restarts this session beginning with the {@link Waveform}
+   *
+   * @param wf first {@link Waveform} in the restarted session, not null
+   * @param parameters {@link StaLtaParameters} for the waveform, not null
+   */
+  private void restart(Waveform wf, StaLtaParameters parameters) {
+    if (streamingStaLta != null) {
+      logger.info("Restarting STA/LTA session at {} after previous sample at {}",
+          wf.getStartTime(), lastSampleTime);
+    }
+
+    // Use sampleRate to convert the STA and LTA window parameters from Durations to sample counts
+    final double samplesPerSec = wf.getSampleRate();
+    final int staLead = StaLtaPowerDetectorPlugin
+        .samplesFromDuration(samplesPerSec, parameters.getStaLead());
+    final int staLength = StaLtaPowerDetectorPlugin
+        .samplesFromDuration(samplesPerSec, parameters.getStaLength());
+    final int ltaLead = StaLtaPowerDetectorPlugin
+        .samplesFromDuration(samplesPerSec, parameters.getLtaLead());
+    final int ltaLength = StaLtaPowerDetectorPlugin
+        .samplesFromDuration(samplesPerSec, parameters.getLtaLength());
+
+    this.streamingStaLta = StreamingStaLta
+        .create(parameters.getAlgorithmType(), parameters.getWaveformTransformation(), staLead,
+            staLength, ltaLead, ltaLength, parameters.getTriggerThreshold(),
+            parameters.getDetriggerThreshold());
+    this.parameters = parameters;
+    this.sampleRate = samplesPerSec;
+  }
+
+  /**
+   * Obtains the sampling time for a sample offset from the first sample in the {@link Waveform}.
+   * Matches {@link Waveform#timeForSample(long)} but also allows negative offsets to samples
+   * processed in earlier waveforms.
+   *
+   * @param wf {@link Waveform}, not null
+   * @param offset sample offset from the waveform's first sample
+   * @return {@link Instant} sampling time, not null
+   */
+  private static Instant timeForSample(Waveform wf, long offset) {
+    return wf.getStartTime().plusNanos((long) ((offset * 1000000000L) / wf.getSampleRate()));
+  }
+}
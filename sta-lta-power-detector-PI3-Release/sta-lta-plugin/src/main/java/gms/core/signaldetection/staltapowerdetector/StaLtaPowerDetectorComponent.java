@@ -90,4 +90,23 @@ public class StaLtaPowerDetectorComponent implements SignalDetectorPlugin {
 
     return this.plugin.detect(channelSegment);
   }
+
+  /**
+   * Detects signal arrival times on the input {@link ChannelSegment}, continuing the STA/LTA
+   * session for the ChannelSegment's processing channel.  See {@link
+   * StaLtaPowerDetectorPlugin#detectStreaming(ChannelSegment)}.
+   *
+   * @param channelSegment detect signal arrivals in this ChannelSegment, not null
+   * @return Collection of {@link Instant} signal arrival times, not null
+   */
+  @Override
+  public Collection<Instant> detectSignalsStreaming(ChannelSegment channelSegment) {
+
+    if (!initialized) {
+      throw new IllegalStateException(
+          "StaLtaPowerDetectorComponent cannot be used before it is initialized");
+    }
+
+    return this.plugin.detectStreaming(channelSegment);
+  }
 }
@@ -2,11 +2,15 @@ package gms.core.signaldetection.staltapowerdetector;
 
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,11 +25,22 @@ public class StaLtaPowerDetectorPlugin {
 
   private final StaLtaConfiguration configuration;
 
+  /**
+   * Streaming sessions which have not processed a {@link ChannelSegment} for longer than this are
+   * discarded, so processing channels which stop arriving do not retain their sessions forever
+   */
+  static final Duration SESSION_IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+  private final ConcurrentMap<UUID, TimedSession> sessions = new ConcurrentHashMap<>();
+
+  private final Clock clock;
+
   private StaLtaPowerDetectorPlugin(Algorithm staLtaAlgorithm,
-      StaLtaConfiguration staLtaConfiguration) {
+      StaLtaConfiguration staLtaConfiguration, Clock clock) {
 
     this.staLta = staLtaAlgorithm;
     configuration = staLtaConfiguration;
+    this.clock = clock;
   }
 
   /**
@@ -40,10 +55,27 @@ public class StaLtaPowerDetectorPlugin {
   public static StaLtaPowerDetectorPlugin create(Algorithm staLtaAlgorithm,
       StaLtaConfiguration staLtaConfiguration) {
 
+    return create(staLtaAlgorithm, staLtaConfiguration, Clock.systemUTC());
+  }
+
+  /**
+   * Obtains a new {@link StaLtaPowerDetectorPlugin} which measures streaming session idle time
+   * with the provided {@link Clock}
+   *
+   * @param staLtaAlgorithm {@link Algorithm} containing the STA/LTA implementation, not null
+   * @param staLtaConfiguration {@link StaLtaConfiguration} configuration for STA/LTA, not null
+   * @param clock Clock used to expire idle streaming sessions, not null
+   * @return StaLtaPowerDetectorPlugin, not null
+   * @throws NullPointerException if staLtaAlgorithm, staLtaConfiguration, or clock are null
+   */
+  static StaLtaPowerDetectorPlugin create(Algorithm staLtaAlgorithm,
+      StaLtaConfiguration staLtaConfiguration, Clock clock) {
+
     Objects.requireNonNull(staLtaAlgorithm, "STA/LTA algorithm cannot be null");
     Objects.requireNonNull(staLtaConfiguration, "STA/LTA configuration cannot be null");
+    Objects.requireNonNull(clock, "STA/LTA plugin clock cannot be null");
 
-    return new StaLtaPowerDetectorPlugin(staLtaAlgorithm, staLtaConfiguration);
+    return new StaLtaPowerDetectorPlugin(staLtaAlgorithm, staLtaConfiguration, clock);
   }
 
   /**
@@ -61,20 +93,8 @@ public class StaLtaPowerDetectorPlugin {
 
     final StaLtaParameters parameters = configuration.createParameters(channelSegment.getId());
 
-    // Assuming each Waveform has a sample rate within a small delta of a nominal sample rate,
-    // just use the first Waveform's sample rate to convert from time to sample counts
-    final double presumedNominalSampleRate = channelSegment.getWaveforms().stream()
-        .mapToDouble(Waveform::getSampleRate).findFirst().orElse(0.0);
-    final double maxInterpolatedGapSampleCount = fractionalSamplesFromDuration(
-        presumedNominalSampleRate, parameters.getLtaLength());
-
     // Condition channelSegment
-    final ChannelSegment conditioned = channelSegment
-        .interpolateWaveformGap(parameters.getInterpolateGapsSampleRateTolerance(),
-            maxInterpolatedGapSampleCount)
-        .mergeWaveforms(parameters.getMergeWaveformsSampleRateTolerance(),
-            fractionalSamplesFromDuration(presumedNominalSampleRate,
-                parameters.getMergeWaveformsMinLength()));
+    final ChannelSegment conditioned = condition(channelSegment, parameters);
 
     // Waveform conditioning merges waveforms where psosible, so process each waveform independently
     final Set<Instant> triggerTimes = new HashSet<>();
@@ -100,6 +120,112 @@ public class StaLtaPowerDetectorPlugin {
     return triggerTimes;
   }
 
+  /**
+   * Executes the STA/LTA signal detector on the {@link ChannelSegment} using a {@link
+   * StaLtaDetectorSession} for the ChannelSegment's processing channel.  The session retains the
+   * STA/LTA state from previous calls for the same processing channel, so each ChannelSegment only
+   * needs to contain the newly arrived data.  A new session is started for the first call on a
+   * processing channel.  Sessions restart on data gaps, sample rate changes, and parameter changes.
+   * Sessions unused for {@link StaLtaPowerDetectorPlugin#SESSION_IDLE_TIMEOUT} are discarded.
+   *
+   * @param channelSegment {@link ChannelSegment} to process for STA/LTA detections, not null
+   * @return Set of {@link Instant} signal detection times, not null
+   * @throws NullPointerException if channelSegment is null
+   */
+  public Set<Instant> detectStreaming(ChannelSegment channelSegment) {
+
+    Objects.requireNonNull(channelSegment, "STA/LTA plugin cannot process null channelSegment");
+
+    logger.info("Executing streaming STA/LTA signal detection on ChannelSegment: {}",
+        channelSegment.getId());
+
+    final StaLtaParameters parameters = configuration.createParameters(channelSegment.getId());
+
+    final Instant now = clock.instant();
+    evictIdleSessions(now);
+
+    final TimedSession timedSession = sessions
+        .computeIfAbsent(channelSegment.getProcessingChannelId(), id -> new TimedSession(now));
+    timedSession.lastUsed = now;
+
+    return timedSession.session.detect(condition(channelSegment, parameters), parameters);
+  }
+
+  /**
+   * Discards the sessions last used more than {@link
+   * StaLtaPowerDetectorPlugin#SESSION_IDLE_TIMEOUT} before now.  A session evicted while another
+   * thread is using it finishes that call; the processing channel's next call starts a new
+   * session.
+   *
+   * @param now current time
+   */
+  private void evictIdleSessions(Instant now) {
+    final Instant idleBefore = now.minus(SESSION_IDLE_TIMEOUT);
+    sessions.values().removeIf(s -> s.lastUsed.isBefore(idleBefore));
+  }
+
+  /**
+   * Obtains the number of streaming sessions currently retained
+   *
+   * @return number of sessions, >= 0
+   */
+  int getSessionCount() {
+    return sessions.size();
+  }
+
+  /**
+   * Discards the {@link StaLtaDetectorSession} for the processing channel.  The next call to
+   * {@link StaLtaPowerDetectorPlugin#detectStreaming(ChannelSegment)} on that processing channel
+   * starts a new session.
+   *
+   * @param processingChannelId processing channel identifier, not null
+   * @throws NullPointerException if processingChannelId is null
+   */
+  public void endSession(UUID processingChannelId) {
+    Objects.requireNonNull(processingChannelId,
+        "STA/LTA plugin cannot end a session for a null processingChannelId");
+
+    sessions.remove(processingChannelId);
+  }
+
+  /**
+   * Conditions the {@link ChannelSegment} prior to STA/LTA by interpolating gaps shorter than the
+   * LTA window and then merging adjacent waveforms, in a single pass.
+   *
+   * @param channelSegment {@link ChannelSegment} to condition, not null
+   * @param parameters {@link StaLtaParameters} defining the conditioning, not null
+   * @return conditioned {@link ChannelSegment}, not null
+   */
+  static ChannelSegment condition(ChannelSegment channelSegment, StaLtaParameters parameters) {
+
+    // Assuming each Waveform has a sample rate within a small delta of a nominal sample rate,
+    // just use the first Waveform's sample rate to convert from time to sample counts
+    final double presumedNominalSampleRate = channelSegment.getWaveforms().stream()
+        .mapToDouble(Waveform::getSampleRate).findFirst().orElse(0.0);
+    final double maxInterpolatedGapSampleCount = fractionalSamplesFromDuration(
+        presumedNominalSampleRate, parameters.getLtaLength());
+
+    return channelSegment
+        .condition(parameters.getInterpolateGapsSampleRateTolerance(),
+            maxInterpolatedGapSampleCount, parameters.getMergeWaveformsSampleRateTolerance(),
+            fractionalSamplesFromDuration(presumedNominalSampleRate,
+                parameters.getMergeWaveformsMinLength()));
+  }
+
+  /**
+   * A {@link StaLtaDetectorSession} and the last time it processed a {@link ChannelSegment}
+   */
+  private static class TimedSession {
+
+    private final StaLtaDetectorSession session;
+    private volatile Instant lastUsed;
+
+    private TimedSession(Instant lastUsed) {
+      this.session = StaLtaDetectorSession.create();
+      this.lastUsed = lastUsed;
+    }
+  }
+
   /**
    * Computes the closest integer number of samples occurring at samplesPerSec required to span the
    * duration.
@@ -108,7 +234,7 @@ public class StaLtaPowerDetectorPlugin {
    * @param duration a {@link Duration}
    * @return integer number of samples
    */
-  private static int samplesFromDuration(double samplesPerSec, Duration duration) {
+  static int samplesFromDuration(double samplesPerSec, Duration duration) {
     return (int) Math.round(fractionalSamplesFromDuration(samplesPerSec, duration));
   }
 
@@ -120,7 +246,7 @@ public class StaLtaPowerDetectorPlugin {
    * @param duration a {@link Duration}
    * @return double number of samples
    */
-  private static double fractionalSamplesFromDuration(double samplesPerSec, Duration duration) {
+  static double fractionalSamplesFromDuration(double samplesPerSec, Duration duration) {
     final double secondsPart = samplesPerSec * duration.getSeconds();
     final double nanosPart = samplesPerSec * duration.getNano() / 1.0e9;
     return secondsPart + nanosPart;
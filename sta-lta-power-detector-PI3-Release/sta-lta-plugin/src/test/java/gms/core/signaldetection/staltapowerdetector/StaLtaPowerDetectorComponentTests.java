@@ -49,6 +49,14 @@ public class StaLtaPowerDetectorComponentTests {
     new StaLtaPowerDetectorComponent().detectSignals(TestFixtures.randomChannelSegment());
   }
 
+  @Test
+  public void testDetectStreamingWithoutInitializeExpectIllegalStateException() throws Exception {
+    exception.expect(IllegalStateException.class);
+    exception.expectMessage("StaLtaPowerDetectorComponent cannot be used before it is initialized");
+    new StaLtaPowerDetectorComponent()
+        .detectSignalsStreaming(TestFixtures.randomChannelSegment());
+  }
+
   @Test
   public void testInitializeNullParameterExpectNullPointerException() throws Exception {
     exception.expect(NullPointerException.class);
@@ -14,8 +14,11 @@ import gms.core.signaldetection.staltapowerdetector.Algorithm.WaveformTransforma
 import gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.CreationInfo;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.OptionalDouble;
@@ -262,12 +265,196 @@ public class StaLtaPowerDetectorPluginTests {
     assertTrue(actualTriggerTimes.containsAll(expectedTriggerTimes));
   }
 
+  @Test
+  public void testDetectRecursive() throws Exception {
+    StaLtaConfiguration mockConfiguration = mock(StaLtaConfiguration.class);
+    StaLtaPowerDetectorPlugin plugin = StaLtaPowerDetectorPlugin
+        .create(new Algorithm(), mockConfiguration);
+
+    final StaLtaParameters recursiveParameters = StaLtaParameters.create(
+        AlgorithmType.RECURSIVE, transformation,
+        Duration.ofMillis(sampleLengthMillis).multipliedBy(staLead),
+        Duration.ofMillis(sampleLengthMillis).multipliedBy(staLength),
+        Duration.ofMillis(sampleLengthMillis).multipliedBy(ltaLead),
+        Duration.ofMillis(sampleLengthMillis).multipliedBy(ltaLength), triggerThreshold,
+        detriggerThreshold, interpolateGapsSampleRateTolerance, mergeSampleRateTolerance,
+        mergeMinLength);
+
+    given(mockConfiguration.createParameters(any(UUID.class))).willReturn(recursiveParameters);
+
+    // Constant waveform with a single large sample.  The STA window for sample i spans
+    // [i - 2, i + 1] so the large sample first enters the STA at index 49.
+    final double[] samples = new double[length];
+    Arrays.fill(samples, 1.0);
+    samples[50] = 100.0;
+    final Waveform wf = Waveform.withInferredEndTime(Instant.EPOCH, sampleRate, length, samples);
+
+    final Set<Instant> actualTriggerTimes = plugin
+        .detect(channelSegmentFromWaveforms(List.of(wf)));
+
+    assertEquals(Set.of(wf.timeForSample(49)), actualTriggerTimes);
+  }
+
+  @Test
+  public void testDetectStreamingContiguousSegmentsMatchDetect() throws Exception {
+    StaLtaConfiguration mockConfiguration = mock(StaLtaConfiguration.class);
+    given(mockConfiguration.createParameters(any(UUID.class))).willReturn(staLtaParameters);
+
+    final double[] samples = spikes(400, 20, 95, 130, 260, 391);
+    final Waveform wf = Waveform.withInferredEndTime(Instant.EPOCH, sampleRate, 400, samples);
+    final Set<Instant> expectedTriggerTimes = StaLtaPowerDetectorPlugin
+        .create(new Algorithm(), mockConfiguration)
+        .detect(channelSegmentFromWaveforms(List.of(wf)));
+
+    // Process the same samples as contiguous ChannelSegments from one processing channel
+    final StaLtaPowerDetectorPlugin plugin = StaLtaPowerDetectorPlugin
+        .create(new Algorithm(), mockConfiguration);
+    final UUID processingChannelId = UUID.randomUUID();
+
+    final Set<Instant> actualTriggerTimes = new HashSet<>();
+    for (int start = 0; start < samples.length; start += 100) {
+      final Waveform block = Waveform.withInferredEndTime(wf.timeForSample(start), sampleRate, 100,
+          Arrays.copyOfRange(samples, start, start + 100));
+      actualTriggerTimes.addAll(plugin
+          .detectStreaming(channelSegmentFromWaveforms(processingChannelId, List.of(block))));
+    }
+
+    assertEquals(5, expectedTriggerTimes.size());
+    assertEquals(expectedTriggerTimes, actualTriggerTimes);
+  }
+
+  @Test
+  public void testDetectStreamingRestartsAfterGap() throws Exception {
+    StaLtaConfiguration mockConfiguration = mock(StaLtaConfiguration.class);
+    given(mockConfiguration.createParameters(any(UUID.class))).willReturn(staLtaParameters);
+
+    final StaLtaPowerDetectorPlugin plugin = StaLtaPowerDetectorPlugin
+        .create(new Algorithm(), mockConfiguration);
+    final UUID processingChannelId = UUID.randomUUID();
+
+    final Waveform wf1 = Waveform
+        .withInferredEndTime(Instant.EPOCH, sampleRate, 100, spikes(100, 50));
+    assertEquals(Set.of(wf1.timeForSample(49)), plugin
+        .detectStreaming(channelSegmentFromWaveforms(processingChannelId, List.of(wf1))));
+
+    // Contiguous segment with a spike in its first sample is detected by the session
+    final Waveform wf2 = Waveform
+        .withInferredEndTime(wf1.getEndTime().plusMillis(sampleLengthMillis), sampleRate, 100,
+            spikes(100, 0));
+    assertEquals(Set.of(wf1.timeForSample(99)), plugin
+        .detectStreaming(channelSegmentFromWaveforms(processingChannelId, List.of(wf2))));
+
+    // Segment following a gap restarts the session, so a spike before the LTA lead is complete
+    // is not detected
+    final Waveform wf3 = Waveform
+        .withInferredEndTime(wf2.getEndTime().plusSeconds(60), sampleRate, 100, spikes(100, 0));
+    assertTrue(plugin
+        .detectStreaming(channelSegmentFromWaveforms(processingChannelId, List.of(wf3)))
+        .isEmpty());
+  }
+
+  @Test
+  public void testDetectStreamingCreatesParametersForChannelSegmentId() throws Exception {
+    StaLtaConfiguration mockConfiguration = mock(StaLtaConfiguration.class);
+    given(mockConfiguration.createParameters(any(UUID.class))).willReturn(staLtaParameters);
+
+    final ChannelSegment channelSegment = channelSegmentFromWaveforms(UUID.randomUUID(),
+        List.of(Waveform.withInferredEndTime(Instant.EPOCH, sampleRate, 100, spikes(100))));
+    StaLtaPowerDetectorPlugin.create(new Algorithm(), mockConfiguration)
+        .detectStreaming(channelSegment);
+
+    verify(mockConfiguration).createParameters(channelSegment.getId());
+    verifyNoMoreInteractions(mockConfiguration);
+  }
+
+  @Test
+  public void testEndSessionRestartsSession() throws Exception {
+    StaLtaConfiguration mockConfiguration = mock(StaLtaConfiguration.class);
+    given(mockConfiguration.createParameters(any(UUID.class))).willReturn(staLtaParameters);
+
+    final StaLtaPowerDetectorPlugin plugin = StaLtaPowerDetectorPlugin
+        .create(new Algorithm(), mockConfiguration);
+    final UUID processingChannelId = UUID.randomUUID();
+
+    final Waveform wf1 = Waveform
+        .withInferredEndTime(Instant.EPOCH, sampleRate, 100, spikes(100));
+    plugin.detectStreaming(channelSegmentFromWaveforms(processingChannelId, List.of(wf1)));
+    plugin.endSession(processingChannelId);
+
+    final Waveform wf2 = Waveform
+        .withInferredEndTime(wf1.getEndTime().plusMillis(sampleLengthMillis), sampleRate, 100,
+            spikes(100, 0));
+    assertTrue(plugin
+        .detectStreaming(channelSegmentFromWaveforms(processingChannelId, List.of(wf2)))
+        .isEmpty());
+  }
+
+  @Test
+  public void testDetectStreamingEvictsIdleSessions() throws Exception {
+    StaLtaConfiguration mockConfiguration = mock(StaLtaConfiguration.class);
+    given(mockConfiguration.createParameters(any(UUID.class))).willReturn(staLtaParameters);
+
+    final Instant now = Instant.EPOCH;
+    final Clock clock = mock(Clock.class);
+    given(clock.instant()).willReturn(now);
+
+    final StaLtaPowerDetectorPlugin plugin = StaLtaPowerDetectorPlugin
+        .create(new Algorithm(), mockConfiguration, clock);
+
+    final Waveform wf1 = Waveform
+        .withInferredEndTime(Instant.EPOCH, sampleRate, 100, spikes(100));
+    plugin.detectStreaming(channelSegmentFromWaveforms(UUID.randomUUID(), List.of(wf1)));
+    plugin.detectStreaming(channelSegmentFromWaveforms(UUID.randomUUID(), List.of(wf1)));
+    assertEquals(2, plugin.getSessionCount());
+
+    // Sessions are retained until they have been idle for longer than the timeout
+    given(clock.instant()).willReturn(now.plus(StaLtaPowerDetectorPlugin.SESSION_IDLE_TIMEOUT));
+    final UUID processingChannelId = UUID.randomUUID();
+    plugin.detectStreaming(channelSegmentFromWaveforms(processingChannelId, List.of(wf1)));
+    assertEquals(3, plugin.getSessionCount());
+
+    given(clock.instant()).willReturn(now.plus(StaLtaPowerDetectorPlugin.SESSION_IDLE_TIMEOUT)
+        .plusSeconds(1));
+    final Waveform wf2 = Waveform
+        .withInferredEndTime(wf1.getEndTime().plusMillis(sampleLengthMillis), sampleRate, 100,
+            spikes(100, 0));
+    assertEquals(Set.of(wf1.timeForSample(99)), plugin
+        .detectStreaming(channelSegmentFromWaveforms(processingChannelId, List.of(wf2))));
+    assertEquals(1, plugin.getSessionCount());
+  }
+
+  @Test
+  public void testDetectStreamingNullChannelSegmentExpectNullPointerException()
+      throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("STA/LTA plugin cannot process null channelSegment");
+    StaLtaPowerDetectorPlugin.create(mock(Algorithm.class), mock(StaLtaConfiguration.class))
+        .detectStreaming(null);
+  }
+
+  /**
+   * Obtains a waveform of constant samples with large samples at the spike indices
+   */
+  private static double[] spikes(int length, int... spikeIndices) {
+    final double[] samples = new double[length];
+    Arrays.fill(samples, 1.0);
+    for (int i : spikeIndices) {
+      samples[i] = 100.0;
+    }
+    return samples;
+  }
+
   private static double fractionalSamplesFromDuration(double samplesPerSec, Duration duration) {
     return (samplesPerSec * duration.getSeconds()) + (samplesPerSec * duration.getNano() / 1.0e9);
   }
 
   private static ChannelSegment channelSegmentFromWaveforms(List<Waveform> waveforms) {
-    return ChannelSegment.from(UUID.randomUUID(), UUID.randomUUID(), "ChannelName",
+    return channelSegmentFromWaveforms(UUID.randomUUID(), waveforms);
+  }
+
+  private static ChannelSegment channelSegmentFromWaveforms(UUID processingChannelId,
+      List<Waveform> waveforms) {
+    return ChannelSegment.from(UUID.randomUUID(), processingChannelId, "ChannelName",
         ChannelSegment.ChannelSegmentType.RAW, waveforms.get(0).getStartTime(),
         waveforms.get(waveforms.size() - 1).getEndTime(),
         new TreeSet<>(waveforms), CreationInfo.DEFAULT);
@@ -19,7 +19,6 @@ import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -74,27 +73,25 @@ public class Cd11RawStationDataFrameReader {
         int sampleRate = (int) Math.ceil(samples / subframeTimeLength
             * 1000); //time length is in milis, need to convert to seconds
 
-        //Grab channel data, call waveform reader, which returns and int[] so convert it to double[]
+        //Grab channel data, call waveform reader, which returns an int[] of counts
         InputStream waveformData = new ByteArrayInputStream(sf.channelData);
-        double[] waveformValues;
+        int[] waveformCounts;
         //No Compression, use what is in data type field
         if (sf.compressionFormat == CompressionFormat.NONE) {
-          waveformValues = Arrays
-              .stream(WaveformReader.readSamples(waveformData, sf.dataType.name(),(int)samples,0)).asDoubleStream()
-              .toArray();
+          waveformCounts = WaveformReader
+              .readSamples(waveformData, sf.dataType.name(), (int) samples, 0);
         }
         //Canadian Compression, ignore data type field
         else if (sf.compressionFormat == CompressionFormat.CANADIAN_BEFORE_SIGNATURE
             || sf.compressionFormat == CompressionFormat.CANADIAN_AFTER_SIGNATURE) {
-          waveformValues = Arrays
-              .stream(WaveformReader.readSamples(waveformData, "cc", (int)samples,0)).asDoubleStream()
-              .toArray();
+          waveformCounts = WaveformReader.readSamples(waveformData, "cc", (int) samples, 0);
         } else {
           throw new Exception("Unsupported compression format: " + sf.compressionFormat);
         }
 
+        // The Waveform keeps the counts and converts them to doubles when they are read
         Waveform waveform = Waveform
-            .create(startTime, endTime, sampleRate, sf.samples, waveformValues);
+            .createFromCounts(startTime, endTime, sampleRate, sf.samples, waveformCounts, 1.0);
         TreeSet<Waveform> wfs = new TreeSet<>(Set.of(waveform));
 
         String channelSegmentName = String.format("%s/%s %s", sf.siteName, sf.channelName,
@@ -5,6 +5,9 @@ import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commo
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public interface FilterPlugin {
 
@@ -42,4 +45,39 @@ public interface FilterPlugin {
    */
   Collection<Waveform> filter(ChannelSegment channelSegment, FilterDefinition filterDefinition);
 
+  /**
+   * Generates a sequence of filtered waveforms continuing the data previously filtered for the
+   * channelSegment's processing channel and the filter definition, so the channelSegment only
+   * needs to contain newly arrived data.  Plugins which retain filter state between calls override
+   * this operation; by default each channelSegment is filtered independently with {@link
+   * FilterPlugin#filter(ChannelSegment, FilterDefinition)}.
+   *
+   * @param channelSegment {@link ChannelSegment} containing waveforms to filter, not null
+   * @param filterDefinition {@link FilterDefinition}, containing filter parameters, not null
+   * @return New filtered waveforms
+   */
+  default Collection<Waveform> filterStreaming(ChannelSegment channelSegment,
+      FilterDefinition filterDefinition) {
+
+    return filter(channelSegment, filterDefinition);
+  }
+
+  /**
+   * Generates a sequence of filtered waveforms for each of the filter definitions.  The filtered
+   * waveforms for each filter definition match those returned by {@link
+   * FilterPlugin#filter(ChannelSegment, FilterDefinition)}.  Plugins override this operation when
+   * they can share work between the filter definitions, e.g. by preparing the channelSegment's
+   * waveforms once.
+   *
+   * @param channelSegment {@link ChannelSegment} containing waveforms to filter, not null
+   * @param filterDefinitions {@link FilterDefinition}s, containing filter parameters, not null
+   * @return map from each distinct FilterDefinition to its new filtered waveforms
+   */
+  default Map<FilterDefinition, Collection<Waveform>> filterBank(ChannelSegment channelSegment,
+      List<FilterDefinition> filterDefinitions) {
+
+    final Map<FilterDefinition, Collection<Waveform>> filtered = new LinkedHashMap<>();
+    filterDefinitions.forEach(fd -> filtered.computeIfAbsent(fd, f -> filter(channelSegment, f)));
+    return filtered;
+  }
 }
@@ -11,11 +11,14 @@ import gms.core.signalenhancement.waveformfiltering.osdgateway.client.HttpClient
 import gms.core.signalenhancement.waveformfiltering.osdgateway.client.OsdGatewayClient;
 import gms.core.signalenhancement.waveformfiltering.plugin.FilterControlPluginRegistry;
 import gms.core.signalenhancement.waveformfiltering.plugin.FilterPlugin;
+import gms.core.signalenhancement.waveformfiltering.util.ConfigurationLoader;
 import java.net.URL;
 import java.util.MissingResourceException;
 import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.ServiceLoader.Provider;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -46,6 +49,17 @@ public class Application {
    */
   private static final String claimCheckPath = "/claimCheck";
 
+  /**
+   * Property key for the number of threads {@link FilterControl} uses to execute filter plugins
+   */
+  private static final String FILTER_THREADS_KEY = "filter_threads";
+
+  /**
+   * Executes the filter plugins.  Created when the service starts and shut down when the service
+   * stops.
+   */
+  private static ExecutorService filterExecutor;
+
   public static void main(String[] args) {
     Runtime.getRuntime().addShutdownHook(new Thread(Application::stop));
     Application.start();
@@ -67,8 +81,12 @@ public class Application {
     configureServer(config);
     logger.info("Embedded server initialized.");
 
+    final int filterThreads = ConfigurationLoader.load(getUrlToResourceFile(propertiesFile))
+        .getInt(FILTER_THREADS_KEY, Runtime.getRuntime().availableProcessors());
+    filterExecutor = Executors.newFixedThreadPool(filterThreads);
+
     logger.info("Initializing waveform-filtering-control routes...");
-    configureRoutes(config);
+    configureRoutes(config, filterExecutor);
     logger.info("waveform-filtering-control routes initialized.");
 
     Spark.awaitInitialization();
@@ -76,10 +94,14 @@ public class Application {
   }
 
   /**
-   * Stops the Spark HTTP server
+   * Stops the Spark HTTP server and the filter plugin executor
    */
   private static void stop() {
     Spark.stop();
+
+    if (filterExecutor != null) {
+      filterExecutor.shutdown();
+    }
   }
 
   /**
@@ -137,9 +159,11 @@ public class Application {
   /**
    * Configures the waveform-filter-control HTTP routes
    */
-  private static void configureRoutes(HttpServiceConfiguration config) {
+  private static void configureRoutes(HttpServiceConfiguration config,
+      ExecutorService filterExecutor) {
     // Delegate calls to this route handler
-    FilterControlRouteHandler filterControlRouteHandler = getFilterControlRouteHandler();
+    FilterControlRouteHandler filterControlRouteHandler = getFilterControlRouteHandler(
+        filterExecutor);
 
     // Configure the streaming route handler
     Function<Request, StandardResponse> streamingClosure = r -> filterControlRouteHandler
@@ -198,20 +222,23 @@ public class Application {
   /**
    * Obtains a fully constructed instance of {@link FilterControlRouteHandler}
    *
+   * @param filterExecutor executor the FilterControl uses to execute filter plugins
    * @return FilterControlRouteHandler, not null
    */
-  private static FilterControlRouteHandler getFilterControlRouteHandler() {
-    return FilterControlRouteHandler.create(getFilterControl());
+  private static FilterControlRouteHandler getFilterControlRouteHandler(
+      ExecutorService filterExecutor) {
+    return FilterControlRouteHandler.create(getFilterControl(filterExecutor));
   }
 
   /**
    * Obtains a fully constructed instance of {@link FilterControl}
    *
+   * @param filterExecutor executor the FilterControl uses to execute filter plugins
    * @return FilterControl, not null
    */
-  private static FilterControl getFilterControl() {
+  private static FilterControl getFilterControl(ExecutorService filterExecutor) {
     FilterControl filterControl = FilterControl
-        .create(getFilterControlPluginRegistry(), getOsdGatewayClient());
+        .create(getFilterControlPluginRegistry(), getOsdGatewayClient(), filterExecutor);
     filterControl.initialize();
 
     return filterControl;
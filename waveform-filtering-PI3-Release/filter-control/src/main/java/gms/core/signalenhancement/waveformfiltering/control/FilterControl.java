@@ -18,14 +18,20 @@ import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjec
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -37,12 +43,14 @@ public class FilterControl {
 
   private final FilterControlPluginRegistry registry;
   private final OsdGatewayClient osdGatewayAccess;
+  private final ExecutorService executor;
   private FilterConfiguration configuration;
 
   private boolean initialized;
 
   /**
-   * Factory method for creating a FilterControl
+   * Factory method for creating a FilterControl which executes filter plugins on the {@link
+   * ForkJoinPool#commonPool()}
    *
    * @param registry plugin registry, not null
    * @param osdGatewayAccessLibrary osd gateway access library, not null
@@ -51,11 +59,29 @@ public class FilterControl {
   public static FilterControl create(FilterControlPluginRegistry registry,
       OsdGatewayClient osdGatewayAccessLibrary) {
 
+    return create(registry, osdGatewayAccessLibrary, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Factory method for creating a FilterControl which executes filter plugins on the provided
+   * executor.  Each plugin invocation on each {@link ChannelSegment} is an independent task.  The
+   * caller owns the executor and is responsible for shutting it down once the FilterControl is no
+   * longer used.
+   *
+   * @param registry plugin registry, not null
+   * @param osdGatewayAccessLibrary osd gateway access library, not null
+   * @param executor executes the plugin invocations, not null
+   * @return a new FilterControl object
+   */
+  public static FilterControl create(FilterControlPluginRegistry registry,
+      OsdGatewayClient osdGatewayAccessLibrary, ExecutorService executor) {
+
     Objects.requireNonNull(registry, "Error creating FilterControl: registry cannot be null");
     Objects.requireNonNull(osdGatewayAccessLibrary,
         "Error creating FilterControl: osdGatewayAccessLibrary cannot be null");
+    Objects.requireNonNull(executor, "Error creating FilterControl: executor cannot be null");
 
-    return new FilterControl(registry, osdGatewayAccessLibrary);
+    return new FilterControl(registry, osdGatewayAccessLibrary, executor);
   }
 
   /**
@@ -63,12 +89,14 @@ public class FilterControl {
    *
    * @param registry plugin registry, not null
    * @param osdGatewayAccessLibrary osd gateway access library, not null
+   * @param executor executes plugin invocations, not null
    */
   private FilterControl(FilterControlPluginRegistry registry,
-      OsdGatewayClient osdGatewayAccessLibrary) {
+      OsdGatewayClient osdGatewayAccessLibrary, ExecutorService executor) {
 
     this.registry = registry;
     this.osdGatewayAccess = osdGatewayAccessLibrary;
+    this.executor = executor;
     this.configuration = null;
     this.initialized = false;
   }
@@ -127,7 +155,8 @@ public class FilterControl {
 
     // get map of plugins for each define RegistrationInfo in the parameters
     Map<RegistrationInfo, Optional<FilterPlugin>> potentialPlugins = requestedPluginFilters.keySet()
-        .stream().collect(Collectors.toMap(Function.identity(), registry::lookup));
+        .stream().collect(Collectors.toMap(Function.identity(), registry::lookup, (a, b) -> a,
+            LinkedHashMap::new));
 
     // get list of missingPlugins and throw an error if there are any
     List<RegistrationInfo> missingPlugins = potentialPlugins.entrySet().stream()
@@ -146,14 +175,24 @@ public class FilterControl {
         ri -> creationInformationList.add(createCreationInformation(potentialPlugins.get(ri).get(),
             command.getProcessingContext())));
 
-    // for each channelSegment cs stream registrationInfo ri stream filterDefinition fd execute(plugin(ri),
-    // fd, cs, command.getInputToOutputChannelIds().get(cs.getProcessingChannelId())
+    // Process the ChannelSegments in a deterministic order so the output order does not depend
+    // on the loaded Set's iteration order or on task completion order
+    final List<ChannelSegment> orderedChannelSegments = channelSegments.stream()
+        .sorted(Comparator.comparing(ChannelSegment::getStartTime)
+            .thenComparing(ChannelSegment::getProcessingChannelId))
+        .collect(Collectors.toList());
+
+    // for each channelSegment cs stream registrationInfo ri create a task executing
+    // execute(plugin(ri), filterDefinitions(ri), cs, command.getInputToOutputChannelIds().get(cs.getProcessingChannelId())
+    // so each task filters cs with all of a plugin's filter definitions in one pass
+    final List<Supplier<List<ChannelSegment>>> tasks = new ArrayList<>();
+    orderedChannelSegments.forEach(cs -> potentialPlugins.keySet()
+        .forEach(ri -> tasks.add(() -> execute(potentialPlugins.get(ri).get(),
+            requestedPluginFilters.get(ri), cs,
+            command.getInputToOutputChannelIds().get(cs.getProcessingChannelId())))));
+
     // accumulate new channel segments in newChannelSegments list
-    List<ChannelSegment> newChannelSegments = new ArrayList<>();
-    channelSegments.forEach(cs -> potentialPlugins.keySet()
-        .forEach(ri -> requestedPluginFilters.get(ri)
-            .forEach(fd -> newChannelSegments.add(execute(potentialPlugins.get(ri).get(), fd, cs,
-                command.getInputToOutputChannelIds().get(cs.getProcessingChannelId()))))));
+    List<ChannelSegment> newChannelSegments = executeAll(tasks);
 
     // get list of new channelSegmentIds
     List<UUID> newChannelSegmentIds = newChannelSegments.stream().
@@ -203,11 +242,22 @@ public class FilterControl {
           registrationInfo.toString());
     }
 
-    // build new filtered channel segments from input segments
-    List<ChannelSegment> newChannelSegments = new ArrayList<>();
-    command.getInputChannelSegmentToOutputChannelIds().keySet()
-        .forEach(cs -> newChannelSegments.add(execute(filterPlugin.get(), filterDefinition, cs,
-            command.getInputChannelSegmentToOutputChannelIds().get(cs))));
+    // build new filtered channel segments from input segments.  The plugin continues its filter
+    // state across each processing channel's segments, so each processing channel is filtered in
+    // its own task with its segments in time order.
+    final Map<UUID, List<ChannelSegment>> segmentsByChannel = command
+        .getInputChannelSegmentToOutputChannelIds().keySet().stream()
+        .sorted(Comparator.comparing(ChannelSegment::getStartTime))
+        .collect(Collectors.groupingBy(ChannelSegment::getProcessingChannelId, LinkedHashMap::new,
+            Collectors.toList()));
+
+    final List<Supplier<List<ChannelSegment>>> tasks = new ArrayList<>();
+    segmentsByChannel.values().forEach(segments -> tasks.add(() -> segments.stream()
+        .map(cs -> execute(filterPlugin.get(), filterDefinition, cs,
+            command.getInputChannelSegmentToOutputChannelIds().get(cs)))
+        .collect(Collectors.toList())));
+
+    List<ChannelSegment> newChannelSegments = executeAll(tasks);
 
     // Store computed ChannelSegments and return the filtered list
     osdGatewayAccess.store(newChannelSegments,
@@ -222,9 +272,11 @@ public class FilterControl {
 
   /**
    * Creates a new filtered {@link ChannelSegment} from the input {@link ChannelSegment} using the
-   * supplied {@link FilterPlugin} and {@link FilterDefinition}. The new ChannelSegment is defined
-   * using the a new output channel id that is not the same as the channel id referenced by the
-   * input {@link ChannelSegment}.
+   * supplied {@link FilterPlugin} and {@link FilterDefinition}.  The plugin filters with {@link
+   * FilterPlugin#filterStreaming(ChannelSegment, FilterDefinition)} so it can continue the data
+   * previously filtered on the input ChannelSegment's processing channel. The new ChannelSegment is
+   * defined using the a new output channel id that is not the same as the channel id referenced by
+   * the input {@link ChannelSegment}.
    *
    * @param plugin The plugin filter algorithm.
    * @param filterDefinition The filter definition object.
@@ -235,20 +287,92 @@ public class FilterControl {
   private ChannelSegment execute(FilterPlugin plugin, FilterDefinition filterDefinition,
       ChannelSegment inputChannelSegment, UUID outputChannelId) {
 
-    Collection<Waveform> newWaveforms = plugin.filter(inputChannelSegment, filterDefinition);
+    return createChannelSegment(plugin, filterDefinition, inputChannelSegment, outputChannelId,
+        plugin.filterStreaming(inputChannelSegment, filterDefinition));
+  }
 
-    logger.info("Filtered ChannelSegment {} output {} waveforms", inputChannelSegment.getId(), newWaveforms.size());
+  /**
+   * Creates a new filtered {@link ChannelSegment} for each {@link FilterDefinition} from the input
+   * {@link ChannelSegment} using the supplied {@link FilterPlugin}.  The plugin applies all of the
+   * FilterDefinitions in a single {@link FilterPlugin#filterBank(ChannelSegment, List)} call so the
+   * input waveforms are only prepared once.  Each new ChannelSegment is defined using the new
+   * output channel id.
+   *
+   * @param plugin The plugin filter algorithm.
+   * @param filterDefinitions The filter definition objects.
+   * @param inputChannelSegment The input ChannelSegment supplying the waveforms to be filtered.
+   * @param outputChannelId The Channel id for the new ChannelSegments.
+   * @return The new ChannelSegments, one for each filter definition
+   */
+  private List<ChannelSegment> execute(FilterPlugin plugin,
+      List<FilterDefinition> filterDefinitions, ChannelSegment inputChannelSegment,
+      UUID outputChannelId) {
 
-    // The TreeSet seems to be an unnecessary performance hit. ChannelSegment waveforms should be a simple
-    // list. The caller can sort these, IF DESIRED, when necessary.
+    Map<FilterDefinition, Collection<Waveform>> newWaveforms = plugin
+        .filterBank(inputChannelSegment, filterDefinitions);
 
-    return ChannelSegment.create(outputChannelId,
+    return filterDefinitions.stream()
+        .map(fd -> createChannelSegment(plugin, fd, inputChannelSegment, outputChannelId,
+            newWaveforms.get(fd)))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Creates a new filtered {@link ChannelSegment} containing the waveforms produced by filtering
+   * the input {@link ChannelSegment} with the supplied {@link FilterPlugin} and {@link
+   * FilterDefinition}.
+   *
+   * @param plugin The plugin filter algorithm.
+   * @param filterDefinition The filter definition object.
+   * @param inputChannelSegment The input ChannelSegment supplying the waveforms to be filtered.
+   * @param outputChannelId The Channel id for the new ChannelSegment.
+   * @param newWaveforms The filtered waveforms.
+   * @return The new ChannelSegment
+   */
+  private ChannelSegment createChannelSegment(FilterPlugin plugin,
+      FilterDefinition filterDefinition, ChannelSegment inputChannelSegment, UUID outputChannelId,
+      Collection<Waveform> newWaveforms) {
+
+    logger.info("Filtered ChannelSegment {} output {} waveforms", inputChannelSegment.getId(), newWaveforms.size());
+
+    // Plugins filter the input waveforms in order, so their output is already ordered
+    return ChannelSegment.createFromOrdered(outputChannelId,
         inputChannelSegment.getName() + "/" + filterDefinition.getName(), ChannelSegmentType.FILTER,
         inputChannelSegment.getStartTime(), inputChannelSegment.getEndTime(),
-        new TreeSet<>(newWaveforms), new CreationInfo("FilterControl",
+        newWaveforms, new CreationInfo("FilterControl",
             new SoftwareComponentInfo(plugin.getName(), plugin.getVersion().toString())));
   }
 
+  /**
+   * Executes the tasks on this control's executor and gathers their outputs in task order.  The
+   * outputs are appended to a list as each task is joined so no ordering comparisons between the
+   * new {@link ChannelSegment}s are needed.  If any task fails, its exception is rethrown after
+   * waiting for the tasks preceding it.
+   *
+   * @param tasks tasks each creating new ChannelSegments, not null
+   * @return new ChannelSegments in task order, not null
+   */
+  private List<ChannelSegment> executeAll(List<Supplier<List<ChannelSegment>>> tasks) {
+    final List<CompletableFuture<List<ChannelSegment>>> futures = tasks.stream()
+        .map(t -> CompletableFuture.supplyAsync(t, executor))
+        .collect(Collectors.toList());
+
+    final List<ChannelSegment> channelSegments = new ArrayList<>();
+    for (CompletableFuture<List<ChannelSegment>> future : futures) {
+      try {
+        channelSegments.addAll(future.join());
+      } catch (CompletionException e) {
+        // Rethrow the task's exception so failures surface the same way as in serial execution
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw e;
+      }
+    }
+
+    return channelSegments;
+  }
+
   /**
    * Convenience method for creating {@link CreationInformation} from a {@link FilterPlugin} and
    * a {@link ProcessingContext}. If the processing context is an empty Optional then the analyst
@@ -1,6 +1,7 @@
 package gms.core.signalenhancement.waveformfiltering.control;
 
 import static gms.core.signalenhancement.waveformfiltering.TestFixtures.createWaveform;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -8,6 +9,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNotNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -24,7 +26,10 @@ import gms.core.signalenhancement.waveformfiltering.plugin.PluginConfiguration;
 import gms.shared.mechanisms.objectstoragedistribution.coi.emerging.processingcontrol.commonobjects.AnalystActionReference;
 import gms.shared.mechanisms.objectstoragedistribution.coi.emerging.processingcontrol.commonobjects.ProcessingContext;
 import gms.shared.mechanisms.objectstoragedistribution.coi.emerging.processingcontrol.commonobjects.StorageVisibility;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterCausality;
 import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterDefinition;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterPassBandType;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterSource;
 import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.FilterType;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
@@ -34,11 +39,17 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -83,6 +94,13 @@ public class FilterControlTests {
     FilterControl.create(new FilterControlPluginRegistry(), null);
   }
 
+  @Test
+  public void testCreateNullExecutorExpectNullPointerException() {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("Error creating FilterControl: executor cannot be null");
+    FilterControl.create(new FilterControlPluginRegistry(), mock(OsdGatewayClient.class), null);
+  }
+
   @Test
   public void testCreate() {
     assertNotNull(
@@ -244,10 +262,12 @@ public class FilterControlTests {
 
     given(mockFilterPlugin.getName()).willReturn("mockFilter");
     given(mockFilterPlugin.getVersion()).willReturn(PluginVersion.from(1, 0, 0));
-    given(mockFilterPlugin.filter(channelSegment1, TestFixtures.getFilterDefinition()))
-        .willReturn(List.of(waveform1, waveform2));
-    given(mockFilterPlugin.filter(channelSegment2, TestFixtures.getFilterDefinition()))
-        .willReturn(List.of(waveform3, waveform4));
+    given(mockFilterPlugin
+        .filterBank(channelSegment1, List.of(TestFixtures.getFilterDefinition())))
+        .willReturn(Map.of(TestFixtures.getFilterDefinition(), List.of(waveform1, waveform2)));
+    given(mockFilterPlugin
+        .filterBank(channelSegment2, List.of(TestFixtures.getFilterDefinition())))
+        .willReturn(Map.of(TestFixtures.getFilterDefinition(), List.of(waveform3, waveform4)));
 
     // Execute claim check command
     filterControl.initialize();
@@ -267,6 +287,134 @@ public class FilterControlTests {
         newChannelSegmentChannelIds.get(1)).containsAll(List.of(outUuid1, outUuid2)));
   }
 
+  @Test
+  public void testExecuteClaimCheckFiltersAllDefinitionsInOneCall() {
+    final UUID outUuid = UUID.randomUUID();
+    final UUID processingChannelStep = UUID.randomUUID();
+
+    final Instant start = Instant.EPOCH;
+    final Instant end = start.plusSeconds(100);
+
+    final Waveform waveform1 = createWaveform(start, end, 40.0);
+    final Waveform waveform2 = createWaveform(end, end.plusSeconds(100), 40.0);
+    final ChannelSegment channelSegment = TestFixtures
+        .channelSegmentFromWaveforms(List.of(waveform1));
+
+    final FilterDefinition filterDefinition1 = TestFixtures.getFilterDefinition();
+    final FilterDefinition filterDefinition2 = FilterDefinition
+        .createFir("second filter", "filter description", FilterType.FIR_HAMMING,
+            FilterPassBandType.LOW_PASS, 0.0, 5.0, 2, FilterSource.USER, FilterCausality.CAUSAL,
+            false, 40.0, 1.0, new double[]{0.5, 0.5}, 0.0);
+    final List<FilterDefinition> filterDefinitions = List.of(filterDefinition1, filterDefinition2);
+
+    final RegistrationInfo registrationInfo = RegistrationInfo.from("mockFilter",
+        PluginVersion.from(1, 0, 0));
+
+    given(mockOsdGatewayClient.loadChannelSegments(Set.of(channelSegment.getProcessingChannelId()),
+        start, end)).willReturn(Set.of(channelSegment));
+    given(mockOsdGatewayClient.loadConfiguration()).willReturn(mockFilterConfiguration);
+    given(mockFilterConfiguration.createParameters(processingChannelStep))
+        .willReturn(Optional.of(mockFilterParameters));
+    given(mockFilterParameters.getInfoListMap())
+        .willReturn(Map.of(registrationInfo, filterDefinitions));
+    given(mockFilterControlPluginRegistry.lookup(registrationInfo))
+        .willReturn(Optional.of(mockFilterPlugin));
+
+    given(mockFilterPlugin.getName()).willReturn("mockFilter");
+    given(mockFilterPlugin.getVersion()).willReturn(PluginVersion.from(1, 0, 0));
+    given(mockFilterPlugin.filterBank(channelSegment, filterDefinitions)).willReturn(
+        Map.of(filterDefinition1, List.of(waveform1), filterDefinition2, List.of(waveform2)));
+
+    filterControl.initialize();
+    List<UUID> newChannelSegmentChannelIds = filterControl.execute(ExecuteClaimCheckCommand
+        .create(Map.of(channelSegment.getProcessingChannelId(), outUuid), processingChannelStep,
+            start, end, TestFixtures.getProcessingContext()));
+
+    assertEquals(List.of(outUuid, outUuid), newChannelSegmentChannelIds);
+    verify(mockFilterPlugin, times(1)).filterBank(channelSegment, filterDefinitions);
+    verify(mockFilterPlugin, never()).filter(any(), any());
+
+    ArgumentCaptor<List<ChannelSegment>> stored = ArgumentCaptor.forClass(List.class);
+    verify(mockOsdGatewayClient, times(1)).store(stored.capture(), isNotNull(), any());
+    assertEquals(List.of("ChannelName/" + filterDefinition1.getName(),
+        "ChannelName/" + filterDefinition2.getName()),
+        stored.getValue().stream().map(ChannelSegment::getName).collect(Collectors.toList()));
+    assertEquals(waveform1, stored.getValue().get(0).getWaveforms().first());
+    assertEquals(waveform2, stored.getValue().get(1).getWaveforms().first());
+  }
+
+  @Test
+  public void testExecuteClaimCheckFiltersChannelSegmentsConcurrently() {
+    final UUID outUuid1 = UUID.randomUUID();
+    final UUID outUuid2 = UUID.randomUUID();
+    final UUID processingChannelStep = UUID.randomUUID();
+
+    final Instant start = Instant.EPOCH;
+    final Instant end = start.plusSeconds(200);
+
+    final Waveform waveform1 = createWaveform(start, start.plusSeconds(100), 40.0);
+    final Waveform waveform2 = createWaveform(start.plusSeconds(100), end, 40.0);
+    final ChannelSegment channelSegment1 = TestFixtures
+        .channelSegmentFromWaveforms(List.of(waveform1));
+    final ChannelSegment channelSegment2 = TestFixtures
+        .channelSegmentFromWaveforms(List.of(waveform2));
+
+    final Map<UUID, UUID> inToOutChannelUuids = Map.of(
+        channelSegment1.getProcessingChannelId(), outUuid1,
+        channelSegment2.getProcessingChannelId(), outUuid2);
+
+    final FilterDefinition filterDefinition = TestFixtures.getFilterDefinition();
+    final RegistrationInfo registrationInfo = RegistrationInfo.from("mockFilter",
+        PluginVersion.from(1, 0, 0));
+
+    given(mockOsdGatewayClient.loadChannelSegments(inToOutChannelUuids.keySet(), start, end))
+        .willReturn(Set.of(channelSegment1, channelSegment2));
+    given(mockOsdGatewayClient.loadConfiguration()).willReturn(mockFilterConfiguration);
+    given(mockFilterConfiguration.createParameters(processingChannelStep))
+        .willReturn(Optional.of(mockFilterParameters));
+    given(mockFilterParameters.getInfoListMap())
+        .willReturn(Map.of(registrationInfo, List.of(filterDefinition)));
+    given(mockFilterControlPluginRegistry.lookup(registrationInfo))
+        .willReturn(Optional.of(mockFilterPlugin));
+
+    given(mockFilterPlugin.getName()).willReturn("mockFilter");
+    given(mockFilterPlugin.getVersion()).willReturn(PluginVersion.from(1, 0, 0));
+
+    // Each invocation waits for the other to start, so the execution only completes when both
+    // ChannelSegments are filtered at the same time
+    final CountDownLatch bothStarted = new CountDownLatch(2);
+    given(mockFilterPlugin.filterBank(any(), eq(List.of(filterDefinition)))).willAnswer(i -> {
+      bothStarted.countDown();
+      if (!bothStarted.await(10, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("ChannelSegments were not filtered concurrently");
+      }
+
+      final ChannelSegment channelSegment = i.getArgument(0);
+      return Map.of(filterDefinition, List.of(channelSegment.getWaveforms().first()));
+    });
+
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    final List<UUID> newChannelSegmentChannelIds;
+    try {
+      final FilterControl parallelFilterControl = FilterControl
+          .create(mockFilterControlPluginRegistry, mockOsdGatewayClient, executor);
+      parallelFilterControl.initialize();
+      newChannelSegmentChannelIds = parallelFilterControl.execute(ExecuteClaimCheckCommand
+          .create(inToOutChannelUuids, processingChannelStep, start, end,
+              TestFixtures.getProcessingContext()));
+    } finally {
+      executor.shutdown();
+    }
+
+    // New ChannelSegments are ordered by the start time of the filtered ChannelSegments
+    assertEquals(List.of(outUuid1, outUuid2), newChannelSegmentChannelIds);
+
+    ArgumentCaptor<List<ChannelSegment>> stored = ArgumentCaptor.forClass(List.class);
+    verify(mockOsdGatewayClient, times(1)).store(stored.capture(), isNotNull(), any());
+    assertEquals(waveform1, stored.getValue().get(0).getWaveforms().first());
+    assertEquals(waveform2, stored.getValue().get(1).getWaveforms().first());
+  }
+
   @Test
   public void testExecuteStreamingNullStreamingExpectNullPointerException() {
     filterControl.initialize();
@@ -354,9 +502,9 @@ public class FilterControlTests {
 
     given(mockFilterPlugin.getName()).willReturn("mockFilter");
     given(mockFilterPlugin.getVersion()).willReturn(PluginVersion.from(1, 0, 0));
-    given(mockFilterPlugin.filter(channelSegment1,
+    given(mockFilterPlugin.filterStreaming(channelSegment1,
         TestFixtures.getFilterDefinition())).willReturn(List.of(waveform1, waveform2));
-    given(mockFilterPlugin.filter(channelSegment2,
+    given(mockFilterPlugin.filterStreaming(channelSegment2,
         TestFixtures.getFilterDefinition())).willReturn(List.of(waveform3, waveform4));
 
     //set up plugins
@@ -381,6 +529,7 @@ public class FilterControlTests {
         newChannelSegments.get(1).getProcessingChannelId())
         .containsAll(List.of(outUuid1, outUuid2)));
     verify(mockFilterConfiguration).createStreamingFilterPluginParameters();
+    verify(mockFilterPlugin, never()).filter(any(), any());
 
     verify(mockOsdGatewayClient, times(1))
         .store(isNotNull(), isNotNull(), eq(context.getStorageVisibility()));
@@ -6,13 +6,43 @@ import java.util.UUID;
 
 public class WaveformQcConfiguration {
 
+  private final boolean fusedSignalQc;
+
+  /**
+   * Creates a {@link WaveformQcConfiguration} running the gap, repeated amplitude, and 3pt spike
+   * checks with their individual plugins
+   */
   public WaveformQcConfiguration() {
+    this(false);
+  }
+
+  private WaveformQcConfiguration(boolean fusedSignalQc) {
+    this.fusedSignalQc = fusedSignalQc;
+  }
+
+  /**
+   * Obtains a {@link WaveformQcConfiguration} running the gap, repeated amplitude, and 3pt spike
+   * checks with the single waveformSignalQcPlugin, which finds all three in one pass over each
+   * ChannelSegment
+   *
+   * @return WaveformQcConfiguration, not null
+   */
+  public static WaveformQcConfiguration withFusedSignalQc() {
+    return new WaveformQcConfiguration(true);
   }
 
   public Optional<WaveformQcParameters> createParameters(UUID processingChannelId) {
     RegistrationInfo channelSohRegistrationInfo = RegistrationInfo
         .from("channelSohQcPlugin", PluginVersion.from(1, 0, 0));
 
+    if (fusedSignalQc) {
+      RegistrationInfo waveformSignalQcPlugin = RegistrationInfo
+          .from("waveformSignalQcPlugin", PluginVersion.from(1, 0, 0));
+
+      return Optional.of(WaveformQcParameters.create(processingChannelId,
+          List.of(channelSohRegistrationInfo, waveformSignalQcPlugin)));
+    }
+
     RegistrationInfo waveformGapQcPlugin = RegistrationInfo
         .from("waveformGapQcPlugin", PluginVersion.from(1, 0, 0));
 
@@ -16,6 +16,8 @@ import gms.core.waveformqc.waveformqccontrol.util.Path;
 import gms.core.waveformqc.waveformqccontrol.util.Path.Web;
 import java.util.ServiceLoader;
 import java.util.ServiceLoader.Provider;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import spark.Spark;
@@ -30,6 +32,12 @@ public class Application {
 
   public static WaveformQcControl control;
 
+  /**
+   * Executes the waveform qc plugins.  Created when the service starts and shut down when the
+   * service stops.
+   */
+  private static ExecutorService qcExecutor;
+
   private Application() {
   }
 
@@ -52,7 +60,7 @@ public class Application {
     logger.info("Configuration generated");
 
     logger.info("Initializing WaveformQcControl...");
-    initializeWaveformQcControl(gatewayClientConfiguration);
+    initializeWaveformQcControl(gatewayClientConfiguration, serviceConfiguration.getQcThreads());
     logger.info("WaveformQcControl initialized");
 
     logger.info("Configuring service...");
@@ -65,9 +73,14 @@ public class Application {
 
   public static void stop() {
     Spark.stop();
+
+    if (qcExecutor != null) {
+      qcExecutor.shutdown();
+    }
   }
 
-  private static void initializeWaveformQcControl(OsdGatewayClientConfiguration config) {
+  private static void initializeWaveformQcControl(OsdGatewayClientConfiguration config,
+      int qcThreads) {
     Unirest.setObjectMapper(ObjectSerialization.getClientObjectMapper());
     WaveformQcPluginRegistry registry = new WaveformQcPluginRegistry();
 
@@ -79,10 +92,14 @@ public class Application {
         .forEach(registry::register);
 
     logger.info("Configuring OSD Gateway Client");
+    logger.info("Running signal QC checks in {}",
+        config.isFusedSignalQc() ? "the waveformSignalQcPlugin" : "their individual plugins");
     OsdGatewayClient gatewayClient = new OsdGatewayClient(config.getHost(),
-        config.getPort(), config.getBaseUri());
+        config.getPort(), config.getBaseUri(), config.isFusedSignalQc());
 
-    control = new WaveformQcControl(registry, gatewayClient);
+    logger.info("Executing plugins on {} threads", qcThreads);
+    qcExecutor = Executors.newFixedThreadPool(qcThreads);
+    control = new WaveformQcControl(registry, gatewayClient, qcExecutor);
     control.initialize();
   }
 
@@ -37,4 +37,10 @@ public class ConfigurationValidator {
       throw new ValidationException("Idle Timeout Millis must be greater than 0");
     }
   }
+
+  public static void validateQcThreads(int qcThreads) {
+    if (qcThreads < 1) {
+      throw new ValidationException("QC Threads must be greater than 0");
+    }
+  }
 }
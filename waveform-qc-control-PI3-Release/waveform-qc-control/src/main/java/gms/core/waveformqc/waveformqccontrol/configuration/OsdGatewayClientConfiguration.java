@@ -1,5 +1,6 @@
 package gms.core.waveformqc.waveformqccontrol.configuration;
 
+import com.netflix.config.DynamicBooleanProperty;
 import com.netflix.config.DynamicIntProperty;
 import com.netflix.config.DynamicStringProperty;
 import com.netflix.config.validation.ValidationException;
@@ -13,12 +14,15 @@ public class OsdGatewayClientConfiguration {
   private final DynamicStringProperty host;
   private final DynamicIntProperty port;
   private final DynamicStringProperty baseUri;
+  private final DynamicBooleanProperty fusedSignalQc;
 
   private OsdGatewayClientConfiguration(DynamicStringProperty host,
-      DynamicIntProperty port, DynamicStringProperty baseUri) {
+      DynamicIntProperty port, DynamicStringProperty baseUri,
+      DynamicBooleanProperty fusedSignalQc) {
     this.host = host;
     this.port = port;
     this.baseUri = baseUri;
+    this.fusedSignalQc = fusedSignalQc;
   }
 
   /**
@@ -44,7 +48,10 @@ public class OsdGatewayClientConfiguration {
     DynamicStringProperty baseUri = new DynamicStringProperty("gateway_baseUri",
         Defaults.BASE_URI);
 
-    return new OsdGatewayClientConfiguration(host, port, baseUri);
+    DynamicBooleanProperty fusedSignalQc = new DynamicBooleanProperty("gateway_fusedSignalQc",
+        Defaults.FUSED_SIGNAL_QC);
+
+    return new OsdGatewayClientConfiguration(host, port, baseUri, fusedSignalQc);
   }
 
   public String getHost() {
@@ -59,11 +66,22 @@ public class OsdGatewayClientConfiguration {
     return baseUri.get();
   }
 
+  /**
+   * Determines whether the gap, repeated amplitude, and 3pt spike checks run in the single
+   * waveformSignalQcPlugin instead of their individual plugins
+   *
+   * @return true if the waveformSignalQcPlugin runs the signal checks
+   */
+  public boolean isFusedSignalQc() {
+    return fusedSignalQc.get();
+  }
+
   private static class Defaults {
 
     private static final String HOST = "waveform-qc-osd-gateway";
     private static final int PORT = 8081;
     private static final String BASE_URI = "/waveform-qc/waveform-qc-control/osd-gateway";
+    private static final boolean FUSED_SIGNAL_QC = false;
   }
 }
 
@@ -14,15 +14,17 @@ public class ServiceConfiguration {
   private final DynamicIntProperty minThreads;
   private final DynamicIntProperty maxThreads;
   private final DynamicIntProperty idleTimeOutMillis;
+  private final DynamicIntProperty qcThreads;
 
   private ServiceConfiguration(DynamicStringProperty baseUri, DynamicIntProperty port,
       DynamicIntProperty minThreads, DynamicIntProperty maxThreads,
-      DynamicIntProperty idleTimeOutMillis) {
+      DynamicIntProperty idleTimeOutMillis, DynamicIntProperty qcThreads) {
     this.baseUri = baseUri;
     this.port = port;
     this.minThreads = minThreads;
     this.maxThreads = maxThreads;
     this.idleTimeOutMillis = idleTimeOutMillis;
+    this.qcThreads = qcThreads;
   }
 
   public static ServiceConfiguration create() {
@@ -64,7 +66,16 @@ public class ServiceConfiguration {
       }
     };
 
-    return new ServiceConfiguration(baseUri, port, minThreads, maxThreads, idleTimeoutMillis);
+    DynamicIntProperty qcThreads = new DynamicIntProperty("service_qcThreads",
+        Defaults.QC_THREADS) {
+      @Override
+      protected void validate(String newValue) {
+        ConfigurationValidator.validateQcThreads(Integer.parseInt(newValue));
+      }
+    };
+
+    return new ServiceConfiguration(baseUri, port, minThreads, maxThreads, idleTimeoutMillis,
+        qcThreads);
   }
 
   public String getBaseUri() {
@@ -87,12 +98,17 @@ public class ServiceConfiguration {
     return idleTimeOutMillis.get();
   }
 
+  public int getQcThreads() {
+    return qcThreads.get();
+  }
+
   private static class Defaults {
 
     private static final int PORT = 8080;
     private static final int MIN_THREADS = 1;
     private static final int MAX_THREADS = 5;
     private static final int IDLE_TIMEOUT_MILLIS = 30000;
+    private static final int QC_THREADS = Runtime.getRuntime().availableProcessors();
     private static final String BASE_URI = "/waveform-qc/waveform-qc-control";
   }
 }
@@ -16,14 +16,20 @@ import gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.c
 import gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.SoftwareComponentInfo;
 import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.QcMask;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.commons.lang3.tuple.Pair;
@@ -40,10 +46,12 @@ public class WaveformQcControl {
 
   private final WaveformQcPluginRegistry registry;
   private final OsdGatewayClient osdGatewayAccess;
+  private final ExecutorService executor;
   private WaveformQcConfiguration configuration;
 
   /**
    * Constructs a WaveformQcControl with provided plugin registry and OSD gateway access library.
+   * Executes plugins on the {@link ForkJoinPool#commonPool()}.
    *
    * @param registry plugin registry, not null
    * @param osdGatewayAccessLibrary osd gateway access library, not null
@@ -51,13 +59,31 @@ public class WaveformQcControl {
   public WaveformQcControl(WaveformQcPluginRegistry registry,
       OsdGatewayClient osdGatewayAccessLibrary) {
 
+    this(registry, osdGatewayAccessLibrary, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs a WaveformQcControl with provided plugin registry and OSD gateway access library.
+   * Executes plugins on the provided executor.  Each plugin invocation on each processing channel
+   * is an independent task.  The caller owns the executor and is responsible for shutting it down
+   * once the WaveformQcControl is no longer used.
+   *
+   * @param registry plugin registry, not null
+   * @param osdGatewayAccessLibrary osd gateway access library, not null
+   * @param executor executes the plugin invocations, not null
+   */
+  public WaveformQcControl(WaveformQcPluginRegistry registry,
+      OsdGatewayClient osdGatewayAccessLibrary, ExecutorService executor) {
+
     Objects.requireNonNull(registry,
         "WaveformQcControl requires a non-null WaveformQcPluginRegistry");
     Objects.requireNonNull(osdGatewayAccessLibrary,
         "WaveformQcControl requires a non-null OsdGatewayClient");
+    Objects.requireNonNull(executor, "WaveformQcControl requires a non-null ExecutorService");
 
     this.registry = registry;
     this.osdGatewayAccess = osdGatewayAccessLibrary;
+    this.executor = executor;
     this.configuration = null;
   }
 
@@ -92,19 +118,31 @@ public class WaveformQcControl {
 
     logger.info("Loaded Invoke Input Data: {}", invokeInputData);
 
-    Set<UUID> processingChannelIds = command.getProcessingChannelIds();
     ProcessingContext processingContext = command.getProcessingContext();
 
-    List<Pair<Stream<QcMask>, CreationInformation>> qcMasksWithProvenance = processingChannelIds
-        .stream()
-        .flatMap(pc -> execute(pc, invokeInputData, processingContext))
+    // Process the channels in a deterministic order so the output order does not depend on the
+    // command's Set iteration order or on task completion order
+    List<UUID> processingChannelIds = command.getProcessingChannelIds().stream()
+        .sorted()
+        .collect(Collectors.toList());
+
+    // Plugins and input data are resolved for every channel before any plugin executes so
+    // configuration errors still fail the whole execution
+    List<Supplier<Optional<Pair<List<QcMask>, List<CreationInformation>>>>> tasks =
+        processingChannelIds.stream()
+        .flatMap(pc -> createTasks(pc, invokeInputData, processingContext))
         .collect(Collectors.toList());
 
+    List<Pair<List<QcMask>, List<CreationInformation>>> qcMasksWithProvenance = executeAll(tasks);
+
     List<QcMask> qcMasks = qcMasksWithProvenance.stream()
-        .flatMap(Pair::getKey).collect(Collectors.toList());
+        .map(Pair::getKey)
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
 
     List<CreationInformation> creationInfos = qcMasksWithProvenance.stream()
         .map(Pair::getValue)
+        .flatMap(List::stream)
         .collect(Collectors.toList());
 
     StorageVisibility storageVisibility = command.getProcessingContext().getStorageVisibility();
@@ -115,14 +153,16 @@ public class WaveformQcControl {
   }
 
   /**
-   * Convenience method for executing Waveform QC on a single ProcessingChannel Id.
+   * Convenience method for creating the Waveform QC tasks for a single ProcessingChannel Id.  Each
+   * task executes one plugin on the ProcessingChannel's input data.
    *
    * @param processingChannelId Processing Channel Id to perform Waveform QC on
    * @param invokeInputData Data map holding necessary execution information by Processing Channel
    * Id.
-   * @return A Stream containing all masks created by all plugins for this ProcessingChannel Id.
+   * @return A Stream containing a task for each plugin configured for this ProcessingChannel Id,
+   * in configured plugin order.
    */
-  private Stream<Pair<Stream<QcMask>, CreationInformation>> execute(
+  private Stream<Supplier<Optional<Pair<List<QcMask>, List<CreationInformation>>>>> createTasks(
       UUID processingChannelId,
       InvokeInputDataMap invokeInputData,
       ProcessingContext processingContext) {
@@ -135,7 +175,8 @@ public class WaveformQcControl {
     List<RegistrationInfo> registrationInfos = qcParameters.getWaveformQcPlugins();
 
     Map<RegistrationInfo, Optional<WaveformQcPlugin>> potentialPlugins = registrationInfos.stream()
-        .collect(Collectors.toMap(Function.identity(), registry::lookup));
+        .collect(Collectors.toMap(Function.identity(), registry::lookup, (a, b) -> a,
+            LinkedHashMap::new));
 
     List<RegistrationInfo> missingPlugins = potentialPlugins.entrySet().stream()
         .filter(e -> !e.getValue().isPresent())
@@ -158,47 +199,104 @@ public class WaveformQcControl {
 
     return potentialPlugins.values().stream()
         .map(Optional::get)
-        .map(p -> execute(p, channelSegments, sohStatuses, existingQcMasks, processingContext));
+        .map(p -> () -> executeIsolated(p, processingChannelId, channelSegments, sohStatuses,
+            existingQcMasks, processingContext));
   }
 
   /**
-   * Base execute method that creates {@link CreationInformation} based on the plugin and processing
-   * context, then invokes the plugin to create {@link QcMask}s given the input data and the
-   * creation information.
+   * Executes a plugin for one processing channel, isolating the failure of that plugin invocation
+   * from the other plugins and processing channels.  A failed invocation is logged and contributes
+   * no {@link QcMask}s or {@link CreationInformation}.
+   *
+   * @return the invocation's QcMasks and CreationInformation, or empty if the plugin failed
+   */
+  private static Optional<Pair<List<QcMask>, List<CreationInformation>>> executeIsolated(
+      WaveformQcPlugin plugin, UUID processingChannelId, Set<ChannelSegment> channelSegments,
+      Set<WaveformQcChannelSohStatus> sohStatuses, Set<QcMask> existingQcMasks,
+      ProcessingContext processingContext) {
+
+    try {
+      Pair<Stream<QcMask>, List<CreationInformation>> result = execute(plugin, channelSegments,
+          sohStatuses, existingQcMasks, processingContext);
+
+      // Plugins may return lazy streams, so collect the masks while still on the worker thread
+      return Optional.of(
+          Pair.of(result.getKey().collect(Collectors.toList()), result.getValue()));
+    } catch (RuntimeException e) {
+      logger.error("Plugin " + plugin.getName() + " failed for processing channel "
+          + processingChannelId + ", no QcMasks created", e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Executes the tasks on this control's executor and gathers the outputs of the successful tasks
+   * in task order.
+   *
+   * @param tasks tasks each executing one plugin on one processing channel, not null
+   * @return outputs of the successful tasks in task order, not null
+   */
+  private List<Pair<List<QcMask>, List<CreationInformation>>> executeAll(
+      List<Supplier<Optional<Pair<List<QcMask>, List<CreationInformation>>>>> tasks) {
+
+    final List<CompletableFuture<Optional<Pair<List<QcMask>, List<CreationInformation>>>>> futures =
+        tasks.stream()
+            .map(t -> CompletableFuture.supplyAsync(t, executor))
+            .collect(Collectors.toList());
+
+    final List<Pair<List<QcMask>, List<CreationInformation>>> outputs = new ArrayList<>();
+    futures.forEach(f -> f.join().ifPresent(outputs::add));
+
+    return outputs;
+  }
+
+  /**
+   * Base execute method that creates {@link CreationInformation} for each of the plugin's checks
+   * based on the check and processing context, then invokes the plugin to create {@link QcMask}s
+   * given the input data and the creation information.
    *
    * @param plugin Plugin used to create QcMasks.
    * @param channelSegments Segments of Channel data provided as input to the plugin.
    * @param sohStatuses State of health status information provided as input to the plugin.
    * @param existingQcMasks Previously stored qc masks provided as iinput to the plugin.
    * @param processingContext Context in which we are running qc processing.
-   * @return A Stream of all created QcMasks, and the CreationInformation provenance for each new
-   * mask version created.
+   * @return A Stream of all created QcMasks, and the CreationInformation provenance for each of
+   * the plugin's checks.
    */
-  private static Pair<Stream<QcMask>, CreationInformation> execute(WaveformQcPlugin plugin,
+  private static Pair<Stream<QcMask>, List<CreationInformation>> execute(WaveformQcPlugin plugin,
       Set<ChannelSegment> channelSegments, Set<WaveformQcChannelSohStatus> sohStatuses,
       Set<QcMask> existingQcMasks, ProcessingContext processingContext) {
     logger.info("Running plugin:{}...", plugin);
 
-    CreationInformation creationInformation = createCreationInformation(plugin, processingContext);
+    Map<RegistrationInfo, CreationInformation> creationInformation = plugin
+        .getCheckRegistrationInfos().stream()
+        .collect(Collectors.toMap(Function.identity(),
+            ri -> createCreationInformation(ri, processingContext), (a, b) -> a,
+            LinkedHashMap::new));
+
+    Map<RegistrationInfo, UUID> creationInfoIds = creationInformation.entrySet().stream()
+        .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getId()));
+
     Stream<QcMask> qcMasks = plugin.generateQcMasks(channelSegments, sohStatuses, existingQcMasks,
-        creationInformation.getId());
+        creationInfoIds);
 
-    return Pair.of(qcMasks, creationInformation);
+    return Pair.of(qcMasks, new ArrayList<>(creationInformation.values()));
   }
 
   /**
-   * Convenience method for creating {@link CreationInformation} from a {@link WaveformQcPlugin} and
-   * a {@link ProcessingContext}
+   * Convenience method for creating {@link CreationInformation} from the {@link RegistrationInfo}
+   * of a {@link WaveformQcPlugin} check and a {@link ProcessingContext}
    *
-   * @param plugin Plugin used to create the QcMask.
+   * @param registrationInfo Name and version of the check used to create the QcMask.
    * @param processingContext Context in which we are processing the data.
    * @return CreationInformation representing how an object was created.
    */
-  private static CreationInformation createCreationInformation(WaveformQcPlugin plugin,
+  private static CreationInformation createCreationInformation(RegistrationInfo registrationInfo,
       ProcessingContext processingContext) {
     return CreationInformation
         .create(processingContext.getAnalystActionReference(),
             processingContext.getProcessingStepReference(),
-            new SoftwareComponentInfo(plugin.getName(), plugin.getVersion().toString()));
+            new SoftwareComponentInfo(registrationInfo.getName(),
+                registrationInfo.getVersion().toString()));
   }
 }
@@ -38,16 +38,29 @@ public class OsdGatewayClient {
 
   private String url;
 
+  private final boolean fusedSignalQc;
+
   /**
    * Construct the gateway client that is used to make service calls to the
    * OSD Gateway service
    */
   public OsdGatewayClient(String host, int port, String baseUri) {
+    this(host, port, baseUri, false);
+  }
+
+  /**
+   * Construct the gateway client that is used to make service calls to the OSD Gateway service.
+   * The loaded {@link WaveformQcConfiguration} runs the gap, repeated amplitude, and 3pt spike
+   * checks in the single waveformSignalQcPlugin when fusedSignalQc is true.
+   */
+  public OsdGatewayClient(String host, int port, String baseUri, boolean fusedSignalQc) {
     this.url = "http://" + host + ":" + Integer.toString(port) + baseUri;
+    this.fusedSignalQc = fusedSignalQc;
   }
 
   public WaveformQcConfiguration loadConfiguration() {
-    return new WaveformQcConfiguration();
+    return fusedSignalQc ? WaveformQcConfiguration.withFusedSignalQc()
+        : new WaveformQcConfiguration();
   }
 
   public PluginConfiguration loadPluginConfiguration(RegistrationInfo registrationInfo) {
@@ -71,6 +84,10 @@ public class OsdGatewayClient {
         pluginConfigInputStream = getClass().getClassLoader().getResourceAsStream(
             "gms/core/waveformqc/waveformqccontrol/osdgateway/client/waveform_spike_3pt_qc_plugin_config.yaml");
         break;
+      case "waveformSignalQcPlugin":
+        pluginConfigInputStream = getClass().getClassLoader().getResourceAsStream(
+            "gms/core/waveformqc/waveformqccontrol/osdgateway/client/waveform_signal_qc_plugin_config.yaml");
+        break;
       default:
         throw new IllegalArgumentException(
             "Can't find plugin configuration for " + registrationInfo);
@@ -1,6 +1,7 @@
 package gms.core.waveformqc.waveformqccontrol.config;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 
 import gms.core.waveformqc.waveformqccontrol.configuration.ServiceConfiguration;
@@ -37,6 +38,7 @@ public class ServiceConfigurationComponentTests {
     assertEquals(2, config.getMinThreads());
     assertEquals(10, config.getMaxThreads());
     assertEquals(10000, config.getIdleTimeOutMillis());
+    assertEquals(4, config.getQcThreads());
   }
 
   @Test
@@ -47,6 +49,7 @@ public class ServiceConfigurationComponentTests {
     assertEquals("localhost", config.getHost());
     assertEquals(8081, config.getPort());
     assertEquals("/waveform-qc/waveform-qc-control/osd-gateway", config.getBaseUri());
+    assertFalse(config.isFusedSignalQc());
   }
 
 }
@@ -59,5 +59,13 @@ public class ServiceConfigurationValidatorTests {
     ConfigurationValidator.validateMaxThreads(10, 11);
   }
 
+  @Test
+  public void testValidateQcThreadsTooLowValue() {
+    exception.expect(ValidationException.class);
+    exception.expectMessage("QC Threads must be greater than 0");
+
+    ConfigurationValidator.validateQcThreads(0);
+  }
+
 
 }
@@ -3,6 +3,8 @@ package gms.core.waveformqc.waveformqccontrol.control;
 import static gms.core.waveformqc.waveformqccontrol.util.TestUtility.buildCommand;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
@@ -20,22 +22,27 @@ import gms.core.waveformqc.waveformqccontrol.osdgateway.client.OsdGatewayClient;
 import gms.core.waveformqc.waveformqccontrol.plugin.WaveformQcPlugin;
 import gms.core.waveformqc.waveformqccontrol.plugin.WaveformQcPluginRegistry;
 import gms.core.waveformqc.waveformqccontrol.util.TestUtility;
+import gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.CreationInformation;
 import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.QcMask;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -228,6 +235,142 @@ public class WaveformQcControlTests {
         .count());
   }
 
+  @Test
+  public void testExecuteOrdersQcMasksByProcessingChannelThenPlugin() {
+    //load mock configuration
+    given(gatewayClient.loadConfiguration())
+        .willReturn(waveformQcConfiguration);
+    waveformQcControl.initialize();
+
+    //set up processing channels so their order is known
+    UUID processingChannelId1 = new UUID(0L, 1L);
+    UUID processingChannelId2 = new UUID(0L, 2L);
+    Set<UUID> processingChannelIds = Set.of(processingChannelId2, processingChannelId1);
+
+    RegistrationInfo registrationInfo1 = RegistrationInfo.from("mock",
+        PluginVersion.from(1, 0, 0));
+    RegistrationInfo registrationInfo2 = RegistrationInfo
+        .from("mock2", PluginVersion.from(2, 1, 1));
+
+    //the first processing channel runs mock2 before mock
+    given(waveformQcConfiguration.createParameters(processingChannelId1))
+        .willReturn(Optional.of(WaveformQcParameters.create(processingChannelId1,
+            Arrays.asList(registrationInfo2, registrationInfo1))));
+    given(waveformQcConfiguration.createParameters(processingChannelId2))
+        .willReturn(Optional.of(WaveformQcParameters.create(processingChannelId2,
+            Collections.singletonList(registrationInfo1))));
+
+    given(pluginRegistry.lookup(registrationInfo1))
+        .willReturn(Optional.of(new MockWaveformQcPlugin()));
+    given(pluginRegistry.lookup(registrationInfo2))
+        .willReturn(Optional.of(new Mock2WaveformQcPlugin()));
+
+    given(gatewayClient.loadInvokeInputData(
+        processingChannelIds, Instant.MIN, Instant.MAX))
+        .willReturn(InvokeInputDataMap
+            .create(Collections.emptySet(), Collections.emptySet(), Collections.emptySet()));
+
+    List<QcMask> qcMasks = waveformQcControl.execute(buildCommand(processingChannelIds));
+
+    assertEquals(List.of(Mock2WaveformQcPlugin.mockQcMask(), MockWaveformQcPlugin.mockQcMask(),
+        MockWaveformQcPlugin.mockQcMask()), qcMasks);
+  }
+
+  @Test
+  public void testExecutePluginFailureIsolatedFromOtherTasks() {
+    //load mock configuration
+    given(gatewayClient.loadConfiguration())
+        .willReturn(waveformQcConfiguration);
+    waveformQcControl.initialize();
+
+    UUID processingChannelId = UUID.randomUUID();
+    Set<UUID> processingChannelIds = Collections.singleton(processingChannelId);
+
+    RegistrationInfo registrationInfo1 = RegistrationInfo.from("mock",
+        PluginVersion.from(1, 0, 0));
+    RegistrationInfo failingRegistrationInfo = RegistrationInfo
+        .from("failing", PluginVersion.from(1, 0, 0));
+
+    given(waveformQcConfiguration.createParameters(processingChannelId))
+        .willReturn(Optional.of(WaveformQcParameters.create(processingChannelId,
+            Arrays.asList(failingRegistrationInfo, registrationInfo1))));
+
+    //the failing plugin throws when generating masks
+    WaveformQcPlugin failingPlugin = mock(WaveformQcPlugin.class);
+    given(failingPlugin.getName()).willReturn("failing");
+    given(failingPlugin.getCheckRegistrationInfos()).willReturn(List.of(failingRegistrationInfo));
+    given(failingPlugin.generateQcMasks(any(), any(), any(), anyMap()))
+        .willThrow(new IllegalStateException("plugin failure"));
+
+    given(pluginRegistry.lookup(registrationInfo1))
+        .willReturn(Optional.of(new MockWaveformQcPlugin()));
+    given(pluginRegistry.lookup(failingRegistrationInfo))
+        .willReturn(Optional.of(failingPlugin));
+
+    given(gatewayClient.loadInvokeInputData(
+        processingChannelIds, Instant.MIN, Instant.MAX))
+        .willReturn(InvokeInputDataMap
+            .create(Collections.emptySet(), Collections.emptySet(), Collections.emptySet()));
+
+    List<QcMask> qcMasks = waveformQcControl.execute(buildCommand(processingChannelIds));
+
+    //only the working plugin's mask and provenance are stored
+    assertEquals(List.of(MockWaveformQcPlugin.mockQcMask()), qcMasks);
+
+    ArgumentCaptor<List<CreationInformation>> creationInfos = ArgumentCaptor.forClass(List.class);
+    verify(gatewayClient, times(1)).store(eq(qcMasks), creationInfos.capture(), any());
+    assertEquals(1, creationInfos.getValue().size());
+    assertEquals("mock",
+        creationInfos.getValue().get(0).getSoftwareInfo().getName());
+  }
+
+  @Test
+  public void testExecuteCreatesProvenanceForEachCheck() {
+    //load mock configuration
+    given(gatewayClient.loadConfiguration())
+        .willReturn(waveformQcConfiguration);
+    waveformQcControl.initialize();
+
+    UUID processingChannelId = UUID.randomUUID();
+    Set<UUID> processingChannelIds = Collections.singleton(processingChannelId);
+
+    RegistrationInfo registrationInfo = RegistrationInfo.from("multiCheck",
+        PluginVersion.from(1, 0, 0));
+    RegistrationInfo checkA = RegistrationInfo.from("checkA", PluginVersion.from(1, 0, 0));
+    RegistrationInfo checkB = RegistrationInfo.from("checkB", PluginVersion.from(2, 0, 0));
+
+    given(waveformQcConfiguration.createParameters(processingChannelId))
+        .willReturn(Optional.of(WaveformQcParameters.create(processingChannelId,
+            List.of(registrationInfo))));
+
+    //the plugin runs two checks, each needing its own provenance
+    WaveformQcPlugin multiCheckPlugin = mock(WaveformQcPlugin.class);
+    given(multiCheckPlugin.getCheckRegistrationInfos()).willReturn(List.of(checkA, checkB));
+
+    ArgumentCaptor<Map<RegistrationInfo, UUID>> creationInfoIds = ArgumentCaptor
+        .forClass(Map.class);
+    given(multiCheckPlugin.generateQcMasks(any(), any(), any(), creationInfoIds.capture()))
+        .willReturn(Stream.empty());
+
+    given(pluginRegistry.lookup(registrationInfo)).willReturn(Optional.of(multiCheckPlugin));
+
+    given(gatewayClient.loadInvokeInputData(
+        processingChannelIds, Instant.MIN, Instant.MAX))
+        .willReturn(InvokeInputDataMap
+            .create(Collections.emptySet(), Collections.emptySet(), Collections.emptySet()));
+
+    waveformQcControl.execute(buildCommand(processingChannelIds));
+
+    ArgumentCaptor<List<CreationInformation>> creationInfos = ArgumentCaptor.forClass(List.class);
+    verify(gatewayClient, times(1)).store(anyList(), creationInfos.capture(), any());
+
+    assertEquals(List.of("checkA", "checkB"), creationInfos.getValue().stream()
+        .map(ci -> ci.getSoftwareInfo().getName()).collect(Collectors.toList()));
+    assertEquals(PluginVersion.from(2, 0, 0).toString(),
+        creationInfos.getValue().get(1).getSoftwareInfo().getVersion());
+    assertEquals(Map.of(checkA, creationInfos.getValue().get(0).getId(),
+        checkB, creationInfos.getValue().get(1).getId()), creationInfoIds.getValue());
+  }
 
   @Test
   public void testExecuteNullCommandExpectIllegalArgumentException() {
@@ -253,5 +396,12 @@ public class WaveformQcControlTests {
         "WaveformQcControl requires a non-null OsdGatewayClient");
     new WaveformQcControl(registry, null);
   }
+
+  @Test
+  public void testConstructNullExecutorExpectNullPointerException() {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("WaveformQcControl requires a non-null ExecutorService");
+    new WaveformQcControl(pluginRegistry, gatewayClient, null);
+  }
 }
 
@@ -86,6 +86,29 @@ public class OsdGatewayClientTests {
     gatewayClient = null;
   }
 
+  @Test
+  public void testLoadConfigurationRunsIndividualSignalQcPlugins() {
+    List<RegistrationInfo> plugins = gatewayClient.loadConfiguration()
+        .createParameters(UUID.randomUUID()).get().getWaveformQcPlugins();
+
+    assertTrue(plugins.contains(
+        RegistrationInfo.from("waveformGapQcPlugin", PluginVersion.from(1, 0, 0))));
+    assertFalse(plugins.contains(
+        RegistrationInfo.from("waveformSignalQcPlugin", PluginVersion.from(1, 0, 0))));
+  }
+
+  @Test
+  public void testLoadConfigurationFusedSignalQcRunsWaveformSignalQcPlugin() {
+    List<RegistrationInfo> plugins = new OsdGatewayClient(HOST, instanceRule.port(), BASE_URI,
+        true).loadConfiguration().createParameters(UUID.randomUUID()).get()
+        .getWaveformQcPlugins();
+
+    assertTrue(plugins.contains(
+        RegistrationInfo.from("waveformSignalQcPlugin", PluginVersion.from(1, 0, 0))));
+    assertFalse(plugins.contains(
+        RegistrationInfo.from("waveformGapQcPlugin", PluginVersion.from(1, 0, 0))));
+  }
+
   @Test
   public void testLoadMissingPluginConfigurationThrowsIllegalArgument() {
     RegistrationInfo missingPluginInfo = RegistrationInfo
@@ -145,6 +168,18 @@ public class OsdGatewayClientTests {
         Double.class);
   }
 
+  @Test
+  public void testLoadWaveformSignalQcPluginConfiguration() {
+    PluginConfiguration pluginConfiguration = gatewayClient
+        .loadPluginConfiguration(
+            RegistrationInfo.from("waveformSignalQcPlugin", PluginVersion.from(1, 0, 0)));
+
+    checkValueIsCorrectType(pluginConfiguration, "minLongGapLengthInSamples", Integer.class);
+    checkValueIsCorrectType(pluginConfiguration, "minConsecutiveSampleDifferenceSpikeThreshold",
+        Double.class);
+    checkValueIsCorrectType(pluginConfiguration, "minSeriesLengthInSamples", Integer.class);
+  }
+
 
   private <T> void checkValueIsCorrectType(PluginConfiguration pluginConfiguration,
       String configKey, Class<T> type) {
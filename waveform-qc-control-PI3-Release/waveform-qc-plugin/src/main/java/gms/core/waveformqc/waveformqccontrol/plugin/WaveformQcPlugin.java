@@ -1,11 +1,14 @@
 package gms.core.waveformqc.waveformqccontrol.plugin;
 
 import gms.core.waveformqc.waveformqccontrol.objects.PluginVersion;
+import gms.core.waveformqc.waveformqccontrol.objects.RegistrationInfo;
 import gms.core.waveformqc.waveformqccontrol.objects.WaveformQcChannelSohStatus;
 
 import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.QcMask;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -49,4 +52,36 @@ public interface WaveformQcPlugin {
       Collection<WaveformQcChannelSohStatus> waveformQcChannelSohStatuses,
       Collection<QcMask> qcMasks,
       UUID creationInfoId); //NEW
+
+  /**
+   * Obtains the {@link RegistrationInfo} of each check whose QC masks this plugin generates.
+   * Plugins running several checks override this operation so each check's masks can reference
+   * provenance identifying that check.  Defaults to this plugin's name and version.
+   *
+   * @return RegistrationInfo of each check, not null
+   */
+  default List<RegistrationInfo> getCheckRegistrationInfos() {
+    return List.of(RegistrationInfo.from(getName(), getVersion()));
+  }
+
+  /**
+   * Generates a sequence of QC masks where the masks found by each check reference that check's
+   * creation information.  Defaults to {@link WaveformQcPlugin#generateQcMasks(Collection,
+   * Collection, Collection, UUID)} with the creation information of this plugin's name and
+   * version.
+   *
+   * @param channelSegments The collection of waveforms to be masked
+   * @param waveformQcChannelSohStatuses The channel SOH data for the waveform data
+   * @param qcMasks Previously created {@link QcMask}s that can affect processing.
+   * @param creationInfoIds creation information id for each of the {@link
+   * WaveformQcPlugin#getCheckRegistrationInfos()}
+   */
+  default Stream<QcMask> generateQcMasks(Collection<ChannelSegment> channelSegments,
+      Collection<WaveformQcChannelSohStatus> waveformQcChannelSohStatuses,
+      Collection<QcMask> qcMasks,
+      Map<RegistrationInfo, UUID> creationInfoIds) {
+
+    return generateQcMasks(channelSegments, waveformQcChannelSohStatuses, qcMasks,
+        creationInfoIds.get(RegistrationInfo.from(getName(), getVersion())));
+  }
 }
@@ -11,9 +11,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -78,23 +80,22 @@ public class MergeQcMasks {
     // Verify all masks have the same type, not rejected, and occur on the same processingChannel
     verifyQcMasks(allMasks);
 
+    // Determine which masks are new before merging changes any existing mask.  Hash based
+    // membership avoids scanning newMasks for every mask.
+    final Set<QcMask> newMaskSet = new HashSet<>(newMasks);
+
     //Can presently ignore warnings on optional as a non-rejected qcmask version will have a start
     //time and end time
-    Comparator<QcMask> startEndComparator = Comparator
-        .comparing(a -> a.getCurrentQcMaskVersion().getStartTime().get());
-    startEndComparator = startEndComparator
-        .thenComparing(a -> a.getCurrentQcMaskVersion().getEndTime().get());
-
-    // Create a list all of the new and existing masks, sorted by startTime
-    final List<QcMask> timeOrdered = allMasks.stream()
-        .sorted(startEndComparator)
+    final List<MaskInterval> timeOrdered = allMasks.stream()
+        .map(m -> new MaskInterval(m, newMaskSet.contains(m)))
+        .sorted(Comparator.comparing((MaskInterval i) -> i.start).thenComparing(i -> i.end))
         .collect(Collectors.toList());
 
     // Group into lists of overlapping masks, remove groups only containing existing masks,
     // construct masks from the overlap groups, return merged masks
     return groupByOverlappingTime(timeOrdered, threshold).stream()
-        .filter(l -> l.stream().anyMatch(newMasks::contains))
-        .map(l -> mergeMasks(l, newMasks, creationInfoId))
+        .filter(l -> l.stream().anyMatch(i -> i.isNew))
+        .map(l -> mergeMasks(l, creationInfoId))
         .flatMap(List::stream)
         .collect(Collectors.toList());
   }
@@ -164,42 +165,36 @@ public class MergeQcMasks {
    *
    * Assumes the overlapGroup contains at least 1 new mask.
    *
-   * @param overlapGroup QcMasks to merge, contains at least one element
-   * @param newMasks newly created QcMasks, not empty
+   * @param overlapGroup QcMasks to merge ordered by start time, contains at least one element
    * @param creationInfoId identity to use for merged qcMask creation information
    * @return list of QcMask, contains one new mask and 0 or more rejected existing masks
    */
-  private static List<QcMask> mergeMasks(List<QcMask> overlapGroup, Collection<QcMask> newMasks,
-      UUID creationInfoId) {
+  private static List<QcMask> mergeMasks(List<MaskInterval> overlapGroup, UUID creationInfoId) {
     // If the overlap group contains one mask then just return it (by precondition it is new)
     if (overlapGroup.size() == 1) {
-      return overlapGroup;
+      return List.of(overlapGroup.get(0).mask);
     }
 
-    // Get common parameters used when constructing the mergedQcMasks
-    final UUID processingChannelId = overlapGroup.get(0).getProcessingChannelId();
-
-    final Instant startTime = overlapGroup.stream()
-        .map(q -> q.getCurrentQcMaskVersion().getStartTime())
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .min(Instant::compareTo).orElseThrow(
-            OptionalUtility.illegalArgument("Error merging QcMasks: no valid start time found."));
+    // Get common parameters used when constructing the mergedQcMasks.  The group is ordered by
+    // start time so the first mask starts the group.
+    final QcMask first = overlapGroup.get(0).mask;
+    final UUID processingChannelId = first.getProcessingChannelId();
 
+    final Instant startTime = overlapGroup.get(0).start;
     final Instant endTime = overlapGroup.stream()
-        .map(q -> q.getCurrentQcMaskVersion().getEndTime())
-        .filter(Optional::isPresent)
-        .map(Optional::get)
+        .map(i -> i.end)
         .max(Instant::compareTo).orElseThrow(
             OptionalUtility.illegalArgument("Error merging QcMasks: no valid end time found."));
 
-    final QcMaskVersion firstVersion = overlapGroup.get(0).getCurrentQcMaskVersion();
+    final QcMaskVersion firstVersion = first.getCurrentQcMaskVersion();
     final QcMaskCategory category = firstVersion.getCategory();
     final QcMaskType type = firstVersion.getType().orElseThrow(
         OptionalUtility.illegalArgument("Error merging QcMasks: no valid type found."));
     final String rationaleString = firstVersion.getRationale();
 
-    List<QcMask> existingQcMasks = overlapGroup.stream().filter(m -> !newMasks.contains(m))
+    List<QcMask> existingQcMasks = overlapGroup.stream()
+        .filter(i -> !i.isNew)
+        .map(i -> i.mask)
         .collect(Collectors.toList());
 
     List<QcMask> mergedQcMasks = new ArrayList<>();
@@ -259,14 +254,15 @@ public class MergeQcMasks {
    * @param threshold Duration to determine whether two QcMasks overlap in time
    * @return collection of lists of overlapping QcMasks
    */
-  private static Collection<List<QcMask>> groupByOverlappingTime(List<QcMask> qcMasks,
+  private static Collection<List<MaskInterval>> groupByOverlappingTime(List<MaskInterval> qcMasks,
       Duration threshold) {
 
-    Collection<List<QcMask>> grouped = new ArrayList<>();
+    Collection<List<MaskInterval>> grouped = new ArrayList<>();
 
     int groupStartIndex = 0;
     for (int groupEndIndex = 1; groupEndIndex < qcMasks.size(); ++groupEndIndex) {
-      if (!overlapInTime(qcMasks.get(groupEndIndex - 1), qcMasks.get(groupEndIndex), threshold)) {
+      if (!overlapInTime(qcMasks.get(groupEndIndex - 1).end, qcMasks.get(groupEndIndex).start,
+          threshold)) {
         grouped.add(qcMasks.subList(groupStartIndex, groupEndIndex));
         groupStartIndex = groupEndIndex;
       }
@@ -285,15 +281,32 @@ public class MergeQcMasks {
    * (a starts before b starts); the overlap is if QcMask b begins within the threshold of QcMask a
    * ending.
    *
-   * @param a first mask to check for overlap, starts before b starts
-   * @param b second mask to check for overlap
+   * @param aEnd end time of the first mask, which starts before b starts
+   * @param bStart start time of the second mask
    * @return true if the QcMasks overlap, false otherwise
    */
-  private static boolean overlapInTime(QcMask a, QcMask b, Duration threshold) {
-    Instant bStart = b.getCurrentQcMaskVersion().getStartTime().get();
-    Instant aEnd = a.getCurrentQcMaskVersion().getEndTime().get().plus(threshold);
+  private static boolean overlapInTime(Instant aEnd, Instant bStart, Duration threshold) {
+    return bStart.isBefore(aEnd.plus(threshold));
+  }
 
-    return bStart.isBefore(aEnd);
+  /**
+   * A {@link QcMask} with its current version's start and end times and whether it is one of the
+   * new masks being merged.  The times and membership are found once, before merging creates any
+   * new {@link QcMaskVersion}s.
+   */
+  private static class MaskInterval {
+
+    private final QcMask mask;
+    private final Instant start;
+    private final Instant end;
+    private final boolean isNew;
+
+    private MaskInterval(QcMask mask, boolean isNew) {
+      this.mask = mask;
+      this.start = mask.getCurrentQcMaskVersion().getStartTime().get();
+      this.end = mask.getCurrentQcMaskVersion().getEndTime().get();
+      this.isNew = isNew;
+    }
   }
 
   private static class OptionalUtility {
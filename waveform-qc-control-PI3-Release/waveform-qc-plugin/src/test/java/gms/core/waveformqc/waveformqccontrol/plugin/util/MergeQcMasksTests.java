@@ -12,6 +12,7 @@ import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commo
 import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.QcMaskVersionReference;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -238,6 +239,85 @@ public class MergeQcMasksTests {
     verifyMergedCreationInfoId(result, creationInfoId);
   }
 
+  /**
+   * Verifies masks are grouped by comparing each mask with the mask just before it in time order: a
+   * new mask inside a longer existing mask is not merged with it when a mask between them ends
+   * before the new mask starts.
+   */
+  @Test
+  public void testMergeGroupsAdjacentMasks() throws Exception {
+    Instant start = Instant.ofEpochSecond(0);
+    Instant end = Instant.ofEpochSecond(300);
+
+    UUID processingChannelId = UUID.randomUUID();
+    QcMask existingMask = QcMask
+        .create(processingChannelId, Collections.emptyList(), Collections.emptyList(),
+            QcMaskCategory.STATION_SOH, QcMaskType.STATION_SECURITY, "test", start, end,
+            new UUID(0L, 0L));
+
+    QcMask newMask1 = QcMask
+        .create(processingChannelId, Collections.emptyList(), Collections.emptyList(),
+            QcMaskCategory.STATION_SOH, QcMaskType.STATION_SECURITY, "test", start.plusSeconds(10),
+            start.plusSeconds(20), new UUID(0L, 0L));
+
+    QcMask newMask2 = QcMask
+        .create(processingChannelId, Collections.emptyList(), Collections.emptyList(),
+            QcMaskCategory.STATION_SOH, QcMaskType.STATION_SECURITY, "test", start.plusSeconds(100),
+            start.plusSeconds(110), new UUID(0L, 0L));
+
+    Collection<QcMask> result = MergeQcMasks
+        .merge(Arrays.asList(newMask1, newMask2), Collections.singleton(existingMask),
+            threshold, creationInfoId);
+
+    assertEquals(2, result.size());
+    assertTrue(result.contains(existingMask));
+    assertTrue(result.contains(newMask2));
+    assertEquals(1, existingMask.qcMaskVersions().count());
+    assertEquals(1, newMask2.qcMaskVersions().count());
+  }
+
+  /**
+   * Verifies a long chain of alternating existing and new masks, each overlapping the next, merges
+   * into a single new mask rejecting every existing mask
+   */
+  @Test
+  public void testMergeLongChainOfOverlappingMasks() throws Exception {
+    final int numMasks = 5000;
+    final Instant start = Instant.ofEpochSecond(0);
+    final UUID processingChannelId = UUID.randomUUID();
+
+    final List<QcMask> newMasks = new ArrayList<>();
+    final List<QcMask> existingMasks = new ArrayList<>();
+    for (int i = 0; i < numMasks; ++i) {
+      QcMask mask = QcMask
+          .create(processingChannelId, Collections.emptyList(), Collections.emptyList(),
+              QcMaskCategory.STATION_SOH, QcMaskType.STATION_SECURITY, "test",
+              start.plusSeconds(10 * i), start.plusSeconds(10 * i + 11), new UUID(0L, 0L));
+
+      if (i % 2 == 0) {
+        existingMasks.add(mask);
+      } else {
+        newMasks.add(mask);
+      }
+    }
+
+    // Existing masks provided in reverse time order
+    Collections.reverse(existingMasks);
+
+    Collection<QcMask> result = MergeQcMasks
+        .merge(newMasks, existingMasks, threshold, creationInfoId);
+
+    assertEquals(existingMasks.size() + 1, result.size());
+
+    QcMask merged = verifySingleUnrejectedMask(result);
+    QcMaskVersion mergedVersion = merged.getCurrentQcMaskVersion();
+    assertEquals(start, mergedVersion.getStartTime().get());
+    assertEquals(start.plusSeconds(10 * (numMasks - 1) + 11), mergedVersion.getEndTime().get());
+    assertEquals(existingMasks.size(), mergedVersion.getParentQcMasks().size());
+
+    existingMasks.forEach(m -> assertRejected(m.getId(), result, merged.getId()));
+  }
+
   private static void verifyMergedCreationInfoId(Collection<QcMask> result,
       UUID expectedCreationInfoId) {
 
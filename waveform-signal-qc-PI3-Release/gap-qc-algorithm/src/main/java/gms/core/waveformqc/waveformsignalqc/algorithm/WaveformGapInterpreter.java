@@ -8,6 +8,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Finds gaps of missing data in a {@link ChannelSegment}
@@ -40,33 +41,60 @@ public class WaveformGapInterpreter {
 
     Instant previousEndTime = channelSegment.getStartTime();
     for (Waveform waveform : channelSegment.getWaveforms()) {
+      findGapBefore(channelSegment, previousEndTime, waveform, minLongGapLengthInSamples)
+          .ifPresent(masks::add);
 
-      // Potential gap start and end times
-      final Instant gapStart = previousEndTime;
-      final Instant gapEnd = waveform.getStartTime();
+      previousEndTime = waveform.getEndTime();
+    }
+
+    return masks;
+  }
+
+  /**
+   * Finds a missing data gap between the end of the previous waveform (or the start of the
+   * {@link ChannelSegment}) and the start of the waveform
+   *
+   * @param channelSegment {@link ChannelSegment} containing the waveform, not null
+   * @param previousEndTime end time of the previous waveform, or the channelSegment's start time
+   * for the first waveform, not null
+   * @param waveform {@link Waveform} which may follow a gap, not null
+   * @param minLongGapLengthInSamples threshold between long and repairable gaps, must be >= 1
+   * @return {@link WaveformGapQcMask} for the gap, or empty if there is no gap, not null
+   * @throws NullPointerException if channelSegment, previousEndTime, or waveform are null
+   */
+  public static Optional<WaveformGapQcMask> findGapBefore(ChannelSegment channelSegment,
+      Instant previousEndTime, Waveform waveform, int minLongGapLengthInSamples) {
 
-      // Assuming waveform sample rate is in samples/sec calculate the number of missing samples
-      // i.e. missing_ms * (samples/sec * 1sec/1000ms) = missing_samples
-      // Subtract one from this to account for expected duration between two samples
-      final Duration gapDuration = Duration.between(gapStart, gapEnd);
-      final double missingSamples =
-          (gapDuration.toMillis() * (waveform.getSampleRate() / 1000.0)) - 1;
+    Objects.requireNonNull(channelSegment,
+        "WaveformGapInterpreter.findGapBefore requires non-null channelSegment");
+    Objects.requireNonNull(previousEndTime,
+        "WaveformGapInterpreter.findGapBefore requires non-null previousEndTime");
+    Objects.requireNonNull(waveform,
+        "WaveformGapInterpreter.findGapBefore requires non-null waveform");
 
-      // There is a gap
-      if (missingSamples >= 1) {
+    // Potential gap start and end times
+    final Instant gapStart = previousEndTime;
+    final Instant gapEnd = waveform.getStartTime();
 
-        final QcMaskType qcMaskType = (missingSamples >= minLongGapLengthInSamples)
-            ? QcMaskType.LONG_GAP
-            : QcMaskType.REPAIRABLE_GAP;
+    // Assuming waveform sample rate is in samples/sec calculate the number of missing samples
+    // i.e. missing_ms * (samples/sec * 1sec/1000ms) = missing_samples
+    // Subtract one from this to account for expected duration between two samples
+    final Duration gapDuration = Duration.between(gapStart, gapEnd);
+    final double missingSamples =
+        (gapDuration.toMillis() * (waveform.getSampleRate() / 1000.0)) - 1;
 
-        masks.add(WaveformGapQcMask
-            .create(qcMaskType, channelSegment.getProcessingChannelId(), channelSegment.getId(),
-                gapStart, gapEnd));
-      }
+    // There is a gap
+    if (missingSamples >= 1) {
 
-      previousEndTime = waveform.getEndTime();
+      final QcMaskType qcMaskType = (missingSamples >= minLongGapLengthInSamples)
+          ? QcMaskType.LONG_GAP
+          : QcMaskType.REPAIRABLE_GAP;
+
+      return Optional.of(WaveformGapQcMask
+          .create(qcMaskType, channelSegment.getProcessingChannelId(), channelSegment.getId(),
+              gapStart, gapEnd));
     }
 
-    return masks;
+    return Optional.empty();
   }
 }
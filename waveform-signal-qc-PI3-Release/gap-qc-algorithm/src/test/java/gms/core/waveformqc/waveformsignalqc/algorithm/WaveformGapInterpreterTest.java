@@ -138,4 +138,12 @@ public class WaveformGapInterpreterTest {
         .expectMessage("WaveformGapInterpreter.updateQcMasks requires minLongGapLengthInSamples > 0");
     WaveformGapInterpreter.createWaveformGapQcMasks(oneLongOneShortGap, 0);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testFindGapBeforeNullWaveformExpectNullPointerException() {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage("WaveformGapInterpreter.findGapBefore requires non-null waveform");
+    WaveformGapInterpreter
+        .findGapBefore(oneLongOneShortGap, oneLongOneShortGap.getStartTime(), null, 1);
+  }
+}
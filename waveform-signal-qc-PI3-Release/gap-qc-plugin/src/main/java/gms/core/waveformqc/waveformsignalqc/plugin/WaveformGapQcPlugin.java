@@ -12,6 +12,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -62,8 +63,33 @@ public class WaveformGapQcPlugin {
       Collection<QcMask> existingQcMasks,
       UUID creationInfoId) {
 
+    return createQcMasks(channelSegments,
+        cs -> WaveformGapInterpreter.createWaveformGapQcMasks(cs,
+            waveformGapQcPluginParameters.getMinLongGapLengthInSamples()),
+        existingQcMasks, creationInfoId);
+  }
+
+  /**
+   * Creates and updates gap {@link QcMask}s as in {@link WaveformGapQcPlugin#createQcMasks(Collection,
+   * Collection, UUID)} from gaps which were already found in each {@link ChannelSegment}, e.g. by
+   * a {@link gms.core.waveformqc.waveformsignalqc.algorithm.WaveformSignalQcInterpreter} running
+   * several checks in one pass.
+   *
+   * @param channelSegments {@link ChannelSegment} to check for gaps, not null
+   * @param gapFinder obtains the {@link WaveformGapQcMask}s in a ChannelSegment, not null
+   * @param existingQcMasks existing {@link QcMask} that might be updated, not null
+   * @param creationInfoId id to the {@link gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.CreationInformation}
+   * associated with returned {@link QcMask}
+   * @return Stream of new or updated {@link QcMask}, not null
+   */
+  public Stream<QcMask> createQcMasks(Collection<ChannelSegment> channelSegments,
+      Function<ChannelSegment, List<WaveformGapQcMask>> gapFinder,
+      Collection<QcMask> existingQcMasks, UUID creationInfoId) {
+
     Objects.requireNonNull(channelSegments,
         "ChannelSohQcPlugin createQcMasks cannot accept null acquiredChannelSohs");
+    Objects.requireNonNull(gapFinder,
+        "WaveformGapQcPlugin createQcMasks cannot accept null gapFinder");
     Objects.requireNonNull(existingQcMasks,
         "ChannelSohQcPlugin createQcMasks cannot accept null existing QcMasks");
 
@@ -74,30 +100,9 @@ public class WaveformGapQcPlugin {
 
     return channelSegments.stream()
         .flatMap(cs ->
-            createOutputQcMasks(cs,
+            WaveformGapUpdater.updateQcMasks(gapFinder.apply(cs),
                 lookupExistingQcMasks(existingGapQcMasks, cs.getProcessingChannelId()),
-                creationInfoId));
-  }
-
-  /**
-   * Utility using the {@link WaveformGapInterpreter} and {@link WaveformGapUpdater} to create new
-   * and update existing qcMasks for a single {@link ChannelSegment}
-   *
-   * @param channelSegment {@link ChannelSegment} to check for gaps, not null
-   * @param existingQcMasks existing {@link QcMask} that might be updated, not null
-   * @param creationInfoId id to the {@link gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.CreationInformation}
-   * associated with returned {@link QcMask}
-   * @return Stream of new or updated {@link QcMask}, not null
-   */
-  private Stream<QcMask> createOutputQcMasks(ChannelSegment channelSegment,
-      List<QcMask> existingQcMasks, UUID creationInfoId) {
-
-    List<WaveformGapQcMask> newGaps = WaveformGapInterpreter
-        .createWaveformGapQcMasks(channelSegment,
-            waveformGapQcPluginParameters.getMinLongGapLengthInSamples());
-
-    return WaveformGapUpdater.updateQcMasks(newGaps, existingQcMasks, channelSegment.getId(),
-        creationInfoId).stream();
+                cs.getId(), creationInfoId).stream());
   }
 
   /**
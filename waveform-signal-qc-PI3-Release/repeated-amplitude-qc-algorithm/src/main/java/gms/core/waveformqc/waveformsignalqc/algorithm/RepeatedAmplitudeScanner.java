@@ -0,0 +1,138 @@
+package gms.core.waveformqc.waveformsignalqc.algorithm;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Finds series of repeated adjacent amplitude values in one waveform's samples as the samples
+ * become available.  A caller passes consecutive blocks of the samples to {@link
+ * RepeatedAmplitudeScanner#scan(double[], int, int)} and calls {@link
+ * RepeatedAmplitudeScanner#finish()} after the last block.  Each sample is examined once and only
+ * the first sample of the current series is retained, so the samples never need to be held in a
+ * single array.
+ *
+ * See {@link WaveformRepeatedAmplitudeInterpreter#findRepeats(double[], int, double)} for the
+ * repeated amplitude series definition.  Public so other QC algorithms (e.g. the combined waveform
+ * signal QC) can find repeated amplitudes in the same pass over the samples as their own checks.
+ */
+public final class RepeatedAmplitudeScanner {
+
+  private final int length;
+  private final int minRepeatedSamples;
+  private final double maxDeltaFromStartAmplitude;
+
+  // A series may only start before this index
+  private final int startLimit;
+
+  // Index of the first sample in the current series, Integer.MAX_VALUE once no series may start
+  private int first;
+  private double startValue;
+
+  // Index of the next sample to examine
+  private int next;
+
+  private int[] repeats = new int[8];
+  private int numRepeats = 0;
+
+  /**
+   * Obtains a new {@link RepeatedAmplitudeScanner} for a waveform with length samples
+   *
+   * @param length number of samples, >= 0
+   * @param minRepeatedSamples minimum number of repeated adjacent values in a series, > 1
+   * @param maxDeltaFromStartAmplitude maximum difference between a sample and the first sample in
+   * the series that is considered a repeat, >= 0.0
+   * @throws IllegalArgumentException if length < 0; if minRepeatedSamples <= 1; if
+   * maxDeltaFromStartAmplitude < 0.0
+   */
+  public RepeatedAmplitudeScanner(int length, int minRepeatedSamples,
+      double maxDeltaFromStartAmplitude) {
+
+    if (length < 0) {
+      throw new IllegalArgumentException("RepeatedAmplitudeScanner requires length >= 0");
+    }
+
+    if (minRepeatedSamples <= 1) {
+      throw new IllegalArgumentException(
+          "RepeatedAmplitudeScanner requires minRepeatedSamples > 1");
+    }
+
+    if (maxDeltaFromStartAmplitude < 0.0) {
+      throw new IllegalArgumentException(
+          "RepeatedAmplitudeScanner requires maxDeltaFromStartAmplitude >= 0.0");
+    }
+
+    this.length = length;
+    this.minRepeatedSamples = minRepeatedSamples;
+    this.maxDeltaFromStartAmplitude = maxDeltaFromStartAmplitude;
+    this.startLimit = length - minRepeatedSamples;
+    this.first = 0;
+    this.next = 0;
+  }
+
+  /**
+   * Examines the next samples, block[from] through block[to - 1].  Together with the previously
+   * scanned blocks they must not exceed this scanner's length.
+   *
+   * @param block buffer holding the next samples, not null
+   * @param from index in block of the next sample
+   * @param to index in block after the last of the next samples
+   * @throws NullPointerException if block is null
+   * @throws IllegalArgumentException if the scanned samples would exceed this scanner's length
+   */
+  public void scan(double[] block, int from, int to) {
+    Objects.requireNonNull(block, "RepeatedAmplitudeScanner requires non-null block");
+
+    if (to - from > length - next) {
+      throw new IllegalArgumentException(
+          "RepeatedAmplitudeScanner cannot scan more than length samples");
+    }
+
+    for (int b = from; b < to; ++b, ++next) {
+      final int i = next;
+      if (i > first) {
+        // The first value beyond the threshold ends the series.  NaN differences compare false
+        // and do not end a series.
+        if (Math.abs(block[b] - startValue) > maxDeltaFromStartAmplitude) {
+          addIfRepeated(i);
+          first = i + 1;
+        }
+      } else if (i == first) {
+        if (first < startLimit) {
+          startValue = block[b];
+        } else {
+          first = Integer.MAX_VALUE;
+        }
+      }
+    }
+  }
+
+  /**
+   * Ends the series in progress at the last sample.  Must be called after scanning every sample.
+   *
+   * @return index of the first and last sample of each series, i.e. {first0, last0, first1, ...},
+   * in increasing order, not null
+   */
+  public int[] finish() {
+    if (first < length) {
+      addIfRepeated(length);
+    }
+    first = Integer.MAX_VALUE;
+
+    return Arrays.copyOf(repeats, numRepeats);
+  }
+
+  /**
+   * Records the current series if it is long enough
+   *
+   * @param firstBeyondThreshold index of the first sample not in the current series
+   */
+  private void addIfRepeated(int firstBeyondThreshold) {
+    if (firstBeyondThreshold - first >= minRepeatedSamples) {
+      if (numRepeats + 2 > repeats.length) {
+        repeats = Arrays.copyOf(repeats, repeats.length * 2);
+      }
+      repeats[numRepeats++] = first;
+      repeats[numRepeats++] = firstBeyondThreshold - 1;
+    }
+  }
+}
@@ -5,11 +5,6 @@ import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjec
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.function.Function;
-import java.util.function.IntPredicate;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 /**
  * Finds waveform sections containing repeated adjacent amplitude values.  Two parameters define
@@ -23,6 +18,11 @@ import java.util.stream.Stream;
  */
 public class WaveformRepeatedAmplitudeInterpreter {
 
+  /**
+   * Number of samples copied from a waveform and scanned at a time
+   */
+  private static final int BLOCK_LENGTH = 4096;
+
   /**
    * Obtains a new {@link WaveformRepeatedAmplitudeInterpreter}
    */
@@ -58,59 +58,56 @@ public class WaveformRepeatedAmplitudeInterpreter {
           "WaveformRepeatedAmplitudeInterpreter.createWaveformRepeatedAmplitudeQcMasks requires maxDeltaFromStartAmplitude >= 0.0");
     }
 
-    // A function to find repeated adjacent amplitude values in a waveform using the repeated
-    // adjacent amplitude definition parameters provided to this operation
-    Function<Waveform, Stream<WaveformRepeatedAmplitudeQcMask>> findRepeatsClosure =
-        w -> findRepeats(channelSegment, w, minRepeatedSamples, maxDeltaFromStartAmplitude);
+    // Find repeated adjacent amplitude values in each waveform.  Samples are copied a block at a
+    // time so waveforms stored as counts or outside of the heap are never copied whole.
+    final List<WaveformRepeatedAmplitudeQcMask> masks = new ArrayList<>();
+    final double[] block = new double[BLOCK_LENGTH];
+    for (Waveform waveform : channelSegment.getWaveforms()) {
+      final int length = waveform.getValuesLength();
+      final RepeatedAmplitudeScanner scanner = new RepeatedAmplitudeScanner(length,
+          minRepeatedSamples, maxDeltaFromStartAmplitude);
+      for (int blockStart = 0; blockStart < length; blockStart += BLOCK_LENGTH) {
+        final int blockLength = Math.min(BLOCK_LENGTH, length - blockStart);
+        waveform.copyValues(blockStart, block, 0, blockLength);
+        scanner.scan(block, 0, blockLength);
+      }
+      final int[] repeats = scanner.finish();
+
+      for (int r = 0; r < repeats.length; r += 2) {
+        masks.add(WaveformRepeatedAmplitudeQcMask.create(
+            waveform.timeForSample(repeats[r]),
+            waveform.timeForSample(repeats[r + 1]),
+            channelSegment.getProcessingChannelId(), channelSegment.getId()));
+      }
+    }
 
-    // Find repeated adjacent amplitude values in each waveform
-    return channelSegment.getWaveforms().stream()
-        .flatMap(findRepeatsClosure)
-        .collect(Collectors.toList());
+    return masks;
   }
 
   /**
-   * Finds series of repeated adjacent amplitude values in the waveform
+   * Finds series of repeated adjacent amplitude values in a single forward scan.  Each sample is
+   * compared to the first sample of the current series once, so the scan takes time proportional
+   * to values.length regardless of how long the repeated series are.  See {@link
+   * RepeatedAmplitudeScanner}.
+   *
+   * A series starting at values[i] extends until the first sample differing from values[i] by
+   * more than maxDeltaFromStartAmplitude (NaN differences do not end a series).  The next series
+   * may start at the sample after the one ending the previous series, and a series must start
+   * before values.length - minRepeatedSamples.
    *
-   * @param channelSegment {@link ChannelSegment} containing the waveform to search for repeated
-   * adjacent amplitudes, not null
-   * @param waveform {@link Waveform} to search for repeated adjacent amplitudes, not null
+   * @param values waveform samples, not null
    * @param minRepeatedSamples minimum number of repeated adjacent values in a series, > 1
    * @param maxDeltaFromStartAmplitude maximum difference between a sample and the first sample in
    * the series that is considered a repeat, >= 0.0
-   * @return Stream of {@link WaveformRepeatedAmplitudeQcMask} found in the waveform
+   * @return index of the first and last sample of each series, i.e. {first0, last0, first1, ...},
+   * in increasing order, not null
    */
-  private static Stream<WaveformRepeatedAmplitudeQcMask> findRepeats(ChannelSegment channelSegment,
-      Waveform waveform, int minRepeatedSamples, double maxDeltaFromStartAmplitude) {
-
-    final double[] values = waveform.getValues();
-
-    // Given a start amplitude, create a predicate to determine if values[i] is within
-    // maxDeltaFromStartAmplitude
-    final Function<Double, IntPredicate> outsideThresholdClosure =
-        startValue -> i -> Math.abs(values[i] - startValue) > maxDeltaFromStartAmplitude;
-
-    List<WaveformRepeatedAmplitudeQcMask> masks = new ArrayList<>();
-    for (int i = 0; i < values.length - minRepeatedSamples; ++i) {
-
-      // Find the index of the first value not in a repeated amplitude series from values[i]
-      int firstBeyondThreshold = IntStream.range(i + 1, values.length)
-          .filter(outsideThresholdClosure.apply(values[i]))
-          .findFirst()
-          .orElse(values.length);
-
-      // Create a WaveformRepeatedAmplitudeQcMask if a series was found
-      final int numWithinThresold = firstBeyondThreshold - i;
-      if (numWithinThresold >= minRepeatedSamples) {
-        masks.add(WaveformRepeatedAmplitudeQcMask.create(
-            waveform.timeForSample(i),
-            waveform.timeForSample(firstBeyondThreshold - 1),
-            channelSegment.getProcessingChannelId(), channelSegment.getId()));
-      }
-
-      i = firstBeyondThreshold;
-    }
+  static int[] findRepeats(double[] values, int minRepeatedSamples,
+      double maxDeltaFromStartAmplitude) {
 
-    return masks.stream();
+    final RepeatedAmplitudeScanner scanner = new RepeatedAmplitudeScanner(values.length,
+        minRepeatedSamples, maxDeltaFromStartAmplitude);
+    scanner.scan(values, 0, values.length);
+    return scanner.finish();
   }
 }
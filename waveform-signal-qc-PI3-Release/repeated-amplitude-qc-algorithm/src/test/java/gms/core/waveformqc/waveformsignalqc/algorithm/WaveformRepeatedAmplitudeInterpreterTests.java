@@ -2,6 +2,7 @@ package gms.core.waveformqc.waveformsignalqc.algorithm;
 
 
 import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.CreationInfo;
@@ -9,11 +10,17 @@ import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjec
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment.ChannelSegmentType;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
 import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -193,6 +200,119 @@ public class WaveformRepeatedAmplitudeInterpreterTests {
     assertEquals(0, repeats.size());
   }
 
+  /**
+   * Assert the single pass scan finds the same series as searching from each start sample
+   */
+  @Test
+  public void testFindRepeatsMatchesSearchFromEachStart() throws Exception {
+    final Random random = new Random(11);
+
+    for (int trial = 0; trial < 200; ++trial) {
+      final double[] values = flatLinedValues(random, 1 + random.nextInt(500));
+      final int minRepeatedSamples = 2 + random.nextInt(10);
+      final double maxDeltaFromStart = random.nextInt(3) * 0.25;
+
+      assertArrayEquals(findRepeatsFromEachStart(values, minRepeatedSamples, maxDeltaFromStart),
+          WaveformRepeatedAmplitudeInterpreter
+              .findRepeats(values, minRepeatedSamples, maxDeltaFromStart));
+    }
+  }
+
+  @Test
+  public void testFindRepeatsLongFlatLine() throws Exception {
+    final double[] values = new double[2_000_000];
+    Arrays.fill(values, 0, values.length - 1, 5.0);
+
+    assertArrayEquals(new int[]{0, values.length - 2},
+        WaveformRepeatedAmplitudeInterpreter.findRepeats(values, 10, 0.0));
+  }
+
+  /**
+   * Assert a Waveform created from counts is scanned in blocks and produces masks matching the
+   * series found in the whole array of data points, including series crossing block boundaries
+   */
+  @Test
+  public void testCreateWaveformRepeatedAmplitudeQcMasksFromCountsMatchesFindRepeats()
+      throws Exception {
+
+    final int[] counts = new int[10_000];
+    Arrays.fill(counts, 4000, 4200, 7);
+    Arrays.fill(counts, 8190, 8300, -3);
+    for (int i = 0; i < counts.length; i += 2) {
+      if (counts[i] == 0) {
+        counts[i] = i;
+      }
+    }
+    final double[] values = Arrays.stream(counts).mapToDouble(c -> c * 0.5).toArray();
+
+    final Waveform waveform = Waveform.createFromCounts(start,
+        start.plusNanos((long) ((counts.length - 1) * nanosPerSample)), sampleRate, counts.length,
+        counts, 0.5);
+    final List<WaveformRepeatedAmplitudeQcMask> masks = waveformRepeatedAmplitudeInterpreter
+        .createWaveformRepeatedAmplitudeQcMasks(createChannelSegment(List.of(waveform)), 50, 0.0);
+    masks.sort(Comparator.comparing(WaveformRepeatedAmplitudeQcMask::getStartTime));
+
+    final int[] repeats = WaveformRepeatedAmplitudeInterpreter.findRepeats(values, 50, 0.0);
+    assertEquals(4, repeats.length);
+    assertEquals(repeats.length / 2, masks.size());
+    for (int r = 0; r < repeats.length; r += 2) {
+      assertEquals(waveform.timeForSample(repeats[r]), masks.get(r / 2).getStartTime());
+      assertEquals(waveform.timeForSample(repeats[r + 1]), masks.get(r / 2).getEndTime());
+    }
+  }
+
+  /**
+   * Creates random samples interrupted by flat lined series of random lengths, some containing
+   * small deviations or NaN values
+   */
+  private static double[] flatLinedValues(Random random, int length) {
+    final double[] values = new double[length];
+    int i = 0;
+    while (i < length) {
+      final int runLength = Math.min(length - i, 1 + random.nextInt(20));
+      if (random.nextBoolean()) {
+        final double level = random.nextInt(4);
+        for (int j = i; j < i + runLength; ++j) {
+          final int kind = random.nextInt(20);
+          values[j] = kind == 0 ? Double.NaN : kind < 4 ? level + 0.5 * random.nextDouble() : level;
+        }
+      } else {
+        for (int j = i; j < i + runLength; ++j) {
+          values[j] = random.nextInt(4);
+        }
+      }
+      i += runLength;
+    }
+    return values;
+  }
+
+  /**
+   * Reference implementation searching for a series from each start sample with streams
+   */
+  private static int[] findRepeatsFromEachStart(double[] values, int minRepeatedSamples,
+      double maxDeltaFromStartAmplitude) {
+
+    final Function<Double, IntPredicate> outsideThresholdClosure =
+        startValue -> i -> Math.abs(values[i] - startValue) > maxDeltaFromStartAmplitude;
+
+    final List<Integer> repeats = new ArrayList<>();
+    for (int i = 0; i < values.length - minRepeatedSamples; ++i) {
+      int firstBeyondThreshold = IntStream.range(i + 1, values.length)
+          .filter(outsideThresholdClosure.apply(values[i]))
+          .findFirst()
+          .orElse(values.length);
+
+      if (firstBeyondThreshold - i >= minRepeatedSamples) {
+        repeats.add(i);
+        repeats.add(firstBeyondThreshold - 1);
+      }
+
+      i = firstBeyondThreshold;
+    }
+
+    return repeats.stream().mapToInt(Integer::intValue).toArray();
+  }
+
   @Test
   public void testCreateMinRepeatedSamplesTooLowExpectIllegalArgumentException() throws Exception {
     exception.expect(IllegalArgumentException.class);
@@ -218,4 +338,14 @@ public class WaveformRepeatedAmplitudeInterpreterTests {
         "WaveformRepeatedAmplitudeInterpreter.createWaveformRepeatedAmplitudeQcMasks requires non-null channelSegment");
     waveformRepeatedAmplitudeInterpreter.createWaveformRepeatedAmplitudeQcMasks(null, 2, 1.0);
   }
+
+  @Test
+  public void testScannerScanBeyondLengthExpectIllegalArgumentException() throws Exception {
+    final RepeatedAmplitudeScanner scanner = new RepeatedAmplitudeScanner(2, 2, 1.0);
+    scanner.scan(new double[]{1.0}, 0, 1);
+
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("RepeatedAmplitudeScanner cannot scan more than length samples");
+    scanner.scan(new double[]{1.0, 1.0}, 0, 2);
+  }
 }
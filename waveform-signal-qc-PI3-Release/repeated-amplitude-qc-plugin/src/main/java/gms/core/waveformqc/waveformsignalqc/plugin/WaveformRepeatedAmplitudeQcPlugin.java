@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -79,8 +80,34 @@ public class WaveformRepeatedAmplitudeQcPlugin {
   public Stream<QcMask> createQcMasks(Collection<ChannelSegment> channelSegments,
       Collection<QcMask> existingQcMasks, UUID creationInfoId) {
 
+    return createQcMasks(channelSegments,
+        c -> waveformRepeatedAmplitudeInterpreter.createWaveformRepeatedAmplitudeQcMasks(c,
+            parameters.getMinSeriesLengthInSamples(), parameters.getMaxDeltaFromStartAmplitude()),
+        existingQcMasks, creationInfoId);
+  }
+
+  /**
+   * Creates and merges repeated adjacent amplitude {@link QcMask}s as in {@link
+   * WaveformRepeatedAmplitudeQcPlugin#createQcMasks(Collection, Collection, UUID)} from series
+   * which were already found in each {@link ChannelSegment}, e.g. by a {@link
+   * gms.core.waveformqc.waveformsignalqc.algorithm.WaveformSignalQcInterpreter} running several
+   * checks in one pass.
+   *
+   * @param channelSegments {@link ChannelSegment} to search for repeated adjacent amplitude values,
+   * not null
+   * @param repeatFinder obtains the {@link WaveformRepeatedAmplitudeQcMask}s in a ChannelSegment,
+   * not null
+   * @param existingQcMasks potential {@link QcMask} to update, not null
+   * @return Stream of new or updated qcMasks, not null
+   */
+  public Stream<QcMask> createQcMasks(Collection<ChannelSegment> channelSegments,
+      Function<ChannelSegment, List<WaveformRepeatedAmplitudeQcMask>> repeatFinder,
+      Collection<QcMask> existingQcMasks, UUID creationInfoId) {
+
     Objects.requireNonNull(channelSegments,
         "WaveformRepeatedAmplitudeQcPlugin createQcMasks cannot accept null channelSegments");
+    Objects.requireNonNull(repeatFinder,
+        "WaveformRepeatedAmplitudeQcPlugin createQcMasks cannot accept null repeatFinder");
     Objects.requireNonNull(existingQcMasks,
         "WaveformRepeatedAmplitudeQcPlugin createQcMasks cannot accept null existingQcMasks");
     Objects.requireNonNull(creationInfoId,
@@ -94,7 +121,8 @@ public class WaveformRepeatedAmplitudeQcPlugin {
 
     // Create new repeated adjacent amplitude masks on each ChannelSegment
     final Map<UUID, List<QcMask>> newByChannelId = channelSegments.stream()
-        .flatMap(c -> repeatsInSegment(c, creationInfoId))
+        .flatMap(c -> repeatFinder.apply(c).stream())
+        .map(m -> qcMaskFromRepeatedAmplitudeMask(m, creationInfoId))
         .collect(Collectors.groupingBy(QcMask::getProcessingChannelId));
 
     // Merge new and existing masks on each Channel
@@ -130,23 +158,6 @@ public class WaveformRepeatedAmplitudeQcPlugin {
     return category.and(type).and(rationale).test(qcMask.getCurrentQcMaskVersion());
   }
 
-  /**
-   * Uses {@link WaveformRepeatedAmplitudeQcPlugin#waveformRepeatedAmplitudeInterpreter} to create
-   * repeated adjacent amplitude  {@link QcMask}s in a {@link ChannelSegment}.
-   *
-   * @param channelSegment {@link ChannelSegment} to search for repeated adjacent amplitudes, not
-   * null
-   * @param creationInfoId creationInfo UUID to associate with new {@link QcMask}s
-   * @return Stream of repeated amplitude {@link QcMask}, not null
-   */
-  private Stream<QcMask> repeatsInSegment(ChannelSegment channelSegment, UUID creationInfoId) {
-    return waveformRepeatedAmplitudeInterpreter
-        .createWaveformRepeatedAmplitudeQcMasks(channelSegment,
-            parameters.getMinSeriesLengthInSamples(),
-            parameters.getMaxDeltaFromStartAmplitude()).stream()
-        .map(m -> qcMaskFromRepeatedAmplitudeMask(m, creationInfoId));
-  }
-
   /**
    * Obtains a {@link QcMask} from a {@link WaveformRepeatedAmplitudeQcMask} and associates the new
    * mask to the creationInfoId
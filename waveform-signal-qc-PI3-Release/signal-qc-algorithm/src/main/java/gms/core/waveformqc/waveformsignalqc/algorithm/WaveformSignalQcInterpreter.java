@@ -0,0 +1,312 @@
+package gms.core.waveformqc.waveformsignalqc.algorithm;
+
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the enabled gap, 3pt spike, and repeated adjacent amplitude checks in a single pass over a
+ * {@link ChannelSegment}.  Each check finds the same masks as its own interpreter ({@link
+ * WaveformGapInterpreter}, {@link WaveformSpike3PtInterpreter}, and {@link
+ * WaveformRepeatedAmplitudeInterpreter}) with the same parameters.
+ *
+ * The waveforms are visited once, in order.  Gaps are found from each waveform's start time.  Each
+ * waveform's samples are copied a block at a time into one small buffer, and the spike and
+ * repeated amplitude scanners both consume each block while it is cached, so QC costs about one
+ * read of the samples regardless of how many checks are enabled and never holds more than a block
+ * of the ChannelSegment's samples.  Spike indexes are offset by the ChannelSegment sample index of
+ * the start of their run of adjacent waveforms, so spike times come from the ChannelSegment's
+ * sample time index.
+ */
+public class WaveformSignalQcInterpreter {
+
+  private static final Logger logger = LoggerFactory.getLogger(WaveformSignalQcInterpreter.class);
+
+  /**
+   * Number of samples copied into the buffer and scanned by each check at a time
+   */
+  private static final int BLOCK_LENGTH = 4096;
+
+  private final boolean gapsEnabled;
+  private final int minLongGapLengthInSamples;
+
+  private final boolean spikesEnabled;
+  private final double minConsecutiveSampleDifferenceSpikeThreshold;
+  private final int rmsLeadSampleDifferences;
+  private final int rmsLagSampleDifferences;
+  private final double rmsAmplitudeRatioThreshold;
+
+  private final boolean repeatedAmplitudesEnabled;
+  private final int minRepeatedSamples;
+  private final double maxDeltaFromStartAmplitude;
+
+  private WaveformSignalQcInterpreter(Builder builder) {
+    this.gapsEnabled = builder.gapsEnabled;
+    this.minLongGapLengthInSamples = builder.minLongGapLengthInSamples;
+    this.spikesEnabled = builder.spikesEnabled;
+    this.minConsecutiveSampleDifferenceSpikeThreshold =
+        builder.minConsecutiveSampleDifferenceSpikeThreshold;
+    this.rmsLeadSampleDifferences = builder.rmsLeadSampleDifferences;
+    this.rmsLagSampleDifferences = builder.rmsLagSampleDifferences;
+    this.rmsAmplitudeRatioThreshold = builder.rmsAmplitudeRatioThreshold;
+    this.repeatedAmplitudesEnabled = builder.repeatedAmplitudesEnabled;
+    this.minRepeatedSamples = builder.minRepeatedSamples;
+    this.maxDeltaFromStartAmplitude = builder.maxDeltaFromStartAmplitude;
+  }
+
+  /**
+   * Obtains a {@link Builder} for a {@link WaveformSignalQcInterpreter} with no checks enabled
+   *
+   * @return Builder, not null
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public boolean isGapsEnabled() {
+    return gapsEnabled;
+  }
+
+  public boolean isSpikesEnabled() {
+    return spikesEnabled;
+  }
+
+  public boolean isRepeatedAmplitudesEnabled() {
+    return repeatedAmplitudesEnabled;
+  }
+
+  /**
+   * Runs each enabled check on the {@link ChannelSegment}
+   *
+   * @param channelSegment {@link ChannelSegment} to check, not null
+   * @return {@link WaveformSignalQcMasks} found by each check, not null
+   * @throws NullPointerException if channelSegment is null
+   */
+  public WaveformSignalQcMasks createQcMasks(ChannelSegment channelSegment) {
+    Objects.requireNonNull(channelSegment,
+        "WaveformSignalQcInterpreter.createQcMasks requires non-null channelSegment");
+
+    final List<WaveformGapQcMask> gapMasks = new ArrayList<>();
+    final List<WaveformSpike3PtQcMask> spikeMasks = new ArrayList<>();
+    final List<WaveformRepeatedAmplitudeQcMask> repeatMasks = new ArrayList<>();
+
+    final boolean scanSamples = spikesEnabled || repeatedAmplitudesEnabled;
+    final double[] block = new double[scanSamples ? BLOCK_LENGTH : 0];
+
+    Instant previousEndTime = channelSegment.getStartTime();
+    Waveform previousWaveform = null;
+    Spike3PtScanner spikeScanner = null;
+    int spikeRunOffset = 0;
+    int offset = 0;
+
+    for (Waveform waveform : channelSegment.getWaveforms()) {
+      if (gapsEnabled) {
+        WaveformGapInterpreter.findGapBefore(channelSegment, previousEndTime, waveform,
+            minLongGapLengthInSamples).ifPresent(gapMasks::add);
+      }
+      previousEndTime = waveform.getEndTime();
+
+      if (!scanSamples) {
+        continue;
+      }
+
+      // Spikes are found across adjacent waveforms, so a new spike scanner starts only when this
+      // waveform is not adjacent to the previous waveform
+      if (spikesEnabled && (previousWaveform == null || !WaveformSpike3PtInterpreter
+          .isWaveformEndPointEvaluationValid(previousWaveform, waveform))) {
+
+        addSpikeMasks(channelSegment, spikeScanner, spikeRunOffset, spikeMasks);
+        spikeScanner = new Spike3PtScanner(rmsLeadSampleDifferences, rmsLagSampleDifferences,
+            rmsAmplitudeRatioThreshold, minConsecutiveSampleDifferenceSpikeThreshold);
+        spikeRunOffset = offset;
+      }
+
+      final int length = waveform.getValuesLength();
+      final RepeatedAmplitudeScanner repeatScanner = repeatedAmplitudesEnabled
+          ? new RepeatedAmplitudeScanner(length, minRepeatedSamples, maxDeltaFromStartAmplitude)
+          : null;
+
+      for (int blockStart = 0; blockStart < length; blockStart += BLOCK_LENGTH) {
+        final int blockLength = Math.min(BLOCK_LENGTH, length - blockStart);
+        waveform.copyValues(blockStart, block, 0, blockLength);
+
+        if (repeatScanner != null) {
+          repeatScanner.scan(block, 0, blockLength);
+        }
+        if (spikeScanner != null) {
+          spikeScanner.scan(block, 0, blockLength);
+        }
+      }
+
+      if (repeatScanner != null) {
+        final int[] repeats = repeatScanner.finish();
+        for (int r = 0; r < repeats.length; r += 2) {
+          repeatMasks.add(WaveformRepeatedAmplitudeQcMask.create(
+              waveform.timeForSample(repeats[r]),
+              waveform.timeForSample(repeats[r + 1]),
+              channelSegment.getProcessingChannelId(), channelSegment.getId()));
+        }
+      }
+
+      previousWaveform = waveform;
+      offset += length;
+    }
+
+    addSpikeMasks(channelSegment, spikeScanner, spikeRunOffset, spikeMasks);
+
+    logger.info("Found " + gapMasks.size() + " gaps, " + spikeMasks.size() + " spikes, and "
+        + repeatMasks.size() + " repeated amplitude series on " + channelSegment.getName());
+
+    return WaveformSignalQcMasks.create(gapMasks, spikeMasks, repeatMasks);
+  }
+
+  /**
+   * Creates a {@link WaveformSpike3PtQcMask} for each spike found by the spikeScanner
+   *
+   * @param channelSegment {@link ChannelSegment} containing the spikes, not null
+   * @param spikeScanner scanner over a group of adjacent waveforms, may be null
+   * @param runOffset ChannelSegment sample index of the group's first sample
+   * @param spikeMasks list the new masks are added to, not null
+   */
+  private static void addSpikeMasks(ChannelSegment channelSegment, Spike3PtScanner spikeScanner,
+      int runOffset, List<WaveformSpike3PtQcMask> spikeMasks) {
+
+    if (spikeScanner != null) {
+      for (int i : spikeScanner.getSpikes()) {
+        spikeMasks.add(WaveformSpike3PtQcMask.create(channelSegment.getProcessingChannelId(),
+            channelSegment.getId(), channelSegment.timeForSample(runOffset + i)));
+      }
+    }
+  }
+
+  /**
+   * Constructs a {@link WaveformSignalQcInterpreter}.  Each check is enabled by providing its
+   * parameters, which have the same meaning and limits as the parameters of the check's own
+   * interpreter.
+   */
+  public static class Builder {
+
+    private boolean gapsEnabled = false;
+    private int minLongGapLengthInSamples;
+
+    private boolean spikesEnabled = false;
+    private double minConsecutiveSampleDifferenceSpikeThreshold;
+    private int rmsLeadSampleDifferences;
+    private int rmsLagSampleDifferences;
+    private double rmsAmplitudeRatioThreshold;
+
+    private boolean repeatedAmplitudesEnabled = false;
+    private int minRepeatedSamples;
+    private double maxDeltaFromStartAmplitude;
+
+    private Builder() {
+    }
+
+    /**
+     * Enables the gap check.  See {@link WaveformGapInterpreter#createWaveformGapQcMasks(ChannelSegment,
+     * int)}.
+     *
+     * @param minLongGapLengthInSamples threshold between long and repairable gaps, must be >= 1
+     * @return this Builder, not null
+     * @throws IllegalArgumentException if minLongGapLengthInSamples < 1
+     */
+    public Builder gaps(int minLongGapLengthInSamples) {
+      if (minLongGapLengthInSamples < 1) {
+        throw new IllegalArgumentException(
+            "WaveformSignalQcInterpreter requires minLongGapLengthInSamples > 0");
+      }
+
+      this.gapsEnabled = true;
+      this.minLongGapLengthInSamples = minLongGapLengthInSamples;
+      return this;
+    }
+
+    /**
+     * Enables the 3pt spike check.  See {@link WaveformSpike3PtInterpreter#createWaveformSpike3PtQcMasks(ChannelSegment,
+     * double, int, int, double)}.
+     *
+     * @param minConsecutiveSampleDifferenceSpikeThreshold threshold for a spike mask, must be > 0
+     * and < 1.0
+     * @param rmsLeadSampleDifferences number of sample differences before the 3pt difference used
+     * when computing RMS, must be >= 0
+     * @param rmsLagSampleDifferences number of samples differences after the 3pt difference used
+     * when computing RMS, must be >= 0
+     * @param rmsAmplitudeRatioThreshold amplitude ratio threshold for a spike mask, must be > 1.0
+     * @return this Builder, not null
+     * @throws IllegalArgumentException if minConsecutiveSampleDifferenceSpikeThreshold is not in
+     * (0.0, 1.0); if rmsLeadSampleDifferences < 0; if rmsLagSampleDifferences < 0; if
+     * (rmsLeadSampleDifferences + rmsLagSampleDifferences) < 2; if rmsAmplitudeRatioThreshold <=
+     * 1.0
+     */
+    public Builder spikes3Pt(double minConsecutiveSampleDifferenceSpikeThreshold,
+        int rmsLeadSampleDifferences, int rmsLagSampleDifferences,
+        double rmsAmplitudeRatioThreshold) {
+
+      if (minConsecutiveSampleDifferenceSpikeThreshold <= 0
+          || minConsecutiveSampleDifferenceSpikeThreshold >= 1.0) {
+        throw new IllegalArgumentException(
+            "WaveformSignalQcInterpreter requires minConsecutiveSampleDifferenceSpikeThreshold > 0.0 and < 1.0");
+      }
+
+      if (rmsLeadSampleDifferences < 0 || rmsLagSampleDifferences < 0) {
+        throw new IllegalArgumentException(
+            "WaveformSignalQcInterpreter requires rmsLeadSampleDifferences >= 0 and rmsLagSampleDifferences >= 0");
+      }
+
+      if (rmsLeadSampleDifferences + rmsLagSampleDifferences < 2) {
+        throw new IllegalArgumentException(
+            "WaveformSignalQcInterpreter requires (rmsLeadSampleDifferences + rmsLagSampleDifferences) >= 2");
+      }
+
+      if (rmsAmplitudeRatioThreshold <= 1.0) {
+        throw new IllegalArgumentException(
+            "WaveformSignalQcInterpreter requires rmsAmplitudeRatioThreshold > 1.0");
+      }
+
+      this.spikesEnabled = true;
+      this.minConsecutiveSampleDifferenceSpikeThreshold =
+          minConsecutiveSampleDifferenceSpikeThreshold;
+      this.rmsLeadSampleDifferences = rmsLeadSampleDifferences;
+      this.rmsLagSampleDifferences = rmsLagSampleDifferences;
+      this.rmsAmplitudeRatioThreshold = rmsAmplitudeRatioThreshold;
+      return this;
+    }
+
+    /**
+     * Enables the repeated adjacent amplitude check.  See {@link WaveformRepeatedAmplitudeInterpreter#createWaveformRepeatedAmplitudeQcMasks(ChannelSegment,
+     * int, double)}.
+     *
+     * @param minRepeatedSamples minimum number of repeated adjacent values in a series, > 1
+     * @param maxDeltaFromStartAmplitude maximum difference between a sample and the first sample
+     * in the series that is considered a repeat, >= 0.0
+     * @return this Builder, not null
+     * @throws IllegalArgumentException if minRepeatedSamples is <= 1 or maxDeltaFromStartAmplitude
+     * < 0.0
+     */
+    public Builder repeatedAmplitudes(int minRepeatedSamples, double maxDeltaFromStartAmplitude) {
+      if (minRepeatedSamples <= 1) {
+        throw new IllegalArgumentException(
+            "WaveformSignalQcInterpreter requires minRepeatedSamples > 1");
+      }
+
+      if (maxDeltaFromStartAmplitude < 0.0) {
+        throw new IllegalArgumentException(
+            "WaveformSignalQcInterpreter requires maxDeltaFromStartAmplitude >= 0.0");
+      }
+
+      this.repeatedAmplitudesEnabled = true;
+      this.minRepeatedSamples = minRepeatedSamples;
+      this.maxDeltaFromStartAmplitude = maxDeltaFromStartAmplitude;
+      return this;
+    }
+
+    public WaveformSignalQcInterpreter build() {
+      return new WaveformSignalQcInterpreter(this);
+    }
+  }
+}
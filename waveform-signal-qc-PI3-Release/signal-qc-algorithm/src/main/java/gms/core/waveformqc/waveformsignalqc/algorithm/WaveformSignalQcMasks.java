@@ -0,0 +1,64 @@
+package gms.core.waveformqc.waveformsignalqc.algorithm;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The masks found by each check in one {@link WaveformSignalQcInterpreter} pass over a {@link
+ * gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment}.
+ * Checks which were not enabled have no masks.
+ */
+public class WaveformSignalQcMasks {
+
+  private final List<WaveformGapQcMask> gapQcMasks;
+  private final List<WaveformSpike3PtQcMask> spike3PtQcMasks;
+  private final List<WaveformRepeatedAmplitudeQcMask> repeatedAmplitudeQcMasks;
+
+  private WaveformSignalQcMasks(List<WaveformGapQcMask> gapQcMasks,
+      List<WaveformSpike3PtQcMask> spike3PtQcMasks,
+      List<WaveformRepeatedAmplitudeQcMask> repeatedAmplitudeQcMasks) {
+
+    this.gapQcMasks = gapQcMasks;
+    this.spike3PtQcMasks = spike3PtQcMasks;
+    this.repeatedAmplitudeQcMasks = repeatedAmplitudeQcMasks;
+  }
+
+  /**
+   * Obtains a new {@link WaveformSignalQcMasks} from the masks found by each check
+   *
+   * @param gapQcMasks {@link WaveformGapQcMask}s, not null
+   * @param spike3PtQcMasks {@link WaveformSpike3PtQcMask}s, not null
+   * @param repeatedAmplitudeQcMasks {@link WaveformRepeatedAmplitudeQcMask}s, not null
+   * @return WaveformSignalQcMasks, not null
+   * @throws NullPointerException if gapQcMasks, spike3PtQcMasks, or repeatedAmplitudeQcMasks are
+   * null
+   */
+  public static WaveformSignalQcMasks create(List<WaveformGapQcMask> gapQcMasks,
+      List<WaveformSpike3PtQcMask> spike3PtQcMasks,
+      List<WaveformRepeatedAmplitudeQcMask> repeatedAmplitudeQcMasks) {
+
+    Objects.requireNonNull(gapQcMasks,
+        "Error creating WaveformSignalQcMasks: gapQcMasks cannot be null");
+    Objects.requireNonNull(spike3PtQcMasks,
+        "Error creating WaveformSignalQcMasks: spike3PtQcMasks cannot be null");
+    Objects.requireNonNull(repeatedAmplitudeQcMasks,
+        "Error creating WaveformSignalQcMasks: repeatedAmplitudeQcMasks cannot be null");
+
+    return new WaveformSignalQcMasks(Collections.unmodifiableList(gapQcMasks),
+        Collections.unmodifiableList(spike3PtQcMasks),
+        Collections.unmodifiableList(repeatedAmplitudeQcMasks));
+  }
+
+  public List<WaveformGapQcMask> getGapQcMasks() {
+    return gapQcMasks;
+  }
+
+  public List<WaveformSpike3PtQcMask> getSpike3PtQcMasks() {
+    return spike3PtQcMasks;
+  }
+
+  public List<WaveformRepeatedAmplitudeQcMask> getRepeatedAmplitudeQcMasks() {
+    return repeatedAmplitudeQcMasks;
+  }
+}
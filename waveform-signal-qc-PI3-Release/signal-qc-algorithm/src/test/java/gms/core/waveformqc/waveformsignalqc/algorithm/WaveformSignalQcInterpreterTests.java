@@ -0,0 +1,211 @@
+package gms.core.waveformqc.waveformsignalqc.algorithm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.CreationInfo;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment.ChannelSegmentType;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class WaveformSignalQcInterpreterTests {
+
+  @Rule
+  public final ExpectedException exception = ExpectedException.none();
+
+  private static final double sampleRate = 20.0;
+  private static final long nanosPerSample = 50_000_000L;
+
+  private final WaveformSignalQcInterpreter allChecks = WaveformSignalQcInterpreter.builder()
+      .gaps(10)
+      .spikes3Pt(0.5, 9, 9, 4.0)
+      .repeatedAmplitudes(5, 0.25)
+      .build();
+
+  /**
+   * Assert the single pass finds the same masks as running each check's interpreter separately
+   */
+  @Test
+  public void testCreateQcMasksMatchesIndividualInterpreters() throws Exception {
+    final Random random = new Random(17);
+
+    for (int trial = 0; trial < 20; ++trial) {
+      final ChannelSegment channelSegment = randomChannelSegment(random);
+      final WaveformSignalQcMasks masks = allChecks.createQcMasks(channelSegment);
+
+      final List<WaveformGapQcMask> expectedGaps = WaveformGapInterpreter
+          .createWaveformGapQcMasks(channelSegment, 10);
+      assertEquals(describeGaps(expectedGaps), describeGaps(masks.getGapQcMasks()));
+
+      final List<WaveformSpike3PtQcMask> expectedSpikes = new WaveformSpike3PtInterpreter()
+          .createWaveformSpike3PtQcMasks(channelSegment, 0.5, 9, 9, 4.0);
+      assertFalse(expectedSpikes.isEmpty());
+      assertEquals(describe(expectedSpikes, WaveformSignalQcInterpreterTests::describeSpike),
+          describe(masks.getSpike3PtQcMasks(), WaveformSignalQcInterpreterTests::describeSpike));
+
+      final List<WaveformRepeatedAmplitudeQcMask> expectedRepeats =
+          new WaveformRepeatedAmplitudeInterpreter()
+              .createWaveformRepeatedAmplitudeQcMasks(channelSegment, 5, 0.25);
+      assertFalse(expectedRepeats.isEmpty());
+      assertEquals(describe(expectedRepeats, WaveformSignalQcInterpreterTests::describeRepeat),
+          describe(masks.getRepeatedAmplitudeQcMasks(),
+              WaveformSignalQcInterpreterTests::describeRepeat));
+    }
+  }
+
+  @Test
+  public void testCreateQcMasksRunsOnlyEnabledChecks() throws Exception {
+    // Two flat lined waveforms separated by a gap
+    final Waveform first = Waveform
+        .withInferredEndTime(Instant.EPOCH, sampleRate, 10, new double[10]);
+    final Waveform second = Waveform
+        .withInferredEndTime(first.getEndTime().plusSeconds(5), sampleRate, 10, new double[10]);
+    final ChannelSegment channelSegment = ChannelSegment
+        .create(UUID.randomUUID(), "segmentName", ChannelSegmentType.RAW, first.getStartTime(),
+            second.getEndTime(), new TreeSet<>(List.of(first, second)), CreationInfo.DEFAULT);
+
+    final WaveformSignalQcInterpreter gapsOnly = WaveformSignalQcInterpreter.builder()
+        .gaps(10).build();
+    assertTrue(gapsOnly.isGapsEnabled());
+    assertFalse(gapsOnly.isSpikesEnabled());
+    assertFalse(gapsOnly.isRepeatedAmplitudesEnabled());
+
+    final WaveformSignalQcMasks masks = gapsOnly.createQcMasks(channelSegment);
+    assertEquals(1, masks.getGapQcMasks().size());
+    assertTrue(masks.getSpike3PtQcMasks().isEmpty());
+    assertTrue(masks.getRepeatedAmplitudeQcMasks().isEmpty());
+
+    assertEquals(2, allChecks.createQcMasks(channelSegment).getRepeatedAmplitudeQcMasks().size());
+
+    final WaveformSignalQcMasks noMasks = WaveformSignalQcInterpreter.builder().build()
+        .createQcMasks(channelSegment);
+    assertTrue(noMasks.getGapQcMasks().isEmpty());
+    assertTrue(noMasks.getSpike3PtQcMasks().isEmpty());
+    assertTrue(noMasks.getRepeatedAmplitudeQcMasks().isEmpty());
+  }
+
+  @Test
+  public void testCreateQcMasksNullChannelSegmentExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage(
+        "WaveformSignalQcInterpreter.createQcMasks requires non-null channelSegment");
+    allChecks.createQcMasks(null);
+  }
+
+  @Test
+  public void testGapsMinLongGapLengthTooLowExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("WaveformSignalQcInterpreter requires minLongGapLengthInSamples > 0");
+    WaveformSignalQcInterpreter.builder().gaps(0);
+  }
+
+  @Test
+  public void testSpikesTooFewBackgroundDifferencesExpectIllegalArgumentException()
+      throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage(
+        "WaveformSignalQcInterpreter requires (rmsLeadSampleDifferences + rmsLagSampleDifferences) >= 2");
+    WaveformSignalQcInterpreter.builder().spikes3Pt(0.5, 1, 0, 4.0);
+  }
+
+  @Test
+  public void testSpikesRatioThresholdTooLowExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("WaveformSignalQcInterpreter requires rmsAmplitudeRatioThreshold > 1.0");
+    WaveformSignalQcInterpreter.builder().spikes3Pt(0.5, 9, 9, 1.0);
+  }
+
+  @Test
+  public void testRepeatedAmplitudesMinRepeatedSamplesTooLowExpectIllegalArgumentException()
+      throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("WaveformSignalQcInterpreter requires minRepeatedSamples > 1");
+    WaveformSignalQcInterpreter.builder().repeatedAmplitudes(1, 0.25);
+  }
+
+  @Test
+  public void testRepeatedAmplitudesNegativeDeltaExpectIllegalArgumentException()
+      throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage(
+        "WaveformSignalQcInterpreter requires maxDeltaFromStartAmplitude >= 0.0");
+    WaveformSignalQcInterpreter.builder().repeatedAmplitudes(5, -Double.MIN_NORMAL);
+  }
+
+  /**
+   * Creates a ChannelSegment of random noise containing spikes and flat lined series.  Waveforms
+   * are either adjacent to the previous waveform or follow a short or long gap, and some are
+   * longer than a scanning block.
+   */
+  private static ChannelSegment randomChannelSegment(Random random) {
+    final List<Waveform> waveforms = new ArrayList<>();
+
+    Instant start = Instant.EPOCH;
+    final int numWaveforms = 2 + random.nextInt(5);
+    for (int w = 0; w < numWaveforms; ++w) {
+      final int length = random.nextInt(4) == 0 ? 5000 + random.nextInt(5000)
+          : 1 + random.nextInt(600);
+      final Waveform waveform = Waveform
+          .withInferredEndTime(start, sampleRate, length, randomValues(random, length));
+      waveforms.add(waveform);
+
+      final int gapSamples = random.nextInt(3) == 0 ? 1 + random.nextInt(20) : 0;
+      start = waveform.getEndTime().plusNanos((1 + gapSamples) * nanosPerSample);
+    }
+
+    return ChannelSegment.create(UUID.randomUUID(), "segmentName", ChannelSegmentType.RAW,
+        waveforms.get(0).getStartTime(), waveforms.get(waveforms.size() - 1).getEndTime(),
+        new TreeSet<>(waveforms), CreationInfo.DEFAULT);
+  }
+
+  private static double[] randomValues(Random random, int length) {
+    final double[] values = new double[length];
+    for (int i = 0; i < length; ++i) {
+      final int kind = random.nextInt(100);
+      if (kind < 2) {
+        values[i] = (random.nextBoolean() ? 1 : -1) * 50.0;
+      } else if (kind < 4 && i > 0) {
+        // Start a flat lined series
+        final int end = Math.min(length, i + 3 + random.nextInt(12));
+        for (; i < end; ++i) {
+          values[i] = values[i - 1];
+        }
+        --i;
+      } else {
+        values[i] = random.nextGaussian();
+      }
+    }
+    return values;
+  }
+
+  private static List<String> describeGaps(List<WaveformGapQcMask> masks) {
+    return describe(masks, m -> m.getQcMaskType() + " " + m.getChannelId() + " "
+        + m.getChannelSegmentId() + " " + m.getStartTime() + " " + m.getEndTime());
+  }
+
+  private static String describeSpike(WaveformSpike3PtQcMask m) {
+    return m.getChannelId() + " " + m.getChannelSegmentId() + " " + m.getStartTime() + " "
+        + m.getEndTime();
+  }
+
+  private static String describeRepeat(WaveformRepeatedAmplitudeQcMask m) {
+    return m.getChannelId() + " " + m.getChannelSegmentId() + " " + m.getStartTime() + " "
+        + m.getEndTime();
+  }
+
+  private static <T> List<String> describe(List<T> masks, Function<T, String> description) {
+    return masks.stream().map(description).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,165 @@
+package gms.core.waveformqc.waveformsignalqc.plugin;
+
+import gms.core.waveformqc.waveformsignalqc.algorithm.WaveformRepeatedAmplitudeInterpreter;
+import gms.core.waveformqc.waveformsignalqc.algorithm.WaveformSignalQcInterpreter;
+import gms.core.waveformqc.waveformsignalqc.algorithm.WaveformSignalQcMasks;
+import gms.core.waveformqc.waveformsignalqc.algorithm.WaveformSpike3PtInterpreter;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.QcMask;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Runs the enabled gap, 3pt spike, and repeated adjacent amplitude checks using a single {@link
+ * WaveformSignalQcInterpreter} pass over each {@link ChannelSegment}, then creates and updates
+ * {@link QcMask}s for each check exactly as {@link WaveformGapQcPlugin}, {@link
+ * WaveformSpike3PtQcPlugin}, and {@link WaveformRepeatedAmplitudeQcPlugin} do.
+ *
+ * Wrap WaveformSignalQcPlugin in a plugin component implementing the {@link
+ * gms.core.waveformqc.waveformqccontrol.plugin.WaveformQcPlugin} to create the actual plugin.
+ */
+public class WaveformSignalQcPlugin {
+
+  private final WaveformSignalQcInterpreter interpreter;
+  private final Optional<WaveformGapQcPlugin> gapQcPlugin;
+  private final Optional<WaveformSpike3PtQcPlugin> spike3PtQcPlugin;
+  private final Optional<WaveformRepeatedAmplitudeQcPlugin> repeatedAmplitudeQcPlugin;
+
+  private WaveformSignalQcPlugin(WaveformSignalQcInterpreter interpreter,
+      Optional<WaveformGapQcPlugin> gapQcPlugin,
+      Optional<WaveformSpike3PtQcPlugin> spike3PtQcPlugin,
+      Optional<WaveformRepeatedAmplitudeQcPlugin> repeatedAmplitudeQcPlugin) {
+
+    this.interpreter = interpreter;
+    this.gapQcPlugin = gapQcPlugin;
+    this.spike3PtQcPlugin = spike3PtQcPlugin;
+    this.repeatedAmplitudeQcPlugin = repeatedAmplitudeQcPlugin;
+  }
+
+  /**
+   * Obtains a new {@link WaveformSignalQcPlugin} running the checks enabled in the provided {@link
+   * WaveformSignalQcPluginConfiguration}
+   *
+   * @param pluginConfiguration {@link WaveformSignalQcPluginConfiguration}, not null
+   * @return new {@link WaveformSignalQcPlugin}, not null
+   */
+  public static WaveformSignalQcPlugin create(
+      WaveformSignalQcPluginConfiguration pluginConfiguration) {
+
+    Objects.requireNonNull(pluginConfiguration,
+        "WaveformSignalQcPlugin create cannot accept null pluginConfiguration");
+
+    final WaveformSignalQcInterpreter.Builder builder = WaveformSignalQcInterpreter.builder();
+
+    pluginConfiguration.getGapConfiguration()
+        .map(WaveformGapQcPluginConfiguration::createParameters)
+        .ifPresent(p -> builder.gaps(p.getMinLongGapLengthInSamples()));
+
+    pluginConfiguration.getSpike3PtConfiguration()
+        .map(WaveformSpike3PtQcPluginConfiguration::createParameters)
+        .ifPresent(p -> builder.spikes3Pt(p.getMinConsecutiveSampleDifferenceSpikeThreshold(),
+            p.getRmsLeadSampleDifferences(), p.getRmsLagSampleDifferences(),
+            p.getRmsAmplitudeRatioThreshold()));
+
+    pluginConfiguration.getRepeatedAmplitudeConfiguration()
+        .map(WaveformRepeatedAmplitudeQcPluginConfiguration::createParameters)
+        .ifPresent(p -> builder.repeatedAmplitudes(p.getMinSeriesLengthInSamples(),
+            p.getMaxDeltaFromStartAmplitude()));
+
+    // The wrapped plugins only create QcMasks from the interpreter's masks, so their own
+    // interpreters are never used
+    return new WaveformSignalQcPlugin(builder.build(),
+        pluginConfiguration.getGapConfiguration().map(WaveformGapQcPlugin::create),
+        pluginConfiguration.getSpike3PtConfiguration()
+            .map(c -> WaveformSpike3PtQcPlugin.create(c, new WaveformSpike3PtInterpreter())),
+        pluginConfiguration.getRepeatedAmplitudeConfiguration()
+            .map(c -> WaveformRepeatedAmplitudeQcPlugin
+                .create(c, new WaveformRepeatedAmplitudeInterpreter())));
+  }
+
+  /**
+   * Runs each enabled check on the provided {@link ChannelSegment}s and updates as necessary the
+   * existing QcMasks.  Assumes the QcMasks and ChannelSegments occur in the same time intervals.
+   * Returns the new QcMasks and updated existingQcMasks of every enabled check.
+   *
+   * @param channelSegments {@link ChannelSegment} to check, not null
+   * @param existingQcMasks existing {@link QcMask} that might be updated, not null
+   * @param creationInfoId id to the {@link gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.CreationInformation}
+   * associated with returned {@link QcMask}
+   * @return Stream of new or updated {@link QcMask}, not null
+   */
+  public Stream<QcMask> createQcMasks(Collection<ChannelSegment> channelSegments,
+      Collection<QcMask> existingQcMasks, UUID creationInfoId) {
+
+    Objects.requireNonNull(creationInfoId,
+        "WaveformSignalQcPlugin createQcMasks cannot accept null creationInfoId");
+
+    return createQcMasks(channelSegments, existingQcMasks, creationInfoId, creationInfoId,
+        creationInfoId);
+  }
+
+  /**
+   * Runs each enabled check on the provided {@link ChannelSegment}s and updates as necessary the
+   * existing QcMasks.  Assumes the QcMasks and ChannelSegments occur in the same time intervals.
+   * Returns the new QcMasks and updated existingQcMasks of every enabled check.  Each check's
+   * QcMasks are associated with that check's creation information, matching the QcMasks created by
+   * the check's individual plugin.
+   *
+   * @param channelSegments {@link ChannelSegment} to check, not null
+   * @param existingQcMasks existing {@link QcMask} that might be updated, not null
+   * @param gapCreationInfoId id to the {@link gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.CreationInformation}
+   * associated with returned gap {@link QcMask}, not null if the gap check is enabled
+   * @param spike3PtCreationInfoId id to the CreationInformation associated with returned 3pt spike
+   * QcMask, not null if the 3pt spike check is enabled
+   * @param repeatedAmplitudeCreationInfoId id to the CreationInformation associated with returned
+   * repeated adjacent amplitude QcMask, not null if the repeated amplitude check is enabled
+   * @return Stream of new or updated {@link QcMask}, not null
+   * @throws NullPointerException if channelSegments, existingQcMasks, or the creation information
+   * id of an enabled check are null
+   */
+  public Stream<QcMask> createQcMasks(Collection<ChannelSegment> channelSegments,
+      Collection<QcMask> existingQcMasks, UUID gapCreationInfoId, UUID spike3PtCreationInfoId,
+      UUID repeatedAmplitudeCreationInfoId) {
+
+    Objects.requireNonNull(channelSegments,
+        "WaveformSignalQcPlugin createQcMasks cannot accept null channelSegments");
+    Objects.requireNonNull(existingQcMasks,
+        "WaveformSignalQcPlugin createQcMasks cannot accept null existingQcMasks");
+    gapQcPlugin.ifPresent(p -> Objects.requireNonNull(gapCreationInfoId,
+        "WaveformSignalQcPlugin createQcMasks cannot accept null gapCreationInfoId"));
+    spike3PtQcPlugin.ifPresent(p -> Objects.requireNonNull(spike3PtCreationInfoId,
+        "WaveformSignalQcPlugin createQcMasks cannot accept null spike3PtCreationInfoId"));
+    repeatedAmplitudeQcPlugin.ifPresent(p -> Objects.requireNonNull(repeatedAmplitudeCreationInfoId,
+        "WaveformSignalQcPlugin createQcMasks cannot accept null repeatedAmplitudeCreationInfoId"));
+
+    // One pass over each ChannelSegment finds the masks for every check.  The checks look up the
+    // same ChannelSegment instances, so key by identity rather than hashing every sample of each
+    // ChannelSegment's waveforms.
+    final Map<ChannelSegment, WaveformSignalQcMasks> masksBySegment = new IdentityHashMap<>();
+    channelSegments.forEach(c -> masksBySegment.put(c, interpreter.createQcMasks(c)));
+
+    final Stream<QcMask> gaps = gapQcPlugin
+        .map(p -> p.createQcMasks(channelSegments, c -> masksBySegment.get(c).getGapQcMasks(),
+            existingQcMasks, gapCreationInfoId))
+        .orElseGet(Stream::empty);
+
+    final Stream<QcMask> spikes = spike3PtQcPlugin
+        .map(p -> p.createQcMasks(channelSegments,
+            c -> masksBySegment.get(c).getSpike3PtQcMasks(), existingQcMasks,
+            spike3PtCreationInfoId))
+        .orElseGet(Stream::empty);
+
+    final Stream<QcMask> repeats = repeatedAmplitudeQcPlugin
+        .map(p -> p.createQcMasks(channelSegments,
+            c -> masksBySegment.get(c).getRepeatedAmplitudeQcMasks(), existingQcMasks,
+            repeatedAmplitudeCreationInfoId))
+        .orElseGet(Stream::empty);
+
+    return Stream.of(gaps, spikes, repeats).flatMap(s -> s);
+  }
+}
@@ -0,0 +1,202 @@
+package gms.core.waveformqc.waveformsignalqc.plugin;
+
+import gms.core.waveformqc.waveformqccontrol.objects.PluginVersion;
+import gms.core.waveformqc.waveformqccontrol.objects.RegistrationInfo;
+import gms.core.waveformqc.waveformqccontrol.objects.WaveformQcChannelSohStatus;
+import gms.core.waveformqc.waveformqccontrol.plugin.PluginConfiguration;
+import gms.core.waveformqc.waveformqccontrol.plugin.WaveformQcPlugin;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.QcMask;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A component wrapping a {@link WaveformSignalQcPlugin} by implementing the {@link
+ * WaveformQcPlugin} interface. Provides a name and version number but defers logic to the
+ * WaveformSignalQcPlugin.
+ */
+public class WaveformSignalQcPluginComponent implements WaveformQcPlugin {
+
+  private static final Logger logger = LoggerFactory.getLogger(WaveformSignalQcPluginComponent.class);
+
+  private static final String PLUGIN_NAME = "waveformSignalQcPlugin";
+
+  private static final PluginVersion pluginVersion = PluginVersion.from(1, 0, 0);
+
+  // Masks from each check reference the provenance of that check's individual plugin
+  private static final RegistrationInfo GAP_CHECK =
+      registrationInfo(new WaveformGapQcPluginComponent());
+
+  private static final RegistrationInfo SPIKE_3PT_CHECK =
+      registrationInfo(new WaveformSpike3PtQcPluginComponent());
+
+  private static final RegistrationInfo REPEATED_AMPLITUDE_CHECK =
+      registrationInfo(new WaveformRepeatedAmplitudeQcPluginComponent());
+
+  private WaveformSignalQcPlugin plugin = null;
+
+  private List<RegistrationInfo> checkRegistrationInfos = null;
+
+  /**
+   * Obtains this plugin component's name
+   *
+   * @return String, not null
+   */
+  @Override
+  public String getName() {
+    return PLUGIN_NAME;
+  }
+
+  /**
+   * Obtains this plugin component's verion number
+   *
+   * @return {@link PluginVersion}, not null
+   */
+  @Override
+  public PluginVersion getVersion() {
+    return pluginVersion;
+  }
+
+  /**
+   * Initialize using the provided {@link PluginConfiguration}.  Creates the wrapped {@link
+   * WaveformSignalQcPlugin}.  Must only be called once and must be called before the first call to
+   * {@link WaveformSignalQcPluginComponent#generateQcMasks(Collection, Collection, Collection, UUID)}
+   *
+   * @param pluginConfiguration generic PluginConfiguration, not null
+   * @throws NullPointerException if pluginConfiguration is null
+   * @throws IllegalStateException if this operation is called more than once
+   */
+  @Override
+  public void initialize(PluginConfiguration pluginConfiguration) {
+    Objects.requireNonNull(pluginConfiguration,
+        "WaveformSignalQcPluginComponent cannot be initialized with null PluginConfiguration");
+
+    if (null != plugin) {
+      throw new IllegalStateException("WaveformSignalQcPluginComponent cannot be initialized twice");
+    }
+
+    final WaveformSignalQcPluginConfiguration configuration = WaveformSignalQcPluginConfiguration
+        .from(pluginConfiguration);
+
+    final List<RegistrationInfo> checks = new ArrayList<>();
+    configuration.getGapConfiguration().ifPresent(c -> checks.add(GAP_CHECK));
+    configuration.getSpike3PtConfiguration().ifPresent(c -> checks.add(SPIKE_3PT_CHECK));
+    configuration.getRepeatedAmplitudeConfiguration()
+        .ifPresent(c -> checks.add(REPEATED_AMPLITUDE_CHECK));
+
+    plugin = WaveformSignalQcPlugin.create(configuration);
+    checkRegistrationInfos = List.copyOf(checks);
+  }
+
+  /**
+   * Obtains the {@link RegistrationInfo} of the individual gap, 3pt spike, and repeated adjacent
+   * amplitude plugins for each enabled check.  The QcMasks created by each check reference
+   * provenance identifying that check's individual plugin.
+   * Must only be called after {@link WaveformSignalQcPluginComponent#initialize(PluginConfiguration)}
+   *
+   * @return RegistrationInfo of each enabled check, not null
+   * @throws IllegalStateException if this operation is called prior to {@link
+   * WaveformSignalQcPluginComponent#initialize(PluginConfiguration)}
+   */
+  @Override
+  public List<RegistrationInfo> getCheckRegistrationInfos() {
+    if (null == plugin) {
+      throw new IllegalStateException(
+          "WaveformSignalQcPluginComponent cannot be used before it is initialized");
+    }
+
+    return checkRegistrationInfos;
+  }
+
+  /**
+   * Uses the wrapped {@link WaveformSignalQcPlugin} to create gap, 3pt spike, and repeated adjacent
+   * amplitude {@link QcMask}s.
+   * Must only be called after {@link WaveformSignalQcPluginComponent#initialize(PluginConfiguration)}
+   *
+   * @param channelSegments {@link ChannelSegment}s to check, not null
+   * @param waveformQcChannelSohStatuses {@link WaveformQcChannelSohStatus}, not null
+   * @param existingQcMasks Previously created {@link QcMask}s that can affect processing, not null
+   * @param creationInfoId {@link UUID} to a {@link gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.CreationInfo}
+   * to associate with new QcMasks, not null
+   * @return Stream of new or updated QcMasks, not null
+   * @throws NullPointerException if channelSegments, waveformQcChannelSohStatuses, existingQcMasks,
+   * or creationInfoId are null
+   * @throws IllegalStateException if this operation is called prior to {@link
+   * WaveformSignalQcPluginComponent#initialize(PluginConfiguration)}
+   */
+  @Override
+  public Stream<QcMask> generateQcMasks(Collection<ChannelSegment> channelSegments,
+      Collection<WaveformQcChannelSohStatus> waveformQcChannelSohStatuses,
+      Collection<QcMask> existingQcMasks, UUID creationInfoId) {
+    logger.info("WaveformSignalQcPluginComponent generateQcMasks invoked with Channel Segments:{},"
+        + "Soh:{}, QcMasks:{}", channelSegments, waveformQcChannelSohStatuses, existingQcMasks);
+
+    Objects.requireNonNull(channelSegments,
+        "WaveformSignalQcPluginComponent cannot generateQcMasks with null channelSegments");
+    Objects.requireNonNull(waveformQcChannelSohStatuses,
+        "WaveformSignalQcPluginComponent cannot generateQcMasks with null waveformQcChannelSohStatuses");
+    Objects.requireNonNull(existingQcMasks,
+        "WaveformSignalQcPluginComponent cannot generateQcMasks with null existingQcMasks");
+    Objects.requireNonNull(creationInfoId,
+        "WaveformSignalQcPluginComponent cannot generateQcMasks with null creationInfoId");
+
+    if (null == plugin) {
+      throw new IllegalStateException(
+          "WaveformSignalQcPluginComponent cannot be used before it is initialized");
+    }
+
+    return plugin.createQcMasks(channelSegments, existingQcMasks, creationInfoId);
+  }
+
+  /**
+   * Uses the wrapped {@link WaveformSignalQcPlugin} to create gap, 3pt spike, and repeated adjacent
+   * amplitude {@link QcMask}s where each check's QcMasks reference that check's creation
+   * information.
+   * Must only be called after {@link WaveformSignalQcPluginComponent#initialize(PluginConfiguration)}
+   *
+   * @param channelSegments {@link ChannelSegment}s to check, not null
+   * @param waveformQcChannelSohStatuses {@link WaveformQcChannelSohStatus}, not null
+   * @param existingQcMasks Previously created {@link QcMask}s that can affect processing, not null
+   * @param creationInfoIds creation information id for each of the {@link
+   * WaveformSignalQcPluginComponent#getCheckRegistrationInfos()}, not null
+   * @return Stream of new or updated QcMasks, not null
+   * @throws NullPointerException if channelSegments, waveformQcChannelSohStatuses, existingQcMasks,
+   * or creationInfoIds are null, or creationInfoIds is missing an enabled check's id
+   * @throws IllegalStateException if this operation is called prior to {@link
+   * WaveformSignalQcPluginComponent#initialize(PluginConfiguration)}
+   */
+  @Override
+  public Stream<QcMask> generateQcMasks(Collection<ChannelSegment> channelSegments,
+      Collection<WaveformQcChannelSohStatus> waveformQcChannelSohStatuses,
+      Collection<QcMask> existingQcMasks, Map<RegistrationInfo, UUID> creationInfoIds) {
+
+    Objects.requireNonNull(channelSegments,
+        "WaveformSignalQcPluginComponent cannot generateQcMasks with null channelSegments");
+    Objects.requireNonNull(waveformQcChannelSohStatuses,
+        "WaveformSignalQcPluginComponent cannot generateQcMasks with null waveformQcChannelSohStatuses");
+    Objects.requireNonNull(existingQcMasks,
+        "WaveformSignalQcPluginComponent cannot generateQcMasks with null existingQcMasks");
+    Objects.requireNonNull(creationInfoIds,
+        "WaveformSignalQcPluginComponent cannot generateQcMasks with null creationInfoIds");
+
+    if (null == plugin) {
+      throw new IllegalStateException(
+          "WaveformSignalQcPluginComponent cannot be used before it is initialized");
+    }
+
+    return plugin.createQcMasks(channelSegments, existingQcMasks,
+        creationInfoIds.get(GAP_CHECK), creationInfoIds.get(SPIKE_3PT_CHECK),
+        creationInfoIds.get(REPEATED_AMPLITUDE_CHECK));
+  }
+
+  private static RegistrationInfo registrationInfo(WaveformQcPlugin plugin) {
+    return RegistrationInfo.from(plugin.getName(), plugin.getVersion());
+  }
+}
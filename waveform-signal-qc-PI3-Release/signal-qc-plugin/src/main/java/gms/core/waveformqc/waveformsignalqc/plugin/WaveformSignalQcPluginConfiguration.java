@@ -0,0 +1,106 @@
+package gms.core.waveformqc.waveformsignalqc.plugin;
+
+import gms.core.waveformqc.waveformqccontrol.plugin.PluginConfiguration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Configuration for the {@link WaveformSignalQcPlugin}
+ *
+ * Configuration is the configuration of each enabled check.  Each check uses the same
+ * configuration keys as its own plugin ({@link WaveformGapQcPluginConfiguration}, {@link
+ * WaveformSpike3PtQcPluginConfiguration}, and {@link WaveformRepeatedAmplitudeQcPluginConfiguration}),
+ * and a check is enabled when its first key is present.
+ */
+public class WaveformSignalQcPluginConfiguration {
+
+  private final static String GAP_KEY = "minLongGapLengthInSamples";
+  private final static String SPIKE_3PT_KEY = "minConsecutiveSampleDifferenceSpikeThreshold";
+  private final static String REPEATED_AMPLITUDE_KEY = "minSeriesLengthInSamples";
+
+  private final WaveformGapQcPluginConfiguration gapConfiguration;
+  private final WaveformSpike3PtQcPluginConfiguration spike3PtConfiguration;
+  private final WaveformRepeatedAmplitudeQcPluginConfiguration repeatedAmplitudeConfiguration;
+
+  private WaveformSignalQcPluginConfiguration(
+      WaveformGapQcPluginConfiguration gapConfiguration,
+      WaveformSpike3PtQcPluginConfiguration spike3PtConfiguration,
+      WaveformRepeatedAmplitudeQcPluginConfiguration repeatedAmplitudeConfiguration) {
+
+    this.gapConfiguration = gapConfiguration;
+    this.spike3PtConfiguration = spike3PtConfiguration;
+    this.repeatedAmplitudeConfiguration = repeatedAmplitudeConfiguration;
+  }
+
+  /**
+   * Obtain a specific {@link WaveformSignalQcPluginConfiguration} from a generic {@link
+   * PluginConfiguration}
+   *
+   * The gap check is enabled when the PluginConfiguration has a value for key {@link
+   * WaveformSignalQcPluginConfiguration#GAP_KEY}, the 3pt spike check when it has a value for key
+   * {@link WaveformSignalQcPluginConfiguration#SPIKE_3PT_KEY}, and the repeated adjacent amplitude
+   * check when it has a value for key {@link WaveformSignalQcPluginConfiguration#REPEATED_AMPLITUDE_KEY}.
+   * Each enabled check's configuration is parsed by its own plugin configuration.
+   *
+   * @param pluginConfig PluginConfiguration, not null
+   * @return WaveformSignalQcPluginConfiguration, not null
+   * @throws NullPointerException if pluginConfig is null
+   * @throws IllegalArgumentException if no check is enabled; if an enabled check's configuration
+   * is not valid
+   */
+  public static WaveformSignalQcPluginConfiguration from(PluginConfiguration pluginConfig) {
+    Objects.requireNonNull(pluginConfig,
+        "WaveformSignalQcPluginConfiguration.from requires non-null PluginConfiguration");
+
+    final WaveformGapQcPluginConfiguration gapConfiguration =
+        pluginConfig.getParameter(GAP_KEY).isPresent()
+            ? WaveformGapQcPluginConfiguration.from(pluginConfig) : null;
+
+    final WaveformSpike3PtQcPluginConfiguration spike3PtConfiguration =
+        pluginConfig.getParameter(SPIKE_3PT_KEY).isPresent()
+            ? WaveformSpike3PtQcPluginConfiguration.from(pluginConfig) : null;
+
+    final WaveformRepeatedAmplitudeQcPluginConfiguration repeatedAmplitudeConfiguration =
+        pluginConfig.getParameter(REPEATED_AMPLITUDE_KEY).isPresent()
+            ? WaveformRepeatedAmplitudeQcPluginConfiguration.from(pluginConfig) : null;
+
+    if (gapConfiguration == null && spike3PtConfiguration == null
+        && repeatedAmplitudeConfiguration == null) {
+      throw new IllegalArgumentException(
+          "WaveformSignalQcPluginConfiguration.from requires PluginConfiguration with a configuration for at least one of "
+              + GAP_KEY + ", " + SPIKE_3PT_KEY + ", or " + REPEATED_AMPLITUDE_KEY);
+    }
+
+    return new WaveformSignalQcPluginConfiguration(gapConfiguration, spike3PtConfiguration,
+        repeatedAmplitudeConfiguration);
+  }
+
+  /**
+   * Obtains the gap check's configuration
+   *
+   * @return {@link WaveformGapQcPluginConfiguration}, or empty if the gap check is not enabled
+   */
+  public Optional<WaveformGapQcPluginConfiguration> getGapConfiguration() {
+    return Optional.ofNullable(gapConfiguration);
+  }
+
+  /**
+   * Obtains the 3pt spike check's configuration
+   *
+   * @return {@link WaveformSpike3PtQcPluginConfiguration}, or empty if the 3pt spike check is not
+   * enabled
+   */
+  public Optional<WaveformSpike3PtQcPluginConfiguration> getSpike3PtConfiguration() {
+    return Optional.ofNullable(spike3PtConfiguration);
+  }
+
+  /**
+   * Obtains the repeated adjacent amplitude check's configuration
+   *
+   * @return {@link WaveformRepeatedAmplitudeQcPluginConfiguration}, or empty if the repeated
+   * adjacent amplitude check is not enabled
+   */
+  public Optional<WaveformRepeatedAmplitudeQcPluginConfiguration> getRepeatedAmplitudeConfiguration() {
+    return Optional.ofNullable(repeatedAmplitudeConfiguration);
+  }
+}
@@ -0,0 +1,136 @@
+package gms.core.waveformqc.waveformsignalqc.plugin;
+
+import static org.junit.Assert.assertEquals;
+
+import gms.core.waveformqc.waveformqccontrol.objects.PluginVersion;
+import gms.core.waveformqc.waveformqccontrol.objects.RegistrationInfo;
+import gms.core.waveformqc.waveformqccontrol.plugin.PluginConfiguration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class WaveformSignalQcPluginComponentTests {
+
+  // TODO: testing initialize and generate left to component or integration testing
+
+  @Rule
+  public final ExpectedException exception = ExpectedException.none();
+
+  private static WaveformSignalQcPluginComponent createInitializedPluginComponent() {
+    WaveformSignalQcPluginComponent component = new WaveformSignalQcPluginComponent();
+    component.initialize(pluginConfiguration());
+
+    return component;
+  }
+
+  private static PluginConfiguration pluginConfiguration() {
+    return PluginConfiguration.builder()
+        .add("minSeriesLengthInSamples", 2)
+        .add("maxDeltaFromStartAmplitude", 2.5)
+        .add("maskMergeThresholdSeconds", 0.001)
+        .build();
+  }
+
+  @Test
+  public void testGetName() throws Exception {
+    assertEquals("waveformSignalQcPlugin",
+        new WaveformSignalQcPluginComponent().getName());
+  }
+
+  @Test
+  public void testGetVersion() throws Exception {
+    assertEquals(PluginVersion.from(1, 0, 0),
+        new WaveformSignalQcPluginComponent().getVersion());
+  }
+
+  @Test
+  public void testInitializeNullParameterExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage(
+        "WaveformSignalQcPluginComponent cannot be initialized with null PluginConfiguration");
+    new WaveformSignalQcPluginComponent().initialize(null);
+  }
+
+  @Test
+  public void testInitializeTwiceExpectIllegalStateException() throws Exception {
+    WaveformSignalQcPluginComponent component = createInitializedPluginComponent();
+
+    exception.expect(IllegalStateException.class);
+    exception
+        .expectMessage("WaveformSignalQcPluginComponent cannot be initialized twice");
+    component.initialize(pluginConfiguration());
+  }
+
+  @Test
+  public void testGenerateWithoutInitializeExpectIllegalStateExdception() throws Exception {
+    exception.expect(IllegalStateException.class);
+    exception.expectMessage(
+        "WaveformSignalQcPluginComponent cannot be used before it is initialized");
+    new WaveformSignalQcPluginComponent()
+        .generateQcMasks(List.of(), List.of(), List.of(), UUID.randomUUID());
+  }
+
+  @Test
+  public void testGenerateNullChannelSegmentsExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage(
+        "WaveformSignalQcPluginComponent cannot generateQcMasks with null channelSegments");
+    createInitializedPluginComponent()
+        .generateQcMasks(null, List.of(), List.of(), UUID.randomUUID());
+  }
+
+  @Test
+  public void testGenerateNullSohStatusExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage(
+        "WaveformSignalQcPluginComponent cannot generateQcMasks with null waveformQcChannelSohStatuses");
+    createInitializedPluginComponent()
+        .generateQcMasks(List.of(), null, List.of(), UUID.randomUUID());
+  }
+
+  @Test
+  public void testGenerateNullExistingQcMasksExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage(
+        "WaveformSignalQcPluginComponent cannot generateQcMasks with null existingQcMasks");
+    createInitializedPluginComponent()
+        .generateQcMasks(List.of(), List.of(), null, UUID.randomUUID());
+  }
+
+  @Test
+  public void testGenerateNullCreationInfoIdExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage(
+        "WaveformSignalQcPluginComponent cannot generateQcMasks with null creationInfoId");
+    createInitializedPluginComponent()
+        .generateQcMasks(List.of(), List.of(), List.of(), (UUID) null);
+  }
+
+  @Test
+  public void testGetCheckRegistrationInfosReturnsEnabledIndividualPlugins() throws Exception {
+    assertEquals(List.of(RegistrationInfo
+            .from("waveformRepeatedAmplitudeQcPlugin", PluginVersion.from(1, 0, 0))),
+        createInitializedPluginComponent().getCheckRegistrationInfos());
+  }
+
+  @Test
+  public void testGetCheckRegistrationInfosWithoutInitializeExpectIllegalStateException()
+      throws Exception {
+    exception.expect(IllegalStateException.class);
+    exception.expectMessage(
+        "WaveformSignalQcPluginComponent cannot be used before it is initialized");
+    new WaveformSignalQcPluginComponent().getCheckRegistrationInfos();
+  }
+
+  @Test
+  public void testGenerateNullCreationInfoIdsExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage(
+        "WaveformSignalQcPluginComponent cannot generateQcMasks with null creationInfoIds");
+    createInitializedPluginComponent()
+        .generateQcMasks(List.of(), List.of(), List.of(), (Map<RegistrationInfo, UUID>) null);
+  }
+}
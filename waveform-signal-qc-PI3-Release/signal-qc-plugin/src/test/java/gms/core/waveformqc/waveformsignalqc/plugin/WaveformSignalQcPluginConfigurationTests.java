@@ -0,0 +1,88 @@
+package gms.core.waveformqc.waveformsignalqc.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import gms.core.waveformqc.waveformqccontrol.plugin.PluginConfiguration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class WaveformSignalQcPluginConfigurationTests {
+
+  @Rule
+  public final ExpectedException exception = ExpectedException.none();
+
+  @Test
+  public void testFromPluginConfiguration() throws Exception {
+    PluginConfiguration pluginConfig = PluginConfiguration.builder()
+        .add("minLongGapLengthInSamples", 3)
+        .add("minConsecutiveSampleDifferenceSpikeThreshold", 0.8)
+        .add("rmsAmplitudeRatioThreshold", 5.0)
+        .add("rmsLeadSampleDifferences", 9)
+        .add("rmsLagSampleDifferences", 10)
+        .add("minSeriesLengthInSamples", 5)
+        .add("maxDeltaFromStartAmplitude", .555)
+        .add("maskMergeThresholdSeconds", 2.0)
+        .build();
+
+    WaveformSignalQcPluginConfiguration config = WaveformSignalQcPluginConfiguration
+        .from(pluginConfig);
+
+    assertEquals(3, config.getGapConfiguration().get().createParameters()
+        .getMinLongGapLengthInSamples());
+
+    WaveformSpike3PtQcPluginParameters spikeParams = config.getSpike3PtConfiguration().get()
+        .createParameters();
+    assertEquals(0.8, spikeParams.getMinConsecutiveSampleDifferenceSpikeThreshold(),
+        Double.MIN_NORMAL);
+    assertEquals(5.0, spikeParams.getRmsAmplitudeRatioThreshold(), Double.MIN_NORMAL);
+    assertEquals(9, spikeParams.getRmsLeadSampleDifferences());
+    assertEquals(10, spikeParams.getRmsLagSampleDifferences());
+
+    WaveformRepeatedAmplitudeQcPluginParameters repeatParams = config
+        .getRepeatedAmplitudeConfiguration().get().createParameters();
+    assertEquals(5, repeatParams.getMinSeriesLengthInSamples());
+    assertEquals(.555, repeatParams.getMaxDeltaFromStartAmplitude(), Double.MIN_NORMAL);
+    assertEquals(2.0, repeatParams.getMaskMergeThresholdSeconds(), Double.MIN_NORMAL);
+  }
+
+  @Test
+  public void testFromPluginConfigurationSingleCheck() throws Exception {
+    WaveformSignalQcPluginConfiguration config = WaveformSignalQcPluginConfiguration
+        .from(PluginConfiguration.builder().add("minLongGapLengthInSamples", 3).build());
+
+    assertTrue(config.getGapConfiguration().isPresent());
+    assertFalse(config.getSpike3PtConfiguration().isPresent());
+    assertFalse(config.getRepeatedAmplitudeConfiguration().isPresent());
+  }
+
+  @Test
+  public void testFromPluginConfigExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage(
+        "WaveformSignalQcPluginConfiguration.from requires non-null PluginConfiguration");
+    WaveformSignalQcPluginConfiguration.from(null);
+  }
+
+  @Test
+  public void testFromPluginConfigNoChecksExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage(
+        "WaveformSignalQcPluginConfiguration.from requires PluginConfiguration with a configuration for at least one of");
+    WaveformSignalQcPluginConfiguration
+        .from(PluginConfiguration.builder().add("maskMergeThresholdSeconds", 2.0).build());
+  }
+
+  @Test
+  public void testFromPluginConfigInvalidCheckExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage(
+        "WaveformRepeatedAmplitudeQcPluginConfiguration.from requires PluginConfiguration with a configuration for maxDeltaFromStartAmplitude");
+    WaveformSignalQcPluginConfiguration.from(PluginConfiguration.builder()
+        .add("minLongGapLengthInSamples", 3)
+        .add("minSeriesLengthInSamples", 5)
+        .add("maskMergeThresholdSeconds", 2.0).build());
+  }
+}
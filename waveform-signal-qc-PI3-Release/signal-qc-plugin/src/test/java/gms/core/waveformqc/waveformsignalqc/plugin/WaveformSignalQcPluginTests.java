@@ -0,0 +1,233 @@
+package gms.core.waveformqc.waveformsignalqc.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import gms.core.waveformqc.waveformqccontrol.plugin.PluginConfiguration;
+import gms.core.waveformqc.waveformsignalqc.algorithm.WaveformRepeatedAmplitudeInterpreter;
+import gms.core.waveformqc.waveformsignalqc.algorithm.WaveformSpike3PtInterpreter;
+import gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.CreationInfo;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.QcMask;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.QcMaskType;
+import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.QcMaskVersion;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment.ChannelSegmentType;
+import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class WaveformSignalQcPluginTests {
+
+  @Rule
+  public final ExpectedException exception = ExpectedException.none();
+
+  private static final double sampleRate = 40.0;
+
+  private static final PluginConfiguration gapConfig = PluginConfiguration.builder()
+      .add("minLongGapLengthInSamples", 2)
+      .build();
+
+  private static final PluginConfiguration spikeConfig = PluginConfiguration.builder()
+      .add("minConsecutiveSampleDifferenceSpikeThreshold", 0.5)
+      .add("rmsAmplitudeRatioThreshold", 4.0)
+      .add("rmsLeadSampleDifferences", 9)
+      .add("rmsLagSampleDifferences", 9)
+      .build();
+
+  private static final PluginConfiguration repeatConfig = PluginConfiguration.builder()
+      .add("minSeriesLengthInSamples", 5)
+      .add("maxDeltaFromStartAmplitude", 0.25)
+      .add("maskMergeThresholdSeconds", 0.2)
+      .build();
+
+  private static final PluginConfiguration allConfig = PluginConfiguration.builder()
+      .add("minLongGapLengthInSamples", 2)
+      .add("minConsecutiveSampleDifferenceSpikeThreshold", 0.5)
+      .add("rmsAmplitudeRatioThreshold", 4.0)
+      .add("rmsLeadSampleDifferences", 9)
+      .add("rmsLagSampleDifferences", 9)
+      .add("minSeriesLengthInSamples", 5)
+      .add("maxDeltaFromStartAmplitude", 0.25)
+      .add("maskMergeThresholdSeconds", 0.2)
+      .build();
+
+  /**
+   * Assert the WaveformSignalQcPlugin creates the same QcMasks as running the gap, 3pt spike, and
+   * repeated adjacent amplitude plugins separately.  QcMask ids are random so compare the masks'
+   * channels and current versions.
+   */
+  @Test
+  public void testCreateQcMasksMatchesIndividualPlugins() throws Exception {
+    final Random random = new Random(23);
+    final List<ChannelSegment> channelSegments = List
+        .of(channelSegment(random), channelSegment(random));
+    final UUID creationInfoId = UUID.randomUUID();
+
+    final List<String> actual = describe(WaveformSignalQcPlugin
+        .create(WaveformSignalQcPluginConfiguration.from(allConfig))
+        .createQcMasks(channelSegments, List.of(), creationInfoId));
+
+    final Stream<QcMask> gaps = WaveformGapQcPlugin
+        .create(WaveformGapQcPluginConfiguration.from(gapConfig))
+        .createQcMasks(channelSegments, List.of(), creationInfoId);
+    final Stream<QcMask> spikes = WaveformSpike3PtQcPlugin
+        .create(WaveformSpike3PtQcPluginConfiguration.from(spikeConfig),
+            new WaveformSpike3PtInterpreter())
+        .createQcMasks(channelSegments, List.of(), creationInfoId);
+    final Stream<QcMask> repeats = WaveformRepeatedAmplitudeQcPlugin
+        .create(WaveformRepeatedAmplitudeQcPluginConfiguration.from(repeatConfig),
+            new WaveformRepeatedAmplitudeInterpreter())
+        .createQcMasks(channelSegments, List.of(), creationInfoId);
+    final List<String> expected = describe(Stream.of(gaps, spikes, repeats).flatMap(s -> s));
+
+    assertTrue(expected.stream().anyMatch(d -> d.contains("LONG_GAP")));
+    assertTrue(expected.stream().anyMatch(d -> d.contains("SPIKE")));
+    assertTrue(expected.stream().anyMatch(d -> d.contains("REPEATED_ADJACENT_AMPLITUDE_VALUE")));
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testCreateQcMasksReferencesEachCheckCreationInfo() throws Exception {
+    final List<ChannelSegment> channelSegments = List.of(channelSegment(new Random(23)));
+    final Map<QcMaskType, UUID> creationInfoIds = Map.of(
+        QcMaskType.LONG_GAP, UUID.randomUUID(),
+        QcMaskType.SPIKE, UUID.randomUUID(),
+        QcMaskType.REPEATED_ADJACENT_AMPLITUDE_VALUE, UUID.randomUUID());
+
+    final List<QcMaskVersion> versions = WaveformSignalQcPlugin
+        .create(WaveformSignalQcPluginConfiguration.from(allConfig))
+        .createQcMasks(channelSegments, List.of(), creationInfoIds.get(QcMaskType.LONG_GAP),
+            creationInfoIds.get(QcMaskType.SPIKE),
+            creationInfoIds.get(QcMaskType.REPEATED_ADJACENT_AMPLITUDE_VALUE))
+        .map(QcMask::getCurrentQcMaskVersion)
+        .collect(Collectors.toList());
+
+    assertEquals(creationInfoIds.keySet(),
+        versions.stream().map(v -> v.getType().get()).collect(Collectors.toSet()));
+    versions.forEach(v ->
+        assertEquals(creationInfoIds.get(v.getType().get()), v.getCreationInfoId()));
+  }
+
+  @Test
+  public void testCreateQcMasksDisabledCheckAcceptsNullCreationInfoId() throws Exception {
+    final List<ChannelSegment> channelSegments = List.of(channelSegment(new Random(23)));
+    final UUID gapCreationInfoId = UUID.randomUUID();
+
+    assertTrue(createGapPlugin()
+        .createQcMasks(channelSegments, List.of(), gapCreationInfoId, null, null)
+        .allMatch(m -> gapCreationInfoId.equals(m.getCurrentQcMaskVersion().getCreationInfoId())));
+  }
+
+  @Test
+  public void testCreateQcMasksNullEnabledCheckCreationInfoIdExpectNullPointerException()
+      throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage(
+        "WaveformSignalQcPlugin createQcMasks cannot accept null gapCreationInfoId");
+    createGapPlugin().createQcMasks(List.of(), List.of(), null, UUID.randomUUID(),
+        UUID.randomUUID());
+  }
+
+  @Test
+  public void testCreateQcMasksOnlyEnabledChecks() throws Exception {
+    final List<ChannelSegment> channelSegments = List.of(channelSegment(new Random(23)));
+
+    final List<String> descriptions = describe(WaveformSignalQcPlugin
+        .create(WaveformSignalQcPluginConfiguration.from(gapConfig))
+        .createQcMasks(channelSegments, List.of(), UUID.randomUUID()));
+
+    assertFalse(descriptions.isEmpty());
+    assertTrue(descriptions.stream().allMatch(d -> d.contains("GAP")));
+  }
+
+  @Test
+  public void testCreateNullConfigurationExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage(
+        "WaveformSignalQcPlugin create cannot accept null pluginConfiguration");
+    WaveformSignalQcPlugin.create(null);
+  }
+
+  @Test
+  public void testCreateQcMasksNullChannelSegmentsExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage(
+        "WaveformSignalQcPlugin createQcMasks cannot accept null channelSegments");
+    createGapPlugin().createQcMasks(null, List.of(), UUID.randomUUID());
+  }
+
+  @Test
+  public void testCreateQcMasksNullExistingQcMasksExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage(
+        "WaveformSignalQcPlugin createQcMasks cannot accept null existingQcMasks");
+    createGapPlugin().createQcMasks(List.of(), null, UUID.randomUUID());
+  }
+
+  @Test
+  public void testCreateQcMasksNullCreationInfoIdExpectNullPointerException() throws Exception {
+    exception.expect(NullPointerException.class);
+    exception.expectMessage(
+        "WaveformSignalQcPlugin createQcMasks cannot accept null creationInfoId");
+    createGapPlugin().createQcMasks(List.of(), List.of(), null);
+  }
+
+  private static WaveformSignalQcPlugin createGapPlugin() {
+    return WaveformSignalQcPlugin.create(WaveformSignalQcPluginConfiguration.from(gapConfig));
+  }
+
+  /**
+   * Creates a ChannelSegment of two waveforms separated by a gap.  Waveform values are random
+   * noise containing spikes and flat lined series.
+   */
+  private static ChannelSegment channelSegment(Random random) {
+    final Waveform first = Waveform
+        .withInferredEndTime(Instant.EPOCH, sampleRate, 800, randomValues(random, 800));
+    final Waveform second = Waveform
+        .withInferredEndTime(first.getEndTime().plusSeconds(2), sampleRate, 600,
+            randomValues(random, 600));
+
+    return ChannelSegment.create(UUID.randomUUID(), "test", ChannelSegmentType.RAW,
+        first.getStartTime(), second.getEndTime(), new TreeSet<>(List.of(first, second)),
+        CreationInfo.DEFAULT);
+  }
+
+  private static double[] randomValues(Random random, int length) {
+    final double[] values = new double[length];
+    for (int i = 0; i < length; ++i) {
+      final int kind = random.nextInt(100);
+      if (kind < 2) {
+        values[i] = (random.nextBoolean() ? 1 : -1) * 50.0;
+      } else if (kind < 4 && i > 0) {
+        // Start a flat lined series
+        final int end = Math.min(length, i + 3 + random.nextInt(12));
+        for (; i < end; ++i) {
+          values[i] = values[i - 1];
+        }
+        --i;
+      } else {
+        values[i] = random.nextGaussian();
+      }
+    }
+    return values;
+  }
+
+  private static List<String> describe(Stream<QcMask> qcMasks) {
+    return qcMasks.map(m -> {
+      final QcMaskVersion version = m.getCurrentQcMaskVersion();
+      return m.getProcessingChannelId() + " " + version.getType().orElse(null) + " "
+          + version.getRationale() + " " + version.getStartTime().orElse(null) + " "
+          + version.getEndTime().orElse(null);
+    }).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,217 @@
+package gms.core.waveformqc.waveformsignalqc.algorithm;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Finds 3pt spikes in a run of adjacent samples as the samples become available.  A caller passes
+ * consecutive blocks of the samples to {@link Spike3PtScanner#scan(double[], int, int)} and the
+ * scanner evaluates every spike candidate as soon as its lead and lag backgrounds are available.
+ * Only the samples spanning one candidate's backgrounds are retained, in a small ring buffer, so
+ * the run never needs to be held in a single array.  Scanning all of the samples at once or in
+ * several blocks finds the same spikes.
+ *
+ * See {@link WaveformSpike3PtInterpreter#findSpikes(double[], int, int, double, double)} for the
+ * spike definition.  Public so other QC algorithms (e.g. the combined waveform signal QC) can find
+ * spikes in the same pass over the samples as their own checks.
+ */
+public final class Spike3PtScanner {
+
+  // Ring buffer of the most recent samples: sample i is window[i & mask].  Holds at least the
+  // rmsLeadSampleDifferences + rmsLagSampleDifferences + 4 samples read while evaluating a
+  // candidate and sliding the backgrounds to it.
+  private final double[] window;
+  private final int mask;
+
+  private final int rmsLeadSampleDifferences;
+  private final int rmsLagSampleDifferences;
+  private final double rmsAmplitudeRatioThreshold;
+  private final double minConsecutiveSampleDifferenceSpikeThreshold;
+
+  // Number of samples scanned so far
+  private int written;
+
+  // Index of the first sample in the next 3pt difference to evaluate
+  private int next3pt;
+
+  // Background differences before and after the 3pt differences beginning at next3pt: lead
+  // contains differences [next3pt - rmsLeadSampleDifferences, next3pt) and lag contains
+  // differences [next3pt + 2, next3pt + 2 + rmsLagSampleDifferences).  Created with the first
+  // evaluation.
+  private SquaredDifferenceWindow lead;
+  private SquaredDifferenceWindow lag;
+
+  private int[] spikes = new int[16];
+  private int numSpikes = 0;
+
+  /**
+   * Obtains a new {@link Spike3PtScanner} for a run of adjacent samples
+   *
+   * @param rmsLeadSampleDifferences number of sample differences prior to the spike to use in the
+   * background, >= 0
+   * @param rmsLagSampleDifferences number of sample differences after the spike to use in the
+   * background, >= 0
+   * @param rmsAmplitudeRatioThreshold ratio the spike RMS must exceed over the background RMS
+   * @param minConsecutiveSampleDifferenceSpikeThreshold threshold used in the {@link
+   * WaveformSpike3PtInterpreter#isBasic3PtSpike}
+   * @throws IllegalArgumentException if rmsLeadSampleDifferences < 0; if rmsLagSampleDifferences
+   * < 0
+   */
+  public Spike3PtScanner(int rmsLeadSampleDifferences, int rmsLagSampleDifferences,
+      double rmsAmplitudeRatioThreshold, double minConsecutiveSampleDifferenceSpikeThreshold) {
+
+    if (rmsLeadSampleDifferences < 0) {
+      throw new IllegalArgumentException(
+          "Spike3PtScanner requires rmsLeadSampleDifferences >= 0");
+    }
+
+    if (rmsLagSampleDifferences < 0) {
+      throw new IllegalArgumentException("Spike3PtScanner requires rmsLagSampleDifferences >= 0");
+    }
+
+    this.window = new double[
+        Integer.highestOneBit(rmsLeadSampleDifferences + rmsLagSampleDifferences + 4) << 1];
+    this.mask = window.length - 1;
+    this.rmsLeadSampleDifferences = rmsLeadSampleDifferences;
+    this.rmsLagSampleDifferences = rmsLagSampleDifferences;
+    this.rmsAmplitudeRatioThreshold = rmsAmplitudeRatioThreshold;
+    this.minConsecutiveSampleDifferenceSpikeThreshold =
+        minConsecutiveSampleDifferenceSpikeThreshold;
+    this.written = 0;
+    this.next3pt = rmsLeadSampleDifferences;
+  }
+
+  /**
+   * Scans the next samples of the run, block[from] through block[to - 1]
+   *
+   * @param block buffer holding the next samples, not null
+   * @param from index in block of the next sample
+   * @param to index in block after the last of the next samples
+   * @throws NullPointerException if block is null
+   */
+  public void scan(double[] block, int from, int to) {
+    Objects.requireNonNull(block, "Spike3PtScanner requires non-null block");
+
+    for (int b = from; b < to; ++b) {
+      window[written & mask] = block[b];
+      ++written;
+
+      // Writing a sample completes the lag background of at most one candidate
+      if (next3pt <= written - 3 - rmsLagSampleDifferences) {
+        evaluate();
+        ++next3pt;
+      }
+    }
+  }
+
+  /**
+   * Evaluates the spike candidate whose 3pt difference begins at next3pt
+   */
+  private void evaluate() {
+    if (lead == null) {
+      lead = new SquaredDifferenceWindow(next3pt - rmsLeadSampleDifferences,
+          rmsLeadSampleDifferences);
+      lag = new SquaredDifferenceWindow(next3pt + 2, rmsLagSampleDifferences);
+    } else {
+      lead.advance();
+      lag.advance();
+    }
+
+    // backgroundRms = sqrt((leadSquare + lagSquare) / (numLeadSampleDifferences + numLagSampleDifferences))
+    final double backgroundRms = Math.sqrt((lead.sum() + lag.sum())
+        / (rmsLeadSampleDifferences + rmsLagSampleDifferences));
+
+    // RMS of the two differences centered on the spike
+    final double difference0 = sample(next3pt + 1) - sample(next3pt);
+    final double difference1 = sample(next3pt + 2) - sample(next3pt + 1);
+    final double spikeRms = Math
+        .sqrt((difference0 * difference0 + difference1 * difference1) / 2);
+
+    // If the point passes the RMS test then perform this basic 3pt spike test
+    if (spikeRms > rmsAmplitudeRatioThreshold * backgroundRms
+        && WaveformSpike3PtInterpreter.isBasic3PtSpike(difference0, difference1,
+        minConsecutiveSampleDifferenceSpikeThreshold)) {
+
+      if (numSpikes == spikes.length) {
+        spikes = Arrays.copyOf(spikes, 2 * numSpikes);
+      }
+      spikes[numSpikes++] = next3pt + 1;
+    }
+  }
+
+  /**
+   * Obtains a retained sample
+   *
+   * @param i index of the sample in the run
+   * @return sample i
+   */
+  private double sample(int i) {
+    return window[i & mask];
+  }
+
+  /**
+   * Obtains the spikes found so far
+   *
+   * @return increasing indexes of the samples containing spikes, not null
+   */
+  public int[] getSpikes() {
+    return Arrays.copyOf(spikes, numSpikes);
+  }
+
+  /**
+   * Sum of the squares of a fixed number of consecutive sample differences, where difference i is
+   * sample(i + 1) - sample(i).  The window slides forward one difference at a time.
+   */
+  private final class SquaredDifferenceWindow {
+
+    /**
+     * The sum is recomputed rather than updated when removing a squared difference would cancel
+     * all but this fraction of the sum, e.g. when a large spike leaves a quiet background window,
+     * so rounding error from the removed value cannot swamp the remaining values.
+     */
+    private static final double CANCELLATION_LIMIT = 1.0e-6;
+
+    private final int length;
+    private int first;
+    private double sum;
+
+    private SquaredDifferenceWindow(int first, int length) {
+      this.length = length;
+      this.first = first;
+      this.sum = recompute();
+    }
+
+    private double sum() {
+      return sum;
+    }
+
+    /**
+     * Removes the first difference from the window and adds the difference after the last
+     */
+    private void advance() {
+      final double removed = squaredDifference(first);
+      final double added = squaredDifference(first + length);
+      ++first;
+
+      final double updated = (sum - removed) + added;
+      sum = (updated < removed * CANCELLATION_LIMIT || updated < 0.0) ? recompute() : updated;
+    }
+
+    private double recompute() {
+      double total = 0.0;
+      for (int i = first; i < first + length; ++i) {
+        total += squaredDifference(i);
+      }
+      return total;
+    }
+
+    private double squaredDifference(int i) {
+      if (length == 0) {
+        return 0.0;
+      }
+
+      final double difference = sample(i + 1) - sample(i);
+      return difference * difference;
+    }
+  }
+}
@@ -4,12 +4,11 @@ import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjec
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,6 +16,11 @@ public class WaveformSpike3PtInterpreter {
 
   private static final Logger logger = LoggerFactory.getLogger(WaveformSpike3PtInterpreter.class);
 
+  /**
+   * Number of samples copied from a waveform and scanned at a time
+   */
+  private static final int BLOCK_LENGTH = 4096;
+
   public WaveformSpike3PtInterpreter() {
   }
 
@@ -85,18 +89,40 @@ public class WaveformSpike3PtInterpreter {
     final Function<Instant, WaveformSpike3PtQcMask> createMask = i -> WaveformSpike3PtQcMask
         .create(channelSegment.getProcessingChannelId(), channelSegment.getId(), i);
 
-    // Find groups of adjacent waveforms and combine their samples into a single double[]
-    // Use the RMS(spike differences) / RMS(background differences) and 3pt check to find spikes.
-    // Create a mask for each spike, then create the output mask list by combining masks from each
-    // group of adjacent waveforms.
-    return groupAdjacentWaveforms(channelSegment).stream()
-        .map(wfs ->
-            findSpikes(combineSamples(wfs), rmsLeadSampleDifferences, rmsLagSampleDifferences,
-                rmsAmplitudeRatioThreshold, minConsecutiveSampleDifferenceSpikeThreshold).stream()
-                .map(i -> timeForSample(wfs, i))
-                .map(createMask))
-        .flatMap(Function.identity())
-        .collect(Collectors.toList());
+    // Find groups of adjacent waveforms and scan each group's samples as one run, copying the
+    // samples a block at a time.  Use the RMS(spike differences) / RMS(background differences)
+    // and 3pt check to find spikes.  Create a mask for each spike, then create the output mask
+    // list by combining masks from each group of adjacent waveforms.  The groups partition the
+    // channelSegment's waveforms in order, so a spike's index in the channelSegment is its index
+    // in the group plus the number of samples in the preceding groups.
+    final List<WaveformSpike3PtQcMask> masks = new ArrayList<>();
+    final double[] block = new double[BLOCK_LENGTH];
+    int groupOffset = 0;
+    for (List<Waveform> wfs : groupAdjacentWaveforms(channelSegment)) {
+      final Spike3PtScanner scanner = new Spike3PtScanner(rmsLeadSampleDifferences,
+          rmsLagSampleDifferences, rmsAmplitudeRatioThreshold,
+          minConsecutiveSampleDifferenceSpikeThreshold);
+
+      int groupLength = 0;
+      for (Waveform waveform : wfs) {
+        final int length = waveform.getValuesLength();
+        for (int blockStart = 0; blockStart < length; blockStart += BLOCK_LENGTH) {
+          final int blockLength = Math.min(BLOCK_LENGTH, length - blockStart);
+          waveform.copyValues(blockStart, block, 0, blockLength);
+          scanner.scan(block, 0, blockLength);
+        }
+        groupLength += length;
+      }
+
+      for (int i : scanner.getSpikes()) {
+        masks.add(createMask.apply(channelSegment.timeForSample(groupOffset + i)));
+      }
+      groupOffset += groupLength;
+    }
+
+    logger.info("Found " + masks.size() + " spikes on " + channelSegment.getName());
+
+    return masks;
   }
 
   /**
@@ -151,13 +177,17 @@ public class WaveformSpike3PtInterpreter {
    * first point of waveform is <= the maximum waveform sample period of the two input waveforms
    * then true is returned.
    *
-   * @param lastWaveform The previous waveform
-   * @param waveform The current waveform
+   * @param lastWaveform The previous waveform, or null if there is no previous waveform
+   * @param waveform The current waveform, not null
    * @return True if end-point evaluation can be performed.
+   * @throws NullPointerException if waveform is null
    */
-  private static boolean isWaveformEndPointEvaluationValid(Waveform lastWaveform,
+  public static boolean isWaveformEndPointEvaluationValid(Waveform lastWaveform,
       Waveform waveform) {
 
+    Objects.requireNonNull(waveform,
+        "WaveformSpike3PtInterpreter.isWaveformEndPointEvaluationValid requires non-null waveform");
+
     // exit with false if lastWaveform is null
     if (lastWaveform == null) {
       return false;
@@ -172,31 +202,15 @@ public class WaveformSpike3PtInterpreter {
         .max(1.0 / lastWaveform.getSampleRate(), 1.0 / waveform.getSampleRate());
   }
 
-  /**
-   * Combines all of the samples from the waveforms into a single double[]. Creates a new copy
-   * of the data.
-   *
-   * @param waveforms list of {@link Waveform}, not null
-   * @return double[] containing all of the Waveform samples, not null
-   */
-  private static double[] combineSamples(List<Waveform> waveforms) {
-    final int totalLength = waveforms.stream().mapToInt(w -> w.getValues().length).sum();
-    double[] samples = new double[totalLength];
-
-    int next = 0;
-    for (double[] src : waveforms.stream().map(Waveform::getValues).collect(Collectors.toList())) {
-      System.arraycopy(src, 0, samples, next, src.length);
-      next = next + src.length;
-    }
-
-    return samples;
-  }
-
   /**
    * Finds spikes in the samples.  A spike must satisfy two tests: 1. RMS of the spike amplitude
    * difference to the previous and next points over background RMS sample differences must exceed
    * rmsAmplitudeRatioThreshold 2. {@link WaveformSpike3PtInterpreter#isBasic3PtSpike}
    *
+   * The lead and lag backgrounds are sliding windows of squared sample differences.  Their sums
+   * are updated as each window advances by one sample, so finding spikes takes O(samples.length)
+   * time regardless of the window lengths.  See {@link Spike3PtScanner}.
+   *
    * @param samples waveform samples, not null
    * @param rmsLeadSampleDifferences number of sample differences prior to the spike to use in the
    * background
@@ -207,77 +221,17 @@ public class WaveformSpike3PtInterpreter {
    * this threshold
    * @param minConsecutiveSampleDifferenceSpikeThreshold threshold used in the {@link
    * WaveformSpike3PtInterpreter#isBasic3PtSpike}
-   * @return Collection of sample indexes containing spikes
+   * @return increasing sample indexes containing spikes, not null
    */
-  private static Collection<Integer> findSpikes(double[] samples, int rmsLeadSampleDifferences,
+  static int[] findSpikes(double[] samples, int rmsLeadSampleDifferences,
       int rmsLagSampleDifferences, double rmsAmplitudeRatioThreshold,
       double minConsecutiveSampleDifferenceSpikeThreshold) {
 
-    List<Integer> exceedThreshold = new LinkedList<>();
-
-    // Begin and end checking for spikes centered at these indexes
-    final int start = rmsLeadSampleDifferences;
-    final int end = samples.length - 3 - rmsLagSampleDifferences;
-
-    if (start <= end) {
-      double[] lead = new double[rmsLeadSampleDifferences];
-      double[] lag = new double[rmsLagSampleDifferences];
-      double[] spike = new double[2];
-
-      for (int start3pt = start; start3pt <= end; ++start3pt) {
-
-        // Compute RMS of differences prior to the 3pt
-        computeDifferences(samples, start3pt - rmsLeadSampleDifferences, lead);
-        final double leadRms = RootMeanSquare.rms(lead);
-
-        // Compute RMS of differences after the 3pt
-        computeDifferences(samples, start3pt + 2, lag);
-        final double lagRms = RootMeanSquare.rms(lag);
-
-        // Compute overall background RMS from the lead and lag RMS.
-        // Consider how RMS is computed, e.g.
-        //    leadRms = sqrt((diff_0^2 + diff_1^2 + ... + diff_n^2) / numLeadSampleDifferences)
-        //            = sqrt(leadSquare / numLeadSampleDifferences)
-        //    leadSquare = leadRms^2 * numLeadSampleDifferences
-        // backgroundRms = sqrt((leadSquare + lagSquare) / (numLeadSampleDifferences + numLagSampleDifferences))
-        final double totalSquare =
-            (lead.length * leadRms * leadRms) + (lag.length * lagRms * lagRms);
-        final double backgroundRms = Math.sqrt(totalSquare / (lead.length + lag.length));
-
-        // Compute RMS of the differences for the 3pts
-        computeDifferences(samples, start3pt, spike);
-        final double spikeRms = RootMeanSquare.rms(spike);
-
-        // If the point passes the RMS test then perform this basic 3pt spike test
-        if (spikeRms > rmsAmplitudeRatioThreshold * backgroundRms) {
-
-          logger.info("spikeRms {} > rmsAmplitudeRatioThreshold {} * backgroundRms{}", spikeRms,
-              rmsAmplitudeRatioThreshold, backgroundRms);
-
-          if (isBasic3PtSpike(spike[0], spike[1], minConsecutiveSampleDifferenceSpikeThreshold)) {
-            exceedThreshold.add(start3pt + 1);
-          }
-        }
-      }
-    }
-
-    return exceedThreshold;
-  }
-
-  /**
-   * Fill to[] with pairwise differences from the from[] array (to[0] = from[start+1] - from[start];
-   * to[1] = from[start+2] - from[start+1]; ...). Assumes from.length > start + to.length
-   *
-   * @param from compute differences from this array
-   * @param start first index into from[] used in a difference; the first difference is
-   * from[start+1] - from[start]
-   * @param to store differences in this array
-   */
-  private static void computeDifferences(double[] from, int start, double[] to) {
-    for (int j = 0; j < to.length; ++j) {
-      final int i = start + j;
-      to[j] = from[i + 1] - from[i];
-    }
+    final Spike3PtScanner scanner = new Spike3PtScanner(rmsLeadSampleDifferences,
+        rmsLagSampleDifferences, rmsAmplitudeRatioThreshold,
+        minConsecutiveSampleDifferenceSpikeThreshold);
+    scanner.scan(samples, 0, samples.length);
+    return scanner.getSpikes();
   }
 
   /**
@@ -290,7 +244,7 @@ public class WaveformSpike3PtInterpreter {
    * @param spikeThreshold The spike threshold value.
    * @return True if a spike is present.
    */
-  private static boolean isBasic3PtSpike(double difference0, double difference1,
+  static boolean isBasic3PtSpike(double difference0, double difference1,
       double spikeThreshold) {
 
     // if difference0 and difference1 are of different sign then test for spike
@@ -303,51 +257,10 @@ public class WaveformSpike3PtInterpreter {
 
       // if the minimum absolute difference exceeds the maximum absolute difference times the
       // threshold then create a spike mask.
-      final boolean isSpike = (minDifference > spikeThreshold * maxDifference);
-
-      logger.info(
-          "Differences have different sign, (minDifference {} > spikeThreshold {} * maxDifference {}) ? = {}",
-          minDifference, spikeThreshold, maxDifference, isSpike);
-
-      return isSpike;
+      return minDifference > spikeThreshold * maxDifference;
     }
 
-    logger.info("Differences have the same sign, not a spike");
-
     return false;
   }
 
-  /**
-   * Determines the sample time within a group of adjacent waveforms.  Assumes the sample index
-   * falls within the total number of samples of the input waveforms.
-   *
-   * @param adjacentWaveforms time ordered list of adjacent waveforms, not null
-   * @param sample sample index occurring somewhere in the waveforms list
-   * @return {@link Instant} corresponding to the sample index
-   * @throws IllegalStateException if sample is less 0; if sample is >= the total number of samples
-   * in the adjacentWaveforms.
-   */
-  private static Instant timeForSample(List<Waveform> adjacentWaveforms, int sample) {
-    int sampleInWf = sample;
-
-    final long totalLength = adjacentWaveforms.stream().mapToLong(Waveform::getSampleCount).sum();
-    if (sample < 0 || sample >= totalLength) {
-      throw new IllegalStateException("Sample index " + sample
-          + " must be >= 0 and less than the total number of samples in the provided waveforms.");
-    }
-
-    // Iterate through the waveforms decrementing sampleInWf until it falls within a waveform's
-    // sample count, then lookup that sample's time.
-    Instant sampleTime = null;
-    for (Waveform w : adjacentWaveforms) {
-      if (sampleInWf >= w.getValues().length) {
-        sampleInWf = sampleInWf - w.getValues().length;
-      } else {
-        sampleTime = w.timeForSample(sampleInWf);
-        break;
-      }
-    }
-
-    return sampleTime;
-  }
 }
@@ -2,14 +2,18 @@ package gms.core.waveformqc.waveformsignalqc.algorithm;
 
 import static gms.core.waveformqc.waveformsignalqc.algorithm.TestUtility.createChannelSegment;
 import static gms.core.waveformqc.waveformsignalqc.algorithm.TestUtility.createWaveform;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commonobjects.QcMaskType;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.Waveform;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.SortedSet;
 import java.util.stream.DoubleStream;
 import org.junit.BeforeClass;
@@ -359,4 +363,94 @@ public class WaveformSpike3PtInterpreterTest {
     assertEquals(sawtooth.getProcessingChannelId(), mask.getChannelId());
     assertEquals(QcMaskType.SPIKE, mask.getQcMaskType());
   }
+
+  /**
+   * Assert the sliding window spike detection finds the same spikes as recomputing the lead and
+   * lag RMS for every candidate sample, including after large spikes leave the background windows
+   */
+  @Test
+  public void testFindSpikesMatchesRecomputedRms() throws Exception {
+    final Random random = new Random(17);
+    final double[] samples = random.doubles(5000, -1.0, 1.0).toArray();
+    for (int i = 50; i < samples.length; i += 97) {
+      samples[i] = (random.nextBoolean() ? 1.0 : -1.0) * Math.pow(10.0, random.nextInt(9));
+    }
+
+    for (int[] leadLag : new int[][]{{9, 9}, {0, 2}, {2, 0}, {1, 30}, {40, 3}}) {
+      for (double ratio : new double[]{1.5, 2.0, 4.0}) {
+        assertArrayEquals(
+            findSpikesRecomputingRms(samples, leadLag[0], leadLag[1], ratio, spikeThreshold),
+            WaveformSpike3PtInterpreter
+                .findSpikes(samples, leadLag[0], leadLag[1], ratio, spikeThreshold));
+      }
+    }
+  }
+
+  /**
+   * Assert scanning a {@link ChannelSegment} longer than one block finds the same spikes as
+   * scanning the waveform's samples as a single array
+   */
+  @Test
+  public void testCreateMasksScansBlocksMatchesFindSpikes() throws Exception {
+    final Random random = new Random(23);
+    final double[] samples = random.doubles(10000, -1.0, 1.0).toArray();
+    for (int i = 4090; i < samples.length; i += 4096) {
+      for (int j = 0; j < 12; j += 3) {
+        samples[i + j] = 1000.0;
+      }
+    }
+
+    final Waveform waveform = Waveform
+        .withInferredEndTime(Instant.EPOCH, 40.0, samples.length, samples);
+    final List<WaveformSpike3PtQcMask> masks = new WaveformSpike3PtInterpreter()
+        .createWaveformSpike3PtQcMasks(createChannelSegment(List.of(waveform)), spikeThreshold,
+            rmsLeadDifferences, rmsLagDifferences, rmsAmplitudeRatioThreshold);
+
+    final int[] spikes = WaveformSpike3PtInterpreter.findSpikes(samples, rmsLeadDifferences,
+        rmsLagDifferences, rmsAmplitudeRatioThreshold, spikeThreshold);
+    assertTrue(spikes.length > 0);
+    assertEquals(spikes.length, masks.size());
+    for (int i = 0; i < spikes.length; ++i) {
+      assertEquals(waveform.timeForSample(spikes[i]), masks.get(i).getStartTime());
+    }
+  }
+
+  @Test
+  public void testScannerNegativeLeadExpectIllegalArgumentException() throws Exception {
+    exception.expect(IllegalArgumentException.class);
+    exception.expectMessage("Spike3PtScanner requires rmsLeadSampleDifferences >= 0");
+    new Spike3PtScanner(-1, rmsLagDifferences, rmsAmplitudeRatioThreshold, spikeThreshold);
+  }
+
+  /**
+   * Spike detection recomputing the lead and lag RMS for every candidate sample
+   */
+  private static int[] findSpikesRecomputingRms(double[] samples, int lead, int lag,
+      double ratio, double threshold) {
+
+    final List<Integer> spikes = new ArrayList<>();
+    for (int start3pt = lead; start3pt <= samples.length - 3 - lag; ++start3pt) {
+      double backgroundSquare = 0.0;
+      for (int i = start3pt - lead; i < start3pt; ++i) {
+        backgroundSquare += Math.pow(samples[i + 1] - samples[i], 2);
+      }
+      for (int i = start3pt + 2; i < start3pt + 2 + lag; ++i) {
+        backgroundSquare += Math.pow(samples[i + 1] - samples[i], 2);
+      }
+      final double backgroundRms = Math.sqrt(backgroundSquare / (lead + lag));
+
+      final double difference0 = samples[start3pt + 1] - samples[start3pt];
+      final double difference1 = samples[start3pt + 2] - samples[start3pt + 1];
+      final double spikeRms = RootMeanSquare.rms(new double[]{difference0, difference1});
+
+      final double min = Math.min(Math.abs(difference0), Math.abs(difference1));
+      final double max = Math.max(Math.abs(difference0), Math.abs(difference1));
+      if (spikeRms > ratio * backgroundRms && difference0 * difference1 < 0.0
+          && min > threshold * max) {
+        spikes.add(start3pt + 1);
+      }
+    }
+
+    return spikes.stream().mapToInt(Integer::intValue).toArray();
+  }
 }
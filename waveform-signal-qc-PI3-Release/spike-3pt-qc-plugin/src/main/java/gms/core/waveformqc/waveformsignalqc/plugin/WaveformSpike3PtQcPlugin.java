@@ -9,6 +9,7 @@ import gms.shared.mechanisms.objectstoragedistribution.coi.signaldetection.commo
 import gms.shared.mechanisms.objectstoragedistribution.coi.waveforms.commonobjects.ChannelSegment;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -65,8 +66,36 @@ public class WaveformSpike3PtQcPlugin {
       Collection<QcMask> existingQcMasks,
       UUID creationInfoId) {
 
+    return createQcMasks(channelSegments,
+        c -> waveformSpike3PtInterpreter.createWaveformSpike3PtQcMasks(c,
+            waveformSpike3PtQcPluginParameters.getMinConsecutiveSampleDifferenceSpikeThreshold(),
+            waveformSpike3PtQcPluginParameters.getRmsLeadSampleDifferences(),
+            waveformSpike3PtQcPluginParameters.getRmsLagSampleDifferences(),
+            waveformSpike3PtQcPluginParameters.getRmsAmplitudeRatioThreshold()),
+        existingQcMasks, creationInfoId);
+  }
+
+  /**
+   * Creates spike {@link QcMask}s as in {@link WaveformSpike3PtQcPlugin#createQcMasks(Collection,
+   * Collection, UUID)} from spikes which were already found in each {@link ChannelSegment}, e.g.
+   * by a {@link gms.core.waveformqc.waveformsignalqc.algorithm.WaveformSignalQcInterpreter}
+   * running several checks in one pass.
+   *
+   * @param channelSegments {@link ChannelSegment} to check for spikes, not null
+   * @param spikeFinder obtains the {@link WaveformSpike3PtQcMask}s in a ChannelSegment, not null
+   * @param existingQcMasks existing {@link QcMask} that might be updated, not null
+   * @param creationInfoId id to the {@link gms.shared.mechanisms.objectstoragedistribution.coi.emerging.provenance.commonobjects.CreationInformation}
+   * associated with returned {@link QcMask}
+   * @return Stream of new or updated {@link QcMask}, not null
+   */
+  public Stream<QcMask> createQcMasks(Collection<ChannelSegment> channelSegments,
+      Function<ChannelSegment, List<WaveformSpike3PtQcMask>> spikeFinder,
+      Collection<QcMask> existingQcMasks, UUID creationInfoId) {
+
     Objects.requireNonNull(channelSegments,
         "WaveformSpike3PtQcPlugin createQcMasks cannot accept null channelSegments");
+    Objects.requireNonNull(spikeFinder,
+        "WaveformSpike3PtQcPlugin createQcMasks cannot accept null spikeFinder");
     Objects.requireNonNull(existingQcMasks,
         "WaveformSpike3PtQcPlugin createQcMasks cannot accept null existing existingQcMasks");
     Objects.requireNonNull(creationInfoId,
@@ -79,14 +108,9 @@ public class WaveformSpike3PtQcPlugin {
         .collect(Collectors.groupingBy(QcMask::getProcessingChannelId));
 
     return channelSegments.stream().flatMap(
-        c -> waveformSpike3PtInterpreter
-            .createWaveformSpike3PtQcMasks(c,
-                waveformSpike3PtQcPluginParameters.getMinConsecutiveSampleDifferenceSpikeThreshold(),
-                waveformSpike3PtQcPluginParameters.getRmsLeadSampleDifferences(),
-                waveformSpike3PtQcPluginParameters.getRmsLagSampleDifferences(),
-                waveformSpike3PtQcPluginParameters.getRmsAmplitudeRatioThreshold()).stream()
-                .filter(m -> spikeDifferentFromMasks(m, existingSpikeQcMasks.get(m.getChannelId())))
-                .map(m -> qcMaskFromSpike3PtMask(m, creationInfoId)));
+        c -> spikeFinder.apply(c).stream()
+            .filter(m -> spikeDifferentFromMasks(m, existingSpikeQcMasks.get(m.getChannelId())))
+            .map(m -> qcMaskFromSpike3PtMask(m, creationInfoId)));
   }
 
   private static QcMask qcMaskFromSpike3PtMask(